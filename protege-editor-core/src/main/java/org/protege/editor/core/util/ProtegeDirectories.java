@@ -15,6 +15,8 @@ public class ProtegeDirectories {
 
     private static File userPluginDirectory = null;
 
+    private static File cacheDirectory = null;
+
     public static File getDataDirectory() {
         if (dataDirectory == null) {
             dataDirectory  = new  File(System.getProperty(DATA_DIR_PROP, System.getProperty("user.home") + File.separator + ".Protege"));
@@ -30,4 +32,12 @@ public class ProtegeDirectories {
         }
         return userPluginDirectory;
     }
+
+    public static File getCacheDirectory() {
+        if (cacheDirectory == null) {
+            cacheDirectory = new File(getDataDirectory(), "cache");
+            cacheDirectory.mkdir();
+        }
+        return cacheDirectory;
+    }
 }
@@ -12,6 +12,7 @@ import org.protege.editor.core.ui.util.UIUtil;
 import org.protege.editor.owl.model.cache.OWLEntityRenderingCache;
 import org.protege.editor.owl.model.cache.OWLEntityRenderingCacheImpl;
 import org.protege.editor.owl.model.cache.OWLObjectRenderingCache;
+import org.protege.editor.owl.model.cache.OWLObjectSortKeyCache;
 import org.protege.editor.owl.model.classexpression.anonymouscls.AnonymousDefinedClassManager;
 import org.protege.editor.owl.model.entity.CustomOWLEntityFactory;
 import org.protege.editor.owl.model.entity.OWLEntityFactory;
@@ -31,6 +32,7 @@ import org.protege.editor.owl.model.io.*;
 import org.protege.editor.owl.model.library.OntologyCatalogManager;
 import org.protege.editor.owl.model.selection.ontologies.ImportsClosureOntologySelectionStrategy;
 import org.protege.editor.owl.model.selection.ontologies.OntologySelectionStrategy;
+import org.protege.editor.owl.model.util.AnnotationValueIndex;
 import org.protege.editor.owl.model.util.ListenerManager;
 import org.protege.editor.owl.ui.OWLObjectComparator;
 import org.protege.editor.owl.ui.OWLObjectRenderingComparator;
@@ -118,11 +120,16 @@ public class OWLModelManagerImpl extends AbstractModelManager
 
     /**
      * P4 repeatedly asks for the same rendering multiple times in a row
-     * because of the components listening to mouse events etc so cache a
-     * small number of objects we have just rendered
+     * because of the components listening to mouse events etc so cache
+     * the objects we have rendered
      */
     private final OWLObjectRenderingCache owlObjectRenderingCache;
 
+    /**
+     * The renderings by which the objects are sorted, so that sorting does not render on each comparison
+     */
+    private final OWLObjectSortKeyCache owlObjectSortKeyCache;
+
     // error handlers
     //    private SaveErrorHandler saveErrorHandler;
     private OWLEntityFinder entityFinder;
@@ -154,6 +161,7 @@ public class OWLModelManagerImpl extends AbstractModelManager
         owlEntityRenderingCache = new OWLEntityRenderingCacheImpl();
         owlEntityRenderingCache.setOWLModelManager(this);
         owlObjectRenderingCache = new OWLObjectRenderingCache(this);
+        owlObjectSortKeyCache = new OWLObjectSortKeyCache(this);
 
         owlExpressionCheckerFactory = new ManchesterOWLExpressionCheckerFactory(this);
 
@@ -170,6 +178,7 @@ public class OWLModelManagerImpl extends AbstractModelManager
         getOWLEntityRenderer();
 
         put(OntologySourcesManager.ID, new OntologySourcesManager(this));
+        put(AnnotationValueIndex.ID, new AnnotationValueIndex(manager));
 
         this.blankNodeMapper = id -> {
             if (id instanceof BlankNodeId)
@@ -188,6 +197,7 @@ public class OWLModelManagerImpl extends AbstractModelManager
             // Empty caches
             owlEntityRenderingCache.dispose();
             owlObjectRenderingCache.dispose();
+            owlObjectSortKeyCache.dispose();
             if (entityRenderer != null) {
                 entityRenderer.dispose();
             }
@@ -217,7 +227,6 @@ public class OWLModelManagerImpl extends AbstractModelManager
     @Override
     public void setDirty(OWLOntology ontology) {
         dirtyOntologies.add(ontology.getOntologyID());
-        fireRDFChanged();
     }
 
     @Override
@@ -669,22 +678,13 @@ public class OWLModelManagerImpl extends AbstractModelManager
             if (minimizedChanges.isEmpty()) {
                 return;
             }
-            manager.applyChanges(minimizedChanges);
-            fireRDFChanged();
+            // the reasoners listen to the changes, while the current one may be queried in the background
+            owlReasonerManager.runExclusively(() -> manager.applyChanges(minimizedChanges));
         } catch (OWLOntologyChangeException e) {
             throw new OWLRuntimeException(e);
         }
     }
 
-    /**
-     * Fires RDF view to be redraw.
-     */
-    public void fireRDFChanged() {
-        // graph is changed -> need to reload RDF view if it is present
-        // todo: any change will cause roots recalculation - this is not good
-        getOWLHierarchyManager().getRDFTripleHierarchyProvider().fireHierarchyChanged();
-    }
-
     @Override
     public Function<Object, String> getBlankNodeMapper() {
         return blankNodeMapper;
@@ -752,6 +752,9 @@ public class OWLModelManagerImpl extends AbstractModelManager
     public void fireEvent(EventType type) {
         LOGGER.debug("Firing event {}", type);
         Runnable r = () -> {
+            if (type == EventType.ONTOLOGY_RELOADED) {
+                resetOntologyIndices();
+            }
             OWLModelManagerChangeEvent event = new OWLModelManagerChangeEvent(this, type);
             LOGGER.debug("Firing model manager event: {}", event);
             for (OWLModelManagerListener listener : new ArrayList<>(modelManagerChangeListeners)) {
@@ -833,11 +836,20 @@ public class OWLModelManagerImpl extends AbstractModelManager
 
     @Override
     public void renderingChanged(OWLEntity entity, final OWLModelManagerEntityRenderer renderer) {
-        owlEntityRenderingCache.updateRendering(entity);
-        owlObjectRenderingCache.clear();
-        // We should inform listeners
+        renderingChanged(Collections.singleton(entity), renderer);
+    }
+
+    @Override
+    public void renderingChanged(Set<OWLEntity> entities, OWLModelManagerEntityRenderer renderer) {
+        for (OWLEntity entity : entities) {
+            owlEntityRenderingCache.updateRendering(entity);
+            owlObjectRenderingCache.invalidate(entity);
+            owlObjectSortKeyCache.invalidate(entity);
+        }
+        // We should inform listeners, once for all the entities
+        OWLModelManagerChangeEvent event = new OWLModelManagerChangeEvent(this, EventType.ENTITY_RENDERING_CHANGED, entities);
         for (OWLModelManagerListener listener : new ArrayList<>(modelManagerChangeListeners)) {
-            listener.handleChange(new OWLModelManagerChangeEvent(this, EventType.ENTITY_RENDERING_CHANGED));
+            listener.handleChange(event);
         }
     }
 
@@ -899,16 +911,29 @@ public class OWLModelManagerImpl extends AbstractModelManager
     public Comparator<OWLObject> getOWLObjectComparator() {
         OWLObjectComparator<OWLObject> comparator = get(OWL_OBJECT_COMPARATOR_KEY);
         if (comparator == null) {
-            comparator = new OWLObjectRenderingComparator(this);
+            comparator = new OWLObjectRenderingComparator(this, owlObjectSortKeyCache);
             put(OWL_OBJECT_COMPARATOR_KEY, comparator);
         }
         return comparator;
     }
 
+    /**
+     * Resets the indices which are otherwise kept up to date by the ontology changes,
+     * since a reloaded ontology (or its RDF graph edited directly) comes without any {@link OWLOntologyChange}.
+     */
+    private void resetOntologyIndices() {
+        rebuildEntityIndices();
+        AnnotationValueIndex annotationValueIndex = get(AnnotationValueIndex.ID);
+        if (annotationValueIndex != null) {
+            annotationValueIndex.clear();
+        }
+    }
+
     private void rebuildEntityIndices() {
         Stopwatch stopwatch = Stopwatch.createStarted();
         owlEntityRenderingCache.rebuild();
         owlObjectRenderingCache.clear();
+        owlObjectSortKeyCache.clear();
         stopwatch.stop();
         LOGGER.debug("Rebuilt entity indices in {} ms", stopwatch.elapsed(TimeUnit.MILLISECONDS));
     }
@@ -61,7 +61,9 @@ public class OntologyReloader {
             if (changes.isEmpty()) {
                 return;
             }
-            ontologyToReload.getOWLOntologyManager().applyChanges(changes);
+            // the reasoners listen to the changes, while the current one may be queried in the background
+            modelManager.getOWLReasonerManager().runExclusively(
+                    () -> ontologyToReload.getOWLOntologyManager().applyChanges(changes));
             if (modelManager instanceof IOListenerManager) {
                 ((IOListenerManager) modelManager).fireAfterLoadEvent(ontologyToReload.getOntologyID(),
                         ontologyToReload.getOWLOntologyManager().getOntologyDocumentIRI(ontologyToReload).toURI());
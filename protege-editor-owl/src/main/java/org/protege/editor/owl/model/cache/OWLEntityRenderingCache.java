@@ -4,7 +4,9 @@ import org.protege.editor.core.Disposable;
 import org.protege.editor.owl.model.OWLModelManager;
 import org.semanticweb.owlapi.model.*;
 
-import java.util.Set;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 
 /**
@@ -54,6 +56,69 @@ public interface OWLEntityRenderingCache extends Disposable {
     OWLDatatype getOWLDatatype(String rendering);
 
 
+    /**
+     * Gets the entities of the specified type whose renderings start with the specified prefix, ignoring case.
+     * @param type the type of the entities
+     * @param prefix the prefix of the renderings
+     * @param limit the maximum number of entities to return
+     * @return the list of entities ordered by their renderings
+     */
+    default <T extends OWLEntity> List<T> getOWLEntitiesByRenderingPrefix(EntityType<T> type, String prefix, int limit) {
+        return getOWLEntitiesByRenderingPrefix(type, prefix, rendering -> true, limit);
+    }
+
+
+    /**
+     * Gets the entities of the specified type whose renderings start with the specified prefix, ignoring case,
+     * and satisfy the specified filter.
+     * By default, all the renderings of the type are scanned, an implementation may use an index.
+     * @param type the type of the entities
+     * @param prefix the prefix of the renderings
+     * @param filter the predicate to test the renderings
+     * @param limit the maximum number of entities to return
+     * @return the list of entities ordered by their renderings
+     */
+    default <T extends OWLEntity> List<T> getOWLEntitiesByRenderingPrefix(EntityType<T> type,
+                                                                          String prefix,
+                                                                          Predicate<String> filter,
+                                                                          int limit) {
+        String folded = prefix.toLowerCase(Locale.ROOT);
+        return getOWLEntityRenderings(type).stream()
+                .filter(rendering -> rendering.toLowerCase(Locale.ROOT).startsWith(folded) && filter.test(rendering))
+                .sorted(String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder()))
+                .map(rendering -> getOWLEntity(type, rendering))
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+
+    /**
+     * Gets the entities of the specified type whose renderings contain the specified fragment, ignoring case,
+     * and satisfy the specified filter.
+     * By default, all the renderings of the type are scanned, an implementation may use an index.
+     * @param type the type of the entities
+     * @param fragment the fragment of the renderings
+     * @param filter the predicate to test the renderings
+     * @param limit the maximum number of entities to return
+     * @return the list of entities
+     */
+    default <T extends OWLEntity> List<T> getOWLEntitiesByRenderingFragment(EntityType<T> type,
+                                                                            String fragment,
+                                                                            Predicate<String> filter,
+                                                                            int limit) {
+        String folded = fragment.toLowerCase(Locale.ROOT);
+        return getOWLEntityRenderings(type).stream()
+                .filter(rendering -> rendering.toLowerCase(Locale.ROOT).contains(folded) && filter.test(rendering))
+                .map(rendering -> getOWLEntity(type, rendering))
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+
     Set<String> getOWLClassRenderings();
 
 
@@ -76,4 +141,62 @@ public interface OWLEntityRenderingCache extends Disposable {
 
 
     String getRendering(OWLEntity owlEntity);
+
+
+    /**
+     * Gets the renderings of the entities of the specified type.
+     * @param type the type of the entities
+     * @return the set of renderings
+     */
+    default Set<String> getOWLEntityRenderings(EntityType<?> type) {
+        if (type == EntityType.CLASS) {
+            return getOWLClassRenderings();
+        }
+        if (type == EntityType.OBJECT_PROPERTY) {
+            return getOWLObjectPropertyRenderings();
+        }
+        if (type == EntityType.DATA_PROPERTY) {
+            return getOWLDataPropertyRenderings();
+        }
+        if (type == EntityType.ANNOTATION_PROPERTY) {
+            return getOWLAnnotationPropertyRenderings();
+        }
+        if (type == EntityType.NAMED_INDIVIDUAL) {
+            return getOWLIndividualRenderings();
+        }
+        if (type == EntityType.DATATYPE) {
+            return getOWLDatatypeRenderings();
+        }
+        throw new IllegalArgumentException("Unknown EntityType: " + type);
+    }
+
+
+    /**
+     * Gets the entity of the specified type with the specified rendering.
+     * @param type the type of the entity
+     * @param rendering the rendering of the entity
+     * @return the entity, or an empty optional if there is no such entity
+     */
+    @SuppressWarnings("unchecked")
+    default <T extends OWLEntity> Optional<T> getOWLEntity(EntityType<T> type, String rendering) {
+        if (type == EntityType.CLASS) {
+            return Optional.ofNullable((T) getOWLClass(rendering));
+        }
+        if (type == EntityType.OBJECT_PROPERTY) {
+            return Optional.ofNullable((T) getOWLObjectProperty(rendering));
+        }
+        if (type == EntityType.DATA_PROPERTY) {
+            return Optional.ofNullable((T) getOWLDataProperty(rendering));
+        }
+        if (type == EntityType.ANNOTATION_PROPERTY) {
+            return Optional.ofNullable((T) getOWLAnnotationProperty(rendering));
+        }
+        if (type == EntityType.NAMED_INDIVIDUAL) {
+            return Optional.ofNullable((T) getOWLIndividual(rendering));
+        }
+        if (type == EntityType.DATATYPE) {
+            return Optional.ofNullable((T) getOWLDatatype(rendering));
+        }
+        throw new IllegalArgumentException("Unknown EntityType: " + type);
+    }
 }
@@ -7,6 +7,11 @@ import org.semanticweb.owlapi.vocab.DublinCoreVocabulary;
 import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 
 /**
@@ -16,16 +21,18 @@ import java.util.*;
  * Date: 21-Sep-2006<br><br>
  * matthew.horridge@cs.man.ac.uk<br>
  * www.cs.man.ac.uk/~horridgm<br><br>
+ * <p>
+ * The cache can be read from any thread.
+ * Updates are serialised, a {@link #rebuild() rebuild} fills a new set of maps which then replaces the current one,
+ * so readers never observe a partially built cache.
+ * Besides the exact lookup the renderings of each entity type are kept in a sorted map,
+ * which answers case-insensitive prefix queries in logarithmic time,
+ * and the queries for fragments anywhere in the renderings are answered by a trigram index.
+ * </p>
  */
 public class OWLEntityRenderingCacheImpl implements OWLEntityRenderingCache {
 
-    private final Map<String, OWLClass> owlClassMap = new HashMap<>();
-    private final Map<String, OWLObjectProperty> owlObjectPropertyMap = new HashMap<>();
-    private final Map<String, OWLDataProperty> owlDataPropertyMap = new HashMap<>();
-    private final Map<String, OWLAnnotationProperty> owlAnnotationPropertyMap = new HashMap<>();
-    private final Map<String, OWLNamedIndividual> owlIndividualMap = new HashMap<>();
-    private final Map<String, OWLDatatype> owlDatatypeMap = new HashMap<>();
-    private final Map<OWLEntity, String> entityRenderingMap = new HashMap<>();
+    private volatile Renderings renderings = new Renderings();
     private final OWLOntologyChangeListener listener = this::processChanges;
 
     private OWLModelManager manager;
@@ -37,211 +44,171 @@ public class OWLEntityRenderingCacheImpl implements OWLEntityRenderingCache {
     }
 
     private void processChanges(List<? extends OWLOntologyChange> changes) {
-        changes.stream()
+        Set<OWLEntity> entities = changes.stream()
                 .filter(x -> x instanceof OWLAxiomChange)
                 .map(x -> (OWLAxiomChange) x)
                 .flatMap(OWLAxiomChange::signature)
-                .forEach(this::updateRendering);
+                .collect(Collectors.toSet());
+        entities.forEach(this::updateRendering);
     }
 
     @Override
-    public void rebuild() {
-        clear();
+    public synchronized void rebuild() {
+        Renderings res = new Renderings();
         manager.getOWLEntityRenderer();
         OWLDataFactory factory = manager.getOWLDataFactory();
 
-        addRendering(factory.getOWLThing(), owlClassMap);
-        addRendering(factory.getOWLNothing(), owlClassMap);
-        addRendering(factory.getOWLTopObjectProperty(), owlObjectPropertyMap);
-        addRendering(factory.getOWLBottomObjectProperty(), owlObjectPropertyMap);
-        addRendering(factory.getOWLTopDataProperty(), owlDataPropertyMap);
-        addRendering(factory.getOWLBottomDataProperty(), owlDataPropertyMap);
+        addRendering(factory.getOWLThing(), res);
+        addRendering(factory.getOWLNothing(), res);
+        addRendering(factory.getOWLTopObjectProperty(), res);
+        addRendering(factory.getOWLBottomObjectProperty(), res);
+        addRendering(factory.getOWLTopDataProperty(), res);
+        addRendering(factory.getOWLBottomDataProperty(), res);
 
         for (OWLOntology ont : manager.getOntologies()) {
-            ont.classesInSignature().forEach(c -> addRendering(c, owlClassMap));
-            ont.objectPropertiesInSignature().forEach(p -> addRendering(p, owlObjectPropertyMap));
-            ont.dataPropertiesInSignature().forEach(p -> addRendering(p, owlDataPropertyMap));
-            ont.individualsInSignature().forEach(i -> addRendering(i.asOWLNamedIndividual(), owlIndividualMap));
-            ont.annotationPropertiesInSignature().forEach(p -> addRendering(p, owlAnnotationPropertyMap));
+            ont.classesInSignature().forEach(c -> addRendering(c, res));
+            ont.objectPropertiesInSignature().forEach(p -> addRendering(p, res));
+            ont.dataPropertiesInSignature().forEach(p -> addRendering(p, res));
+            ont.individualsInSignature().forEach(i -> addRendering(i.asOWLNamedIndividual(), res));
+            ont.annotationPropertiesInSignature().forEach(p -> addRendering(p, res));
         }
 
         // standard annotation properties        
         for (IRI uri : OWLRDFVocabulary.BUILT_IN_AP_IRIS) {
-            addRendering(factory.getOWLAnnotationProperty(uri), owlAnnotationPropertyMap);
+            addRendering(factory.getOWLAnnotationProperty(uri), res);
         }
 
         // Dublin Core
         for (DublinCoreVocabulary vocabulary : DublinCoreVocabulary.values()) {
-            addRendering(factory.getOWLAnnotationProperty(vocabulary.getIRI()), owlAnnotationPropertyMap);
+            addRendering(factory.getOWLAnnotationProperty(vocabulary.getIRI()), res);
         }
 
         // datatypes
         final OWLDataTypeUtils datatypeUtils = new OWLDataTypeUtils(manager.getOWLOntologyManager());
-        datatypeUtils.knownDatatypes(manager.getActiveOntologies()).forEach(dt -> addRendering(dt, owlDatatypeMap));
+        datatypeUtils.knownDatatypes(manager.getActiveOntologies()).forEach(dt -> addRendering(dt, res));
+        renderings = res;
     }
 
     @Override
-    public void dispose() {
-        clear();
+    public synchronized void dispose() {
+        renderings = new Renderings();
         manager.removeOntologyChangeListener(listener);
     }
 
-    private void clear() {
-        owlClassMap.clear();
-        owlObjectPropertyMap.clear();
-        owlDataPropertyMap.clear();
-        owlAnnotationPropertyMap.clear();
-        owlIndividualMap.clear();
-        owlDatatypeMap.clear();
-        entityRenderingMap.clear();
-    }
-
     @Override
     public OWLClass getOWLClass(String rendering) {
-        return owlClassMap.get(rendering);
+        return renderings.classes.get(rendering);
     }
 
     @Override
     public OWLObjectProperty getOWLObjectProperty(String rendering) {
-        return owlObjectPropertyMap.get(rendering);
+        return renderings.objectProperties.get(rendering);
     }
 
     @Override
     public OWLDataProperty getOWLDataProperty(String rendering) {
-        return owlDataPropertyMap.get(rendering);
+        return renderings.dataProperties.get(rendering);
     }
 
     @Override
     public OWLAnnotationProperty getOWLAnnotationProperty(String rendering) {
-        return owlAnnotationPropertyMap.get(rendering);
+        return renderings.annotationProperties.get(rendering);
     }
 
     @Override
     public OWLNamedIndividual getOWLIndividual(String rendering) {
-        return owlIndividualMap.get(rendering);
+        return renderings.individuals.get(rendering);
     }
 
     @Override
     public OWLDatatype getOWLDatatype(String rendering) {
-        return owlDatatypeMap.get(rendering);
+        return renderings.datatypes.get(rendering);
     }
 
     @Override
     public String getRendering(OWLEntity owlEntity) {
-        return entityRenderingMap.get(owlEntity);
+        return renderings.entityRenderings.get(owlEntity);
     }
 
     @Override
     public OWLEntity getOWLEntity(String rendering) {
         // Examine in the order of class, property, individual
-        OWLEntity entity = getOWLClass(rendering);
+        Renderings current = renderings;
+        OWLEntity entity = current.classes.get(rendering);
         if (entity != null) {
             return entity;
         }
-        entity = getOWLObjectProperty(rendering);
+        entity = current.objectProperties.get(rendering);
         if (entity != null) {
             return entity;
         }
-        entity = getOWLDataProperty(rendering);
+        entity = current.dataProperties.get(rendering);
         if (entity != null) {
             return entity;
         }
-        entity = getOWLIndividual(rendering);
+        entity = current.individuals.get(rendering);
         if (entity != null) {
             return entity;
         }
-        entity = getOWLDatatype(rendering);
+        entity = current.datatypes.get(rendering);
         if (entity != null) {
             return entity;
         }
-        entity = getOWLAnnotationProperty(rendering);
+        entity = current.annotationProperties.get(rendering);
         return entity;
     }
 
-    @SuppressWarnings("NullableProblems")
     @Override
-    public void addRendering(OWLEntity owlEntity) {
-        owlEntity.accept(new OWLEntityVisitor() {
-            @Override
-            public void visit(OWLDataProperty entity) {
-                addRendering(entity, owlDataPropertyMap);
-            }
-
-            @Override
-            public void visit(OWLObjectProperty entity) {
-                addRendering(entity, owlObjectPropertyMap);
-            }
-
-            @Override
-            public void visit(OWLAnnotationProperty owlAnnotationProperty) {
-                addRendering(owlAnnotationProperty, owlAnnotationPropertyMap);
-            }
-
-            @Override
-            public void visit(OWLNamedIndividual entity) {
-                addRendering(entity, owlIndividualMap);
-            }
-
-            @Override
-            public void visit(OWLClass entity) {
-                addRendering(entity, owlClassMap);
-            }
-
-            @Override
-            public void visit(OWLDatatype entity) {
-                addRendering(entity, owlDatatypeMap);
-            }
-        });
+    public <T extends OWLEntity> List<T> getOWLEntitiesByRenderingPrefix(EntityType<T> type,
+                                                                         String prefix,
+                                                                         Predicate<String> filter,
+                                                                         int limit) {
+        return renderings.get(type).getByPrefix(prefix, filter, limit);
     }
 
-    private <T extends OWLEntity> void addRendering(T entity, Map<String, T> map) {
-        if (!entityRenderingMap.containsKey(entity)) {
-            String rendering = manager.getRendering(entity);
-            map.put(rendering, entity);
-            entityRenderingMap.put(entity, rendering);
-        }
+    @Override
+    public <T extends OWLEntity> List<T> getOWLEntitiesByRenderingFragment(EntityType<T> type,
+                                                                           String fragment,
+                                                                           Predicate<String> filter,
+                                                                           int limit) {
+        return renderings.get(type).getByFragment(fragment, filter, limit);
     }
 
-    @SuppressWarnings("NullableProblems")
     @Override
-    public void removeRendering(OWLEntity owlEntity) {
-        final String oldRendering = entityRenderingMap.get(owlEntity);
-        entityRenderingMap.remove(owlEntity);
-        owlEntity.accept(new OWLEntityVisitor() {
-            @Override
-            public void visit(OWLClass entity) {
-                owlClassMap.remove(oldRendering);
-            }
-
-            @Override
-            public void visit(OWLDataProperty entity) {
-                owlDataPropertyMap.remove(oldRendering);
-            }
-
-            @Override
-            public void visit(OWLObjectProperty entity) {
-                owlObjectPropertyMap.remove(oldRendering);
-            }
+    public synchronized void addRendering(OWLEntity owlEntity) {
+        addRendering(owlEntity, renderings);
+    }
 
-            @Override
-            public void visit(OWLAnnotationProperty owlAnnotationProperty) {
-                owlAnnotationPropertyMap.remove(oldRendering);
-            }
+    private static String fold(String rendering) {
+        // independent of the default locale, so that the keys of the sorted maps and the trigram index are stable
+        return rendering.toLowerCase(Locale.ROOT);
+    }
 
-            @Override
-            public void visit(OWLNamedIndividual entity) {
-                owlIndividualMap.remove(oldRendering);
+    @SuppressWarnings("unchecked")
+    private <T extends OWLEntity> void addRendering(T entity, Renderings renderings) {
+        if (!renderings.entityRenderings.containsKey(entity)) {
+            // not the model manager's rendering, which is taken from the published renderings first,
+            // so that a rebuild would keep the old renderings
+            String rendering = manager.getOWLEntityRenderer().render(entity);
+            if (rendering == null) {
+                return;
             }
+            renderings.get((EntityType<T>) entity.getEntityType()).put(rendering, entity);
+            renderings.entityRenderings.put(entity, rendering);
+        }
+    }
 
-            @Override
-            public void visit(OWLDatatype entity) {
-                owlDatatypeMap.remove(oldRendering);
-            }
-        });
+    @Override
+    public synchronized void removeRendering(OWLEntity owlEntity) {
+        Renderings current = renderings;
+        final String oldRendering = current.entityRenderings.remove(owlEntity);
+        if (oldRendering != null) {
+            current.get(owlEntity.getEntityType()).remove(oldRendering);
+        }
     }
 
     @Override
-    public void updateRendering(final OWLEntity ent) {
+    public synchronized void updateRendering(final OWLEntity ent) {
         boolean updateRendering = false;
         for (OWLOntology ont : manager.getActiveOntologies()) {
             if (ont.containsEntityInSignature(ent)) {
@@ -257,48 +224,163 @@ public class OWLEntityRenderingCacheImpl implements OWLEntityRenderingCache {
 
     @Override
     public Set<String> getOWLClassRenderings() {
-        return owlClassMap.keySet();
+        return renderings.classes.getRenderings();
     }
 
     @Override
     public Set<String> getOWLObjectPropertyRenderings() {
-        return owlObjectPropertyMap.keySet();
+        return renderings.objectProperties.getRenderings();
     }
 
     @Override
     public Set<String> getOWLDataPropertyRenderings() {
-        return owlDataPropertyMap.keySet();
+        return renderings.dataProperties.getRenderings();
     }
 
     @Override
     public Set<String> getOWLAnnotationPropertyRenderings() {
-        return owlAnnotationPropertyMap.keySet();
+        return renderings.annotationProperties.getRenderings();
     }
 
     @Override
     public Set<String> getOWLIndividualRenderings() {
-        return owlIndividualMap.keySet();
+        return renderings.individuals.getRenderings();
     }
 
     @Override
     public Set<String> getOWLDatatypeRenderings() {
-        return owlDatatypeMap.keySet();
+        return renderings.datatypes.getRenderings();
     }
 
     @Override
     public Set<String> getOWLEntityRenderings() {
-        Set<String> renderings = new HashSet<>(owlClassMap.size() +
-                                                     owlObjectPropertyMap.size() +
-                                                     owlDataPropertyMap.size() +
-                                                     owlAnnotationPropertyMap.size() +
-                                                     owlIndividualMap.size() +
-                                                     owlDatatypeMap.size());
-        renderings.addAll(owlClassMap.keySet());
-        renderings.addAll(owlObjectPropertyMap.keySet());
-        renderings.addAll(owlDataPropertyMap.keySet());
-        renderings.addAll(owlAnnotationPropertyMap.keySet());
-        renderings.addAll(owlIndividualMap.keySet());
-        renderings.addAll(owlDatatypeMap.keySet());
-        return renderings;
+        Set<String> res = new HashSet<>();
+        for (RenderingMap<?> map : renderings.byType.values()) {
+            res.addAll(map.getRenderings());
+        }
+        return res;
+    }
+
+    /**
+     * The maps of one generation of the cache.
+     */
+    private static class Renderings {
+        private final RenderingMap<OWLClass> classes = new RenderingMap<>();
+        private final RenderingMap<OWLObjectProperty> objectProperties = new RenderingMap<>();
+        private final RenderingMap<OWLDataProperty> dataProperties = new RenderingMap<>();
+        private final RenderingMap<OWLAnnotationProperty> annotationProperties = new RenderingMap<>();
+        private final RenderingMap<OWLNamedIndividual> individuals = new RenderingMap<>();
+        private final RenderingMap<OWLDatatype> datatypes = new RenderingMap<>();
+        private final Map<OWLEntity, String> entityRenderings = new ConcurrentHashMap<>();
+        private final Map<EntityType<?>, RenderingMap<?>> byType = new HashMap<>();
+
+        private Renderings() {
+            byType.put(EntityType.CLASS, classes);
+            byType.put(EntityType.OBJECT_PROPERTY, objectProperties);
+            byType.put(EntityType.DATA_PROPERTY, dataProperties);
+            byType.put(EntityType.ANNOTATION_PROPERTY, annotationProperties);
+            byType.put(EntityType.NAMED_INDIVIDUAL, individuals);
+            byType.put(EntityType.DATATYPE, datatypes);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T extends OWLEntity> RenderingMap<T> get(EntityType<T> type) {
+            return (RenderingMap<T>) byType.get(type);
+        }
+    }
+
+    /**
+     * Renderings of the entities of one type.
+     * The sorted map is keyed by the case-folded rendering followed by the rendering itself,
+     * so that different renderings which fold to the same string are kept apart.
+     * The trigram index for the fragment queries is created on the first such query.
+     */
+    private static class RenderingMap<T extends OWLEntity> {
+        private static final char KEY_SEPARATOR = '\0';
+        private final Map<String, T> entities = new ConcurrentHashMap<>();
+        private final ConcurrentNavigableMap<String, T> sortedEntities = new ConcurrentSkipListMap<>();
+        private volatile RenderingTrigramIndex trigramIndex;
+
+        private T get(String rendering) {
+            return entities.get(rendering);
+        }
+
+        private Set<String> getRenderings() {
+            return entities.keySet();
+        }
+
+        private synchronized void put(String rendering, T entity) {
+            entities.put(rendering, entity);
+            sortedEntities.put(fold(rendering) + KEY_SEPARATOR + rendering, entity);
+            if (trigramIndex != null) {
+                trigramIndex.add(rendering);
+            }
+        }
+
+        private synchronized void remove(String rendering) {
+            entities.remove(rendering);
+            sortedEntities.remove(fold(rendering) + KEY_SEPARATOR + rendering);
+            if (trigramIndex != null) {
+                trigramIndex.remove(rendering);
+            }
+        }
+
+        private List<T> getByPrefix(String prefix, Predicate<String> filter, int limit) {
+            String from = fold(prefix);
+            return collect(sortedEntities.subMap(from, true, from + Character.MAX_VALUE, false), filter, limit);
+        }
+
+        private List<T> getByFragment(String fragment, Predicate<String> filter, int limit) {
+            String folded = fold(fragment);
+            if (folded.length() < RenderingTrigramIndex.GRAM_LENGTH) {
+                // too short to be indexed, but such a fragment is usually found soon
+                return collect(sortedEntities, key -> getFoldedRendering(key).contains(folded), filter, limit);
+            }
+            List<T> res = new ArrayList<>();
+            for (String rendering : getTrigramIndex().find(folded, filter, limit)) {
+                T entity = entities.get(rendering);
+                if (entity != null) {
+                    res.add(entity);
+                }
+            }
+            return res;
+        }
+
+        private RenderingTrigramIndex getTrigramIndex() {
+            RenderingTrigramIndex res = trigramIndex;
+            if (res == null) {
+                synchronized (this) {
+                    res = trigramIndex;
+                    if (res == null) {
+                        res = new RenderingTrigramIndex(OWLEntityRenderingCacheImpl::fold);
+                        entities.keySet().forEach(res::add);
+                        trigramIndex = res;
+                    }
+                }
+            }
+            return res;
+        }
+
+        private List<T> collect(Map<String, T> map, Predicate<String> filter, int limit) {
+            return collect(map, key -> true, filter, limit);
+        }
+
+        private List<T> collect(Map<String, T> map, Predicate<String> keyFilter, Predicate<String> filter, int limit) {
+            List<T> res = new ArrayList<>();
+            for (Map.Entry<String, T> e : map.entrySet()) {
+                if (res.size() >= limit) {
+                    break;
+                }
+                String key = e.getKey();
+                if (keyFilter.test(key) && filter.test(key.substring(key.indexOf(KEY_SEPARATOR) + 1))) {
+                    res.add(e.getValue());
+                }
+            }
+            return res;
+        }
+
+        private static String getFoldedRendering(String key) {
+            return key.substring(0, key.indexOf(KEY_SEPARATOR));
+        }
     }
 }
@@ -1,15 +1,25 @@
 package org.protege.editor.owl.model.cache;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
 import org.protege.editor.core.Disposable;
 import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.event.EventType;
 import org.protege.editor.owl.model.event.OWLModelManagerListener;
 import org.protege.editor.owl.ui.renderer.OWLObjectRenderer;
-import org.semanticweb.owlapi.model.OWLClassExpression;
-import org.semanticweb.owlapi.model.OWLObject;
-import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.semanticweb.owlapi.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 /**
  * Author: drummond<br>
@@ -18,14 +28,60 @@ import java.util.Map;
  * The University Of Manchester<br>
  * Bio Health Informatics Group<br>
  * Date: Jun 27, 2008<br><br>
+ * <p>
+ * The cache is bounded by the total length of the cached renderings, rather than by their number,
+ * and it can be read and updated from any thread.
+ * The renderings of the objects depend on the renderings of the entities in their signatures
+ * and of the entities whose IRIs are used as annotation subjects or values,
+ * so when the rendering of an entity changes (or an axiom which mentions the entity is added or removed)
+ * only the renderings of the objects which mention this entity are dropped.
+ * Everything is dropped when the renderer, the active ontologies or the ontology headers change.
+ * </p>
+ * The statistics of the cache (hits, misses, evictions) are available for tuning, see {@link #getStats()}.
  */
 public class OWLObjectRenderingCache implements Disposable {
 
-    Map<OWLObject, String> cache = new MyLRUMap<>(50, 1, 50);
-
-    private OWLModelManagerListener l = event -> clear();
+    private static final Logger logger = LoggerFactory.getLogger(OWLObjectRenderingCache.class);
+
+    /**
+     * The maximum weight of the cache, roughly the number of chars of the cached renderings.
+     */
+    private static final long MAX_WEIGHT = 4_000_000;
+
+    /**
+     * The weight of an entry without its rendering, in chars.
+     */
+    private static final int ENTRY_WEIGHT = 32;
+
+    private final Cache<OWLObject, String> cache = CacheBuilder.newBuilder()
+            .maximumWeight(MAX_WEIGHT)
+            .weigher((OWLObject object, String rendering) -> ENTRY_WEIGHT + rendering.length())
+            .removalListener(this::removed)
+            .recordStats()
+            .build();
+
+    /**
+     * The cached objects by the IRIs of the entities they mention.
+     */
+    private final Map<IRI, Set<OWLObject>> dependents = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented by each invalidation, so that a rendering computed before the invalidation is not cached after it.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private OWLModelManagerListener l = event -> {
+        EventType type = event.getType();
+        if (type == EventType.ACTIVE_ONTOLOGY_CHANGED
+                || type == EventType.ONTOLOGY_VISIBILITY_CHANGED
+                || type == EventType.ENTITY_RENDERER_CHANGED
+                || type == EventType.ONTOLOGY_LOADED
+                || type == EventType.ONTOLOGY_RELOADED) {
+            clear();
+        }
+    };
 
-    private OWLOntologyChangeListener l2 = owlOntologyChanges -> clear();
+    private OWLOntologyChangeListener l2 = this::processChanges;
 
     private OWLModelManager mngr;
 
@@ -38,47 +94,129 @@ public class OWLObjectRenderingCache implements Disposable {
 
 
     public void clear() {
-        cache.clear();
+        generation.incrementAndGet();
+        cache.invalidateAll();
+        dependents.clear();
+    }
+
+
+    /**
+     * Drops the renderings of the objects which mention the specified entity.
+     * @param entity {@link OWLEntity} whose rendering has changed
+     */
+    public void invalidate(OWLEntity entity) {
+        invalidate(entity.getIRI());
+    }
+
+
+    private void invalidate(IRI iri) {
+        generation.incrementAndGet();
+        Set<OWLObject> objects = dependents.remove(iri);
+        if (objects != null) {
+            cache.invalidateAll(objects);
+        }
     }
 
 
     public String getRendering(OWLObject object, OWLObjectRenderer owlObjectRenderer) {
         String s = null;
+        long current = generation.get();
         if (object instanceof OWLClassExpression){
             String userRendering = OWLExpressionUserCache.getInstance(mngr).getRendering((OWLClassExpression) object);
             if (userRendering != null){
                 s = userRendering;
-                cache.put(object, s);
+                put(object, s, current);
             }
         }
         if (s == null){
-            s = cache.get(object);
+            s = cache.getIfPresent(object);
             if (s == null){
                 s = owlObjectRenderer.render(object);
-                cache.put(object, s);
+                put(object, s, current);
             }
         }
         return s;
     }
 
 
+    /**
+     * @return {@link CacheStats} of this cache since it was created
+     */
+    public CacheStats getStats() {
+        return cache.stats();
+    }
+
+
     public void dispose() {
+        logger.debug("Object rendering cache statistics: {}", cache.stats());
         clear();
         mngr.removeListener(l);
         mngr.removeOntologyChangeListener(l2);
     }
 
 
-    class MyLRUMap<K,V> extends LinkedHashMap<K,V> {
-        private int maxCapacity;
+    /**
+     * Caches the rendering, which has been computed in the specified generation.
+     * The dependents are registered before the rendering is cached, and the rendering is dropped again
+     * if there has been an invalidation since it was computed, so that a concurrent invalidation is never lost.
+     */
+    private void put(OWLObject object, String rendering, long renderingGeneration) {
+        dependencies(object).forEach(iri -> dependents.computeIfAbsent(iri, e -> ConcurrentHashMap.newKeySet()).add(object));
+        cache.put(object, rendering);
+        if (generation.get() != renderingGeneration) {
+            cache.invalidate(object);
+        }
+    }
+
+
+    /**
+     * Lists the IRIs of the entities the rendering of the object depends on:
+     * the entities in its signature, and the IRIs which are used as annotation subjects or values,
+     * including those of the nested annotations.
+     */
+    private static Stream<IRI> dependencies(OWLObject object) {
+        Stream<IRI> res = object.signature().map(OWLEntity::getIRI);
+        if (object instanceof IRI) {
+            return Stream.concat(res, Stream.of((IRI) object));
+        }
+        if (object instanceof OWLAnnotationAssertionAxiom) {
+            OWLAnnotationAssertionAxiom axiom = (OWLAnnotationAssertionAxiom) object;
+            res = Stream.concat(res, axiom.getSubject().asIRI().map(Stream::of).orElseGet(Stream::empty));
+            res = Stream.concat(res, axiom.getValue().asIRI().map(Stream::of).orElseGet(Stream::empty));
+        }
+        if (object instanceof OWLAnnotation) {
+            res = Stream.concat(res, ((OWLAnnotation) object).getValue().asIRI().map(Stream::of).orElseGet(Stream::empty));
+        }
+        if (object instanceof HasAnnotations) {
+            res = Stream.concat(res, ((HasAnnotations) object).annotations().flatMap(OWLObjectRenderingCache::dependencies));
+        }
+        return res.distinct();
+    }
+
 
-        public MyLRUMap(int initialCapacity, float loadFactor, int maxCapacity) {
-            super(initialCapacity, loadFactor, true);
-            this.maxCapacity = maxCapacity;
+    private void removed(RemovalNotification<OWLObject, String> notification) {
+        if (notification.getCause() == RemovalCause.REPLACED) {
+            return;
         }
+        OWLObject object = notification.getKey();
+        dependencies(object).forEach(iri -> dependents.computeIfPresent(iri, (e, objects) -> {
+            objects.remove(object);
+            return objects.isEmpty() ? null : objects;
+        }));
+    }
+
 
-        protected boolean removeEldestEntry(Map.Entry<K,V> eldest) {
-            return size() >= this.maxCapacity;
+    private void processChanges(List<? extends OWLOntologyChange> changes) {
+        for (OWLOntologyChange change : changes) {
+            if (!change.isAxiomChange()) {
+                // the headers of the ontologies (e.g. ids and imports) may change any rendering
+                clear();
+                return;
+            }
         }
+        changes.stream()
+                .flatMap(change -> dependencies(change.getAxiom()))
+                .distinct()
+                .forEach(this::invalidate);
     }
 }
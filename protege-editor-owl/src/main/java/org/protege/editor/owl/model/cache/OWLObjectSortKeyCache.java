@@ -0,0 +1,121 @@
+package org.protege.editor.owl.model.cache;
+
+import org.protege.editor.core.Disposable;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.event.OWLModelManagerListener;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A cache of the keys, by which the objects are sorted in the hierarchies and lists of the editor.
+ * The key of an object is its rendering without the enclosing quotes, folded so that
+ * the natural order of the keys is the case-insensitive order of the renderings
+ * (the same as {@link String#compareToIgnoreCase(String)}).
+ * So a sort renders each object once, instead of rendering both objects on every comparison.
+ * <p>
+ * The keys of the entities are kept until the rendering of the entity changes
+ * (see {@link #invalidate(OWLEntity)}), or until an axiom which mentions the entity is added or removed.
+ * The keys of the other objects (e.g. class expressions) depend on the renderings of their entities,
+ * so they are dropped on every change.
+ * </p>
+ * The cache can be read from any thread.
+ */
+public class OWLObjectSortKeyCache implements Disposable {
+
+    private static final int MAX_OBJECT_KEYS = 10_000;
+
+    private final Map<OWLEntity, String> entityKeys = new ConcurrentHashMap<>();
+
+    private final Map<OWLObject, String> objectKeys = new ConcurrentHashMap<>();
+
+    private final OWLModelManagerListener modelManagerListener = event -> objectKeys.clear();
+
+    private final OWLOntologyChangeListener ontologyChangeListener = this::processChanges;
+
+    private final OWLModelManager mngr;
+
+    public OWLObjectSortKeyCache(OWLModelManager owlModelManager) {
+        this.mngr = owlModelManager;
+        owlModelManager.addListener(modelManagerListener);
+        owlModelManager.addOntologyChangeListener(ontologyChangeListener);
+    }
+
+    /**
+     * Gets the sort key of the specified object, the object is rendered only if its key is not cached.
+     * @param object {@link OWLObject}
+     * @return the sort key, not null
+     */
+    public String getSortKey(OWLObject object) {
+        if (object instanceof OWLEntity) {
+            String res = entityKeys.get(object);
+            if (res == null) {
+                res = createSortKey(object);
+                entityKeys.put((OWLEntity) object, res);
+            }
+            return res;
+        }
+        String res = objectKeys.get(object);
+        if (res == null) {
+            res = createSortKey(object);
+            if (objectKeys.size() >= MAX_OBJECT_KEYS) {
+                objectKeys.clear();
+            }
+            objectKeys.put(object, res);
+        }
+        return res;
+    }
+
+    /**
+     * Drops the key of the specified entity, and the keys of all the other objects which may render the entity.
+     * @param entity {@link OWLEntity} whose rendering has changed
+     */
+    public void invalidate(OWLEntity entity) {
+        entityKeys.remove(entity);
+        objectKeys.clear();
+    }
+
+    public void clear() {
+        entityKeys.clear();
+        objectKeys.clear();
+    }
+
+    private void processChanges(List<? extends OWLOntologyChange> changes) {
+        objectKeys.clear();
+        changes.stream()
+                .filter(OWLOntologyChange::isAxiomChange)
+                .flatMap(change -> change.getAxiom().signature())
+                .forEach(entityKeys::remove);
+    }
+
+    private String createSortKey(OWLObject object) {
+        String rendering = mngr.getRendering(object);
+        if (rendering.startsWith("'")) {
+            rendering = rendering.substring(1, rendering.length() - 1);
+        }
+        return fold(rendering);
+    }
+
+    /**
+     * Folds the case of the specified string in the way {@link String#compareToIgnoreCase(String)} does,
+     * so that the comparison of the folded strings gives the same result.
+     * @param s String
+     * @return String
+     */
+    static String fold(String s) {
+        char[] res = new char[s.length()];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = Character.toLowerCase(Character.toUpperCase(s.charAt(i)));
+        }
+        return new String(res);
+    }
+
+    @Override
+    public void dispose() {
+        clear();
+        mngr.removeListener(modelManagerListener);
+        mngr.removeOntologyChangeListener(ontologyChangeListener);
+    }
+}
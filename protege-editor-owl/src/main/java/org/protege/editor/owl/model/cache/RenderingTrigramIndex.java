@@ -0,0 +1,171 @@
+package org.protege.editor.owl.model.cache;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * An inverted trigram index over a set of renderings, which finds the renderings containing a fragment.
+ * The renderings are indexed in the folded form produced by the specified function (e.g. lower-cased),
+ * the fragments must be folded by the same function.
+ * Removed renderings are left as tombstones, which are dropped by a compaction once they outnumber the live ones.
+ * The index can be read and updated from different threads.
+ */
+class RenderingTrigramIndex {
+
+    static final int GRAM_LENGTH = 3;
+
+    private static final int MIN_REMOVED_TO_COMPACT = 1024;
+
+    private final Function<String, String> fold;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<String> renderings = new ArrayList<>();
+
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    private final Map<Long, IntList> postings = new HashMap<>();
+
+    private int removed;
+
+    /**
+     * @param fold {@link Function} to fold the renderings
+     */
+    RenderingTrigramIndex(Function<String, String> fold) {
+        this.fold = fold;
+    }
+
+    void add(String rendering) {
+        lock.writeLock().lock();
+        try {
+            if (!ids.containsKey(rendering)) {
+                index(rendering);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String rendering) {
+        lock.writeLock().lock();
+        try {
+            Integer id = ids.remove(rendering);
+            if (id == null) {
+                return;
+            }
+            renderings.set(id, null);
+            removed++;
+            if (removed > MIN_REMOVED_TO_COMPACT && removed > ids.size()) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the renderings, whose folded forms contain the folded fragment.
+     * @param fragment the folded fragment, at least {@link #GRAM_LENGTH} chars long
+     * @param filter   {@link Predicate} to test the found renderings
+     * @param limit    the maximum number of renderings to return
+     * @return List of renderings in the order they were added
+     */
+    List<String> find(String fragment, Predicate<String> filter, int limit) {
+        lock.readLock().lock();
+        try {
+            List<IntList> lists = new ArrayList<>();
+            for (int i = 0; i <= fragment.length() - GRAM_LENGTH; i++) {
+                IntList list = postings.get(gramKey(fragment, i));
+                if (list == null) {
+                    return Collections.emptyList();
+                }
+                lists.add(list);
+            }
+            // start with the most selective trigram
+            lists.sort(Comparator.comparingInt(x -> x.size));
+            int[] candidates = Arrays.copyOf(lists.get(0).data, lists.get(0).size);
+            for (int i = 1; i < lists.size() && candidates.length != 0; i++) {
+                candidates = intersect(candidates, lists.get(i));
+            }
+            List<String> res = new ArrayList<>();
+            for (int id : candidates) {
+                if (res.size() >= limit) {
+                    break;
+                }
+                String rendering = renderings.get(id);
+                if (rendering != null && fold.apply(rendering).contains(fragment) && filter.test(rendering)) {
+                    res.add(rendering);
+                }
+            }
+            return res;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void index(String rendering) {
+        int id = renderings.size();
+        renderings.add(rendering);
+        ids.put(rendering, id);
+        String folded = fold.apply(rendering);
+        for (int i = 0; i <= folded.length() - GRAM_LENGTH; i++) {
+            postings.computeIfAbsent(gramKey(folded, i), k -> new IntList()).addUnique(id);
+        }
+    }
+
+    private void compact() {
+        List<String> live = new ArrayList<>(ids.size());
+        for (String rendering : renderings) {
+            if (rendering != null) {
+                live.add(rendering);
+            }
+        }
+        renderings.clear();
+        ids.clear();
+        postings.clear();
+        removed = 0;
+        live.forEach(this::index);
+    }
+
+    private static long gramKey(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    private static int[] intersect(int[] left, IntList right) {
+        int[] res = new int[Math.min(left.length, right.size)];
+        int i = 0, j = 0, k = 0;
+        while (i < left.length && j < right.size) {
+            if (left[i] < right.data[j]) {
+                i++;
+            } else if (left[i] > right.data[j]) {
+                j++;
+            } else {
+                res[k++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return k == res.length ? res : Arrays.copyOf(res, k);
+    }
+
+    /**
+     * A growable list of ascending ints.
+     */
+    private static class IntList {
+        private int[] data = new int[4];
+        private int size;
+
+        void addUnique(int value) {
+            if (size != 0 && data[size - 1] == value) {
+                return;
+            }
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package org.protege.editor.owl.model.event;
 
 import org.protege.editor.owl.model.OWLModelManager;
+import org.semanticweb.owlapi.model.OWLEntity;
+
+import java.util.Collections;
+import java.util.Set;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 
@@ -16,10 +20,22 @@ public class OWLModelManagerChangeEvent {
 
     private final OWLModelManager source;
     private final EventType type;
+    private final Set<OWLEntity> entities;
 
     public OWLModelManagerChangeEvent(OWLModelManager source, EventType type) {
+        this(source, type, Collections.emptySet());
+    }
+
+    /**
+     * @param source   {@link OWLModelManager}
+     * @param type     {@link EventType}
+     * @param entities the entities the event is about,
+     *                 e.g. the entities whose renderings have changed for {@link EventType#ENTITY_RENDERING_CHANGED}
+     */
+    public OWLModelManagerChangeEvent(OWLModelManager source, EventType type, Set<OWLEntity> entities) {
         this.source = source;
         this.type = type;
+        this.entities = Collections.unmodifiableSet(entities);
     }
 
     public OWLModelManager getSource() {
@@ -30,6 +46,14 @@ public class OWLModelManagerChangeEvent {
         return type;
     }
 
+    /**
+     * Gets the entities the event is about.
+     * @return an unmodifiable Set of {@link OWLEntity}s, empty if the event is not about particular entities
+     */
+    public Set<OWLEntity> getEntities() {
+        return entities;
+    }
+
     public boolean isType(EventType type) {
         return this.type.equals(type);
     }
@@ -3,9 +3,11 @@ package org.protege.editor.owl.model.find;
 import org.semanticweb.owlapi.model.*;
 
 import javax.annotation.Nonnull;
+import java.util.LinkedHashSet;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 
 /**
@@ -59,6 +61,39 @@ public interface OWLEntityFinder {
 
     Set<OWLEntity> getEntities(IRI iri);
 
+    /**
+     * Searches for entities of the specified type whose renderings match the specified string.
+     *
+     * @param type       - the type of entities to search for
+     * @param match      - a regular expression, or a wildcard pattern where {@code *} stands for any characters;
+     *                   a wildcard pattern is matched ignoring case from the beginning of a rendering,
+     *                   unless it starts with {@code *}
+     * @param fullRegExp - whether the match is a regular expression
+     * @param limit      - the maximum number of entities to return
+     * @param <E>        - subtype of {@link OWLEntity}
+     * @return at most {@code limit} matching entities
+     */
+    @SuppressWarnings("unchecked")
+    default <E extends OWLEntity> Set<E> getMatchingOWLEntities(EntityType<E> type, String match, boolean fullRegExp, int limit) {
+        Set<? extends OWLEntity> res;
+        if (type == EntityType.CLASS) {
+            res = getMatchingOWLClasses(match, fullRegExp);
+        } else if (type == EntityType.OBJECT_PROPERTY) {
+            res = getMatchingOWLObjectProperties(match, fullRegExp);
+        } else if (type == EntityType.DATA_PROPERTY) {
+            res = getMatchingOWLDataProperties(match, fullRegExp);
+        } else if (type == EntityType.ANNOTATION_PROPERTY) {
+            res = getMatchingOWLAnnotationProperties(match, fullRegExp);
+        } else if (type == EntityType.NAMED_INDIVIDUAL) {
+            res = getMatchingOWLIndividuals(match, fullRegExp);
+        } else if (type == EntityType.DATATYPE) {
+            res = getMatchingOWLDatatypes(match, fullRegExp);
+        } else {
+            throw new IllegalArgumentException("Unknown EntityType: " + type);
+        }
+        return (Set<E>) res.stream().limit(limit).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
     /**
      * Searches for an entity of the specified type with the specified rendering.
      *
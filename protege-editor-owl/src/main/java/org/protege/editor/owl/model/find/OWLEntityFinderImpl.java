@@ -7,9 +7,8 @@ import org.semanticweb.owlapi.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -191,23 +190,31 @@ public class OWLEntityFinderImpl implements OWLEntityFinder {
         return entities;
     }
 
+    @Override
+    public <T extends OWLEntity> Set<T> getMatchingOWLEntities(EntityType<T> type, String match, boolean fullRegExp, int limit) {
+        return getEntities(match, getEntityClass(type), fullRegExp, Pattern.CASE_INSENSITIVE, limit);
+    }
+
     private <T extends OWLEntity> Set<T> getEntities(String match, Class<T> type, boolean fullRegExp) {
-        return getEntities(match, type, fullRegExp, Pattern.CASE_INSENSITIVE);
+        return getEntities(match, type, fullRegExp, Pattern.CASE_INSENSITIVE, Integer.MAX_VALUE);
     }
 
     @SuppressWarnings("SameParameterValue")
-    private <T extends OWLEntity> Set<T> getEntities(String match, Class<T> type, boolean fullRegExp, int flags) {
-        if (match.length() == 0) {
+    private <T extends OWLEntity> Set<T> getEntities(String match, Class<T> type, boolean fullRegExp, int flags, int limit) {
+        if (match.length() == 0 || limit <= 0) {
             return Collections.emptySet();
         }
-        return fullRegExp ? doRegExpSearch(match, type, flags) : doWildcardSearch(match, type);
+        return fullRegExp ? doRegExpSearch(match, type, flags, limit) : doWildcardSearch(match, type, limit);
     }
 
-    private <T extends OWLEntity> Set<T> doRegExpSearch(String match, Class<T> type, int flags) {
+    private <T extends OWLEntity> Set<T> doRegExpSearch(String match, Class<T> type, int flags, int limit) {
         Set<T> results = new HashSet<>();
         try {
             Pattern pattern = Pattern.compile(match, flags);
             for (String rendering : getRenderings(type)) {
+                if (results.size() >= limit) {
+                    break;
+                }
                 Matcher m = pattern.matcher(rendering);
                 if (!m.find()) {
                     continue;
@@ -223,49 +230,55 @@ public class OWLEntityFinderImpl implements OWLEntityFinder {
         return results;
     }
 
-    /* @@TODO fix wildcard searching - it does not handle the usecases correctly
-     * eg A*B will not work, and endsWith is implemented the same as contains
-     * (probably right but this should not be implemented separately)
+    /**
+     * Matches a wildcard pattern, where {@code *} stands for any characters, ignoring case.
+     * Unless the pattern starts with a wildcard, it is matched from the beginning of a rendering
+     * (the beginning of a quoted rendering is also accepted), the end of the pattern is never anchored.
+     * The candidates are taken from the prefix index of the rendering cache for anchored patterns
+     * and from the trigram index (by the longest literal part of the pattern) otherwise.
      */
-    private <T extends OWLEntity> Set<T> doWildcardSearch(String match, Class<T> type) {
+    private <T extends OWLEntity> Set<T> doWildcardSearch(String match, Class<T> type, int limit) {
         if (match.equals(WILDCARD)) {
-            return entities(type).collect(Collectors.toSet());
+            return entities(type).limit(limit).collect(Collectors.toSet());
         }
-        Set<T> res = new HashSet<>();
-        SimpleWildCardMatcher matcher;
-        if (match.startsWith(WILDCARD)) {
-            if (match.length() > 1 && match.endsWith(WILDCARD)) {
-                // Contains
-                matcher = String::contains;
-                match = match.substring(1, match.length() - 1);
-            } else {
-                // Ends with
-                matcher = String::contains;
-                match = match.substring(1);
+        boolean anchored = !match.startsWith(WILDCARD);
+        List<String> parts = new ArrayList<>();
+        for (String part : match.toLowerCase(Locale.ROOT).split(Pattern.quote(WILDCARD))) {
+            if (!part.isEmpty()) {
+                parts.add(part);
             }
-        } else {
-            // Starts with
-            if (match.endsWith(WILDCARD) && match.length() > 1) {
-                match = match.substring(0, match.length() - 1);
-            }
-            // @@TODO handle matches exactly?
-            matcher = (rendering, s) -> rendering.startsWith(s) || rendering.startsWith("'" + s);
         }
-
-        if (match.trim().isEmpty()) {
+        if (String.join("", parts).trim().isEmpty()) {
             LOGGER.debug("Attempt to match the empty string (no results)");
-            return res;
+            return Collections.emptySet();
         }
-        match = match.toLowerCase();
         LOGGER.debug("Match: {}", match);
-        for (String rendering : getRenderings(type)) {
-            if (rendering.length() > 0) {
-                if (matcher.matches(rendering.toLowerCase(), match)) {
+        String regex = parts.stream().map(Pattern::quote).collect(Collectors.joining(".*"));
+        Pattern pattern = Pattern.compile(anchored ? "^" + ESCAPE_CHAR + "?" + regex : regex, Pattern.DOTALL);
+        Predicate<String> filter = rendering -> !rendering.isEmpty() && pattern.matcher(rendering.toLowerCase(Locale.ROOT)).find();
+        EntityType<T> entityType = getEntityType(type);
+        if (entityType == null) {
+            Set<T> res = new HashSet<>();
+            for (String rendering : getRenderings(type)) {
+                if (res.size() >= limit) {
+                    break;
+                }
+                if (filter.test(rendering)) {
                     res.add(getEntity(rendering, type));
                 }
             }
+            return res;
         }
-        return res;
+        if (anchored) {
+            String prefix = parts.get(0);
+            Set<T> res = new HashSet<>(renderingCache.getOWLEntitiesByRenderingPrefix(entityType, prefix, filter, limit));
+            if (res.size() < limit) {
+                res.addAll(renderingCache.getOWLEntitiesByRenderingPrefix(entityType, ESCAPE_CHAR + prefix, filter, limit - res.size()));
+            }
+            return res;
+        }
+        String fragment = parts.stream().max(Comparator.comparingInt(String::length)).get();
+        return new HashSet<>(renderingCache.getOWLEntitiesByRenderingFragment(entityType, fragment, filter, limit));
     }
 
     @SuppressWarnings("unchecked")
@@ -311,6 +324,43 @@ public class OWLEntityFinderImpl implements OWLEntityFinder {
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private static <T extends OWLEntity> EntityType<T> getEntityType(Class<T> type) {
+        if (OWLClass.class.equals(type)) {
+            return (EntityType<T>) EntityType.CLASS;
+        } else if (OWLObjectProperty.class.equals(type)) {
+            return (EntityType<T>) EntityType.OBJECT_PROPERTY;
+        } else if (OWLDataProperty.class.equals(type)) {
+            return (EntityType<T>) EntityType.DATA_PROPERTY;
+        } else if (OWLNamedIndividual.class.equals(type)) {
+            return (EntityType<T>) EntityType.NAMED_INDIVIDUAL;
+        } else if (OWLAnnotationProperty.class.equals(type)) {
+            return (EntityType<T>) EntityType.ANNOTATION_PROPERTY;
+        } else if (OWLDatatype.class.equals(type)) {
+            return (EntityType<T>) EntityType.DATATYPE;
+        } else {
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends OWLEntity> Class<T> getEntityClass(EntityType<T> type) {
+        if (EntityType.CLASS.equals(type)) {
+            return (Class<T>) OWLClass.class;
+        } else if (EntityType.OBJECT_PROPERTY.equals(type)) {
+            return (Class<T>) OWLObjectProperty.class;
+        } else if (EntityType.DATA_PROPERTY.equals(type)) {
+            return (Class<T>) OWLDataProperty.class;
+        } else if (EntityType.NAMED_INDIVIDUAL.equals(type)) {
+            return (Class<T>) OWLNamedIndividual.class;
+        } else if (EntityType.ANNOTATION_PROPERTY.equals(type)) {
+            return (Class<T>) OWLAnnotationProperty.class;
+        } else if (EntityType.DATATYPE.equals(type)) {
+            return (Class<T>) OWLDatatype.class;
+        }
+        throw new IllegalArgumentException("Unknown EntityType: " + type);
+    }
+
     private <T extends OWLEntity> Set<String> getRenderings(Class<T> type) {
         if (OWLClass.class.isAssignableFrom(type)) {
             return renderingCache.getOWLClassRenderings();
@@ -328,9 +378,4 @@ public class OWLEntityFinderImpl implements OWLEntityFinder {
             return renderingCache.getOWLEntityRenderings();
         }
     }
-
-    private interface SimpleWildCardMatcher {
-
-        boolean matches(String rendering, String s);
-    }
 }
@@ -8,9 +8,8 @@ import org.semanticweb.owlapi.model.parameters.Imports;
 import org.semanticweb.owlapi.search.EntitySearcher;
 
 import java.util.*;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 
@@ -23,49 +22,33 @@ import java.util.stream.Collectors;
 public class AssertedClassHierarchyProvider extends AbstractOWLObjectHierarchyProvider<OWLClass> {
 
     /*
-     * The ontologies variable is protected by the ontologySetReadLock and the ontologySetWriteLock.
-     * These locks are always taken and held inside of the getReadLock() and getWriteLock()'s for the
-     * OWL Ontology Manager.  This is necessary because when the set of ontologies changes, everything
-     * about this class changes.  So when the set of ontologies is changed we need to make sure that nothing
-     * else is running.
+     * The state of the hierarchy is an immutable snapshot, which is replaced as a whole when the set of
+     * ontologies or the ontologies themselves change.  So the readers do not take any locks, they read the
+     * current snapshot once and see a consistent set of ontologies, roots and cached relations.
+     * The writers (setOntologies and the change listener) are serialized by the updateLock and prepare
+     * the next snapshot before publishing it.
      */
-    /*
-     * It is not safe to set the collection of ontologies to a HashSet or TreeSet.
-     * When an ontology changes name it gets a new Hash Code and it is sorted
-     * differently, so these Collections do not work.
-     */
-    private Collection<OWLOntology> ontologies;
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyList());
     private volatile OWLClass root;
 
     private final OWLOntologyManager owlOntologyManager;
-    private final ReadLock ontologySetReadLock;
-    private final WriteLock ontologySetWriteLock;
-    private final ParentClassExtractor parentClassExtractor;
-    private final ChildClassExtractor childClassExtractor;
+    private final ReentrantLock updateLock = new ReentrantLock();
     private final OWLOntologyChangeListener listener;
+    /*
+     * The root finder, the pending snapshot and the nodes to update are only used by the writers.
+     */
     private final TerminalElementFinder<OWLClass> rootFinder;
+    private Snapshot pending;
     private final Set<OWLClass> nodesToUpdate = new HashSet<>();
 
     public AssertedClassHierarchyProvider(OWLOntologyManager owlOntologyManager) {
         super(owlOntologyManager);
         this.owlOntologyManager = owlOntologyManager;
-        /*
-         * It is not safe to set the collection of ontologies to a HashSet or TreeSet.
-         * When an ontology changes name it gets a new Hash Code and it is sorted
-         * differently, so these Collections do not work.
-         */
-        ontologies = new ArrayList<>();
-        ReentrantReadWriteLock locks = new ReentrantReadWriteLock();
-        ontologySetReadLock = locks.readLock();
-        ontologySetWriteLock = locks.writeLock();
         rootFinder = new TerminalElementFinder<>(cls -> {
-            Collection<OWLClass> parents = getParents(cls);
+            Collection<OWLClass> parents = new HashSet<>(getExtractedParents(pending, cls));
             parents.remove(root);
             return parents;
         });
-
-        parentClassExtractor = new ParentClassExtractor();
-        childClassExtractor = new ChildClassExtractor();
         listener = this::handleChanges;
         getManager().addOntologyChangeListener(listener);
     }
@@ -75,37 +58,38 @@ public class AssertedClassHierarchyProvider extends AbstractOWLObjectHierarchyPr
      */
     @Override
     public void setOntologies(Set<OWLOntology> ontologies) {
-        ontologySetWriteLock.lock();
+        updateLock.lock();
         try {
             /*
              * It is not safe to set the collection of ontologies to a HashSet or TreeSet.
              * When an ontology changes name it gets a new Hash Code and it is sorted
              * differently, so these Collections do not work.
              */
-            this.ontologies = new ArrayList<>(ontologies);
+            pending = new Snapshot(new ArrayList<>(ontologies));
             nodesToUpdate.clear();
             if (root == null) {
                 root = owlOntologyManager.getOWLDataFactory().getOWLThing();
             }
             rebuildImplicitRoots();
+            publish();
             fireHierarchyChanged();
         } finally {
-            ontologySetWriteLock.unlock();
+            updateLock.unlock();
         }
     }
 
     private void rebuildImplicitRoots() {
-        ontologySetReadLock.lock();
-        try {
-            rootFinder.clear();
-            for (OWLOntology ont : ontologies) {
-                Set<OWLClass> ref = ont.classesInSignature().collect(Collectors.toSet());
-                rootFinder.appendTerminalElements(ref);
-            }
-            rootFinder.finish();
-        } finally {
-            ontologySetReadLock.unlock();
+        rootFinder.clear();
+        for (OWLOntology ont : pending.ontologies) {
+            Set<OWLClass> ref = ont.classesInSignature().collect(Collectors.toSet());
+            rootFinder.appendTerminalElements(ref);
         }
+        rootFinder.finish();
+    }
+
+    private void publish() {
+        snapshot = pending.withTerminalElements(rootFinder.getTerminalElements());
+        pending = null;
     }
 
     @Override
@@ -113,43 +97,64 @@ public class AssertedClassHierarchyProvider extends AbstractOWLObjectHierarchyPr
         getManager().removeOntologyChangeListener(listener);
     }
 
+    /**
+     * The readers use the current snapshot only, so they do not interfere with the writers.
+     */
+    @Override
+    public boolean supportsConcurrentReads() {
+        return true;
+    }
+
     /*
-     * This call holds the write lock so no other thread can hold the either the OWL ontology
-     * manager read or write locks or the ontologies
+     * This call holds the write lock of the OWL ontology manager, the readers keep using the previous snapshot
+     * until the new one is published.
      */
     private void handleChanges(List<? extends OWLOntologyChange> changes) {
-        Set<OWLClass> oldTerminalElements = new HashSet<>(rootFinder.getTerminalElements());
-        Set<OWLClass> changedClasses = new HashSet<>();
-        changedClasses.add(root);
-        List<OWLAxiomChange> filteredChanges = filterIrrelevantChanges(changes);
-        updateImplicitRoots(filteredChanges);
-        for (OWLOntologyChange change : filteredChanges) {
-            change.signature()
-                    .filter(x -> x instanceof OWLClass && !x.equals(root))
-                    .map(AsOWLClass::asOWLClass)
-                    .forEach(changedClasses::add);
-        }
-        for (OWLClass cls : changedClasses) {
-            registerNodeChanged(cls);
-        }
-        for (OWLClass cls : rootFinder.getTerminalElements()) {
-            if (!oldTerminalElements.contains(cls)) {
-                registerNodeChanged(cls);
+        updateLock.lock();
+        try {
+            Snapshot current = snapshot;
+            List<OWLAxiomChange> filteredChanges = filterIrrelevantChanges(current, changes);
+            Set<OWLClass> changedClasses = new HashSet<>();
+            changedClasses.add(root);
+            if (filteredChanges.isEmpty()) {
+                registerNodeChanged(root);
+                notifyNodeChanges();
+                return;
             }
-        }
-        for (OWLClass cls : oldTerminalElements) {
-            if (!rootFinder.getTerminalElements().contains(cls)) {
-                registerNodeChanged(cls);
+            for (OWLOntologyChange change : filteredChanges) {
+                change.signature()
+                        .filter(x -> x instanceof OWLClass && !x.equals(root))
+                        .map(AsOWLClass::asOWLClass)
+                        .forEach(changedClasses::add);
+            }
+            // the roots update asks for the parents, which must not be taken from the outdated cache
+            pending = current.withChangedClasses(changedClasses);
+            updateImplicitRoots(filteredChanges);
+            publish();
+            changedClasses.forEach(this::registerNodeChanged);
+            Set<OWLClass> terminalElements = snapshot.terminalElements;
+            for (OWLClass cls : terminalElements) {
+                if (!current.terminalElements.contains(cls)) {
+                    registerNodeChanged(cls);
+                }
             }
+            for (OWLClass cls : current.terminalElements) {
+                if (!terminalElements.contains(cls)) {
+                    registerNodeChanged(cls);
+                }
+            }
+            notifyNodeChanges();
+        } finally {
+            updateLock.unlock();
         }
-        notifyNodeChanges();
     }
 
-    private List<OWLAxiomChange> filterIrrelevantChanges(List<? extends OWLOntologyChange> changes) {
+    private static List<OWLAxiomChange> filterIrrelevantChanges(Snapshot snapshot,
+                                                                List<? extends OWLOntologyChange> changes) {
         List<OWLAxiomChange> res = new ArrayList<>();
         for (OWLOntologyChange change : changes) {
             // only listen for changes on the appropriate ontologies
-            if (!ontologies.contains(change.getOntology())) {
+            if (!snapshot.ontologies.contains(change.getOntology())) {
                 continue;
             }
             if (change.isAxiomChange()) {
@@ -174,14 +179,7 @@ public class AssertedClassHierarchyProvider extends AbstractOWLObjectHierarchyPr
         Set<OWLClass> possibleTerminalElements = new HashSet<>();
         Set<OWLClass> notInOntologies = new HashSet<>();
 
-        for (OWLOntologyChange change : changes) {
-            // only listen for changes on the appropriate ontologies
-            if (!ontologies.contains(change.getOntology())) {
-                continue;
-            }
-            if (!change.isAxiomChange()) {
-                continue;
-            }
+        for (OWLAxiomChange change : changes) {
             boolean remove = change instanceof RemoveAxiom;
             OWLAxiom axiom = change.getAxiom();
             axiom.signature().forEach(entity -> {
@@ -189,7 +187,7 @@ public class AssertedClassHierarchyProvider extends AbstractOWLObjectHierarchyPr
                     return;
                 }
                 OWLClass cls = (OWLClass) entity;
-                if (remove && !containsReference(cls)) {
+                if (remove && !containsReference(pending, cls)) {
                     notInOntologies.add(cls);
                     return;
                 }
@@ -212,101 +210,192 @@ public class AssertedClassHierarchyProvider extends AbstractOWLObjectHierarchyPr
 
     @Override
     protected Set<OWLClass> getUnfilteredChildren(OWLClass object) {
-        ontologySetReadLock.lock();
-        try {
-            if (object.equals(root)) {
-                Set<OWLClass> res = new HashSet<>();
-                res.addAll(rootFinder.getTerminalElements());
-                res.addAll(extractChildren(object));
-                res.remove(object);
-                return res;
-            } else {
-                Set<OWLClass> res = extractChildren(object);
-                res.removeIf(x -> getAncestors(object).contains(x));
-                return res;
+        Snapshot snapshot = this.snapshot;
+        if (object.equals(root)) {
+            Set<OWLClass> res = new HashSet<>();
+            res.addAll(snapshot.terminalElements);
+            res.addAll(getExtractedChildren(snapshot, object));
+            res.remove(object);
+            return res;
+        } else {
+            Set<OWLClass> res = new HashSet<>(getExtractedChildren(snapshot, object));
+            if (!res.isEmpty()) {
+                res.removeAll(getCachedAncestors(snapshot, object));
             }
-        } finally {
-            ontologySetReadLock.unlock();
+            return res;
         }
     }
 
-    private Set<OWLClass> extractChildren(OWLClass parent) {
-        childClassExtractor.setCurrentParentClass(parent);
-        for (OWLOntology ont : ontologies) {
-            ont.referencingAxioms(parent)
-                    .filter(OWLAxiom::isLogicalAxiom)
-                    .forEach(x -> x.accept(childClassExtractor));
+    private static Set<OWLClass> getExtractedChildren(Snapshot snapshot, OWLClass parent) {
+        Set<OWLClass> res = snapshot.children.get(parent);
+        if (res == null) {
+            ChildClassExtractor childClassExtractor = new ChildClassExtractor();
+            childClassExtractor.setCurrentParentClass(parent);
+            for (OWLOntology ont : snapshot.ontologies) {
+                ont.referencingAxioms(parent)
+                        .filter(OWLAxiom::isLogicalAxiom)
+                        .forEach(x -> x.accept(childClassExtractor));
+            }
+            res = Collections.unmodifiableSet(new HashSet<>(childClassExtractor.getResult()));
+            snapshot.children.put(parent, res);
         }
-        return childClassExtractor.getResult();
+        return res;
     }
 
-    @Override
-    public boolean containsReference(OWLClass object) {
-        ontologySetReadLock.lock();
-        try {
-            for (OWLOntology ont : ontologies) {
-                if (ont.containsClassInSignature(object.getIRI())) {
-                    return true;
+    private static Set<OWLClass> getExtractedParents(Snapshot snapshot, OWLClass child) {
+        Set<OWLClass> res = snapshot.parents.get(child);
+        if (res == null) {
+            ParentClassExtractor parentClassExtractor = new ParentClassExtractor();
+            parentClassExtractor.setCurrentClass(child);
+            for (OWLOntology ont : snapshot.ontologies) {
+                ont.axioms(child, Imports.EXCLUDED).forEach(x -> x.accept(parentClassExtractor));
+            }
+            res = Collections.unmodifiableSet(new HashSet<>(parentClassExtractor.getResult()));
+            snapshot.parents.put(child, res);
+        }
+        return res;
+    }
+
+    private Set<OWLClass> getParents(Snapshot snapshot, OWLClass object) {
+        // If the object is thing then there are no
+        // parents
+        if (object.equals(root)) {
+            return Collections.emptySet();
+        }
+        Set<OWLClass> result = new HashSet<>();
+        // Thing if the object is a root class
+        if (snapshot.terminalElements.contains(object)) {
+            result.add(root);
+        }
+        // Not a root, so must have another parent
+        result.addAll(getExtractedParents(snapshot, object));
+        return result;
+    }
+
+    /**
+     * Gets the ancestors of the class, which are computed once per snapshot.
+     */
+    private Set<OWLClass> getCachedAncestors(Snapshot snapshot, OWLClass object) {
+        Set<OWLClass> res = snapshot.ancestors.get(object);
+        if (res == null) {
+            Set<OWLClass> ancestors = new HashSet<>();
+            Deque<OWLClass> queue = new ArrayDeque<>();
+            queue.add(object);
+            while (!queue.isEmpty()) {
+                for (OWLClass parent : getParents(snapshot, queue.poll())) {
+                    if (ancestors.add(parent)) {
+                        queue.add(parent);
+                    }
                 }
             }
-            return false;
-        } finally {
-            ontologySetReadLock.unlock();
+            res = Collections.unmodifiableSet(ancestors);
+            snapshot.ancestors.put(object, res);
         }
+        return res;
     }
 
     @Override
-    public Set<OWLClass> getParents(OWLClass object) {
-        ontologySetReadLock.lock();
-        try {
-            // If the object is thing then there are no
-            // parents
-            if (object.equals(root)) {
-                return Collections.emptySet();
-            }
-            Set<OWLClass> result = new HashSet<>();
-            // Thing if the object is a root class
-            if (rootFinder.getTerminalElements().contains(object)) {
-                result.add(root);
-            }
-            // Not a root, so must have another parent
-            parentClassExtractor.reset();
-            parentClassExtractor.setCurrentClass(object);
-            for (OWLOntology ont : ontologies) {
-                ont.axioms(object, Imports.EXCLUDED).forEach(x -> x.accept(parentClassExtractor));
+    public boolean containsReference(OWLClass object) {
+        return containsReference(snapshot, object);
+    }
+
+    private static boolean containsReference(Snapshot snapshot, OWLClass object) {
+        for (OWLOntology ont : snapshot.ontologies) {
+            if (ont.containsClassInSignature(object.getIRI())) {
+                return true;
             }
-            result.addAll(parentClassExtractor.getResult());
-            return result;
-        } finally {
-            ontologySetReadLock.unlock();
         }
+        return false;
+    }
+
+    @Override
+    public Set<OWLClass> getParents(OWLClass object) {
+        return getParents(snapshot, object);
+    }
+
+    @Override
+    public Set<OWLClass> getAncestors(OWLClass object) {
+        return new HashSet<>(getCachedAncestors(snapshot, object));
     }
 
     @Override
     public Set<OWLClass> getEquivalents(OWLClass object) {
-        ontologySetReadLock.lock();
-        try {
-            Set<OWLClass> res = new HashSet<>();
-            for (OWLOntology ont : ontologies) {
-                EntitySearcher.getEquivalentClasses(object, ont)
-                        .filter(x -> !x.isAnonymous())
-                        .forEach(x -> res.add(x.asOWLClass()));
-            }
-            Set<OWLClass> ancestors = getAncestors(object);
-            if (!ancestors.contains(object)) {
-                return res;
-            }
-            for (OWLClass cls : ancestors) {
-                if (getAncestors(cls).contains(object)) {
-                    res.add(cls);
-                }
-            }
-            res.remove(object);
-            res.remove(root);
+        Snapshot snapshot = this.snapshot;
+        Set<OWLClass> res = new HashSet<>();
+        for (OWLOntology ont : snapshot.ontologies) {
+            EntitySearcher.getEquivalentClasses(object, ont)
+                    .filter(x -> !x.isAnonymous())
+                    .forEach(x -> res.add(x.asOWLClass()));
+        }
+        Set<OWLClass> ancestors = getCachedAncestors(snapshot, object);
+        if (!ancestors.contains(object)) {
             return res;
-        } finally {
-            ontologySetReadLock.unlock();
         }
+        for (OWLClass cls : ancestors) {
+            if (getCachedAncestors(snapshot, cls).contains(object)) {
+                res.add(cls);
+            }
+        }
+        res.remove(object);
+        res.remove(root);
+        return res;
     }
 
+    /**
+     * An immutable state of the hierarchy: the ontologies, the implicit roots
+     * and the lazily filled caches of the relations between the classes.
+     * The named parents and children, extracted from the axioms, are carried over to the next snapshot
+     * except for the classes referenced by the changed axioms, the ancestors are computed anew.
+     */
+    private static class Snapshot {
+        /*
+         * It is not safe to set the collection of ontologies to a HashSet or TreeSet.
+         * When an ontology changes name it gets a new Hash Code and it is sorted
+         * differently, so these Collections do not work.
+         */
+        private final List<OWLOntology> ontologies;
+        private final Set<OWLClass> terminalElements;
+        private final Map<OWLClass, Set<OWLClass>> parents;
+        private final Map<OWLClass, Set<OWLClass>> children;
+        private final Map<OWLClass, Set<OWLClass>> ancestors = new ConcurrentHashMap<>();
+
+        Snapshot(List<OWLOntology> ontologies) {
+            this(Collections.unmodifiableList(ontologies),
+                    Collections.emptySet(),
+                    new ConcurrentHashMap<>(),
+                    new ConcurrentHashMap<>());
+        }
+
+        private Snapshot(List<OWLOntology> ontologies,
+                         Set<OWLClass> terminalElements,
+                         Map<OWLClass, Set<OWLClass>> parents,
+                         Map<OWLClass, Set<OWLClass>> children) {
+            this.ontologies = ontologies;
+            this.terminalElements = terminalElements;
+            this.parents = parents;
+            this.children = children;
+        }
+
+        /**
+         * Creates the next snapshot after the ontologies have been changed.
+         * The roots are still the previous ones.
+         */
+        Snapshot withChangedClasses(Set<OWLClass> changedClasses) {
+            Map<OWLClass, Set<OWLClass>> parents = new ConcurrentHashMap<>(this.parents);
+            Map<OWLClass, Set<OWLClass>> children = new ConcurrentHashMap<>(this.children);
+            parents.keySet().removeAll(changedClasses);
+            children.keySet().removeAll(changedClasses);
+            return new Snapshot(ontologies, terminalElements, parents, children);
+        }
+
+        /**
+         * Creates the snapshot with the specified roots.
+         */
+        Snapshot withTerminalElements(Set<OWLClass> terminalElements) {
+            return new Snapshot(ontologies,
+                    Collections.unmodifiableSet(new HashSet<>(terminalElements)),
+                    parents,
+                    children);
+        }
+    }
 }
@@ -48,4 +48,15 @@ public interface OWLHierarchyProvider<N> extends Disposable, HasFilter<N>, Hiera
     default void setOntology(OWLOntology ont) {
         setOntologies(Collections.singleton(ont));
     }
+
+    /**
+     * Answers {@code true} if the hierarchy can be read from a thread other than the event dispatch thread
+     * while the ontologies are being changed, e.g. in order to load the children of a tree node in the background.
+     * By default, a provider is expected to be read only from the event dispatch thread.
+     *
+     * @return boolean
+     */
+    default boolean supportsConcurrentReads() {
+        return false;
+    }
 }
@@ -0,0 +1,156 @@
+package org.protege.editor.owl.model.history;
+
+import com.google.common.collect.Interner;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.*;
+
+/**
+ * A compact form of a list of ontology changes, which is kept in the undo/redo history
+ * instead of the change objects.
+ * Each change is packed into an int code (the kind of the change and the index of its ontology)
+ * and a reference to its axiom, annotation or import declaration.
+ * These references are interned, so that an axiom which is changed many times (e.g. undone and redone)
+ * or which is equal to an axiom of another entry is kept only once.
+ * The changes are restored as new change objects, except the ones that cannot be restored later
+ * (e.g. {@link SetOntologyID}, which depends on the ID of the ontology at the time of the change),
+ * these are kept as they are.
+ */
+class CompactChangeList {
+
+    private static final int ADD_AXIOM = 0;
+    private static final int REMOVE_AXIOM = 1;
+    private static final int ADD_ANNOTATION = 2;
+    private static final int REMOVE_ANNOTATION = 3;
+    private static final int ADD_IMPORT = 4;
+    private static final int REMOVE_IMPORT = 5;
+    private static final int OTHER = 6;
+
+    private static final int KIND_BITS = 3;
+    private static final int KIND_MASK = (1 << KIND_BITS) - 1;
+
+    private final OWLOntology[] ontologies;
+
+    /**
+     * The kind of each change in the low bits, and the index of its ontology in the high bits.
+     */
+    private final int[] codes;
+
+    private final Object[] arguments;
+
+    private CompactChangeList(OWLOntology[] ontologies, int[] codes, Object[] arguments) {
+        this.ontologies = ontologies;
+        this.codes = codes;
+        this.arguments = arguments;
+    }
+
+    /**
+     * Packs the specified changes.
+     * @param changes  the List of {@link OWLOntologyChange}s
+     * @param interner {@link Interner} to share the equal axioms, annotations and import declarations
+     * @return {@link CompactChangeList}
+     */
+    static CompactChangeList create(List<? extends OWLOntologyChange> changes, Interner<Object> interner) {
+        Map<OWLOntology, Integer> ontologyIndices = new IdentityHashMap<>();
+        int[] codes = new int[changes.size()];
+        Object[] arguments = new Object[changes.size()];
+        Encoder encoder = new Encoder();
+        for (int i = 0; i < codes.length; i++) {
+            OWLOntologyChange change = changes.get(i);
+            change.accept(encoder);
+            Integer ontology = ontologyIndices.computeIfAbsent(change.getOntology(), o -> ontologyIndices.size());
+            codes[i] = ontology << KIND_BITS | encoder.kind;
+            arguments[i] = encoder.kind == OTHER ? change : interner.intern(encoder.argument);
+        }
+        OWLOntology[] ontologies = new OWLOntology[ontologyIndices.size()];
+        ontologyIndices.forEach((o, i) -> ontologies[i] = o);
+        return new CompactChangeList(ontologies, codes, arguments);
+    }
+
+    /**
+     * @return the number of the changes
+     */
+    int size() {
+        return codes.length;
+    }
+
+    /**
+     * Restores the changes.
+     * @return a new List of {@link OWLOntologyChange}s
+     */
+    List<OWLOntologyChange> getChanges() {
+        List<OWLOntologyChange> res = new ArrayList<>(codes.length);
+        for (int i = 0; i < codes.length; i++) {
+            OWLOntology ontology = ontologies[codes[i] >>> KIND_BITS];
+            Object argument = arguments[i];
+            switch (codes[i] & KIND_MASK) {
+                case ADD_AXIOM:
+                    res.add(new AddAxiom(ontology, (OWLAxiom) argument));
+                    break;
+                case REMOVE_AXIOM:
+                    res.add(new RemoveAxiom(ontology, (OWLAxiom) argument));
+                    break;
+                case ADD_ANNOTATION:
+                    res.add(new AddOntologyAnnotation(ontology, (OWLAnnotation) argument));
+                    break;
+                case REMOVE_ANNOTATION:
+                    res.add(new RemoveOntologyAnnotation(ontology, (OWLAnnotation) argument));
+                    break;
+                case ADD_IMPORT:
+                    res.add(new AddImport(ontology, (OWLImportsDeclaration) argument));
+                    break;
+                case REMOVE_IMPORT:
+                    res.add(new RemoveImport(ontology, (OWLImportsDeclaration) argument));
+                    break;
+                default:
+                    res.add((OWLOntologyChange) argument);
+            }
+        }
+        return res;
+    }
+
+    private static class Encoder implements OWLOntologyChangeVisitor {
+        private int kind;
+        private Object argument;
+
+        private void set(int kind, Object argument) {
+            this.kind = kind;
+            this.argument = argument;
+        }
+
+        @Override
+        public void visit(AddAxiom change) {
+            set(ADD_AXIOM, change.getAxiom());
+        }
+
+        @Override
+        public void visit(RemoveAxiom change) {
+            set(REMOVE_AXIOM, change.getAxiom());
+        }
+
+        @Override
+        public void visit(SetOntologyID change) {
+            set(OTHER, null);
+        }
+
+        @Override
+        public void visit(AddImport change) {
+            set(ADD_IMPORT, change.getImportDeclaration());
+        }
+
+        @Override
+        public void visit(RemoveImport change) {
+            set(REMOVE_IMPORT, change.getImportDeclaration());
+        }
+
+        @Override
+        public void visit(AddOntologyAnnotation change) {
+            set(ADD_ANNOTATION, change.getAnnotation());
+        }
+
+        @Override
+        public void visit(RemoveOntologyAnnotation change) {
+            set(REMOVE_ANNOTATION, change.getAnnotation());
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package org.protege.editor.owl.model.history;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import org.protege.editor.owl.model.OWLModelManager;
 import org.semanticweb.owlapi.model.OWLOntologyChange;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
@@ -7,9 +9,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
-import java.util.Stack;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -22,6 +25,11 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
  * matthew.horridge@cs.man.ac.uk<br>
  * www.cs.man.ac.uk/~horridgm<br><br>
+ * <p>
+ * The changes are kept in the {@link CompactChangeList compact form}.
+ * The history is limited by the number of its entries and by the total number of their changes
+ * (see {@link HistoryPreferences}), when a limit is exceeded the oldest entries are dropped.
+ * The last entry is always kept, so the last operation can be undone however big it is.
  */
 public class HistoryManagerImpl implements HistoryManager {
     
@@ -35,6 +43,11 @@ public class HistoryManagerImpl implements HistoryManager {
 
     private final OWLOntologyManager manager;
 
+    /**
+     * The model manager, whose reasoners must not be queried while the undo or redo changes are applied,
+     * can be {@code null}.
+     */
+    private final OWLModelManager owlModelManager;
 
     /**
      * Holds a list of sets of changes that can be undone.
@@ -42,7 +55,7 @@ public class HistoryManagerImpl implements HistoryManager {
      * if the list contain an "add superclass" history, then the
      * required undo history is a "remove superclass" history.
      */
-    private final Stack<List<OWLOntologyChange>> undoStack = new Stack<>();
+    private final Deque<CompactChangeList> undoStack = new ArrayDeque<>();
 
     /**
      * Holds a list of sets of changes that can be redone. These
@@ -50,18 +63,53 @@ public class HistoryManagerImpl implements HistoryManager {
      * These are a list of "forward" changes rather that the
      * "undo changes".
      */
-    private final Stack<List<OWLOntologyChange>> redoStack = new Stack<>();
+    private final Deque<CompactChangeList> redoStack = new ArrayDeque<>();
 
     private final List<UndoManagerListener> listeners = new ArrayList<>();
 
+    /**
+     * Shares the equal axioms, annotations and import declarations of the entries.
+     */
+    private final Interner<Object> interner = Interners.newWeakInterner();
+
+    private final int maxEntries;
+
+    private final int maxChanges;
+
+    /**
+     * The number of the changes in both stacks.
+     */
+    private long changeCount;
+
 
     public HistoryManagerImpl(OWLModelManager owlModelManager) {
-        this(owlModelManager.getOWLOntologyManager());
+        this(owlModelManager, owlModelManager.getOWLOntologyManager(),
+                HistoryPreferences.getInstance().getMaxEntries(),
+                HistoryPreferences.getInstance().getMaxChanges());
 
     }
     
     public HistoryManagerImpl(OWLOntologyManager manager) {
+        this(manager, HistoryPreferences.DEFAULT_MAX_ENTRIES, HistoryPreferences.DEFAULT_MAX_CHANGES);
+    }
+
+    /**
+     * @param manager    {@link OWLOntologyManager}
+     * @param maxEntries the maximum number of the entries in the history
+     * @param maxChanges the maximum number of the changes in all the entries of the history
+     */
+    public HistoryManagerImpl(OWLOntologyManager manager, int maxEntries, int maxChanges) {
+        this(null, manager, maxEntries, maxChanges);
+    }
+
+    private HistoryManagerImpl(OWLModelManager owlModelManager,
+                               OWLOntologyManager manager,
+                               int maxEntries,
+                               int maxChanges) {
+        this.owlModelManager = owlModelManager;
         this.manager = manager;
+        this.maxEntries = maxEntries;
+        this.maxChanges = maxChanges;
         typeOfChangeInProgress = ChangeType.NORMAL;
     }
 
@@ -81,11 +129,11 @@ public class HistoryManagerImpl implements HistoryManager {
         case NORMAL:
             // Clear the redo stack, because we can
             // no longer redo
-            redoStack.clear();
+            clear(redoStack);
             // no break;
         case REDOING:
             // Push the changes onto the stack
-            undoStack.push(new ArrayList<>(changes));
+            push(undoStack, changes);
             break;
         case UNDOING:
             // In undo mode, so handleSave changes for redo.
@@ -94,7 +142,7 @@ public class HistoryManagerImpl implements HistoryManager {
             // (The stacks, both undo and redo, should always hold the forward
             // changes).
 
-            redoStack.push(reverseChanges(changes));
+            push(redoStack, reverseChanges(changes));
             break;
         }
         fireStateChanged();
@@ -105,8 +153,8 @@ public class HistoryManagerImpl implements HistoryManager {
         if (canRedo()) {
             try {
                 typeOfChangeInProgress = ChangeType.REDOING;
-                List<OWLOntologyChange> redoChanges = redoStack.pop();
-                manager.applyChanges(redoChanges);
+                List<OWLOntologyChange> redoChanges = pop(redoStack);
+                applyChanges(redoChanges);
             }
             catch (Exception e) {
                 logger.error("An error occurred whilst redoing the last set of undone changes.", e);
@@ -123,10 +171,10 @@ public class HistoryManagerImpl implements HistoryManager {
             try {
                 typeOfChangeInProgress = ChangeType.UNDOING;
                 // Attempt to undo the changes
-                List<OWLOntologyChange> changes = undoStack.pop();
+                List<OWLOntologyChange> changes = pop(undoStack);
 
                 // Apply the changes
-                manager.applyChanges(reverseChanges(changes));
+                applyChanges(reverseChanges(changes));
 //                // Remove changes from log
 //                removeChanges(changes);
             }
@@ -142,8 +190,8 @@ public class HistoryManagerImpl implements HistoryManager {
 
     @Override
     public void clear() {
-        redoStack.clear();
-        undoStack.clear();
+        clear(redoStack);
+        clear(undoStack);
         fireStateChanged();
     }
 
@@ -159,8 +207,8 @@ public class HistoryManagerImpl implements HistoryManager {
     @Nonnull
     public List<List<OWLOntologyChange>> getLoggedChanges() {
         List<List<OWLOntologyChange>> copyOfLog = new ArrayList<>();
-        for (List<OWLOntologyChange> changes : undoStack){
-            copyOfLog.add(new ArrayList<>(changes));
+        for (CompactChangeList changes : undoStack){
+            copyOfLog.add(changes.getChanges());
         }
         return copyOfLog;
     }
@@ -172,6 +220,54 @@ public class HistoryManagerImpl implements HistoryManager {
         }
     }
     
+    private void push(Deque<CompactChangeList> stack, List<? extends OWLOntologyChange> changes) {
+        CompactChangeList entry = CompactChangeList.create(changes, interner);
+        stack.addLast(entry);
+        changeCount += entry.size();
+        trim(stack);
+    }
+
+    private List<OWLOntologyChange> pop(Deque<CompactChangeList> stack) {
+        CompactChangeList entry = stack.removeLast();
+        changeCount -= entry.size();
+        return entry.getChanges();
+    }
+
+    private void clear(Deque<CompactChangeList> stack) {
+        stack.forEach(entry -> changeCount -= entry.size());
+        stack.clear();
+    }
+
+    /**
+     * Drops the oldest entries while the history exceeds its limits:
+     * the bottom of the undo stack first, then the bottom of the redo stack (i.e. the last changes to redo).
+     * The latest entry, which has just been pushed to the specified stack, is kept.
+     */
+    private void trim(Deque<CompactChangeList> latest) {
+        while (undoStack.size() + redoStack.size() > maxEntries || changeCount > maxChanges) {
+            Deque<CompactChangeList> stack;
+            if (undoStack.size() > (latest == undoStack ? 1 : 0)) {
+                stack = undoStack;
+            } else if (redoStack.size() > (latest == redoStack ? 1 : 0)) {
+                stack = redoStack;
+            } else {
+                return;
+            }
+            CompactChangeList entry = stack.removeFirst();
+            changeCount -= entry.size();
+            logger.debug("The history is full, {} changes are dropped", entry.size());
+        }
+    }
+
+    private void applyChanges(List<OWLOntologyChange> changes) {
+        if (owlModelManager == null) {
+            manager.applyChanges(changes);
+            return;
+        }
+        // the reasoners listen to the changes, while the current one may be queried in the background
+        owlModelManager.getOWLReasonerManager().runExclusively(() -> manager.applyChanges(changes));
+    }
+
     private List<OWLOntologyChange> reverseChanges(List<? extends OWLOntologyChange> changes) {
         List<OWLOntologyChange> reversedChanges = new ArrayList<>();
         for (OWLOntologyChange change : changes) {
@@ -0,0 +1,68 @@
+package org.protege.editor.owl.model.history;
+
+import org.protege.editor.core.prefs.Preferences;
+import org.protege.editor.core.prefs.PreferencesManager;
+
+/**
+ * The limits of the undo/redo history.
+ * When a limit is exceeded, the oldest entries of the history are dropped, so they can no longer be undone.
+ */
+public class HistoryPreferences {
+
+    public static final String PREFERENCES_KEY = "org.protege.editor.owl.history";
+
+    public static final String MAX_ENTRIES_KEY = "MAX_ENTRIES";
+
+    public static final String MAX_CHANGES_KEY = "MAX_CHANGES";
+
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    public static final int DEFAULT_MAX_CHANGES = 1_000_000;
+
+    private static HistoryPreferences instance;
+
+    private int maxEntries;
+
+    private int maxChanges;
+
+    private HistoryPreferences() {
+        Preferences prefs = getPreferences();
+        maxEntries = prefs.getInt(MAX_ENTRIES_KEY, DEFAULT_MAX_ENTRIES);
+        maxChanges = prefs.getInt(MAX_CHANGES_KEY, DEFAULT_MAX_CHANGES);
+    }
+
+    private static Preferences getPreferences() {
+        return PreferencesManager.getInstance().getApplicationPreferences(PREFERENCES_KEY);
+    }
+
+    public static synchronized HistoryPreferences getInstance() {
+        if (instance == null) {
+            instance = new HistoryPreferences();
+        }
+        return instance;
+    }
+
+    /**
+     * @return the maximum number of the entries (i.e. the undoable lists of changes) in the history
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+        getPreferences().putInt(MAX_ENTRIES_KEY, maxEntries);
+    }
+
+    /**
+     * @return the maximum number of the changes in all the entries of the history
+     */
+    public int getMaxChanges() {
+        return maxChanges;
+    }
+
+    public void setMaxChanges(int maxChanges) {
+        this.maxChanges = maxChanges;
+        getPreferences().putInt(MAX_CHANGES_KEY, maxChanges);
+    }
+}
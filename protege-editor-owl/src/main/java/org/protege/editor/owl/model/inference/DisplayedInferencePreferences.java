@@ -13,7 +13,11 @@ public class DisplayedInferencePreferences {
 	public static final String USER_READABLE_ID = "Displayed Inference Preferences";
     public static final String SHOW_INFERENCES_KEY = "SHOW_INFERENCES";
     
-	private long startOperationTime;
+    /**
+     * The tasks are executed both in the event dispatch thread and in the background,
+     * so the start time is per thread and the accumulated times are guarded by this object.
+     */
+	private final ThreadLocal<Long> startOperationTime = ThreadLocal.withInitial(System::currentTimeMillis);
 
     private boolean showInferences;	
     private EnumSet<OptionalInferenceTask>           enabled       = EnumSet.noneOf(OptionalInferenceTask.class);
@@ -64,17 +68,21 @@ public class DisplayedInferencePreferences {
     }
     
     public void startClock(OptionalInferenceTask task) {
-        startOperationTime = System.currentTimeMillis();
+        startOperationTime.set(System.currentTimeMillis());
     }
 
     public void stopClock(OptionalInferenceTask task) {
-        int duration = (int) (System.currentTimeMillis() - startOperationTime);
+        int duration = (int) (System.currentTimeMillis() - startOperationTime.get());
+        startOperationTime.remove();
+        addTime(task, duration);
+    }
 
+    private synchronized void addTime(OptionalInferenceTask task, int duration) {
         countMap.put(task, getCallCount(task) + 1);
         clockMap.put(task, getTimeInTask(task) + duration);
     }
 
-    public int getTimeInTask(OptionalInferenceTask task) {
+    public synchronized int getTimeInTask(OptionalInferenceTask task) {
         Integer duration = clockMap.get(task);
         if (duration == null) {
             duration = 0;
@@ -82,7 +90,7 @@ public class DisplayedInferencePreferences {
         return duration;
     }
 
-    public int getAverageTimeInTask(OptionalInferenceTask task) {
+    public synchronized int getAverageTimeInTask(OptionalInferenceTask task) {
         int count = getCallCount(task);
         if (count == 0) {
             return 0;
@@ -90,7 +98,7 @@ public class DisplayedInferencePreferences {
         return getTimeInTask(task) / count;
     }
 
-    private int getCallCount(OptionalInferenceTask task) {
+    private synchronized int getCallCount(OptionalInferenceTask task) {
         Integer count = countMap.get(task);
         if (count == null) {
             count = 0;
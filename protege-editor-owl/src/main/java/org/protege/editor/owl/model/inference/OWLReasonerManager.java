@@ -91,6 +91,18 @@ public interface OWLReasonerManager extends Disposable {
     
     ReasonerPreferences getReasonerPreferences();
     
+    /**
+     * Runs the specified action while the current reasoner is not called by any other thread.
+     * The calls to the current reasoner are serialized, since it can be queried from the background threads;
+     * this is for the actions which change the state of the reasoner without calling it,
+     * e.g. applying the ontology changes, to which the reasoner listens.
+     *
+     * @param action {@link Runnable}
+     */
+    default void runExclusively(Runnable action) {
+        action.run();
+    }
+
     /**
      * Add the filters to be applied when the ABOUT_TO_CLASSIFY event starts.
      * The list of filters will be cleared when the classification completes regardless
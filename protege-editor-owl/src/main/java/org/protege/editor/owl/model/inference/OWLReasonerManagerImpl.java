@@ -40,6 +40,12 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
 
     private final Map<OWLOntology, OWLReasoner> reasonerMap = new HashMap<>();
 
+    /**
+     * The lock which serializes the calls to the installed reasoners (see {@link SerializedReasoner}).
+     * It must not be acquired while the {@link #reasonerMap} lock is held.
+     */
+    private final Object reasonerLock = new Object();
+
     private OWLReasoner runningReasoner;
 
     private boolean classificationInProgress = false;
@@ -250,15 +256,14 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
 
     @Override
     public boolean isClassified() {
-        synchronized (reasonerMap) {
-            OWLReasoner reasoner = getCurrentReasoner();
-            return !(reasoner instanceof NoOpReasoner) &&
-                    (reasoner.getPendingChanges() == null || reasoner.getPendingChanges().isEmpty());
-        }
+        OWLReasoner reasoner = getCurrentReasoner();
+        return !(reasoner instanceof NoOpReasoner) &&
+                (reasoner.getPendingChanges() == null || reasoner.getPendingChanges().isEmpty());
     }
 
     @Override
     public ReasonerStatus getReasonerStatus() {
+        OWLReasoner reasoner;
         synchronized (reasonerMap) {
             if (classificationInProgress) {
                 return ReasonerStatus.INITIALIZATION_IN_PROGRESS;
@@ -266,23 +271,31 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
             if (currentReasonerFactory.getReasonerFactory() instanceof NoOpReasonerFactory) {
                 return ReasonerStatus.NO_REASONER_FACTORY_CHOSEN;
             }
-            OWLReasoner reasoner = getCurrentReasoner();
-            try {
-                if (reasoner instanceof NoOpReasoner) {
-                    return ReasonerStatus.REASONER_NOT_INITIALIZED;
-                }
-                if (!reasoner.isConsistent()) {
-                    return ReasonerStatus.INCONSISTENT;
-                }
-                if (reasoner.getPendingChanges().isEmpty()) {
-                    return ReasonerStatus.INITIALIZED;
-                }
-                return ReasonerStatus.OUT_OF_SYNC;
-            } catch (Throwable t) {
-                killCurrentReasoner();
-                LOGGER.warn("Protege terminated reasoner.");
-                throw new ReasonerDiedException(t);
+            reasoner = getCurrentReasoner();
+        }
+        // the reasoner is called outside the map lock, since its calls are serialized on the reasoner lock
+        try {
+            if (reasoner instanceof NoOpReasoner) {
+                return ReasonerStatus.REASONER_NOT_INITIALIZED;
+            }
+            if (!reasoner.isConsistent()) {
+                return ReasonerStatus.INCONSISTENT;
+            }
+            if (reasoner.getPendingChanges().isEmpty()) {
+                return ReasonerStatus.INITIALIZED;
             }
+            return ReasonerStatus.OUT_OF_SYNC;
+        } catch (Throwable t) {
+            killCurrentReasoner();
+            LOGGER.warn("Protege terminated reasoner.");
+            throw new ReasonerDiedException(t);
+        }
+    }
+
+    @Override
+    public void runExclusively(Runnable action) {
+        synchronized (reasonerLock) {
+            action.run();
         }
     }
 
@@ -298,14 +311,22 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
             return true;
         }
         OWLOntology ont = manager.getActiveOntology();
+        OWLReasoner installed;
+        NoOpReasoner replacement = new NoOpReasoner(ont);
         synchronized (reasonerMap) {
             if (classificationInProgress) {
                 return false;
             }
-            runningReasoner = reasonerMap.get(ont);
-            reasonerMap.put(ont, new NoOpReasoner(ont));
+            installed = reasonerMap.get(ont);
+            reasonerMap.put(ont, replacement);
             classificationInProgress = true;
         }
+        // the reasoner is classified unserialized, so that it can be interrupted and the changes can be applied;
+        // whoever still holds the installed proxy (e.g. a background inference) sees the no-op reasoner
+        OWLReasoner detached = SerializedReasoner.detach(installed, replacement);
+        synchronized (reasonerMap) {
+            runningReasoner = detached;
+        }
         manager.fireEvent(EventType.ABOUT_TO_CLASSIFY);
         Thread currentReasonerThread = new Thread(new ClassificationRunner(ont, precompute), "Classification Thread");
         currentReasonerThread.setUncaughtExceptionHandler((thread, throwable) -> {
@@ -452,7 +473,7 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
 
         public void installRunningReasoner(boolean inconsistencyFound, boolean reasonerChanged) {
             synchronized (reasonerMap) {
-                reasonerMap.put(ontology, runningReasoner);
+                reasonerMap.put(ontology, SerializedReasoner.wrap(runningReasoner, reasonerLock));
                 runningReasoner = null;
                 classificationInProgress = false;
             }
@@ -0,0 +1,98 @@
+package org.protege.editor.owl.model.inference;
+
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * A handler of an {@link OWLReasoner} proxy which serializes the calls to the reasoner on a lock.
+ * The reasoners are not required to be thread-safe, while the current reasoner is called
+ * both from the event dispatch thread (e.g. by the inferred hierarchies, the DL query)
+ * and from the background threads (e.g. by the frame sections which compute their inferred rows).
+ * <p>
+ * {@link OWLReasoner#interrupt()} is not serialized, since it is to stop a call in progress.
+ * The reasoner can be {@link #detach(OWLReasoner, OWLReasoner) detached} from the proxy (e.g. to be classified),
+ * then the proxy delegates to the replacement.
+ * </p>
+ */
+final class SerializedReasoner implements InvocationHandler {
+
+    private final Object lock;
+    private volatile OWLReasoner reasoner;
+
+    private SerializedReasoner(OWLReasoner reasoner, Object lock) {
+        this.reasoner = reasoner;
+        this.lock = lock;
+    }
+
+    /**
+     * Wraps the reasoner into a proxy which serializes the calls on the lock.
+     * The {@link NoOpReasoner}, which is stateless, is not wrapped.
+     *
+     * @param reasoner {@link OWLReasoner}, can be {@code null}
+     * @param lock     the lock to serialize the calls
+     * @return {@link OWLReasoner}, {@code null} if the reasoner is {@code null}
+     */
+    static OWLReasoner wrap(OWLReasoner reasoner, Object lock) {
+        if (reasoner == null || reasoner instanceof NoOpReasoner || Proxy.isProxyClass(reasoner.getClass())) {
+            return reasoner;
+        }
+        return (OWLReasoner) Proxy.newProxyInstance(OWLReasoner.class.getClassLoader(),
+                new Class<?>[]{OWLReasoner.class}, new SerializedReasoner(reasoner, lock));
+    }
+
+    /**
+     * Detaches the reasoner from the proxy, once its current call (if any) completes.
+     * The further calls to the proxy are delegated to the replacement.
+     *
+     * @param proxy       {@link OWLReasoner} proxy (or any other reasoner, which is returned as is)
+     * @param replacement {@link OWLReasoner} to delegate to
+     * @return the detached {@link OWLReasoner}
+     */
+    static OWLReasoner detach(OWLReasoner proxy, OWLReasoner replacement) {
+        if (proxy == null || !Proxy.isProxyClass(proxy.getClass())) {
+            return proxy;
+        }
+        InvocationHandler handler = Proxy.getInvocationHandler(proxy);
+        if (!(handler instanceof SerializedReasoner)) {
+            return proxy;
+        }
+        SerializedReasoner serialized = (SerializedReasoner) handler;
+        synchronized (serialized.lock) {
+            OWLReasoner res = serialized.reasoner;
+            serialized.reasoner = replacement;
+            return res;
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return method.invoke(reasoner, args);
+            }
+        }
+        if (method.getName().equals("interrupt") && method.getParameterCount() == 0) {
+            return invoke(reasoner, method, args);
+        }
+        synchronized (lock) {
+            return invoke(reasoner, method, args);
+        }
+    }
+
+    private static Object invoke(OWLReasoner reasoner, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(reasoner, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
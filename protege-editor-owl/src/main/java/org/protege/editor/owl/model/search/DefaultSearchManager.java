@@ -2,24 +2,30 @@ package org.protege.editor.owl.model.search;
 
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.ImmutableList;
+import org.protege.editor.core.util.ProtegeDirectories;
 import org.protege.editor.owl.OWLEditorKit;
 import org.protege.editor.owl.model.OWLModelManager;
 import org.protege.editor.owl.model.event.EventType;
 import org.protege.editor.owl.model.event.OWLModelManagerChangeEvent;
 import org.protege.editor.owl.model.event.OWLModelManagerListener;
-import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.protege.editor.owl.model.util.ParallelPartitions;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.util.AxiomSubjectProviderEx;
 import org.semanticweb.owlapi.util.ProgressMonitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
+import java.io.File;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * Author: Matthew Horridge<br>
@@ -31,6 +37,36 @@ public class DefaultSearchManager extends SearchManager {
 
     private final Logger logger = LoggerFactory.getLogger(DefaultSearchManager.class);
 
+    /**
+     * The maximum number of ontology changes which are applied to the search metadata incrementally.
+     * Bigger change lists lead to the full rebuild of the search metadata.
+     */
+    private static final int MAX_INCREMENTAL_CHANGES = 10_000;
+
+    /**
+     * The minimum number of search metadata rows matched by a single fork-join task.
+     */
+    private static final int MIN_MATCH_PARTITION_SIZE = 4096;
+
+    /**
+     * The number of matches collected by a fork-join task before they are passed to the shared collector.
+     */
+    private static final int RESULTS_BATCH_SIZE = 256;
+
+    /**
+     * The minimal interval between deliveries of intermediate results.
+     */
+    private static final long PUBLISH_INTERVAL_MS = 250;
+
+    /**
+     * Writes the search metadata indexes to the disk cache, so that a search is not delayed by the writing.
+     */
+    private static final ExecutorService INDEX_CACHE_WRITER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Search index cache writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private OWLEditorKit editorKit;
 
     private ExecutorService service = Executors.newSingleThreadExecutor();
@@ -39,7 +75,13 @@ public class DefaultSearchManager extends SearchManager {
 
     private Set<SearchCategory> categories = new HashSet<>();
 
-    private List<SearchMetadata> searchMetadataCache = new ArrayList<>();
+    private volatile SearchMetadataIndex searchMetadataIndex = new SearchMetadataIndex();
+
+    /**
+     * The number of the incremental updates of the search metadata index.
+     * The index is updated while it is locked, see {@link #saveIndexCache(String, SearchMetadataIndex)}.
+     */
+    private int indexUpdates;
 
     private OWLOntologyChangeListener ontologyChangeListener;
 
@@ -49,6 +91,13 @@ public class DefaultSearchManager extends SearchManager {
 
     private final List<ProgressMonitor> progressMonitors = new ArrayList<>();
 
+    private SearchMetadataIndexCache indexCache;
+
+    /**
+     * The key of the persistent copy of the current search metadata index, if any.
+     */
+    private volatile String indexCacheKey;
+
     public DefaultSearchManager() {
 
     }
@@ -57,11 +106,12 @@ public class DefaultSearchManager extends SearchManager {
     public void initialise() {
         this.editorKit = getEditorKit();
         this.importManager = new SearchMetadataImportManager();
+        this.indexCache = new SearchMetadataIndexCache(new File(ProtegeDirectories.getCacheDirectory(), "search"));
         categories.add(SearchCategory.DISPLAY_NAME);
         categories.add(SearchCategory.IRI);
         categories.add(SearchCategory.ANNOTATION_VALUE);
         categories.add(SearchCategory.LOGICAL_AXIOM);
-        ontologyChangeListener = changes -> markCacheAsStale();
+        ontologyChangeListener = this::handleOntologyChanges;
         modelManagerListener = this::handleModelManagerEvent;
         editorKit.getModelManager().addListener(modelManagerListener);
         editorKit.getOWLModelManager().addOntologyChangeListener(ontologyChangeListener);
@@ -84,13 +134,47 @@ public class DefaultSearchManager extends SearchManager {
     }
 
     private void handleModelManagerEvent(OWLModelManagerChangeEvent event) {
+        if (event.isType(EventType.ENTITY_RENDERER_CHANGED) || event.isType(EventType.ONTOLOGY_RELOADED)) {
+            // the key may not cover all renderer settings (e.g. prefixes),
+            // nor the changes made to the RDF graph directly
+            invalidateIndexCache();
+        }
+        if (event.isType(EventType.ENTITY_RENDERING_CHANGED) && !event.getEntities().isEmpty()) {
+            handleRenderingChanges(event.getEntities());
+            return;
+        }
         if (isCacheMutatingEvent(event)) {
             markCacheAsStale();
         }
     }
 
+    /**
+     * Schedules the incremental update of the search metadata of the entities whose renderings have changed,
+     * and of the subjects of the axioms which mention them.
+     * @param entities Set of {@link OWLEntity}s
+     */
+    private void handleRenderingChanges(Set<OWLEntity> entities) {
+        if (isCacheStale()) {
+            return;
+        }
+        if (entities.size() > MAX_INCREMENTAL_CHANGES) {
+            markCacheAsStale();
+            return;
+        }
+        Set<OWLEntity> copy = new HashSet<>(entities);
+        service.submit(() -> updateRenderings(copy));
+    }
+
+    private void invalidateIndexCache() {
+        String key = indexCacheKey;
+        if (key != null) {
+            indexCacheKey = null;
+            indexCache.invalidate(key);
+        }
+    }
+
     private boolean isCacheMutatingEvent(OWLModelManagerChangeEvent event) {
-        return event.isType(EventType.ACTIVE_ONTOLOGY_CHANGED) || event.isType(EventType.ENTITY_RENDERER_CHANGED) || event.isType(EventType.ENTITY_RENDERING_CHANGED);
+        return event.isType(EventType.ACTIVE_ONTOLOGY_CHANGED) || event.isType(EventType.ONTOLOGY_RELOADED) || event.isType(EventType.ENTITY_RENDERER_CHANGED) || event.isType(EventType.ENTITY_RENDERING_CHANGED);
     }
 
 
@@ -98,6 +182,160 @@ public class DefaultSearchManager extends SearchManager {
         lastSearchId.set(0);
     }
 
+    private boolean isCacheStale() {
+        return lastSearchId.get() == 0;
+    }
+
+    /**
+     * Collects the subjects whose search metadata is affected by the changes
+     * and schedules the incremental update of the search metadata.
+     * Changes that cannot be applied incrementally (e.g. imports changes) make the whole cache stale.
+     * @param changes List of {@link OWLOntologyChange}s
+     */
+    private void handleOntologyChanges(List<? extends OWLOntologyChange> changes) {
+        if (isCacheStale()) {
+            // the cache will be rebuilt on the next search anyway
+            return;
+        }
+        if (changes.size() > MAX_INCREMENTAL_CHANGES) {
+            markCacheAsStale();
+            return;
+        }
+        Set<OWLOntology> ontologies = editorKit.getOWLModelManager().getActiveOntologies();
+        Set<OWLObject> subjects = new HashSet<>();
+        Set<IRI> annotationSubjects = new HashSet<>();
+        Set<OWLEntity> signature = new HashSet<>();
+        for (OWLOntologyChange change : changes) {
+            if (!ontologies.contains(change.getOntology())) {
+                continue;
+            }
+            if (change.isAxiomChange()) {
+                OWLAxiom axiom = change.getAxiom();
+                OWLObject subject = AxiomSubjectProviderEx.getSubject(axiom);
+                if (subject instanceof OWLEntity) {
+                    subjects.add(subject);
+                } else if (subject instanceof IRI) {
+                    annotationSubjects.add((IRI) subject);
+                }
+                axiom.signature().forEach(signature::add);
+            } else if (change instanceof AddOntologyAnnotation || change instanceof RemoveOntologyAnnotation) {
+                subjects.add(change.getOntology());
+            } else {
+                markCacheAsStale();
+                return;
+            }
+        }
+        if (subjects.isEmpty() && annotationSubjects.isEmpty() && signature.isEmpty()) {
+            return;
+        }
+        service.submit(() -> updateMetadataCache(subjects, annotationSubjects, signature));
+    }
+
+    /**
+     * Replaces the search metadata of the affected subjects.
+     * The subjects of the changed axioms (including entities denoted by the annotation subject IRIs) are regenerated,
+     * the other entities from the signature of the changed axioms are regenerated only
+     * if they have appeared in or disappeared from the active ontologies.
+     * @param subjects           Set of {@link OWLObject}s, entities and ontologies, whose metadata has changed
+     * @param annotationSubjects Set of {@link IRI}s, subjects of changed annotation assertions
+     * @param signature          Set of {@link OWLEntity}s, the signature of changed axioms
+     */
+    private void updateMetadataCache(Set<OWLObject> subjects, Set<IRI> annotationSubjects, Set<OWLEntity> signature) {
+        if (isCacheStale()) {
+            return;
+        }
+        try {
+            Set<OWLOntology> ontologies = editorKit.getOWLModelManager().getActiveOntologies();
+            Set<OWLObject> toUpdate = new HashSet<>(subjects);
+            for (IRI iri : annotationSubjects) {
+                ontologies.forEach(o -> o.entitiesInSignature(iri).forEach(toUpdate::add));
+            }
+            for (OWLEntity entity : signature) {
+                if (toUpdate.contains(entity)) {
+                    continue;
+                }
+                boolean inSignature = ontologies.stream().anyMatch(o -> o.containsEntityInSignature(entity));
+                if (inSignature != searchMetadataIndex.containsSubject(entity)) {
+                    toUpdate.add(entity);
+                }
+            }
+            regenerateMetadata(toUpdate);
+        } catch (RuntimeException e) {
+            logger.error("Cannot update search metadata incrementally: {}", e.getMessage(), e);
+            markCacheAsStale();
+        }
+    }
+
+    /**
+     * Replaces the search metadata of the entities whose renderings have changed,
+     * and of the subjects of the axioms which mention these entities, since their renderings have changed too.
+     * @param entities Set of {@link OWLEntity}s
+     */
+    private void updateRenderings(Set<OWLEntity> entities) {
+        if (isCacheStale()) {
+            return;
+        }
+        try {
+            Set<OWLOntology> ontologies = editorKit.getOWLModelManager().getActiveOntologies();
+            Set<OWLObject> toUpdate = new HashSet<>();
+            for (OWLEntity entity : entities) {
+                if (searchMetadataIndex.containsSubject(entity)) {
+                    toUpdate.add(entity);
+                }
+                for (OWLOntology ontology : ontologies) {
+                    ontology.referencingAxioms(entity).forEach(ax -> {
+                        OWLObject subject = AxiomSubjectProviderEx.getSubject(ax);
+                        if (subject instanceof OWLEntity && searchMetadataIndex.containsSubject(subject)) {
+                            toUpdate.add(subject);
+                        }
+                    });
+                }
+            }
+            if (toUpdate.isEmpty()) {
+                return;
+            }
+            regenerateMetadata(toUpdate);
+        } catch (RuntimeException e) {
+            logger.error("Cannot update search metadata incrementally: {}", e.getMessage(), e);
+            markCacheAsStale();
+        }
+    }
+
+    /**
+     * Regenerates the search metadata rows of the specified subjects.
+     * @param toUpdate Set of {@link OWLObject}s
+     */
+    private void regenerateMetadata(Set<OWLObject> toUpdate) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        List<SearchMetadata> rows = new ArrayList<>();
+        for (SearchMetadataImporter importer : importManager.getImporters()) {
+            Optional<SearchMetadataDB> db = importer.getSearchMetadata(editorKit, categories, toUpdate);
+            if (!db.isPresent()) {
+                rebuildMetadataCache();
+                return;
+            }
+            rows.addAll(db.get().getResults());
+        }
+        SearchMetadataIndex index = searchMetadataIndex;
+        synchronized (index) {
+            toUpdate.forEach(index::remove);
+            index.addAll(rows);
+            indexUpdates++;
+        }
+        logger.debug("Updated search metadata for {} subjects ({} rows) in {} ms",
+                toUpdate.size(), rows.size(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
+    }
+
+    private void logStoreSize(SearchMetadataIndex index) {
+        SearchMetadataStore store = index.getStore();
+        int rows = store.size();
+        if (rows == 0) {
+            return;
+        }
+        logger.info("    {} search metadata rows take ~{} bytes per row (~{} bytes per row as separate objects)",
+                    rows, store.estimateSize() / rows, store.estimateObjectsSize() / rows);
+    }
+
     @Override
     public boolean isSearchType(SearchCategory category) {
         return categories.contains(category);
@@ -107,6 +345,7 @@ public class DefaultSearchManager extends SearchManager {
     public void setCategories(Collection<SearchCategory> categories) {
         this.categories.clear();
         this.categories.addAll(categories);
+        invalidateIndexCache();
         markCacheAsStale();
     }
 
@@ -115,14 +354,41 @@ public class DefaultSearchManager extends SearchManager {
         logger.info("Rebuilding search metadata cache...");
         fireIndexingStarted();
         try {
-            searchMetadataCache.clear();
+            searchMetadataIndex = new SearchMetadataIndex();
+            indexCacheKey = null;
             List<SearchMetadataImporter> importerList = importManager.getImporters();
-            for (SearchMetadataImporter importer : importerList) {
-                SearchMetadataDB db = importer.getSearchMetadata(editorKit, categories);
-                searchMetadataCache.addAll(db.getResults());
+            Optional<String> key = indexCache.getKey(editorKit.getOWLModelManager(), categories, importerList);
+            if (key.isPresent()) {
+                Optional<SearchMetadataIndex> cached = indexCache.load(key.get(), editorKit.getOWLModelManager(),
+                        new SearchMetadataImportContext(editorKit).getStyledStringRenderer());
+                if (cached.isPresent()) {
+                    searchMetadataIndex = cached.get();
+                    indexCacheKey = key.get();
+                    stopwatch.stop();
+                    logger.info("    ...loaded search metadata cache from disk in {} ms",
+                                stopwatch.elapsed(TimeUnit.MILLISECONDS));
+                    return;
+                }
+            }
+            // importers run one after another, and each of them imports sequentially,
+            // since the renderers and the rendering caches of the editor kit are not thread-safe
+            List<SearchMetadataDB> dbs = importerList.stream()
+                    .map(importer -> importer.getSearchMetadata(editorKit, categories))
+                    .collect(Collectors.toList());
+            SearchMetadataIndex index = new SearchMetadataIndex();
+            for (int i = 0; i < dbs.size(); i++) {
+                index.addAll(dbs.get(i).getResults());
+                // the imported objects are not needed once they are copied into the store
+                dbs.set(i, null);
             }
+            searchMetadataIndex = index;
             stopwatch.stop();
             logger.info("    ...rebuilt search metadata cache in {} ms", stopwatch.elapsed(TimeUnit.MILLISECONDS));
+            logStoreSize(index);
+            if (key.isPresent()) {
+                indexCacheKey = key.get();
+                saveIndexCache(key.get(), index);
+            }
         }
         finally {
             fireIndexingFinished();
@@ -131,6 +397,30 @@ public class DefaultSearchManager extends SearchManager {
     }
 
 
+    /**
+     * Writes the just built index to the disk cache in a background thread.
+     * The index is not written if it has been updated or replaced meanwhile,
+     * since then it does not correspond to the ontology documents anymore.
+     * @param key   String, the key of the index
+     * @param index {@link SearchMetadataIndex}
+     */
+    private void saveIndexCache(String key, SearchMetadataIndex index) {
+        int updates = indexUpdates;
+        INDEX_CACHE_WRITER.submit(() -> {
+            synchronized (index) {
+                if (index != searchMetadataIndex || updates != indexUpdates || !key.equals(indexCacheKey)) {
+                    return;
+                }
+                indexCache.save(key, index);
+            }
+            if (!key.equals(indexCacheKey)) {
+                // invalidated while it was written
+                indexCache.invalidate(key);
+            }
+        });
+    }
+
+
     @Override
     public void performSearch(final SearchRequest searchRequest, final SearchResultHandler searchResultHandler) {
         if (lastSearchId.getAndIncrement() == 0) {
@@ -164,63 +454,108 @@ public class DefaultSearchManager extends SearchManager {
                 }
             }
             logger.info("Starting search {} (pattern: {})", searchId, patternString);
-            List<SearchResult> results = new ArrayList<>();
-
 
             long searchStartTime = System.currentTimeMillis();
             fireSearchStarted();
-            long count = 0;
-            int total = searchMetadataCache.size();
-            int percent = 0;
-            for (SearchMetadata searchMetadata : searchMetadataCache) {
-                if (!isLatestSearch()) {
-                    // New search started
-                    logger.info("    Terminating search {} prematurely", searchId);
-                    return;
-                }
-                String text = searchMetadata.getSearchString();
-                boolean matchedAllPatterns = true;
-                int startIndex = 0;
-                ImmutableList.Builder<SearchResultMatch> matchesBuilder = ImmutableList.builder();
-                for(Pattern pattern : searchRequest.getSearchPatterns()) {
-                    if(startIndex >= text.length()) {
-                        matchedAllPatterns = false;
+            List<SearchMetadata> candidates = searchMetadataIndex.getCandidates(searchRequest);
+            logger.debug("    {} of {} search metadata rows selected by index", candidates.size(), searchMetadataIndex.size());
+            int total = candidates.size();
+            boolean streaming = searchResultHandler.getCategorySizeLimit() != Integer.MAX_VALUE;
+            SearchResultCollector collector = new SearchResultCollector(new SearchResultComparator(editorKit),
+                    searchResultHandler.getCategorySizeLimit());
+            AtomicInteger count = new AtomicInteger();
+            AtomicInteger found = new AtomicInteger();
+            AtomicInteger percent = new AtomicInteger();
+            AtomicLong lastPublished = new AtomicLong();
+            ParallelPartitions.map(candidates, MIN_MATCH_PARTITION_SIZE, partition -> {
+                List<SearchResult> batch = new ArrayList<>();
+                for (SearchMetadata searchMetadata : partition) {
+                    if (!isLatestSearch()) {
                         break;
                     }
-                    Matcher matcher = pattern.matcher(text);
-                    if (matcher.find()) {
-                        SearchResultMatch match = new SearchResultMatch(pattern, matcher.start(), matcher.end());
-                        matchesBuilder.add(match);
-                        startIndex = matcher.end() + 1;
+                    SearchResult result = match(searchMetadata);
+                    if (result != null) {
+                        batch.add(result);
+                        found.incrementAndGet();
+                        if (batch.size() == RESULTS_BATCH_SIZE) {
+                            collector.addAll(batch);
+                            batch.clear();
+                            if (streaming) {
+                                publishResults(collector, lastPublished);
+                            }
+                        }
                     }
-                    else {
-                        matchedAllPatterns = false;
-                        break;
+                    int nextPercent = (int) ((count.incrementAndGet() * 100L) / total);
+                    int currentPercent = percent.get();
+                    if (nextPercent > currentPercent && percent.compareAndSet(currentPercent, nextPercent)) {
+                        fireSearchProgressed(nextPercent, found.get());
                     }
                 }
-                if (matchedAllPatterns) {
-
-                    results.add(new SearchResult(searchMetadata, matchesBuilder.build()));
-                }
-                count++;
-                int nextPercent = (int) ((count * 100) / total);
-                if (nextPercent != percent) {
-                    percent = nextPercent;
-                    fireSearchProgressed(percent, results.size());
-                }
+                collector.addAll(batch);
+                return batch.size();
+            });
+            if (!isLatestSearch()) {
+                // New search started
+                logger.info("    Terminating search {} prematurely", searchId);
+                return;
             }
+            // all the candidates are matched, so that the retained results are the best ones
+            SearchResultSet results = collector.toResultSet();
             DefaultSearchManager.this.fireSearchFinished();
             long searchEndTime = System.currentTimeMillis();
             long searchTime = searchEndTime - searchStartTime;
-            logger.info("    Finished search {} in {} ms ({} results)", searchId, searchTime, results.size());
+            logger.info("    Finished search {} in {} ms ({} results)", searchId, searchTime, collector.size());
             fireSearchFinished(results, searchResultHandler);
         }
 
+        /**
+         * Delivers the best results found so far to the handler,
+         * not more often than once per {@code PUBLISH_INTERVAL_MS} (the first batch is delivered immediately).
+         * @param collector     {@link SearchResultCollector}
+         * @param lastPublished {@link AtomicLong} the time of the last delivery
+         */
+        private void publishResults(SearchResultCollector collector, AtomicLong lastPublished) {
+            long now = System.currentTimeMillis();
+            long last = lastPublished.get();
+            if (now - last < PUBLISH_INTERVAL_MS || !lastPublished.compareAndSet(last, now)) {
+                return;
+            }
+            SearchResultSet results = collector.toResultSet();
+            SwingUtilities.invokeLater(() -> {
+                if (isLatestSearch()) {
+                    searchResultHandler.searchProgressed(results);
+                }
+            });
+        }
+
+        /**
+         * Matches all patterns of the request against the search string of the given metadata.
+         * @param searchMetadata {@link SearchMetadata}
+         * @return {@link SearchResult} or <code>null</code> if some pattern is not matched
+         */
+        private SearchResult match(SearchMetadata searchMetadata) {
+            CharSequence text = searchMetadata.getSearchCharSequence();
+            int startIndex = 0;
+            ImmutableList.Builder<SearchResultMatch> matchesBuilder = ImmutableList.builder();
+            for (Pattern pattern : searchRequest.getSearchPatterns()) {
+                if (startIndex >= text.length()) {
+                    return null;
+                }
+                Matcher matcher = pattern.matcher(text);
+                if (!matcher.find()) {
+                    return null;
+                }
+                matchesBuilder.add(new SearchResultMatch(pattern, matcher.start(), matcher.end()));
+                startIndex = matcher.end() + 1;
+            }
+            return new SearchResult(searchMetadata, matchesBuilder.build());
+        }
+
         private boolean isLatestSearch() {
             return searchId == lastSearchId.get();
         }
 
-        private void fireSearchFinished(final List<SearchResult> results, final SearchResultHandler searchResultHandler) {
+        private void fireSearchFinished(final SearchResultSet results, final SearchResultHandler searchResultHandler) {
             if (SwingUtilities.isEventDispatchThread()) {
                 searchResultHandler.searchFinished(results);
             }
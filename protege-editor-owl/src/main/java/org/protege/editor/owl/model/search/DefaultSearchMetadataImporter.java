@@ -10,10 +10,7 @@ import org.protege.editor.owl.ui.renderer.styledstring.StyledString;
 import org.semanticweb.owlapi.model.*;
 import org.semanticweb.owlapi.util.AxiomSubjectProviderEx;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 /**
  * Author: Matthew Horridge<br>
@@ -35,10 +32,62 @@ public class DefaultSearchMetadataImporter implements SearchMetadataImporter {
         return db;
     }
 
+    @Override
+    public Optional<SearchMetadataDB> getSearchMetadata(OWLEditorKit editorKit,
+                                                        Set<SearchCategory> categories,
+                                                        Collection<? extends OWLObject> subjects) {
+        SearchMetadataImportContext context = new SearchMetadataImportContext(editorKit);
+        SearchMetadataDB db = new SearchMetadataDB();
+        List<EntityBasedSearchMDImporter> entityImporters = getEntityBasedSearchMetadataImporters(categories);
+        List<OntologyBasedSearchMDImporter> ontologyImporters = getOntologyBasedSearchMetadataImporters(categories);
+        Map<AxiomType<?>, List<AxiomBasedSearchMetadataImporter>> axiomImporters = new HashMap<>();
+        for (OWLObject subject : subjects) {
+            if (subject instanceof OWLEntity) {
+                OWLEntity entity = (OWLEntity) subject;
+                if (context.getOntologies().stream().noneMatch(o -> o.containsEntityInSignature(entity))) {
+                    continue;
+                }
+                getSearchMetadataForEntity(entity, context, db, entityImporters);
+                getAxiomBasedSearchMetadataForEntity(entity, categories, context, db, axiomImporters);
+            } else if (subject instanceof OWLOntology) {
+                OWLOntology ontology = (OWLOntology) subject;
+                if (!context.getOntologies().contains(ontology)) {
+                    continue;
+                }
+                for (OntologyBasedSearchMDImporter importer : ontologyImporters) {
+                    importer.generateSearchMetadata(ontology, context, db);
+                }
+            }
+        }
+        return Optional.of(db);
+    }
+
+    /**
+     * Generates axiom based search metadata for all axioms whose subject is the given entity.
+     * The result is the same as the corresponding part of the full import restricted to this entity.
+     */
+    private void getAxiomBasedSearchMetadataForEntity(OWLEntity entity,
+                                                      Set<SearchCategory> categories,
+                                                      SearchMetadataImportContext context,
+                                                      SearchMetadataDB db,
+                                                      Map<AxiomType<?>, List<AxiomBasedSearchMetadataImporter>> importers) {
+        String rendering = context.getRendering(entity);
+        for (OWLOntology ontology : context.getOntologies()) {
+            ontology.referencingAxioms(entity)
+                    .filter(ax -> entity.equals(AxiomSubjectProviderEx.getSubject(ax)))
+                    .forEach(ax -> importers.computeIfAbsent(ax.getAxiomType(),
+                            t -> getAxiomBasedSearchMetadataImporters(categories, t))
+                            .forEach(importer -> importer.generateSearchMetadataFor(ax, entity, rendering, context, db)));
+        }
+    }
+
     private void getEntityBasedSearchMetadata(Set<SearchCategory> categories,
                                               SearchMetadataImportContext context,
                                               SearchMetadataDB db) {
         List<EntityBasedSearchMDImporter> importers = getEntityBasedSearchMetadataImporters(categories);
+        if (importers.isEmpty()) {
+            return;
+        }
         Set<OWLEntity> processed = new HashSet<>();
         context.getOntologies().stream().flatMap(HasSignature::signature).filter(processed::add)
                 .forEach(e -> getSearchMetadataForEntity(e, context, db, importers));
@@ -67,15 +116,18 @@ public class DefaultSearchMetadataImporter implements SearchMetadataImporter {
                                                   Set<SearchCategory> categories,
                                                   SearchMetadataImportContext context,
                                                   SearchMetadataDB db) {
-        getAxiomBasedSearchMetadataImporters(categories, axiomType)
-                .forEach(importer -> context.getOntologies().stream().flatMap(x -> x.axioms(axiomType)).forEach(ax -> {
-                    OWLObject subject = AxiomSubjectProviderEx.getSubject(ax);
-                    if (subject instanceof OWLEntity) {
-                        OWLEntity entSubject = (OWLEntity) subject;
-                        String rendering = context.getRendering(entSubject);
-                        importer.generateSearchMetadataFor(ax, entSubject, rendering, context, db);
-                    }
-                }));
+        List<AxiomBasedSearchMetadataImporter> importers = getAxiomBasedSearchMetadataImporters(categories, axiomType);
+        if (importers.isEmpty()) {
+            return;
+        }
+        importers.forEach(importer -> context.getOntologies().stream().flatMap(x -> x.axioms(axiomType)).forEach(ax -> {
+            OWLObject subject = AxiomSubjectProviderEx.getSubject(ax);
+            if (subject instanceof OWLEntity) {
+                OWLEntity entSubject = (OWLEntity) subject;
+                String rendering = context.getRendering(entSubject);
+                importer.generateSearchMetadataFor(ax, entSubject, rendering, context, db);
+            }
+        }));
     }
 
     private void getOntologyBasedSearchMetadata(Set<SearchCategory> categories,
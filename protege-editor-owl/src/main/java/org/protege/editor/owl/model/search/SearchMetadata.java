@@ -1,5 +1,6 @@
 package org.protege.editor.owl.model.search;
 
+import org.protege.editor.owl.ui.renderer.styledstring.OWLObjectStyledStringRenderer;
 import org.protege.editor.owl.ui.renderer.styledstring.StyledString;
 import org.semanticweb.owlapi.model.OWLObject;
 
@@ -28,6 +29,10 @@ public class SearchMetadata implements Comparable<SearchMetadata> {
 
     private String searchString;
 
+    private OWLObject renderedObject;
+
+    private OWLObjectStyledStringRenderer styledStringRenderer;
+
     /**
      * Records search metadata for a given object.
      * @param category The category which the search metadata falls into.
@@ -46,6 +51,29 @@ public class SearchMetadata implements Comparable<SearchMetadata> {
         this.searchString = searchString;
     }
 
+    /**
+     * Records search metadata for a given object, whose search string is the rendering of some other object.
+     * @param category The category which the search metadata falls into.
+     * @param groupDescription The description (human readable name) of the subgroup which the metadata falls into.
+     * @param subject The subject to which the search string pertains to.
+     * @param subjectRendering A rendering of the subject.  This rendering is used to compare search metadata objects.
+     * @param searchString The string that should be searched.
+     * @param renderedObject The object (e.g. an annotation or an axiom) which is rendered as the search string.
+     * @param styledStringRenderer The renderer which is used to get the
+     * {@link #getStyledSearchSearchString() styled search string} from the rendered object.
+     */
+    public SearchMetadata(SearchCategory category,
+                          String groupDescription,
+                          OWLObject subject,
+                          String subjectRendering,
+                          String searchString,
+                          OWLObject renderedObject,
+                          OWLObjectStyledStringRenderer styledStringRenderer) {
+        this(category, groupDescription, subject, subjectRendering, searchString);
+        this.renderedObject = renderedObject;
+        this.styledStringRenderer = styledStringRenderer;
+    }
+
 
     /**
      * Gets the category which this SearchMetadata belongs to.
@@ -88,7 +116,7 @@ public class SearchMetadata implements Comparable<SearchMetadata> {
      * @return <code>true</code> if the search string is a display name, otherwise <code>false</code>.
      */
     public boolean isSearchStringEntityRendering() {
-        return category == SearchCategory.DISPLAY_NAME;
+        return getCategory() == SearchCategory.DISPLAY_NAME;
     }
 
     /**
@@ -99,33 +127,63 @@ public class SearchMetadata implements Comparable<SearchMetadata> {
         return searchString;
     }
 
+    /**
+     * Gets the search string as a char sequence.
+     * Unlike {@link #getSearchString()} this may avoid copying of the underlying chars, so it is used for matching.
+     * @return The search string.  Not <code>null</code>.
+     */
+    public CharSequence getSearchCharSequence() {
+        return getSearchString();
+    }
+
+    /**
+     * Gets the object which is rendered as the search string, if any.
+     * @return {@link OWLObject} or <code>null</code> if the search string is not a rendering of some object.
+     */
+    public OWLObject getRenderedObject() {
+        return renderedObject;
+    }
+
+    /**
+     * Gets the renderer for the {@link #getRenderedObject() rendered object}.
+     * @return {@link OWLObjectStyledStringRenderer} or <code>null</code>
+     */
+    public OWLObjectStyledStringRenderer getStyledStringRenderer() {
+        return styledStringRenderer;
+    }
+
     /**
      * Gets a stylised version of the search string.  This stylised version contains exactly the same underlying string
      * as returned by {@link #getSearchString()}.
      * @return A {@link StyledString} rendering of the search string (for display in a UI).  Not <code>null</code>.
      */
     public StyledString getStyledSearchSearchString() {
-        return new StyledString(searchString);
+        OWLObject object = getRenderedObject();
+        OWLObjectStyledStringRenderer renderer = getStyledStringRenderer();
+        if (object != null && renderer != null) {
+            return renderer.getRendering(object);
+        }
+        return new StyledString(getSearchString());
     }
 
 
     public int compareTo(SearchMetadata o) {
-        int catDiff = this.category.compareTo(o.category);
+        int catDiff = this.getCategory().compareTo(o.getCategory());
         if (catDiff != 0) {
             return catDiff;
         }
-        int typeDiff = this.groupDescription.compareTo(o.groupDescription);
+        int typeDiff = this.getGroupDescription().compareTo(o.getGroupDescription());
         if (typeDiff != 0) {
             return typeDiff;
         }
-        int subjectRenderingDiff = this.subjectRendering.compareTo(o.subjectRendering);
+        int subjectRenderingDiff = this.getSubjectRendering().compareTo(o.getSubjectRendering());
         if (subjectRenderingDiff != 0) {
             return subjectRenderingDiff;
         }
-        int subjectDiff = this.subject.compareTo(o.subject);
+        int subjectDiff = this.getSubject().compareTo(o.getSubject());
         if (subjectDiff != 0) {
             return subjectDiff;
         }
-        return searchString.compareTo(o.searchString);
+        return getSearchString().compareTo(o.getSearchString());
     }
 }
@@ -49,4 +49,8 @@ public class SearchMetadataImportContext {
         return styledStringRenderer.getRendering(object);
     }
 
+    public OWLObjectStyledStringRenderer getStyledStringRenderer() {
+        return styledStringRenderer;
+    }
+
 }
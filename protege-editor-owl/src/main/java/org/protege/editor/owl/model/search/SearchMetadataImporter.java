@@ -1,7 +1,10 @@
 package org.protege.editor.owl.model.search;
 
 import org.protege.editor.owl.OWLEditorKit;
+import org.semanticweb.owlapi.model.OWLObject;
 
+import java.util.Collection;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -13,4 +16,22 @@ import java.util.Set;
 public interface SearchMetadataImporter {
 
     SearchMetadataDB getSearchMetadata(OWLEditorKit editorKit, Set<SearchCategory> categories);
+
+    /**
+     * Generates the search metadata only for the specified subjects (entities and ontologies).
+     * This is used to update the search metadata incrementally after ontology changes:
+     * all the existing metadata for the subjects is replaced by the returned metadata.
+     * Subjects which are no longer present in the active ontologies must produce no metadata.
+     * @param editorKit  {@link OWLEditorKit}
+     * @param categories Set of {@link SearchCategory}s
+     * @param subjects   Collection of subjects, which are {@link org.semanticweb.owlapi.model.OWLEntity}s
+     *                   or {@link org.semanticweb.owlapi.model.OWLOntology}s
+     * @return {@link SearchMetadataDB} or an empty optional if the importer does not support incremental updates,
+     * in that case the whole metadata must be rebuilt
+     */
+    default Optional<SearchMetadataDB> getSearchMetadata(OWLEditorKit editorKit,
+                                                         Set<SearchCategory> categories,
+                                                         Collection<? extends OWLObject> subjects) {
+        return Optional.empty();
+    }
 }
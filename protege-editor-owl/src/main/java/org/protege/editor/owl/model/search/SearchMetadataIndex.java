@@ -0,0 +1,471 @@
+package org.protege.editor.owl.model.search;
+
+import org.semanticweb.owlapi.model.OWLObject;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * An inverted trigram index over the {@link SearchMetadata#getSearchString() search strings}
+ * of a list of {@link SearchMetadata} rows.
+ * <p>
+ * The index is used to narrow the rows that have to be matched against the patterns of a {@link SearchRequest}:
+ * the literal fragments which every match of a pattern must contain are split into trigrams,
+ * and only the rows whose search strings contain all these trigrams are returned as candidates.
+ * Characters are case-folded before indexing, so the candidates are always a superset of the real matches
+ * independently of the {@link Pattern#CASE_INSENSITIVE} flag.
+ * Patterns which cannot be reduced to literals (i.e. real regular expressions) are not used for narrowing,
+ * for such requests the caller has to scan all the rows.
+ * </p>
+ * <p>
+ * The index can be updated incrementally: all rows of a {@link SearchMetadata#getSubject() subject}
+ * can be {@link #remove(OWLObject) removed} and new rows can be {@link #addAll(Collection) appended}.
+ * Removed rows are left as tombstones, which are dropped by a compaction once they outnumber the live rows.
+ * The index is not thread-safe, it is expected to be confined to the search thread.
+ * </p>
+ * <p>
+ * The index together with its rows can be {@link #write(DataOutputStream, Function) written}
+ * and {@link #read(ByteBuffer, Function) read} back, so that it need not be rebuilt from the ontologies.
+ * </p>
+ */
+public class SearchMetadataIndex {
+
+    static final int GRAM_LENGTH = 3;
+
+    private static final int MIN_ROWS_TO_COMPACT = 1024;
+
+    private static final long GRAM_MASK = (1L << 16 * GRAM_LENGTH) - 1;
+
+    private static final String REGEX_META_CHARS = "\\^$.|?*+()[]{}";
+    private static final String WHITE_SPACE_PATTERN = "\\s+";
+    private static final String WHOLE_WORDS_PREFIX = "\\b(:?";
+    private static final String WHOLE_WORDS_SUFFIX = ")\\b";
+
+    private static final int[] NO_IDS = new int[0];
+
+    private SearchMetadataStore store = new SearchMetadataStore();
+
+    private final BitSet removedRows = new BitSet();
+
+    private final Map<Long, IntList> postings = new HashMap<>();
+
+    private final Map<OWLObject, IntList> subjects = new HashMap<>();
+
+    private int removed;
+
+    private List<SearchMetadata> liveRows;
+
+    /**
+     * Creates an empty index.
+     */
+    public SearchMetadataIndex() {
+        this(Collections.emptyList());
+    }
+
+    /**
+     * Builds the index over the specified rows.
+     * @param rows The list of {@link SearchMetadata}s to index.  Not <code>null</code>.
+     */
+    public SearchMetadataIndex(List<SearchMetadata> rows) {
+        addAll(rows);
+    }
+
+    /**
+     * Gets all indexed rows in the order they were added.
+     * The rows are {@link SearchMetadataStore#get(int) views} of the underlying compact store.
+     * @return An unmodifiable list of {@link SearchMetadata}s.  Not <code>null</code>.
+     */
+    public List<SearchMetadata> getRows() {
+        if (liveRows == null) {
+            int[] ids = new int[size()];
+            int k = 0;
+            for (int id = removedRows.nextClearBit(0); id < store.size(); id = removedRows.nextClearBit(id + 1)) {
+                ids[k++] = id;
+            }
+            liveRows = new RowList(store, ids);
+        }
+        return liveRows;
+    }
+
+    /**
+     * Gets the number of indexed rows.
+     * @return int
+     */
+    public int size() {
+        return store.size() - removed;
+    }
+
+    /**
+     * Gets the underlying store.
+     * @return {@link SearchMetadataStore}
+     */
+    public SearchMetadataStore getStore() {
+        return store;
+    }
+
+    /**
+     * Answers {@code true} if there is at least one row for the specified subject.
+     * @param subject {@link OWLObject}
+     * @return boolean
+     */
+    public boolean containsSubject(OWLObject subject) {
+        return subjects.containsKey(subject);
+    }
+
+    /**
+     * Appends the specified rows to the index.
+     * @param metadata Collection of {@link SearchMetadata}s, not <code>null</code>
+     */
+    public void addAll(Collection<SearchMetadata> metadata) {
+        if (metadata.isEmpty()) {
+            return;
+        }
+        for (SearchMetadata row : metadata) {
+            int id = store.add(row);
+            subjects.computeIfAbsent(row.getSubject(), k -> new IntList()).addUnique(id);
+            // the trigrams are read directly from the store, without a folded copy of the string
+            CharSequence text = store.getSearchCharSequence(id);
+            long key = 0;
+            for (int i = 0; i < text.length(); i++) {
+                key = (key << 16 | fold(text.charAt(i))) & GRAM_MASK;
+                if (i >= GRAM_LENGTH - 1) {
+                    postings.computeIfAbsent(key, k -> new IntList()).addUnique(id);
+                }
+            }
+        }
+        liveRows = null;
+    }
+
+    /**
+     * Removes all rows of the specified subject from the index.
+     * @param subject {@link OWLObject}
+     * @return the number of removed rows
+     */
+    public int remove(OWLObject subject) {
+        IntList ids = subjects.remove(subject);
+        if (ids == null) {
+            return 0;
+        }
+        for (int i = 0; i < ids.size; i++) {
+            removedRows.set(ids.data[i]);
+        }
+        removed += ids.size;
+        liveRows = null;
+        if (removed > MIN_ROWS_TO_COMPACT && removed > size()) {
+            compact();
+        }
+        return ids.size;
+    }
+
+    /**
+     * Rebuilds the index from the live rows, dropping tombstones.
+     */
+    private void compact() {
+        // the views still refer to the old store
+        List<SearchMetadata> live = getRows();
+        store = new SearchMetadataStore();
+        removedRows.clear();
+        postings.clear();
+        subjects.clear();
+        removed = 0;
+        addAll(live);
+    }
+
+    /**
+     * Writes the live rows and the trigram postings.
+     * @param out            {@link DataOutputStream}, not <code>null</code>
+     * @param subjectEncoder see {@link SearchMetadataStore#write(DataOutputStream, Function)}
+     * @throws IOException if the output fails or some row cannot be written
+     */
+    void write(DataOutputStream out, Function<OWLObject, String> subjectEncoder) throws IOException {
+        if (removed != 0) {
+            compact();
+        }
+        store.write(out, subjectEncoder);
+        out.writeInt(postings.size());
+        for (Map.Entry<Long, IntList> e : postings.entrySet()) {
+            IntList ids = e.getValue();
+            out.writeLong(e.getKey());
+            out.writeInt(ids.size);
+            SearchMetadataStore.writeInts(out, ids.data, ids.size);
+        }
+    }
+
+    /**
+     * Reads the index written by {@link #write(DataOutputStream, Function)}.
+     * @param in             {@link ByteBuffer}, not <code>null</code>
+     * @param subjectDecoder see {@link SearchMetadataStore#read(ByteBuffer, Function)}
+     * @return {@link SearchMetadataIndex}
+     * @throws IOException if the data is malformed or some subject is not known
+     */
+    static SearchMetadataIndex read(ByteBuffer in, Function<String, OWLObject> subjectDecoder) throws IOException {
+        SearchMetadataIndex res = new SearchMetadataIndex();
+        SearchMetadataStore store = SearchMetadataStore.read(in, subjectDecoder);
+        res.store = store;
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            long key = in.getLong();
+            int size = in.getInt();
+            if (size <= 0 || size > store.size()) {
+                throw new IOException("Malformed search index postings");
+            }
+            IntList ids = new IntList(size);
+            SearchMetadataStore.readInts(in, ids.data, size);
+            ids.size = size;
+            if (ids.data[0] < 0 || ids.data[size - 1] >= store.size()) {
+                throw new IOException("Malformed search index postings");
+            }
+            res.postings.put(key, ids);
+        }
+        for (int id = 0; id < store.size(); id++) {
+            res.subjects.computeIfAbsent(store.getSubject(id), k -> new IntList()).addUnique(id);
+        }
+        return res;
+    }
+
+    /**
+     * Gets the rows that may match all patterns of the specified request.
+     * The returned rows keep the original order, it is still necessary to apply patterns to them.
+     * @param request {@link SearchRequest}, not <code>null</code>
+     * @return An unmodifiable list of candidate {@link SearchMetadata}s,
+     * which is the whole {@link #getRows() rows} list if the request cannot be narrowed using the index.
+     */
+    public List<SearchMetadata> getCandidates(SearchRequest request) {
+        int[] ids = findCandidateIds(request);
+        if (ids == null) {
+            return getRows();
+        }
+        int k = 0;
+        for (int id : ids) {
+            if (!removedRows.get(id)) {
+                ids[k++] = id;
+            }
+        }
+        return new RowList(store, k == ids.length ? ids : Arrays.copyOf(ids, k));
+    }
+
+    /**
+     * Finds the sorted ids of candidate rows.
+     * @param request {@link SearchRequest}
+     * @return int-array or <code>null</code> if the request cannot be narrowed
+     */
+    int[] findCandidateIds(SearchRequest request) {
+        int[] res = null;
+        for (Pattern pattern : request.getSearchPatterns()) {
+            for (String literal : getRequiredLiterals(pattern)) {
+                int[] found = findIdsContaining(literal);
+                if (found == null) {
+                    continue;
+                }
+                res = res == null ? found : intersect(res, found);
+                if (res.length == 0) {
+                    return res;
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Finds the sorted ids of rows containing all the trigrams of the specified literal.
+     * @param literal String
+     * @return int-array or <code>null</code> if the literal is too short to use the index
+     */
+    private int[] findIdsContaining(String literal) {
+        if (literal.length() < GRAM_LENGTH) {
+            return null;
+        }
+        String folded = fold(literal);
+        Set<Long> keys = new HashSet<>();
+        for (int i = 0; i <= folded.length() - GRAM_LENGTH; i++) {
+            keys.add(gramKey(folded, i));
+        }
+        List<IntList> lists = new ArrayList<>(keys.size());
+        for (Long key : keys) {
+            IntList ids = postings.get(key);
+            if (ids == null) {
+                return NO_IDS;
+            }
+            lists.add(ids);
+        }
+        // start with the most selective trigram
+        lists.sort(Comparator.comparingInt(x -> x.size));
+        int[] res = lists.get(0).toArray();
+        for (int i = 1; i < lists.size() && res.length != 0; i++) {
+            IntList next = lists.get(i);
+            res = intersect(res, next.data, next.size);
+        }
+        return res;
+    }
+
+    /**
+     * Lists the literal fragments that must be contained in any string matched by the specified pattern.
+     * Only patterns produced for non-regex searches are recognised:
+     * {@link Pattern#quote(String) quoted} strings joined with {@code \s+},
+     * optionally wrapped into the whole-words group, and plain strings without regex meta characters.
+     * @param pattern {@link Pattern}, not <code>null</code>
+     * @return List of literals, empty if nothing is known about the pattern
+     */
+    static List<String> getRequiredLiterals(Pattern pattern) {
+        String regex = pattern.pattern();
+        if ((pattern.flags() & Pattern.LITERAL) != 0) {
+            return Collections.singletonList(regex);
+        }
+        if ((pattern.flags() & Pattern.COMMENTS) != 0) {
+            return Collections.emptyList();
+        }
+        if (regex.startsWith(WHOLE_WORDS_PREFIX) && regex.endsWith(WHOLE_WORDS_SUFFIX)
+                && regex.length() >= WHOLE_WORDS_PREFIX.length() + WHOLE_WORDS_SUFFIX.length()) {
+            regex = regex.substring(WHOLE_WORDS_PREFIX.length(), regex.length() - WHOLE_WORDS_SUFFIX.length());
+        }
+        List<String> res = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int i = 0;
+        while (i < regex.length()) {
+            if (regex.startsWith("\\Q", i)) {
+                int end = regex.indexOf("\\E", i + 2);
+                if (end < 0) {
+                    end = regex.length();
+                }
+                current.append(regex, i + 2, end);
+                i = end + 2;
+                continue;
+            }
+            if (regex.startsWith(WHITE_SPACE_PATTERN, i)) {
+                flush(current, res);
+                i += WHITE_SPACE_PATTERN.length();
+                continue;
+            }
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (i + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                    // character class, anchor, back reference, etc
+                    return Collections.emptyList();
+                }
+                current.append(regex.charAt(i + 1));
+                i += 2;
+                continue;
+            }
+            if (REGEX_META_CHARS.indexOf(c) >= 0) {
+                return Collections.emptyList();
+            }
+            current.append(c);
+            i++;
+        }
+        flush(current, res);
+        return res;
+    }
+
+    private static void flush(StringBuilder current, List<String> res) {
+        if (current.length() != 0) {
+            res.add(current.toString());
+            current.setLength(0);
+        }
+    }
+
+    /**
+     * Folds the case of the string char by char, the same way as a case-insensitive pattern compares chars.
+     * The length of the string is preserved.
+     * @param s String
+     * @return String
+     */
+    static String fold(String s) {
+        char[] res = new char[s.length()];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = fold(s.charAt(i));
+        }
+        return new String(res);
+    }
+
+    private static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static long gramKey(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    /**
+     * Intersects two sorted int-arrays.
+     * @param left  int-array, sorted
+     * @param right int-array, sorted
+     * @return new sorted int-array
+     */
+    static int[] intersect(int[] left, int[] right) {
+        return intersect(left, right, right.length);
+    }
+
+    private static int[] intersect(int[] left, int[] right, int rightLength) {
+        int[] res = new int[Math.min(left.length, rightLength)];
+        int i = 0, j = 0, k = 0;
+        while (i < left.length && j < rightLength) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                res[k++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return k == res.length ? res : Arrays.copyOf(res, k);
+    }
+
+    /**
+     * An unmodifiable list of store rows, which creates the row views lazily.
+     */
+    private static class RowList extends AbstractList<SearchMetadata> implements RandomAccess {
+        private final SearchMetadataStore store;
+        private final int[] ids;
+
+        private RowList(SearchMetadataStore store, int[] ids) {
+            this.store = store;
+            this.ids = ids;
+        }
+
+        @Override
+        public SearchMetadata get(int index) {
+            return store.get(ids[index]);
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
+
+    /**
+     * A growable list of ascending ints.
+     */
+    private static class IntList {
+        private int[] data;
+        private int size;
+
+        IntList() {
+            this(4);
+        }
+
+        IntList(int capacity) {
+            data = new int[capacity];
+        }
+
+        void addUnique(int value) {
+            if (size != 0 && data[size - 1] == value) {
+                return;
+            }
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(data, size);
+        }
+    }
+}
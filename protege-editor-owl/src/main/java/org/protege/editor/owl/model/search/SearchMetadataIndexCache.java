@@ -0,0 +1,358 @@
+package org.protege.editor.owl.model.search;
+
+import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.ui.renderer.OWLRendererPreferences;
+import org.protege.editor.owl.ui.renderer.styledstring.OWLObjectStyledStringRenderer;
+import org.semanticweb.owlapi.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * A persistent cache of {@link SearchMetadataIndex}es, one file per index.
+ * <p>
+ * A file is named after the key of the index, which is a digest of the documents of the active ontologies,
+ * the search categories, the importers and the renderer settings.
+ * So an index is reused only for the same unmodified documents rendered in the same way.
+ * There is no key (and nothing is cached) if some of the active ontologies is modified,
+ * is not loaded from a local file or is anonymous.
+ * The files are read by mapping them into memory.
+ * Only the {@link #MAX_FILES} most recently used files are kept.
+ * </p>
+ * The rendered objects of the search metadata (axioms and annotations) are cached as their hash codes,
+ * they are looked up among the axioms and the annotations of the subjects when they are displayed,
+ * see {@link SearchMetadataStore} and {@link RenderedObjectCandidates}.
+ */
+class SearchMetadataIndexCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchMetadataIndexCache.class);
+
+    private static final int MAGIC = 0x50534958;
+
+    /**
+     * The version of the file format, must be changed together with the format or the content of the rows.
+     */
+    private static final int FORMAT_VERSION = 2;
+
+    private static final int MAX_FILES = 8;
+
+    private static final String FILE_SUFFIX = ".index";
+
+    private static final String ONTOLOGY_SUBJECT = "Ontology";
+
+    private final File directory;
+
+    private final Map<String, EntityType<?>> entityTypes = new HashMap<>();
+
+    /**
+     * The digests of the ontology documents by their paths, sizes and modification times.
+     */
+    private final Map<String, String> documentDigests = new ConcurrentHashMap<>();
+
+    /**
+     * @param directory the directory of the cache files, it is created if it does not exist
+     */
+    SearchMetadataIndexCache(File directory) {
+        this.directory = directory;
+        EntityType.values().forEach(type -> entityTypes.put(type.getName(), type));
+    }
+
+    /**
+     * Computes the key of the search metadata index of the active ontologies.
+     * @param modelManager {@link OWLModelManager}
+     * @param categories   Set of {@link SearchCategory}s of the index
+     * @param importers    List of {@link SearchMetadataImporter}s which build the index
+     * @return the key, or an empty optional if the index must not be cached
+     */
+    Optional<String> getKey(OWLModelManager modelManager,
+                            Set<SearchCategory> categories,
+                            List<SearchMetadataImporter> importers) {
+        MessageDigest digest = newDigest();
+        update(digest, Integer.toString(FORMAT_VERSION));
+        categories.stream().sorted().forEach(category -> update(digest, category.name()));
+        importers.forEach(importer -> update(digest, importer.getClass().getName()));
+        OWLRendererPreferences preferences = OWLRendererPreferences.getInstance();
+        update(digest, modelManager.getOWLEntityRenderer().getClass().getName());
+        update(digest, preferences.getAnnotationIRIs().toString());
+        update(digest, preferences.getAnnotationLangs().toString());
+        update(digest, Boolean.toString(preferences.isUseThatKeyword()));
+        update(digest, Boolean.toString(preferences.isRenderDomainAxiomsAsGCIs()));
+        List<OWLOntology> ontologies = new ArrayList<>(modelManager.getActiveOntologies());
+        ontologies.sort(Comparator.comparing(ontology -> ontology.getOntologyID().toString()));
+        for (OWLOntology ontology : ontologies) {
+            if (ontology.getOntologyID().isAnonymous() || modelManager.isDirty(ontology)) {
+                return Optional.empty();
+            }
+            URI documentURI = modelManager.getOntologyPhysicalURI(ontology);
+            if (documentURI == null || !"file".equals(documentURI.getScheme())) {
+                return Optional.empty();
+            }
+            File document = new File(documentURI);
+            if (!document.isFile()) {
+                return Optional.empty();
+            }
+            try {
+                update(digest, ontology.getOntologyID().toString());
+                update(digest, getDocumentDigest(document));
+            } catch (IOException e) {
+                logger.debug("Cannot read the ontology document {}: {}", document, e.getMessage());
+                return Optional.empty();
+            }
+        }
+        return Optional.of(toHex(digest.digest()));
+    }
+
+    /**
+     * Reads the index with the specified key.
+     * A file which cannot be read is deleted.
+     * @param key          String, see {@link #getKey(OWLModelManager, Set, List)}
+     * @param modelManager {@link OWLModelManager} to resolve the subjects and the rendered objects of the index
+     * @param renderer     {@link OWLObjectStyledStringRenderer} to render the rendered objects of the index
+     * @return {@link SearchMetadataIndex} or an empty optional if there is no index with this key
+     */
+    Optional<SearchMetadataIndex> load(String key, OWLModelManager modelManager, OWLObjectStyledStringRenderer renderer) {
+        File file = getFile(key);
+        if (!file.isFile()) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("The file is too big");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                throw new IOException("Unknown file format");
+            }
+            SearchMetadataIndex index = SearchMetadataIndex.read(buffer, code -> decodeSubject(code, modelManager));
+            index.getStore().setRenderedObjectResolver(
+                    new RenderedObjectCandidates(modelManager::getActiveOntologies, renderer), renderer);
+            // the modification time is used to remove the least recently used files
+            file.setLastModified(System.currentTimeMillis());
+            return Optional.of(index);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Cannot read the search index cache file {}: {}", file, e.getMessage());
+            invalidate(key);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the index with the specified key.
+     * Errors are logged, nothing is written if the index cannot be written completely.
+     * @param key   String, see {@link #getKey(OWLModelManager, Set, List)}
+     * @param index {@link SearchMetadataIndex}
+     */
+    void save(String key, SearchMetadataIndex index) {
+        File tmp = null;
+        try {
+            Files.createDirectories(directory.toPath());
+            tmp = File.createTempFile("search", ".tmp", directory);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                index.write(out, this::encodeSubject);
+            }
+            Files.move(tmp.toPath(), getFile(key).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            tmp = null;
+            removeOldFiles();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Cannot write the search index cache file: {}", e.getMessage());
+        } finally {
+            if (tmp != null) {
+                tmp.delete();
+            }
+        }
+    }
+
+    /**
+     * Deletes the index with the specified key.
+     * @param key String
+     */
+    void invalidate(String key) {
+        File file = getFile(key);
+        if (file.exists() && !file.delete()) {
+            logger.warn("Cannot delete the search index cache file {}", file);
+        }
+    }
+
+    private File getFile(String key) {
+        return new File(directory, key + FILE_SUFFIX);
+    }
+
+    private void removeOldFiles() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(FILE_SUFFIX));
+        if (files == null || files.length <= MAX_FILES) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified).reversed());
+        for (int i = MAX_FILES; i < files.length; i++) {
+            files[i].delete();
+        }
+    }
+
+    private String getDocumentDigest(File document) throws IOException {
+        String id = document.getAbsolutePath() + ":" + document.length() + ":" + document.lastModified();
+        String res = documentDigests.get(id);
+        if (res != null) {
+            return res;
+        }
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = new FileInputStream(document)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        res = toHex(digest.digest());
+        documentDigests.put(id, res);
+        return res;
+    }
+
+    private String encodeSubject(OWLObject subject) {
+        if (subject instanceof OWLEntity) {
+            OWLEntity entity = (OWLEntity) subject;
+            return entity.getEntityType().getName() + " " + entity.getIRI();
+        }
+        if (subject instanceof OWLOntology) {
+            OWLOntologyID id = ((OWLOntology) subject).getOntologyID();
+            if (!id.getOntologyIRI().isPresent()) {
+                return null;
+            }
+            return ONTOLOGY_SUBJECT + " " + id.getOntologyIRI().get()
+                    + id.getVersionIRI().map(iri -> " " + iri).orElse("");
+        }
+        return null;
+    }
+
+    private OWLObject decodeSubject(String code, OWLModelManager modelManager) {
+        String[] parts = code.split(" ");
+        if (parts.length < 2) {
+            return null;
+        }
+        if (ONTOLOGY_SUBJECT.equals(parts[0])) {
+            Optional<IRI> versionIRI = parts.length > 2 ? Optional.of(IRI.create(parts[2])) : Optional.empty();
+            OWLOntologyID id = new OWLOntologyID(Optional.of(IRI.create(parts[1])), versionIRI);
+            OWLOntology ontology = modelManager.getOWLOntologyManager().getOntology(id);
+            return ontology != null && modelManager.getActiveOntologies().contains(ontology) ? ontology : null;
+        }
+        EntityType<?> type = entityTypes.get(parts[0]);
+        if (type == null) {
+            return null;
+        }
+        return modelManager.getOWLDataFactory().getOWLEntity(type, IRI.create(parts[1]));
+    }
+
+    /**
+     * Resolves the rendered objects of the rows which are read back, when they are displayed.
+     * The candidates related to a subject (the axioms which mention the subject, the annotations of the subject
+     * and the annotations of such axioms at any depth) are collected once and grouped by their hash codes,
+     * so that the ontologies are not scanned for every displayed row;
+     * only the candidates of the {@link #MAX_SUBJECTS} most recently displayed subjects are kept.
+     * Since the hash codes may collide, a candidate is accepted only if it is rendered as the search string
+     * of the row, otherwise nothing is resolved and the search string is displayed as it is.
+     */
+    static class RenderedObjectCandidates implements SearchMetadataStore.RenderedObjectResolver {
+
+        private static final int MAX_SUBJECTS = 256;
+
+        private final Supplier<Collection<OWLOntology>> ontologies;
+
+        private final OWLObjectStyledStringRenderer renderer;
+
+        private final Map<OWLObject, Map<Integer, List<OWLObject>>> candidates =
+                new LinkedHashMap<OWLObject, Map<Integer, List<OWLObject>>>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<OWLObject, Map<Integer, List<OWLObject>>> eldest) {
+                        return size() > MAX_SUBJECTS;
+                    }
+                };
+
+        /**
+         * @param ontologies {@link Supplier} of the active {@link OWLOntology}s
+         * @param renderer   {@link OWLObjectStyledStringRenderer} which has rendered the search strings
+         */
+        RenderedObjectCandidates(Supplier<Collection<OWLOntology>> ontologies, OWLObjectStyledStringRenderer renderer) {
+            this.ontologies = ontologies;
+            this.renderer = renderer;
+        }
+
+        @Override
+        public synchronized OWLObject resolve(OWLObject subject, int hash, String searchString) {
+            List<OWLObject> res = candidates.computeIfAbsent(subject, this::collect)
+                    .getOrDefault(hash, Collections.emptyList());
+            for (OWLObject object : res) {
+                if (searchString.equals(renderer.getRendering(object).getString())) {
+                    return object;
+                }
+            }
+            return null;
+        }
+
+        private Map<Integer, List<OWLObject>> collect(OWLObject subject) {
+            Map<Integer, List<OWLObject>> res = new HashMap<>();
+            ontologies.get().stream()
+                    .flatMap(ontology -> getRenderedObjectCandidates(subject, ontology))
+                    .distinct()
+                    .forEach(object -> res.computeIfAbsent(object.hashCode(), h -> new ArrayList<>(1)).add(object));
+            return res;
+        }
+    }
+
+    private static Stream<OWLObject> getRenderedObjectCandidates(OWLObject subject, OWLOntology ontology) {
+        if (subject instanceof OWLOntology) {
+            return subject.equals(ontology) ? withNestedAnnotations(ontology.annotations()) : Stream.empty();
+        }
+        if (!(subject instanceof OWLEntity)) {
+            return Stream.empty();
+        }
+        OWLEntity entity = (OWLEntity) subject;
+        return Stream.<OWLAxiom>concat(ontology.referencingAxioms(entity), ontology.annotationAssertionAxioms(entity.getIRI()))
+                .flatMap(axiom -> {
+                    Stream<OWLAnnotation> annotations = axiom.annotations();
+                    if (axiom instanceof OWLAnnotationAssertionAxiom) {
+                        annotations = Stream.concat(Stream.of(((OWLAnnotationAssertionAxiom) axiom).getAnnotation()), annotations);
+                    }
+                    return Stream.concat(Stream.<OWLObject>of(axiom), withNestedAnnotations(annotations));
+                });
+    }
+
+    private static Stream<OWLObject> withNestedAnnotations(Stream<OWLAnnotation> annotations) {
+        return annotations.flatMap(a -> Stream.concat(Stream.<OWLObject>of(a), withNestedAnnotations(a.annotations())));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String s) {
+        digest.update(s.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder res = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            res.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return res.toString();
+    }
+}
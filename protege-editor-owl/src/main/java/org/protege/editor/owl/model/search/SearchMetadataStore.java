@@ -0,0 +1,553 @@
+package org.protege.editor.owl.model.search;
+
+import org.protege.editor.owl.ui.renderer.styledstring.OWLObjectStyledStringRenderer;
+import org.semanticweb.owlapi.model.OWLObject;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * A compact column-oriented storage for {@link SearchMetadata} rows.
+ * <p>
+ * Instead of keeping a separate object graph for each row, the store keeps
+ * the search strings in a single shared byte arena (one byte per char if all the chars of a string are Latin-1,
+ * two bytes per char otherwise), the categories as ordinals, the group descriptions and the subjects
+ * as int codes into dictionaries (a subject is stored once together with its rendering),
+ * and the rendered objects in a plain reference array.
+ * A row is returned as a lightweight {@link SearchMetadata} view, which reads its fields from the columns.
+ * </p>
+ * <p>
+ * The renderers of the rendered objects are not stored per row:
+ * all of them are created for the same editor kit and are interchangeable,
+ * so the store keeps the last one added.
+ * Rows of unknown {@link SearchMetadata} subclasses are kept as they are (in addition to their search strings).
+ * </p>
+ * <p>
+ * The store can be {@link #write(DataOutputStream, Function) written} to a file and {@link #read(ByteBuffer, Function) read}
+ * back, the subjects are written as strings produced by the caller.
+ * The rendered objects are written as their hash codes, a row which is read back finds its rendered object
+ * among the objects related to its subject, when it is first asked for it
+ * (see {@link #setRenderedObjectResolver(RenderedObjectResolver, OWLObjectStyledStringRenderer)}).
+ * </p>
+ * The store is append-only and not thread-safe for writes, concurrent reads are allowed.
+ */
+public class SearchMetadataStore {
+
+    private static final SearchCategory[] CATEGORIES = SearchCategory.values();
+
+    /**
+     * Approximate sizes (in bytes) of a row represented as a separate {@link SearchMetadata} object:
+     * the object with its five references, the reference in the list,
+     * and the search string with its array (assuming compressed oops).
+     */
+    private static final int OBJECT_ROW_SIZE = 32 + 4 + 24 + 16;
+
+    private byte[] arena = new byte[1024];
+    private int arenaSize;
+
+    private int[] starts = new int[17];
+    private byte[] categories = new byte[16];
+    private int[] groups = new int[16];
+    private int[] subjects = new int[16];
+    private OWLObject[] renderedObjects = new OWLObject[16];
+    /**
+     * The hash codes of the rendered objects which are not resolved yet, see {@link #unresolved}.
+     */
+    private int[] renderedHashes = new int[16];
+    private final BitSet unresolved = new BitSet();
+    private final BitSet wide = new BitSet();
+    private int size;
+
+    private final List<String> groupDictionary = new ArrayList<>();
+    private final Map<String, Integer> groupCodes = new HashMap<>();
+
+    private final List<OWLObject> subjectDictionary = new ArrayList<>();
+    private final List<String> subjectRenderings = new ArrayList<>();
+    private final Map<OWLObject, Integer> subjectCodes = new HashMap<>();
+
+    private final Map<Integer, SearchMetadata> customRows = new HashMap<>();
+
+    private OWLObjectStyledStringRenderer styledStringRenderer;
+
+    private RenderedObjectResolver renderedObjectResolver;
+
+    private long objectRowsSize;
+
+    /**
+     * Appends a row.
+     * @param md {@link SearchMetadata}, not <code>null</code>
+     * @return int, the row number
+     */
+    public int add(SearchMetadata md) {
+        ensureCapacity(size + 1);
+        int row = size++;
+        String searchString = md.getSearchString();
+        boolean isWide = !isLatin1(searchString);
+        int length = isWide ? searchString.length() * 2 : searchString.length();
+        ensureArenaCapacity(arenaSize + length);
+        for (int i = 0; i < searchString.length(); i++) {
+            char c = searchString.charAt(i);
+            if (isWide) {
+                arena[arenaSize++] = (byte) (c >> 8);
+            }
+            arena[arenaSize++] = (byte) c;
+        }
+        starts[row + 1] = arenaSize;
+        if (isWide) {
+            wide.set(row);
+        }
+        categories[row] = (byte) md.getCategory().ordinal();
+        groups[row] = groupCodes.computeIfAbsent(md.getGroupDescription(), g -> {
+            groupDictionary.add(g);
+            return groupDictionary.size() - 1;
+        });
+        subjects[row] = getSubjectCode(md.getSubject(), md.getSubjectRendering());
+        if (md instanceof View && ((View) md).isRenderedObjectUnresolved()) {
+            // the row is copied from another store, the object is not resolved, so that all the rows are not resolved
+            View view = (View) md;
+            renderedHashes[row] = view.getRenderedHash();
+            unresolved.set(row);
+            renderedObjectResolver = view.getStore().renderedObjectResolver;
+        } else {
+            renderedObjects[row] = md.getRenderedObject();
+        }
+        if (md.getStyledStringRenderer() != null) {
+            styledStringRenderer = md.getStyledStringRenderer();
+        }
+        if (md.getClass() != SearchMetadata.class && !(md instanceof View)) {
+            customRows.put(row, md);
+        }
+        objectRowsSize += OBJECT_ROW_SIZE + length;
+        return row;
+    }
+
+    /**
+     * Gets the code of the subject, the rendering of an already known subject is replaced.
+     */
+    private int getSubjectCode(OWLObject subject, String rendering) {
+        Integer res = subjectCodes.get(subject);
+        if (res == null) {
+            res = subjectDictionary.size();
+            subjectDictionary.add(subject);
+            subjectRenderings.add(rendering);
+            subjectCodes.put(subject, res);
+        } else if (!rendering.equals(subjectRenderings.get(res))) {
+            subjectRenderings.set(res, rendering);
+        }
+        return res;
+    }
+
+    /**
+     * Sets the function to find the rendered objects of the rows which are read back,
+     * and the renderer for these objects.
+     * @param resolver {@link RenderedObjectResolver}
+     * @param renderer {@link OWLObjectStyledStringRenderer}
+     */
+    void setRenderedObjectResolver(RenderedObjectResolver resolver,
+                                   OWLObjectStyledStringRenderer renderer) {
+        this.renderedObjectResolver = resolver;
+        this.styledStringRenderer = renderer;
+    }
+
+    /**
+     * Gets the number of stored rows.
+     * @return int
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets a {@link SearchMetadata} view of the row.
+     * @param row int
+     * @return {@link SearchMetadata}
+     */
+    public SearchMetadata get(int row) {
+        checkRow(row);
+        SearchMetadata res = customRows.get(row);
+        return res != null ? res : new View(row);
+    }
+
+    /**
+     * Gets the search string of the row without copying it.
+     * @param row int
+     * @return {@link CharSequence}
+     */
+    public CharSequence getSearchCharSequence(int row) {
+        checkRow(row);
+        return new ArenaCharSequence(starts[row], starts[row + 1], wide.get(row));
+    }
+
+    /**
+     * Gets the subject of the row.
+     * @param row int
+     * @return {@link OWLObject}
+     */
+    public OWLObject getSubject(int row) {
+        checkRow(row);
+        return subjectDictionary.get(subjects[row]);
+    }
+
+    /**
+     * Estimates the memory used by the store, not including the subjects, rendered objects and dictionaries' strings,
+     * which are shared with the rest of the application.
+     * @return long, bytes
+     */
+    public long estimateSize() {
+        return arena.length
+                + 4L * starts.length
+                + categories.length
+                + 4L * groups.length
+                + 4L * subjects.length
+                + 4L * renderedObjects.length
+                + 4L * renderedHashes.length
+                + wide.size() / 8
+                + 4L * 2 * subjectDictionary.size();
+    }
+
+    /**
+     * Estimates the memory which the stored rows would use as separate {@link SearchMetadata} objects.
+     * @return long, bytes
+     */
+    public long estimateObjectsSize() {
+        return objectRowsSize;
+    }
+
+    /**
+     * Writes the rows.
+     * @param out            {@link DataOutputStream}, not <code>null</code>
+     * @param subjectEncoder {@link Function} to encode a subject as a string,
+     *                       which returns <code>null</code> if the subject cannot be encoded
+     * @throws IOException if the output fails or the store contains rows which cannot be written
+     */
+    void write(DataOutputStream out, Function<OWLObject, String> subjectEncoder) throws IOException {
+        if (!customRows.isEmpty()) {
+            throw new IOException("Custom search metadata rows cannot be written");
+        }
+        out.writeInt(size);
+        out.writeInt(arenaSize);
+        out.write(arena, 0, arenaSize);
+        writeInts(out, starts, size + 1);
+        out.write(categories, 0, size);
+        writeInts(out, groups, size);
+        writeInts(out, subjects, size);
+        long[] wideWords = wide.toLongArray();
+        writeLongs(out, wideWords);
+        BitSet rendered = new BitSet();
+        int[] hashes = new int[size];
+        for (int row = 0; row < size; row++) {
+            if (renderedObjects[row] != null) {
+                rendered.set(row);
+                hashes[row] = renderedObjects[row].hashCode();
+            } else if (unresolved.get(row)) {
+                rendered.set(row);
+                hashes[row] = renderedHashes[row];
+            }
+        }
+        writeLongs(out, rendered.toLongArray());
+        writeInts(out, hashes, size);
+        out.writeInt(groupDictionary.size());
+        for (String group : groupDictionary) {
+            writeString(out, group);
+        }
+        out.writeInt(subjectDictionary.size());
+        for (int i = 0; i < subjectDictionary.size(); i++) {
+            OWLObject subject = subjectDictionary.get(i);
+            String code = subjectEncoder.apply(subject);
+            if (code == null) {
+                throw new IOException("Search metadata subject cannot be written: " + subject);
+            }
+            writeString(out, code);
+            writeString(out, subjectRenderings.get(i));
+        }
+    }
+
+    /**
+     * Reads the rows written by {@link #write(DataOutputStream, Function)}.
+     * @param in             {@link ByteBuffer}, not <code>null</code>
+     * @param subjectDecoder {@link Function} to decode a subject from a string,
+     *                       which returns <code>null</code> if the subject is not known
+     * @return {@link SearchMetadataStore}
+     * @throws IOException if the data is malformed or some subject is not known
+     */
+    static SearchMetadataStore read(ByteBuffer in, Function<String, OWLObject> subjectDecoder) throws IOException {
+        SearchMetadataStore res = new SearchMetadataStore();
+        int size = in.getInt();
+        int arenaSize = in.getInt();
+        if (size < 0 || arenaSize < 0) {
+            throw new IOException("Malformed search metadata");
+        }
+        res.ensureCapacity(size);
+        res.ensureArenaCapacity(arenaSize);
+        in.get(res.arena, 0, arenaSize);
+        res.arenaSize = arenaSize;
+        readInts(in, res.starts, size + 1);
+        in.get(res.categories, 0, size);
+        readInts(in, res.groups, size);
+        readInts(in, res.subjects, size);
+        res.wide.or(BitSet.valueOf(readLongs(in)));
+        res.unresolved.or(BitSet.valueOf(readLongs(in)));
+        readInts(in, res.renderedHashes, size);
+        if (res.wide.length() > size || res.unresolved.length() > size) {
+            throw new IOException("Malformed search metadata");
+        }
+        int groupCount = in.getInt();
+        for (int i = 0; i < groupCount; i++) {
+            String group = readString(in);
+            res.groupCodes.put(group, i);
+            res.groupDictionary.add(group);
+        }
+        int subjectCount = in.getInt();
+        for (int i = 0; i < subjectCount; i++) {
+            String code = readString(in);
+            OWLObject subject = subjectDecoder.apply(code);
+            if (subject == null) {
+                throw new IOException("Unknown search metadata subject: " + code);
+            }
+            res.subjectCodes.put(subject, i);
+            res.subjectDictionary.add(subject);
+            res.subjectRenderings.add(readString(in));
+        }
+        for (int row = 0; row < size; row++) {
+            if (res.categories[row] < 0 || res.categories[row] >= CATEGORIES.length
+                    || res.groups[row] < 0 || res.groups[row] >= groupCount
+                    || res.subjects[row] < 0 || res.subjects[row] >= subjectCount
+                    || res.starts[row] > res.starts[row + 1] || res.starts[row + 1] > arenaSize) {
+                throw new IOException("Malformed search metadata row: " + row);
+            }
+            res.objectRowsSize += OBJECT_ROW_SIZE + res.starts[row + 1] - res.starts[row];
+        }
+        res.size = size;
+        return res;
+    }
+
+    static void writeInts(DataOutputStream out, int[] values, int length) throws IOException {
+        for (int i = 0; i < length; i++) {
+            out.writeInt(values[i]);
+        }
+    }
+
+    static void readInts(ByteBuffer in, int[] values, int length) {
+        for (int i = 0; i < length; i++) {
+            values[i] = in.getInt();
+        }
+    }
+
+    private static void writeLongs(DataOutputStream out, long[] values) throws IOException {
+        out.writeInt(values.length);
+        for (long value : values) {
+            out.writeLong(value);
+        }
+    }
+
+    private static long[] readLongs(ByteBuffer in) {
+        long[] res = new long[in.getInt()];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = in.getLong();
+        }
+        return res;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", size: " + size);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= categories.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, categories.length * 2);
+        starts = Arrays.copyOf(starts, newCapacity + 1);
+        categories = Arrays.copyOf(categories, newCapacity);
+        groups = Arrays.copyOf(groups, newCapacity);
+        subjects = Arrays.copyOf(subjects, newCapacity);
+        renderedObjects = Arrays.copyOf(renderedObjects, newCapacity);
+        renderedHashes = Arrays.copyOf(renderedHashes, newCapacity);
+    }
+
+    private void ensureArenaCapacity(int capacity) {
+        if (capacity <= arena.length) {
+            return;
+        }
+        arena = Arrays.copyOf(arena, Math.max(capacity, arena.length * 2));
+    }
+
+    private static boolean isLatin1(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A {@link CharSequence} over a part of the arena.
+     */
+    private class ArenaCharSequence implements CharSequence {
+        private final byte[] bytes = arena;
+        private final int start;
+        private final int end;
+        private final boolean isWide;
+
+        private ArenaCharSequence(int start, int end, boolean isWide) {
+            this.start = start;
+            this.end = end;
+            this.isWide = isWide;
+        }
+
+        @Override
+        public int length() {
+            return isWide ? (end - start) / 2 : end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (isWide) {
+                int i = start + index * 2;
+                return (char) (((bytes[i] & 0xFF) << 8) | (bytes[i + 1] & 0xFF));
+            }
+            return (char) (bytes[start + index] & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return toString().substring(from, to);
+        }
+
+        @Override
+        public String toString() {
+            char[] res = new char[length()];
+            for (int i = 0; i < res.length; i++) {
+                res[i] = charAt(i);
+            }
+            return new String(res);
+        }
+    }
+
+    /**
+     * Finds the rendered object of a row which is read back.
+     */
+    @FunctionalInterface
+    interface RenderedObjectResolver {
+
+        /**
+         * Finds an object related to the specified subject, which has the specified hash code
+         * and is rendered as the specified search string.
+         * @param subject      {@link OWLObject}, the subject of the row
+         * @param hash         int, the hash code of the rendered object
+         * @param searchString String, the search string of the row
+         * @return {@link OWLObject} or <code>null</code> if there is no such object
+         */
+        OWLObject resolve(OWLObject subject, int hash, String searchString);
+    }
+
+    /**
+     * A flyweight {@link SearchMetadata}, which reads the row from the columns of the store.
+     */
+    private class View extends SearchMetadata {
+        private final int row;
+        private String searchString;
+
+        private View(int row) {
+            super(null, null, null, null, null);
+            this.row = row;
+        }
+
+        @Override
+        public SearchCategory getCategory() {
+            return CATEGORIES[categories[row]];
+        }
+
+        @Override
+        public String getGroupDescription() {
+            return groupDictionary.get(groups[row]);
+        }
+
+        @Override
+        public OWLObject getSubject() {
+            return subjectDictionary.get(subjects[row]);
+        }
+
+        @Override
+        public String getSubjectRendering() {
+            return subjectRenderings.get(subjects[row]);
+        }
+
+        @Override
+        public String getSearchString() {
+            if (searchString == null) {
+                searchString = getSearchCharSequence().toString();
+            }
+            return searchString;
+        }
+
+        @Override
+        public CharSequence getSearchCharSequence() {
+            return searchString != null ? searchString : SearchMetadataStore.this.getSearchCharSequence(row);
+        }
+
+        @Override
+        public OWLObject getRenderedObject() {
+            OWLObject res = renderedObjects[row];
+            if (res == null && isRenderedObjectUnresolved()) {
+                res = renderedObjectResolver.resolve(getSubject(), renderedHashes[row], getSearchString());
+                // a plain reference write, so that the concurrent readers see either null or the object
+                renderedObjects[row] = res;
+            }
+            return res;
+        }
+
+        private boolean isRenderedObjectUnresolved() {
+            return renderedObjects[row] == null && unresolved.get(row) && renderedObjectResolver != null;
+        }
+
+        private int getRenderedHash() {
+            return renderedHashes[row];
+        }
+
+        @Override
+        public OWLObjectStyledStringRenderer getStyledStringRenderer() {
+            return styledStringRenderer;
+        }
+
+        private SearchMetadataStore getStore() {
+            return SearchMetadataStore.this;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof View)) {
+                return false;
+            }
+            View other = (View) obj;
+            return row == other.row && getStore() == other.getStore();
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(getStore()) * 31 + row;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.protege.editor.owl.model.search;
+
+import java.util.*;
+
+/**
+ * Accumulates search results found by concurrent workers.
+ * For each group (category) only a bounded number of the best results according to the comparator is retained,
+ * the others are only counted.
+ * The collector is thread-safe.
+ */
+class SearchResultCollector {
+
+    private final Comparator<SearchResult> comparator;
+
+    private final int groupSizeLimit;
+
+    private final Map<String, PriorityQueue<SearchResult>> groups = new HashMap<>();
+
+    private final Map<String, Integer> counts = new HashMap<>();
+
+    private int count;
+
+    /**
+     * @param comparator     {@link Comparator} to choose the best results
+     * @param groupSizeLimit the maximum number of results to retain in each group
+     */
+    SearchResultCollector(Comparator<SearchResult> comparator, int groupSizeLimit) {
+        this.comparator = comparator;
+        this.groupSizeLimit = groupSizeLimit;
+    }
+
+    /**
+     * Adds a batch of results.
+     * @param results Collection of {@link SearchResult}s
+     */
+    synchronized void addAll(Collection<SearchResult> results) {
+        for (SearchResult result : results) {
+            String group = result.getGroupDescription();
+            counts.merge(group, 1, Integer::sum);
+            count++;
+            // the head of the queue is the worst retained result
+            PriorityQueue<SearchResult> queue = groups.computeIfAbsent(group,
+                    k -> new PriorityQueue<>(comparator.reversed()));
+            if (queue.size() < groupSizeLimit) {
+                queue.add(result);
+            } else if (comparator.compare(result, queue.peek()) < 0) {
+                queue.poll();
+                queue.add(result);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of collected results, including not retained.
+     * @return int
+     */
+    synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Creates a snapshot of the collected results.
+     * @return {@link SearchResultSet}
+     */
+    synchronized SearchResultSet toResultSet() {
+        List<SearchResult> res = new ArrayList<>();
+        groups.values().forEach(res::addAll);
+        res.sort(comparator);
+        return new SearchResultSet(res, counts);
+    }
+}
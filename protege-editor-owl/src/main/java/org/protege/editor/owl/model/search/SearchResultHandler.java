@@ -11,4 +11,32 @@ import java.util.List;
 public interface SearchResultHandler {
 
     void searchFinished(List<SearchResult> searchResults);
+
+    /**
+     * Receives the final results of a search together with the per category result counts.
+     * If the {@link #getCategorySizeLimit() category size limit} is bounded, the set contains only the best results
+     * of each category, while the counts take into account all matches.
+     * @param searchResults {@link SearchResultSet}, not <code>null</code>
+     */
+    default void searchFinished(SearchResultSet searchResults) {
+        searchFinished(searchResults.getSearchResults());
+    }
+
+    /**
+     * Receives the intermediate results of a search that is still in progress.
+     * This is called only if the {@link #getCategorySizeLimit() category size limit} is bounded,
+     * each call gets the best results found so far, which replace the previously received ones.
+     * @param searchResults {@link SearchResultSet}, not <code>null</code>
+     */
+    default void searchProgressed(SearchResultSet searchResults) {
+    }
+
+    /**
+     * Gets the maximum number of results of each category that the handler is going to display.
+     * Only this number of the best results (according to {@link SearchResultComparator}) are retained per category.
+     * @return int, {@link Integer#MAX_VALUE} to retain all results
+     */
+    default int getCategorySizeLimit() {
+        return Integer.MAX_VALUE;
+    }
 }
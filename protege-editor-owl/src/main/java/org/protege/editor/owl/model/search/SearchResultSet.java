@@ -15,12 +15,29 @@ public class SearchResultSet {
 
     private Map<SearchCategoryGroupKey, List<SearchResult>> searchResultsByCategory;
 
+    private final Map<String, Integer> categoryResultsCounts;
+
     public SearchResultSet(Collection<SearchResult> searchResults) {
+        this(searchResults, Collections.emptyMap());
+    }
+
+    /**
+     * Creates a result set which contains only a part of the found results.
+     * @param searchResults         The retained results.
+     * @param categoryResultsCounts The total numbers of found results by group descriptions (categories),
+     *                              a category that is absent in the map is considered to be complete.
+     */
+    public SearchResultSet(Collection<SearchResult> searchResults, Map<String, Integer> categoryResultsCounts) {
         this.searchResults = new ArrayList<>(searchResults);
+        this.categoryResultsCounts = new HashMap<>(categoryResultsCounts);
         buildCatResults();
     }
 
     public int getCategoryResultsCount(String cat) {
+        Integer count = categoryResultsCounts.get(cat);
+        if (count != null) {
+            return count;
+        }
         SearchCategoryGroupKey key = getKeyForCategory(cat);
         List<SearchResult> catResults = searchResultsByCategory.get(key);
         if (catResults == null) {
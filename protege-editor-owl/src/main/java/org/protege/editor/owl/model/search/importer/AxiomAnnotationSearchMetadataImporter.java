@@ -39,12 +39,8 @@ public class AxiomAnnotationSearchMetadataImporter extends AxiomBasedSearchMetad
                                                      SearchMetadataDB db) {
         String group = context.getRendering(annotation.getProperty());
         StyledString ren = context.getStyledStringRendering(annotation);
-        SearchMetadata md = new SearchMetadata(SearchCategory.ANNOTATION_VALUE, group, axiomSubject, axiomSubjectRendering, ren.getString()) {
-            @Override
-            public StyledString getStyledSearchSearchString() {
-                return context.getStyledStringRendering(annotation);
-            }
-        };
+        SearchMetadata md = new SearchMetadata(SearchCategory.ANNOTATION_VALUE, group, axiomSubject, axiomSubjectRendering,
+                ren.getString(), annotation, context.getStyledStringRenderer());
         db.addResult(md);
         annotation.annotations()
                 .forEach(a -> generateSearchMetadataForAnnotation(a, axiomSubject, axiomSubjectRendering, context, db));
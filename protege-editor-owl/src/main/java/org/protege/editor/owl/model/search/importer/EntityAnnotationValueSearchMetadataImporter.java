@@ -28,12 +28,8 @@ public class EntityAnnotationValueSearchMetadataImporter extends EntityBasedSear
             for (final OWLAnnotation annotation : EntitySearcher.getAnnotations(entity, ontology).toArray(OWLAnnotation[]::new)) {
                 String groupDescription = context.getRendering(annotation.getProperty());
                 StyledString ren = context.getStyledStringRendering(annotation);
-                SearchMetadata md = new SearchMetadata(SearchCategory.ANNOTATION_VALUE, groupDescription, entity, entityRendering, ren.getString()) {
-                    @Override
-                    public StyledString getStyledSearchSearchString() {
-                        return context.getStyledStringRendering(annotation);
-                    }
-                };
+                SearchMetadata md = new SearchMetadata(SearchCategory.ANNOTATION_VALUE, groupDescription, entity, entityRendering,
+                        ren.getString(), annotation, context.getStyledStringRenderer());
                 db.addResult(md);
             }
         }
@@ -25,12 +25,8 @@ public class LogicalAxiomRenderingSearchMetadataImporter extends AxiomBasedSearc
     public void generateSearchMetadataFor(final OWLAxiom axiom, OWLEntity axiomSubject, String axiomSubjectRendering, final SearchMetadataImportContext context, SearchMetadataDB db) {
         StyledString rendering = context.getStyledStringRendering(axiom);
         String groupDescription = axiom.getAxiomType().getName();
-        SearchMetadata md = new SearchMetadata(SearchCategory.LOGICAL_AXIOM, groupDescription, axiomSubject, axiomSubjectRendering, rendering.getString()) {
-            @Override
-            public StyledString getStyledSearchSearchString() {
-                return context.getStyledStringRendering(axiom);
-            }
-        };
+        SearchMetadata md = new SearchMetadata(SearchCategory.LOGICAL_AXIOM, groupDescription, axiomSubject, axiomSubjectRendering,
+                rendering.getString(), axiom, context.getStyledStringRenderer());
         db.addResult(md);
     }
 }
@@ -32,12 +32,7 @@ public class OntologyAnnotationSearchMetadataImporter extends OntologyBasedSearc
         String gd = context.getRendering(annotation.getProperty());
         StyledString rendering = context.getStyledStringRendering(annotation);
         SearchMetadata md = new SearchMetadata(SearchCategory.ANNOTATION_VALUE, gd, ontology,
-                context.getRendering(ontology), rendering.getString()) {
-            @Override
-            public StyledString getStyledSearchSearchString() {
-                return context.getStyledStringRendering(annotation);
-            }
-        };
+                context.getRendering(ontology), rendering.getString(), annotation, context.getStyledStringRenderer());
         db.addResult(md);
         annotation.annotations().forEach(a -> generateSearchMetadataForAnnotation(a, ontology, context, db));
     }
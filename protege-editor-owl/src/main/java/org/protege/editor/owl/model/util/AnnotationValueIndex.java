@@ -0,0 +1,107 @@
+package org.protege.editor.owl.model.util;
+
+import org.protege.editor.core.Disposable;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.*;
+
+/**
+ * An index of the annotation assertions by their IRI values, for each ontology of an ontology manager.
+ * The OWL API indexes annotation assertions by their subjects only,
+ * so finding the assertions whose value is an IRI (e.g. the usages of an entity) would otherwise require
+ * a scan of all the annotation assertions.
+ * <p>
+ * The index of an ontology is built by a single scan when the ontology is first queried,
+ * and then it is kept up to date by listening to the ontology changes.
+ * The indexes of the ontologies which are removed from the manager are dropped.
+ * </p>
+ * The instance of the editor is registered in the model manager with the {@link #ID} key.
+ */
+public class AnnotationValueIndex implements OWLOntologyChangeListener, Disposable {
+
+    public static final String ID = AnnotationValueIndex.class.getName();
+
+    private final OWLOntologyManager manager;
+
+    /*
+     * Ontologies are compared by identity, since their hash codes change with their ids.
+     */
+    private final Map<OWLOntology, Map<IRI, Set<OWLAnnotationAssertionAxiom>>> indexes = new IdentityHashMap<>();
+
+    public AnnotationValueIndex(OWLOntologyManager manager) {
+        this.manager = manager;
+        manager.addOntologyChangeListener(this);
+    }
+
+    /**
+     * Gets the annotation assertions of the specified ontology whose value is the specified IRI.
+     * @param ontology {@link OWLOntology}
+     * @param value    {@link IRI}
+     * @return an unmodifiable copy of the Set of {@link OWLAnnotationAssertionAxiom}s, can be empty
+     */
+    public synchronized Set<OWLAnnotationAssertionAxiom> getAnnotationAssertionAxioms(OWLOntology ontology, IRI value) {
+        Set<OWLAnnotationAssertionAxiom> res = getIndex(ontology).get(value);
+        return res == null ? Collections.emptySet() : Collections.unmodifiableSet(new HashSet<>(res));
+    }
+
+    private Map<IRI, Set<OWLAnnotationAssertionAxiom>> getIndex(OWLOntology ontology) {
+        Map<IRI, Set<OWLAnnotationAssertionAxiom>> res = indexes.get(ontology);
+        if (res == null) {
+            indexes.keySet().removeIf(ont -> !manager.contains(ont));
+            Map<IRI, Set<OWLAnnotationAssertionAxiom>> index = new HashMap<>();
+            ontology.axioms(AxiomType.ANNOTATION_ASSERTION).forEach(ax -> add(index, ax));
+            res = index;
+            if (manager.contains(ontology)) {
+                indexes.put(ontology, res);
+            }
+        }
+        return res;
+    }
+
+    @Override
+    public synchronized void ontologiesChanged(List<? extends OWLOntologyChange> changes) {
+        for (OWLOntologyChange change : changes) {
+            if (!change.isAxiomChange() || !(change.getAxiom() instanceof OWLAnnotationAssertionAxiom)) {
+                continue;
+            }
+            Map<IRI, Set<OWLAnnotationAssertionAxiom>> index = indexes.get(change.getOntology());
+            if (index == null) {
+                continue;
+            }
+            OWLAnnotationAssertionAxiom axiom = (OWLAnnotationAssertionAxiom) change.getAxiom();
+            if (change.isAddAxiom()) {
+                add(index, axiom);
+            } else if (change.isRemoveAxiom()) {
+                remove(index, axiom);
+            }
+        }
+    }
+
+    private static void add(Map<IRI, Set<OWLAnnotationAssertionAxiom>> index, OWLAnnotationAssertionAxiom axiom) {
+        axiom.getValue().asIRI().ifPresent(iri -> index.computeIfAbsent(iri, k -> new HashSet<>(2)).add(axiom));
+    }
+
+    private static void remove(Map<IRI, Set<OWLAnnotationAssertionAxiom>> index, OWLAnnotationAssertionAxiom axiom) {
+        axiom.getValue().asIRI().ifPresent(iri -> {
+            Set<OWLAnnotationAssertionAxiom> axioms = index.get(iri);
+            if (axioms != null && axioms.remove(axiom) && axioms.isEmpty()) {
+                index.remove(iri);
+            }
+        });
+    }
+
+    /**
+     * Drops the indexes of all the ontologies, they are rebuilt when queried next.
+     * This is needed if the ontologies have been changed bypassing the OWL API (e.g. by editing the RDF graph),
+     * in which case no {@link OWLOntologyChange}s are received.
+     */
+    public synchronized void clear() {
+        indexes.clear();
+    }
+
+    @Override
+    public synchronized void dispose() {
+        manager.removeOntologyChangeListener(this);
+        indexes.clear();
+    }
+}
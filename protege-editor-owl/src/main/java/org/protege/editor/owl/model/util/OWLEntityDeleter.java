@@ -36,15 +36,16 @@ public class OWLEntityDeleter {
                                                                       OWLModelManager manager) {
         List<OWLOntologyChange> allChanges = new ArrayList<>();
         for (OWLOntology ontology : manager.getOntologies()) {
-            List<OWLOntologyChange> changeList = getChangesForOntology(entities, ontology);
+            List<OWLOntologyChange> changeList = getChangesForOntology(entities, ontology, manager.get(AnnotationValueIndex.ID));
             allChanges.addAll(changeList);
         }
         return allChanges;
     }
 
     private static List<OWLOntologyChange> getChangesForOntology(Collection<? extends OWLEntity> entities,
-                                                                 OWLOntology ontology) {
-        ReferenceFinder referenceFinder = new ReferenceFinder();
+                                                                 OWLOntology ontology,
+                                                                 AnnotationValueIndex annotationValueIndex) {
+        ReferenceFinder referenceFinder = new ReferenceFinder(annotationValueIndex);
         ReferenceFinder.ReferenceSet referenceSet = referenceFinder.getReferenceSet(entities, ontology);
         List<OWLOntologyChange> changeList = new ArrayList<>(
                 referenceSet.getReferencingAxioms().size() + referenceSet.getReferencingOntologyAnnotations().size()
@@ -0,0 +1,49 @@
+package org.protege.editor.owl.model.util;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A helper to process a list in parallel by contiguous partitions.
+ * The partitions are processed by the {@link ForkJoinPool#commonPool() common fork-join pool}
+ * (or by the pool of the calling fork-join task), the results are returned in the order of the partitions,
+ * so that merging them gives the same order as a sequential processing of the whole list.
+ */
+public class ParallelPartitions {
+
+    /**
+     * The number of partitions per available processor, more than one to balance uneven partitions.
+     */
+    private static final int PARTITIONS_PER_PROCESSOR = 4;
+
+    private ParallelPartitions() {
+    }
+
+    /**
+     * Splits the list into contiguous partitions and applies the function to each of them in parallel.
+     * @param items            List of items to process, not <code>null</code>
+     * @param minPartitionSize the minimum number of items in a partition, a list smaller than that is processed
+     *                         in the calling thread
+     * @param function         {@link Function} to apply to each partition, must be thread-safe
+     * @param <X>              the type of items
+     * @param <R>              the type of partition results
+     * @return List of results, one per partition, in the order of the partitions
+     */
+    public static <X, R> List<R> map(List<X> items, int minPartitionSize, Function<List<X>, R> function) {
+        int size = items.size();
+        if (size <= minPartitionSize) {
+            return Collections.singletonList(function.apply(items));
+        }
+        int parallelism = ForkJoinPool.getCommonPoolParallelism() * PARTITIONS_PER_PROCESSOR;
+        int partitionSize = Math.max(minPartitionSize, (size + parallelism - 1) / parallelism);
+        int partitions = (size + partitionSize - 1) / partitionSize;
+        return IntStream.range(0, partitions)
+                .parallel()
+                .mapToObj(i -> function.apply(items.subList(i * partitionSize, Math.min(size, (i + 1) * partitionSize))))
+                .collect(Collectors.toList());
+    }
+}
@@ -4,6 +4,7 @@ import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableSet;
 import org.semanticweb.owlapi.model.*;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -18,6 +19,21 @@ import static com.google.common.base.Preconditions.checkNotNull;
  */
 public class ReferenceFinder {
 
+    @Nullable
+    private final AnnotationValueIndex annotationValueIndex;
+
+    public ReferenceFinder() {
+        this(null);
+    }
+
+    /**
+     * @param annotationValueIndex The index of the annotation assertions by their IRI values.  If {@code null} then
+     *                             all the annotation assertions of the ontology are scanned.
+     */
+    public ReferenceFinder(@Nullable AnnotationValueIndex annotationValueIndex) {
+        this.annotationValueIndex = annotationValueIndex;
+    }
+
     /**
      * Gets the references set for the specified entities in the specified ontology.
      *
@@ -33,17 +49,24 @@ public class ReferenceFinder {
         ImmutableSet.Builder<OWLAnnotation> ontologyAnnotationSetBuilder = ImmutableSet.builder();
 
         Collection<IRI> entityIRIs = collectIRIs(entities, ontology, axiomSetBuilder);
-        ontology.axioms(AxiomType.ANNOTATION_ASSERTION).forEach(axiom -> {
-            OWLAnnotationSubject subject = axiom.getSubject();
-            if (subject instanceof IRI && entityIRIs.contains(subject)) {
-                axiomSetBuilder.add(axiom);
-                return;
-            }
-            OWLAnnotationValue value = axiom.getValue();
-            if (value instanceof IRI && entityIRIs.contains(value)) {
-                axiomSetBuilder.add(axiom);
+        if (annotationValueIndex != null) {
+            for (IRI iri : entityIRIs) {
+                ontology.annotationAssertionAxioms(iri).forEach(axiomSetBuilder::add);
+                axiomSetBuilder.addAll(annotationValueIndex.getAnnotationAssertionAxioms(ontology, iri));
             }
-        });
+        } else {
+            ontology.axioms(AxiomType.ANNOTATION_ASSERTION).forEach(axiom -> {
+                OWLAnnotationSubject subject = axiom.getSubject();
+                if (subject instanceof IRI && entityIRIs.contains(subject)) {
+                    axiomSetBuilder.add(axiom);
+                    return;
+                }
+                OWLAnnotationValue value = axiom.getValue();
+                if (value instanceof IRI && entityIRIs.contains(value)) {
+                    axiomSetBuilder.add(axiom);
+                }
+            });
+        }
 
         ontology.annotations().forEach(annotation -> {
             OWLAnnotationValue value = annotation.getValue();
@@ -5,30 +5,48 @@
 package org.protege.editor.owl.ui;
 
 import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.cache.OWLObjectSortKeyCache;
 import org.semanticweb.owlapi.model.OWLObject;
 
 
+/**
+ * Compares the objects by their renderings, ignoring case.
+ * The renderings are taken from the {@link OWLObjectSortKeyCache}, if one is specified,
+ * so the objects are not rendered on each comparison.
+ */
 public class OWLObjectRenderingComparator extends OWLObjectComparator<OWLObject> {
 
+    private final OWLObjectSortKeyCache sortKeyCache;
+
     public OWLObjectRenderingComparator(OWLModelManager owlModelManager) {
+        this(owlModelManager, null);
+    }
+
+    public OWLObjectRenderingComparator(OWLModelManager owlModelManager, OWLObjectSortKeyCache sortKeyCache) {
         super(owlModelManager);
+        this.sortKeyCache = sortKeyCache;
     }
 
     @Override
     public int compare(OWLObject o1, OWLObject o2) {
-        OWLModelManager man = getOWLModelManager();
-        String r1 = man.getRendering(o1);
-        if (r1.startsWith("'")){
-            r1 = r1.substring(1, r1.length()-1);
+        int result;
+        if (sortKeyCache != null) {
+            result = sortKeyCache.getSortKey(o1).compareTo(sortKeyCache.getSortKey(o2));
         }
-        String r2 = man.getRendering(o2);
-        if (r2.startsWith("'")){
-            r2 = r2.substring(1, r2.length()-1);
+        else {
+            result = getRendering(o1).compareToIgnoreCase(getRendering(o2));
         }
-        int result = r1.compareToIgnoreCase(r2);
         if (result == 0) {
             result = o1.compareTo(o2);
         }
         return result;
     }
-}
\ No newline at end of file
+
+    private String getRendering(OWLObject object) {
+        String res = getOWLModelManager().getRendering(object);
+        if (res.startsWith("'")){
+            res = res.substring(1, res.length()-1);
+        }
+        return res;
+    }
+}
@@ -17,4 +17,13 @@ public interface AutoCompleterMatcher {
 
     Set<OWLObject> getMatches(String fragment, boolean classes, boolean objectProperties, boolean dataProperties,
     		                  boolean individuals, boolean datatypes, boolean annotationProperties);
+
+
+    /**
+     * Gets at most {@code limit} matches of each requested kind.
+     */
+    default Set<OWLObject> getMatches(String fragment, boolean classes, boolean objectProperties, boolean dataProperties,
+                                      boolean individuals, boolean datatypes, boolean annotationProperties, int limit) {
+        return getMatches(fragment, classes, objectProperties, dataProperties, individuals, datatypes, annotationProperties);
+    }
 }
@@ -1,6 +1,8 @@
 package org.protege.editor.owl.ui.clsdescriptioneditor;
 
 import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.find.OWLEntityFinder;
+import org.semanticweb.owlapi.model.EntityType;
 import org.semanticweb.owlapi.model.OWLObject;
 
 import java.util.Set;
@@ -28,27 +30,36 @@ public class AutoCompleterMatcherImpl implements AutoCompleterMatcher {
 
     public Set<OWLObject> getMatches(String fragment, boolean classes, boolean objectProperties, boolean dataProperties,
     		                         boolean individuals, boolean datatypes, boolean annotationProperties) {
+        return getMatches(fragment, classes, objectProperties, dataProperties, individuals, datatypes, annotationProperties,
+                          Integer.MAX_VALUE);
+    }
+
+
+    @Override
+    public Set<OWLObject> getMatches(String fragment, boolean classes, boolean objectProperties, boolean dataProperties,
+                                     boolean individuals, boolean datatypes, boolean annotationProperties, int limit) {
         TreeSet<OWLObject> set = new TreeSet<>(owlModelManager.getOWLObjectComparator());
 
         fragment = fragment + "*"; // look for strings that start with the given fragment
 
+        OWLEntityFinder finder = owlModelManager.getOWLEntityFinder();
         if (classes) {
-            set.addAll(owlModelManager.getOWLEntityFinder().getMatchingOWLClasses(fragment, false));
+            set.addAll(finder.getMatchingOWLEntities(EntityType.CLASS, fragment, false, limit));
         }
         if (objectProperties) {
-            set.addAll(owlModelManager.getOWLEntityFinder().getMatchingOWLObjectProperties(fragment, false));
+            set.addAll(finder.getMatchingOWLEntities(EntityType.OBJECT_PROPERTY, fragment, false, limit));
         }
         if (dataProperties) {
-            set.addAll(owlModelManager.getOWLEntityFinder().getMatchingOWLDataProperties(fragment, false));
+            set.addAll(finder.getMatchingOWLEntities(EntityType.DATA_PROPERTY, fragment, false, limit));
         }
         if (individuals) {
-            set.addAll(owlModelManager.getOWLEntityFinder().getMatchingOWLIndividuals(fragment, false));
+            set.addAll(finder.getMatchingOWLEntities(EntityType.NAMED_INDIVIDUAL, fragment, false, limit));
         }
         if (datatypes) {
-            set.addAll(owlModelManager.getOWLEntityFinder().getMatchingOWLDatatypes(fragment, false));
+            set.addAll(finder.getMatchingOWLEntities(EntityType.DATATYPE, fragment, false, limit));
         }
         if (annotationProperties) {
-            set.addAll(owlModelManager.getOWLEntityFinder().getMatchingOWLAnnotationProperties(fragment, false));
+            set.addAll(finder.getMatchingOWLEntities(EntityType.ANNOTATION_PROPERTY, fragment, false, limit));
         }
         return set;
     }
@@ -242,7 +242,8 @@ public class OWLAutoCompleter {
                                                             e.isOWLDataPropertyExpected(),
                                                             e.isOWLIndividualExpected(),
                                                             e.isDatatypeExpected(),
-                                                            e.isAnnotationPropertyExpected());
+                                                            e.isAnnotationPropertyExpected(),
+                                                            maxEntries);
                 List kwMatches = new ArrayList(matches.size() + 10);
                 for (String s : e.getExpectedKeyWords()) {
                     if (s.toLowerCase().startsWith(word.toLowerCase())) {
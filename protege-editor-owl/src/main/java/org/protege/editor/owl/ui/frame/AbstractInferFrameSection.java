@@ -4,7 +4,14 @@ import org.protege.editor.owl.OWLEditorKit;
 import org.protege.editor.owl.model.inference.ReasonerPreferences;
 import org.semanticweb.owlapi.model.OWLAxiom;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 /**
+ * A section with the rows inferred by the reasoner,
+ * which are computed in a background thread (see {@link #refillInferredInBackground(Runnable)})
+ * from the root object and a copy of the asserted objects.
  * Created by @ssz on 22.02.2020.
  */
 public abstract class AbstractInferFrameSection<R, A extends OWLAxiom, E> extends AbstractOWLFrameSection<R, A, E> {
@@ -20,13 +27,38 @@ public abstract class AbstractInferFrameSection<R, A extends OWLAxiom, E> extend
         return getOWLModelManager().getReasoner().isConsistent();
     }
 
-    protected abstract void infer();
+    /**
+     * Adds the inferred rows, this method is called in a background thread.
+     * It must not read or change the state of the section, which belongs to the event dispatch thread,
+     * instead it gets the root object and a copy of the {@link #getAssertedObjects() asserted objects}
+     * as they were when the inference was started.
+     * The calls to the current reasoner are serialized by the reasoner manager,
+     * so the ontology should not be read (e.g. streamed) while the reasoner is queried.
+     *
+     * @param root     the root object
+     * @param asserted the objects of the asserted rows, which the inferred rows should not repeat
+     */
+    protected abstract void infer(R root, Set<?> asserted);
+
+    /**
+     * Gets the objects of the asserted rows, which are copied for the inference.
+     * This method is called in the event dispatch thread.
+     *
+     * @return {@code Set}, empty by default
+     */
+    protected Set<?> getAssertedObjects() {
+        return Collections.emptySet();
+    }
 
     protected abstract ReasonerPreferences.OptionalInferenceTask getOptionalInferenceTask();
 
     @Override
     protected void refillInferred() {
-        getReasonerPreferences().executeTask(getOptionalInferenceTask(), this::infer);
+        ReasonerPreferences preferences = getReasonerPreferences();
+        ReasonerPreferences.OptionalInferenceTask task = getOptionalInferenceTask();
+        R root = getRootObject();
+        Set<?> asserted = Collections.unmodifiableSet(new HashSet<>(getAssertedObjects()));
+        refillInferredInBackground(() -> preferences.executeTask(task, () -> infer(root, asserted)));
     }
 
     protected ReasonerPreferences getReasonerPreferences() {
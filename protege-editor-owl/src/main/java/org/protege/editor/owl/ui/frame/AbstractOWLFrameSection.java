@@ -17,7 +17,10 @@ import org.semanticweb.owlapi.reasoner.OWLReasoner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.swing.*;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Stream;
 
 
@@ -35,23 +38,38 @@ public abstract class AbstractOWLFrameSection<R, A extends OWLAxiom, E>
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractOWLFrameSection.class);
 
+    /**
+     * A single thread, so that the reasoner is queried by the sections one at a time.
+     */
+    private static final ExecutorService INFERRED_ROWS_CALCULATOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Inferred rows calculator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final OWLEditorKit owlEditorKit;
     private final OWLFrame<? extends R> frame;
     private final List<OWLFrameSectionRow<R, A, E>> rows;
     private final String rowLabel;
-    private final OWLOntologyChangeListener listener = this::processOntologyChanges;
 
     private String label;
     private OWLObjectEditor<E> editor;
     private boolean cacheEditor = true;
 
+    /**
+     * The inference of the current root object, which is running in the background,
+     * the rows it adds are collected instead of being added to the section.
+     */
+    private final InferredRowsCollector<OWLFrameSectionRow<R, A, E>> inferredRows =
+            new InferredRowsCollector<>(INFERRED_ROWS_CALCULATOR, SwingUtilities::invokeLater);
+
     protected AbstractOWLFrameSection(OWLEditorKit editorKit, String label, String rowLabel, OWLFrame<? extends R> frame) {
         this.owlEditorKit = editorKit;
         this.label = label;
         this.rowLabel = rowLabel;
         this.frame = frame;
         this.rows = new ArrayList<>();
-        getOWLModelManager().addOntologyChangeListener(listener);
+        OWLFrameSectionChangeDispatcher.get(getOWLModelManager()).addSection(this);
     }
 
     protected AbstractOWLFrameSection(OWLEditorKit editorKit, String label, OWLFrame<? extends R> frame) {
@@ -68,10 +86,11 @@ public abstract class AbstractOWLFrameSection<R, A extends OWLAxiom, E>
         return Collections.emptyList();
     }
 
-    private void processOntologyChanges(List<? extends OWLOntologyChange> changes) {
+    void processOntologyChanges(OWLFrameSectionChangeDispatcher.Changes index) {
         if (getRootObject() == null) {
             return;
         }
+        List<? extends OWLOntologyChange> changes = getRelevantChanges(index);
         for (OWLOntologyChange change : changes) {
             if (change.isAxiomChange()) {
                 change.getAxiom().accept(AbstractOWLFrameSection.this);
@@ -85,6 +104,23 @@ public abstract class AbstractOWLFrameSection<R, A extends OWLAxiom, E>
         }
     }
 
+    /**
+     * Selects the changes, which are passed to the visitor methods and {@link #isResettingChange(OWLOntologyChange)}.
+     * By default, if the root object is an entity or an annotation subject,
+     * these are the changes of the axioms which mention the root object (and the changes which are not axiom changes),
+     * otherwise these are all the changes.
+     * A section, which depends on the axioms that do not mention its root object, should override this method.
+     * @param changes {@link OWLFrameSectionChangeDispatcher.Changes} the indexed changes
+     * @return the List of {@link OWLOntologyChange}s
+     */
+    protected List<? extends OWLOntologyChange> getRelevantChanges(OWLFrameSectionChangeDispatcher.Changes changes) {
+        R root = getRootObject();
+        if (root instanceof OWLEntity || root instanceof OWLAnnotationSubject) {
+            return changes.getChanges((OWLObject) root);
+        }
+        return changes.getChanges();
+    }
+
     protected boolean isResettingChange(OWLOntologyChange change) {
         return false;
     }
@@ -99,7 +135,8 @@ public abstract class AbstractOWLFrameSection<R, A extends OWLAxiom, E>
 
     @Override
     public final void dispose() {
-        getOWLModelManager().removeOntologyChangeListener(listener);
+        OWLFrameSectionChangeDispatcher.get(getOWLModelManager()).removeSection(this);
+        cancelInferredRows();
         disposeOfSection();
         if (editor != null) {
             editor.dispose();
@@ -214,6 +251,7 @@ public abstract class AbstractOWLFrameSection<R, A extends OWLAxiom, E>
 
     @Override
     public void setRootObject(R rootObject) {
+        cancelInferredRows();
         rows.clear();
         clear();
         if (rootObject != null) {
@@ -222,19 +260,28 @@ public abstract class AbstractOWLFrameSection<R, A extends OWLAxiom, E>
             }
             try {
                 refillInferred();
-            } catch (InconsistentOntologyException ioe) {
-                LOGGER.error("An InconsistentOntologyException was thrown when refilling the inferred information" +
-                        " in a frame section.  The frame section implementation should take care of this.", ioe);
             } catch (Exception e) {
-                LOGGER.warn("An error occurred whilst filling the {} frame with inferred information: {}", getClass().getName(), e);
+                logInferenceError(e);
             }
         }
+        sortRows();
+        fireContentChanged();
+    }
 
+    private void sortRows() {
         Comparator<OWLFrameSectionRow<R, A, E>> comparator = getRowComparator();
         if (comparator != null) {
             rows.sort(comparator);
         }
-        fireContentChanged();
+    }
+
+    private void logInferenceError(Exception e) {
+        if (e instanceof InconsistentOntologyException) {
+            LOGGER.error("An InconsistentOntologyException was thrown when refilling the inferred information" +
+                    " in a frame section.  The frame section implementation should take care of this.", e);
+        } else {
+            LOGGER.warn("An error occurred whilst filling the {} frame with inferred information: {}", getClass().getName(), e);
+        }
     }
 
     protected Set<OWLOntology> getOntologies() {
@@ -257,11 +304,40 @@ public abstract class AbstractOWLFrameSection<R, A extends OWLAxiom, E>
         // Do nothing by default
     }
 
+    /**
+     * Runs the specified inference in a background thread, so that the asserted rows are shown without waiting
+     * for the reasoner.
+     * The rows added by the inference are merged into the section in the event dispatch thread when it completes.
+     * If the root object is changed (or the section is disposed) meanwhile, the inference is cancelled:
+     * it is stopped at the next row it adds, and its rows are discarded.
+     * The inference must not read or change the state of the section (e.g. the sets of the asserted objects),
+     * the state it needs is to be copied before it is started.
+     * This method should be called from {@link #refillInferred()}.
+     * @param inference {@link Runnable} which adds the inferred rows by {@link #addRow(OWLFrameSectionRow)}
+     * @see InferredRowsCollector
+     */
+    protected void refillInferredInBackground(Runnable inference) {
+        inferredRows.start(inference, this::mergeInferredRows, this::logInferenceError);
+    }
+
+    private void mergeInferredRows(List<OWLFrameSectionRow<R, A, E>> inferred) {
+        rows.addAll(inferred);
+        sortRows();
+        fireContentChanged();
+    }
+
+    private void cancelInferredRows() {
+        inferredRows.cancel();
+    }
+
     protected void addRow(OWLFrameSectionRow<R, A, E> row) {
-        rows.add(row);
+        if (!inferredRows.collect(row)) {
+            rows.add(row);
+        }
     }
 
     protected void addInferredRowIfNontrivial(OWLFrameSectionRow<R, A, E> row) {
+        inferredRows.checkCancelled();
         if (row.isInferred() &&
                 (VacuousAxiomVisitor.isVacuousAxiom(row.getAxiom()) || VacuousAxiomVisitor.involvesInverseSquared(row.getAxiom()))) {
             return;
@@ -12,6 +12,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.concurrent.CancellationException;
 
 /**
  * Author: Matthew Horridge<br>
@@ -42,6 +43,11 @@ public class InferredAxiomsFrameSection extends AbstractOWLFrameSection<OWLOntol
 
     @Override
     protected void refillInferred() {
+        OWLOntology root = getRootObject();
+        refillInferredInBackground(() -> infer(root));
+    }
+
+    private void infer(OWLOntology root) {
         OWLModelManager m = getOWLModelManager();
         OWLReasoner r = m.getReasoner();
         try {
@@ -49,7 +55,7 @@ public class InferredAxiomsFrameSection extends AbstractOWLFrameSection<OWLOntol
                 if (!cls.isOWLNothing()) {
                     OWLAxiom unsatAx = getOWLDataFactory().getOWLSubClassOfAxiom(cls,
                             getOWLDataFactory().getOWLNothing());
-                    addRow(new InferredAxiomsFrameSectionRow(getOWLEditorKit(), this, null, getRootObject(), unsatAx));
+                    addRow(new InferredAxiomsFrameSectionRow(getOWLEditorKit(), this, null, root, unsatAx));
                 }
             }
             OWLOntologyManager man = OWLManager.createOWLOntologyManager();
@@ -64,9 +70,11 @@ public class InferredAxiomsFrameSection extends AbstractOWLFrameSection<OWLOntol
             inferredOnt.axioms().sorted().forEach(ax -> {
                 if (m.getActiveOntologies().stream().noneMatch(o -> o.containsAxiom(ax))) {
                     addInferredRowIfNontrivial(new InferredAxiomsFrameSectionRow(getOWLEditorKit(),
-                            InferredAxiomsFrameSection.this, null, getRootObject(), ax));
+                            InferredAxiomsFrameSection.this, null, root, ax));
                 }
             });
+        } catch (CancellationException e) {
+            throw e;
         } catch (Exception e) {
             LOGGER.error("Unknown error", e);
         }
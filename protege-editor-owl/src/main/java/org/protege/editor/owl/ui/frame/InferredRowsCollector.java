@@ -0,0 +1,137 @@
+package org.protege.editor.owl.ui.frame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Collects the rows of the inferences of a frame section, which run in the background.
+ * While an inference runs, the rows it adds are collected for it (see {@link #collect(Object)}),
+ * when it completes they are passed to the merger in the event dispatch thread,
+ * unless the inference has been cancelled or another inference has been started meanwhile.
+ * <p>
+ * The inferences are started and cancelled, and their rows are merged, in the event dispatch thread only,
+ * so the state of the section is never touched by the background thread.
+ * An inference must not read the state of the section either:
+ * whatever it needs (e.g. the objects of the asserted rows) is to be copied before it is started.
+ * </p>
+ *
+ * @param <X> the type of the rows
+ * @see AbstractOWLFrameSection#refillInferredInBackground(Runnable)
+ */
+class InferredRowsCollector<X> {
+
+    private final Executor background;
+    private final Executor eventDispatch;
+
+    /**
+     * The inference running in the current thread, the rows are collected for it.
+     */
+    private final ThreadLocal<Inference> running = new ThreadLocal<>();
+
+    /**
+     * The last started inference, or {@code null} if it has been cancelled or merged.
+     */
+    private Inference current;
+
+    /**
+     * @param background    {@link Executor} to run the inferences
+     * @param eventDispatch {@link Executor} to merge the rows, i.e. the event dispatch thread
+     */
+    InferredRowsCollector(Executor background, Executor eventDispatch) {
+        this.background = background;
+        this.eventDispatch = eventDispatch;
+    }
+
+    /**
+     * Cancels the current inference, if any, and starts the specified one.
+     * If the inference fails, the error is reported, and the rows collected so far are still merged.
+     *
+     * @param inference {@link Runnable} which adds the rows by {@link #collect(Object)}
+     * @param merger    {@link Consumer} to merge the collected rows into the section, if there are any
+     * @param errors    {@link Consumer} to report the error of the inference, unless it has been cancelled
+     */
+    void start(Runnable inference, Consumer<List<X>> merger, Consumer<Exception> errors) {
+        cancel();
+        Inference task = new Inference();
+        current = task;
+        background.execute(() -> {
+            if (task.cancelled) {
+                return;
+            }
+            running.set(task);
+            try {
+                inference.run();
+            } catch (CancellationException e) {
+                return;
+            } catch (Exception e) {
+                if (task.cancelled) {
+                    return;
+                }
+                errors.accept(e);
+            } finally {
+                running.remove();
+            }
+            if (task.rows.isEmpty()) {
+                return;
+            }
+            eventDispatch.execute(() -> {
+                if (task != current || task.cancelled) {
+                    return;
+                }
+                current = null;
+                merger.accept(task.rows);
+            });
+        });
+    }
+
+    /**
+     * Cancels the current inference: it is skipped if it has not started yet,
+     * otherwise it is stopped at the next row it adds, and its rows are discarded.
+     */
+    void cancel() {
+        if (current != null) {
+            current.cancelled = true;
+            current = null;
+        }
+    }
+
+    /**
+     * Collects the row for the inference running in the current thread.
+     *
+     * @param row the row
+     * @return {@code false} if no inference runs in the current thread, then the row is not collected
+     * @throws CancellationException if the inference has been cancelled
+     */
+    boolean collect(X row) {
+        Inference task = running.get();
+        if (task == null) {
+            return false;
+        }
+        if (task.cancelled) {
+            throw new CancellationException();
+        }
+        task.rows.add(row);
+        return true;
+    }
+
+    /**
+     * @throws CancellationException if the inference running in the current thread has been cancelled
+     */
+    void checkCancelled() {
+        Inference task = running.get();
+        if (task != null && task.cancelled) {
+            throw new CancellationException();
+        }
+    }
+
+    /**
+     * An inference and the rows it has added.
+     */
+    private class Inference {
+        private final List<X> rows = new ArrayList<>();
+        private volatile boolean cancelled;
+    }
+}
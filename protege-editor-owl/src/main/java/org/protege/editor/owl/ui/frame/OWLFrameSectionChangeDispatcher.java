@@ -0,0 +1,164 @@
+package org.protege.editor.owl.ui.frame;
+
+import org.protege.editor.core.Disposable;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.*;
+
+/**
+ * Dispatches the ontology changes to all the frame sections of a model manager by a single listener.
+ * Each list of changes is indexed once, by the axiom types and by the objects the axioms mention,
+ * so that a section gets only the changes which are relevant to its root object
+ * (see {@link AbstractOWLFrameSection#getRelevantChanges(Changes)}),
+ * instead of every section checking every change.
+ * <p>
+ * The instance is registered in the model manager with the {@link #ID} key, it is created by the first section.
+ * </p>
+ */
+public class OWLFrameSectionChangeDispatcher implements OWLOntologyChangeListener, Disposable {
+
+    public static final String ID = OWLFrameSectionChangeDispatcher.class.getName();
+
+    private final OWLModelManager modelManager;
+
+    private final Set<AbstractOWLFrameSection<?, ?, ?>> sections = new LinkedHashSet<>();
+
+    private OWLFrameSectionChangeDispatcher(OWLModelManager modelManager) {
+        this.modelManager = modelManager;
+        modelManager.addOntologyChangeListener(this);
+    }
+
+    /**
+     * Gets the dispatcher of the specified model manager, the dispatcher is created if there is no such.
+     * @param modelManager {@link OWLModelManager}
+     * @return {@link OWLFrameSectionChangeDispatcher}
+     */
+    public static OWLFrameSectionChangeDispatcher get(OWLModelManager modelManager) {
+        OWLFrameSectionChangeDispatcher res = modelManager.get(ID);
+        if (res == null) {
+            res = new OWLFrameSectionChangeDispatcher(modelManager);
+            modelManager.put(ID, res);
+        }
+        return res;
+    }
+
+    void addSection(AbstractOWLFrameSection<?, ?, ?> section) {
+        sections.add(section);
+    }
+
+    void removeSection(AbstractOWLFrameSection<?, ?, ?> section) {
+        sections.remove(section);
+    }
+
+    @Override
+    public void ontologiesChanged(List<? extends OWLOntologyChange> changes) {
+        if (sections.isEmpty()) {
+            return;
+        }
+        Changes index = new Changes(changes);
+        // a copy, since the sections may be created or disposed while they are reset
+        for (AbstractOWLFrameSection<?, ?, ?> section : new ArrayList<>(sections)) {
+            if (sections.contains(section)) {
+                section.processOntologyChanges(index);
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        modelManager.removeOntologyChangeListener(this);
+        sections.clear();
+    }
+
+    /**
+     * A list of ontology changes indexed by the axiom types and by the objects the axioms mention:
+     * the entities of the signature, the anonymous individuals, and the subjects of the annotation assertions.
+     * The indexes are built when they are first queried.
+     */
+    public static class Changes {
+
+        private final List<? extends OWLOntologyChange> changes;
+
+        private Map<AxiomType<?>, List<OWLOntologyChange>> byType;
+
+        private Map<OWLObject, List<OWLOntologyChange>> byObject;
+
+        private List<OWLOntologyChange> otherChanges;
+
+        public Changes(List<? extends OWLOntologyChange> changes) {
+            this.changes = changes;
+        }
+
+        /**
+         * @return all the changes
+         */
+        public List<? extends OWLOntologyChange> getChanges() {
+            return changes;
+        }
+
+        /**
+         * Gets the changes of the axioms of the specified types.
+         * @param types the {@link AxiomType}s
+         * @return the List of the {@link OWLOntologyChange}s in the original order
+         */
+        public List<OWLOntologyChange> getChanges(AxiomType<?>... types) {
+            if (byType == null) {
+                byType = new HashMap<>();
+                for (OWLOntologyChange change : changes) {
+                    if (change.isAxiomChange()) {
+                        byType.computeIfAbsent(change.getAxiom().getAxiomType(), t -> new ArrayList<>()).add(change);
+                    }
+                }
+            }
+            if (types.length == 1) {
+                return byType.getOrDefault(types[0], Collections.emptyList());
+            }
+            Set<AxiomType<?>> set = new HashSet<>(Arrays.asList(types));
+            List<OWLOntologyChange> res = new ArrayList<>();
+            for (OWLOntologyChange change : changes) {
+                if (change.isAxiomChange() && set.contains(change.getAxiom().getAxiomType())) {
+                    res.add(change);
+                }
+            }
+            return res;
+        }
+
+        /**
+         * Gets the changes of the axioms which mention the specified object, and all the changes which are not
+         * axiom changes (e.g. import changes).
+         * @param object {@link OWLEntity}, {@link IRI} (the subject of annotation assertions)
+         *               or {@link OWLAnonymousIndividual}
+         * @return the List of the {@link OWLOntologyChange}s
+         */
+        public List<OWLOntologyChange> getChanges(OWLObject object) {
+            if (byObject == null) {
+                byObject = new HashMap<>();
+                otherChanges = new ArrayList<>();
+                for (OWLOntologyChange change : changes) {
+                    if (!change.isAxiomChange()) {
+                        otherChanges.add(change);
+                        continue;
+                    }
+                    OWLAxiom axiom = change.getAxiom();
+                    Set<OWLObject> objects = new HashSet<>();
+                    axiom.signature().forEach(objects::add);
+                    axiom.anonymousIndividuals().forEach(objects::add);
+                    if (axiom instanceof OWLAnnotationAssertionAxiom) {
+                        objects.add(((OWLAnnotationAssertionAxiom) axiom).getSubject());
+                    }
+                    for (OWLObject o : objects) {
+                        byObject.computeIfAbsent(o, k -> new ArrayList<>(2)).add(change);
+                    }
+                }
+            }
+            List<OWLOntologyChange> res = byObject.getOrDefault(object, Collections.emptyList());
+            if (otherChanges.isEmpty()) {
+                return res;
+            }
+            res = new ArrayList<>(res);
+            res.addAll(otherChanges);
+            return res;
+        }
+    }
+}
@@ -5,10 +5,12 @@ import org.protege.editor.owl.model.inference.ReasonerPreferences.OptionalInfere
 import org.protege.editor.owl.ui.editor.OWLObjectEditor;
 import org.protege.editor.owl.ui.frame.AbstractInferFrameSection;
 import org.protege.editor.owl.ui.frame.OWLFrame;
+import org.protege.editor.owl.ui.frame.OWLFrameSectionChangeDispatcher;
 import org.semanticweb.owlapi.model.*;
 import org.semanticweb.owlapi.reasoner.OWLReasoner;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -61,20 +63,24 @@ public class InheritedAnonymousClassesFrameSection
     }
 
     @Override
-    protected void infer() {
+    protected Set<OWLClass> getAssertedObjects() {
+        return added;
+    }
+
+    @Override
+    protected void infer(OWLClass root, Set<?> asserted) {
         OWLReasoner reasoner = getReasoner();
         if (!reasoner.isConsistent()) {
             return;
         }
-        if (!reasoner.isSatisfiable(getRootObject())) {
+        if (!reasoner.isSatisfiable(root)) {
             return;
         }
         OWLEditorKit kit = getOWLEditorKit();
         OWLDataFactory df = getOWLDataFactory();
         OWLOntology active = getOWLModelManager().getActiveOntology();
-        OWLClass root = getRootObject();
-        reasoner.getSuperClasses(getRootObject(), true).entities()
-                .filter(x -> !added.contains(x) && !x.equals(root))
+        reasoner.getSuperClasses(root, true).entities()
+                .filter(x -> !asserted.contains(x) && !x.equals(root))
                 .forEach(c -> active.importsClosure().forEach(o -> {
                     o.subClassAxiomsForSubClass(c)
                             .filter(x -> x.getSuperClass().isAnonymous())
@@ -105,6 +111,12 @@ public class InheritedAnonymousClassesFrameSection
         return false;
     }
 
+    @Override
+    protected List<OWLOntologyChange> getRelevantChanges(OWLFrameSectionChangeDispatcher.Changes changes) {
+        // the axioms of the ancestors do not mention the root class
+        return changes.getChanges(AxiomType.SUBCLASS_OF, AxiomType.EQUIVALENT_CLASSES);
+    }
+
     @Override
     protected boolean isResettingChange(OWLOntologyChange change) {
         return change.isAxiomChange() &&
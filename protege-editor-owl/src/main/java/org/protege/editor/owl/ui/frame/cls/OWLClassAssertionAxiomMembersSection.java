@@ -55,24 +55,26 @@ public class OWLClassAssertionAxiomMembersSection
     }
 
     @Override
-    protected void infer() {
+    protected Set<OWLNamedIndividual> getAssertedObjects() {
+        return added;
+    }
+
+    @Override
+    protected void infer(OWLClassExpression root, Set<?> asserted) {
         OWLModelManager m = getOWLModelManager();
         if (!m.getReasoner().isConsistent()) {
             return;
         }
         OWLDataFactory df = m.getOWLDataFactory();
-        OWLClassExpression root = getRootObject();
         NodeSet<OWLNamedIndividual> instances = m.getReasoner().getInstances(root, SHOW_DIRECT_INSTANCES);
         if (instances == null) {
             return;
         }
         instances.entities()
-                .filter(i -> !i.isAnonymous() && !added.contains(i.asOWLNamedIndividual()))
-                .forEach(i -> {
-                    addRow(new OWLClassAssertionAxiomMembersSectionRow(getOWLEditorKit(), this, null, root,
-                            df.getOWLClassAssertionAxiom(root, i)));
-                    added.add(i.asOWLNamedIndividual());
-                });
+                .filter(i -> !i.isAnonymous() && !asserted.contains(i.asOWLNamedIndividual()))
+                .distinct()
+                .forEach(i -> addRow(new OWLClassAssertionAxiomMembersSectionRow(getOWLEditorKit(), this, null, root,
+                        df.getOWLClassAssertionAxiom(root, i))));
     }
 
     @Override
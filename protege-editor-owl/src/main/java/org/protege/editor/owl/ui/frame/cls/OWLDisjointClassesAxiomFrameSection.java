@@ -62,23 +62,25 @@ public class OWLDisjointClassesAxiomFrameSection
     }
 
     @Override
-    protected void infer() {
+    protected Set<OWLClassExpression> getAssertedObjects() {
+        return added;
+    }
+
+    @Override
+    protected void infer(OWLClassExpression root, Set<?> asserted) {
         OWLModelManager m = getOWLModelManager();
         OWLReasoner reasoner = m.getReasoner();
         if (!reasoner.isConsistent()) {
             return;
         }
         OWLDataFactory df = m.getOWLDataFactory();
-        OWLClassExpression root = getRootObject();
         OWLEditorKit kit = getOWLEditorKit();
         NodeSet<OWLClass> disjointFromRoot = reasoner.getSubClasses(df.getOWLObjectComplementOf(root), true);
         disjointFromRoot.entities()
-                .filter(c -> !added.contains(c) && !c.equals(root))
-                .forEach(c -> {
-                    addInferredRowIfNontrivial(new OWLDisjointClassesAxiomFrameSectionRow(kit, this, null, root,
-                            df.getOWLDisjointClassesAxiom(getRootObject(), c)));
-                    added.add(c);
-                });
+                .filter(c -> !asserted.contains(c) && !c.equals(root))
+                .distinct()
+                .forEach(c -> addInferredRowIfNontrivial(new OWLDisjointClassesAxiomFrameSectionRow(kit, this, null, root,
+                        df.getOWLDisjointClassesAxiom(root, c))));
     }
 
     @Override
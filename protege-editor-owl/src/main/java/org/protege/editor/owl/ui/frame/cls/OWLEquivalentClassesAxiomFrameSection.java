@@ -54,13 +54,17 @@ public class OWLEquivalentClassesAxiomFrameSection
     }
 
     @Override
-    protected void infer() {
+    protected Set<OWLClassExpression> getAssertedObjects() {
+        return added;
+    }
+
+    @Override
+    protected void infer(OWLClassExpression root, Set<?> asserted) {
         OWLReasoner reasoner = getOWLModelManager().getReasoner();
         if (!reasoner.isConsistent()) {
             return;
         }
         OWLDataFactory df = getOWLDataFactory();
-        OWLClassExpression root = getRootObject();
         OWLEditorKit kit = getOWLEditorKit();
         if (!reasoner.isSatisfiable(root)) {
             if (!root.isOWLNothing()) {
@@ -70,7 +74,7 @@ public class OWLEquivalentClassesAxiomFrameSection
             return;
         }
         for (OWLClassExpression c : reasoner.getEquivalentClasses(root)) {
-            if (added.contains(c) || c.equals(root)) {
+            if (asserted.contains(c) || c.equals(root)) {
                 continue;
             }
             addRow(new OWLEquivalentClassesAxiomFrameSectionRow(kit, this, null, root,
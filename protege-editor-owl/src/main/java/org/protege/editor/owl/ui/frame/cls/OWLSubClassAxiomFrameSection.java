@@ -55,31 +55,29 @@ public class OWLSubClassAxiomFrameSection extends AbstractOWLClassAxiomFrameSect
     }
 
     @Override
-    protected void refillInferred() {
-        OWLReasoner reasoner = getReasoner();
-        if (!reasoner.isConsistent()) {
-            return;
-        }
-        if (!reasoner.isSatisfiable(getRootObject())) {
-            return;
-        }
-        super.refillInferred();
+    protected Set<OWLClassExpression> getAssertedObjects() {
+        return added;
     }
 
     @Override
-    protected void infer() {
+    protected void infer(OWLClassExpression root, Set<?> asserted) {
         OWLModelManager m = getOWLModelManager();
         OWLReasoner reasoner = m.getReasoner();
-        OWLClassExpression root = getRootObject();
+        if (!reasoner.isConsistent()) {
+            return;
+        }
+        if (!reasoner.isSatisfiable(root)) {
+            return;
+        }
         OWLEditorKit kit = getOWLEditorKit();
+        Set<OWLClassExpression> inferred = new HashSet<>();
         for (Node<OWLClass> inferredSuperClasses : reasoner.getSuperClasses(root, true)) {
             for (OWLClassExpression inferredSuperClass : inferredSuperClasses) {
-                if (added.contains(inferredSuperClass)) {
+                if (asserted.contains(inferredSuperClass) || !inferred.add(inferredSuperClass)) {
                     continue;
                 }
                 addInferredRowIfNontrivial(new OWLSubClassAxiomFrameSectionRow(kit, this, null, root,
                         m.getOWLDataFactory().getOWLSubClassOfAxiom(root, inferredSuperClass)));
-                added.add(inferredSuperClass);
             }
         }
     }
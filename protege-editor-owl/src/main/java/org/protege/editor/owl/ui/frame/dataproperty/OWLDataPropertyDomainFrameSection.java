@@ -10,6 +10,7 @@ import org.semanticweb.owlapi.reasoner.Node;
 import org.semanticweb.owlapi.reasoner.NodeSet;
 import org.semanticweb.owlapi.reasoner.OWLReasoner;
 
+import java.util.Set;
 import java.util.stream.Stream;
 
 
@@ -43,9 +44,8 @@ public class OWLDataPropertyDomainFrameSection
     }
 
     @Override
-    protected NodeSet<OWLClass> getInferredDomains() {
+    protected NodeSet<OWLClass> getInferredDomains(OWLDataProperty p) {
         OWLReasoner reasoner = getOWLModelManager().getReasoner();
-        OWLDataProperty p = getRootObject();
         OWLDataFactory factory = getOWLModelManager().getOWLOntologyManager().getOWLDataFactory();
         if (p.equals(factory.getOWLTopDataProperty())) {
             return new OWLClassNodeSet(reasoner.getTopClassNode());
@@ -55,15 +55,15 @@ public class OWLDataPropertyDomainFrameSection
         if (node != null && node.getSize() != 0) {
             return new OWLClassNodeSet(node);
         }
-        return reasoner.getDataPropertyDomains(getRootObject(), true);
+        return reasoner.getDataPropertyDomains(p, true);
     }
 
     @Override
-    protected void infer() {
+    protected void infer(OWLDataProperty root, Set<?> asserted) {
         if (!isConsistent()) {
             return;
         }
-        super.infer();
+        super.infer(root, asserted);
     }
 
     @Override
@@ -72,18 +72,22 @@ public class OWLEquivalentDataPropertiesFrameSection
     }
 
     @Override
-    protected void infer() {
+    protected Set<OWLEquivalentDataPropertiesAxiom> getAssertedObjects() {
+        return added;
+    }
+
+    @Override
+    protected void infer(OWLDataProperty root, Set<?> asserted) {
         if (!isConsistent()) {
             return;
         }
-        OWLDataProperty root = getRootObject();
         Set<OWLDataProperty> res = getReasoner().getEquivalentDataProperties(root).entities().collect(Collectors.toSet());
         res.remove(root);
         if (res.isEmpty()) {
             return;
         }
         OWLEquivalentDataPropertiesAxiom ax = getOWLDataFactory().getOWLEquivalentDataPropertiesAxiom(res);
-        if (!added.contains(ax)) {
+        if (!asserted.contains(ax)) {
             addRow(new OWLEquivalentDataPropertiesFrameSectionRow(getOWLEditorKit(), this, null, root, ax));
         }
     }
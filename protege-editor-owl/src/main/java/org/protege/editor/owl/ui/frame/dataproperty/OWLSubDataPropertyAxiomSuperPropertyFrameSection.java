@@ -56,13 +56,17 @@ public class OWLSubDataPropertyAxiomSuperPropertyFrameSection
     }
 
     @Override
-    protected void infer() {
+    protected Set<OWLDataPropertyExpression> getAssertedObjects() {
+        return added;
+    }
+
+    @Override
+    protected void infer(OWLDataProperty root, Set<?> asserted) {
         if (!isConsistent()) {
             return;
         }
-        OWLDataProperty root = getRootObject();
         getReasoner().getSuperDataProperties(root, true).entities()
-                .filter(p -> !added.contains(p))
+                .filter(p -> !asserted.contains(p))
                 .map(p -> getOWLDataFactory().getOWLSubDataPropertyOfAxiom(root, p))
                 .map(ax -> new OWLSubDataPropertyAxiomSuperPropertyFrameSectionRow(getOWLEditorKit(),
                         this, null, root, ax))
@@ -53,21 +53,26 @@ public class OWLClassAssertionAxiomTypeFrameSection
     }
 
     @Override
-    protected void infer() {
+    protected Set<OWLClassExpression> getAssertedObjects() {
+        return added;
+    }
+
+    @Override
+    protected void infer(OWLIndividual root, Set<?> asserted) {
         if (!isConsistent()) {
             return;
         }
-        if (getRootObject().isAnonymous()) {
+        if (root.isAnonymous()) {
             return;
         }
-        getReasoner().getTypes(getRootObject().asOWLNamedIndividual(), true)
+        getReasoner().getTypes(root.asOWLNamedIndividual(), true)
                 .entities()
-                .filter(c -> !added.contains(c))
+                .filter(c -> !asserted.contains(c))
+                .distinct()
                 .forEach(c -> {
-                    OWLClassAssertionAxiom ax = getOWLDataFactory().getOWLClassAssertionAxiom(c, getRootObject());
+                    OWLClassAssertionAxiom ax = getOWLDataFactory().getOWLClassAssertionAxiom(c, root);
                     addInferredRowIfNontrivial(new OWLClassAssertionAxiomTypeFrameSectionRow(getOWLEditorKit(), this, null,
-                            getRootObject(), ax));
-                    added.add(c);
+                            root, ax));
                 });
     }
 
@@ -11,7 +11,9 @@ import org.semanticweb.owlapi.model.*;
 import org.semanticweb.owlapi.model.parameters.Imports;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 
 /**
@@ -51,23 +53,30 @@ public class OWLDataPropertyAssertionAxiomFrameSection
     }
 
     @Override
-    protected void infer() {
+    protected Set<OWLDataPropertyAssertionAxiom> getAssertedObjects() {
+        return added;
+    }
+
+    @Override
+    protected void infer(OWLIndividual root, Set<?> asserted) {
         if (!isConsistent()) {
             return;
         }
-        OWLIndividual root = getRootObject();
         if (root.isAnonymous()) {
             return;
         }
-        getReasoner().getRootOntology().dataPropertiesInSignature(Imports.INCLUDED).forEach(dp -> {
+        // the signature is collected first, so that the ontology is not read while the reasoner is waited for
+        List<OWLDataProperty> properties = getReasoner().getRootOntology()
+                .dataPropertiesInSignature(Imports.INCLUDED).collect(Collectors.toList());
+        for (OWLDataProperty dp : properties) {
             Set<OWLLiteral> values = getReasoner().getDataPropertyValues(root.asOWLNamedIndividual(), dp);
             for (OWLLiteral constant : values) {
                 OWLDataPropertyAssertionAxiom ax = getOWLDataFactory().getOWLDataPropertyAssertionAxiom(dp, root, constant);
-                if (!added.contains(ax)) {
+                if (!asserted.contains(ax)) {
                     addRow(new OWLDataPropertyAssertionAxiomFrameSectionRow(getOWLEditorKit(), this, null, root, ax));
                 }
             }
-        });
+        }
     }
 
     @Override
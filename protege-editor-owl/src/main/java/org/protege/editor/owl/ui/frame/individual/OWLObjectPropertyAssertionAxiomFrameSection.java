@@ -13,7 +13,9 @@ import org.semanticweb.owlapi.reasoner.NodeSet;
 import org.semanticweb.owlapi.reasoner.OWLReasoner;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Author: Matthew Horridge<br>
@@ -46,25 +48,31 @@ public class OWLObjectPropertyAssertionAxiomFrameSection
     }
 
     @Override
-    protected void infer() {
+    protected Set<OWLObjectPropertyAssertionAxiom> getAssertedObjects() {
+        return added;
+    }
+
+    @Override
+    protected void infer(OWLIndividual root, Set<?> asserted) {
         if (!isConsistent()) {
             return;
         }
         OWLDataFactory df = getOWLDataFactory();
-        OWLIndividual root = getRootObject();
         if (root.isAnonymous()) {
             return;
         }
         OWLReasoner r = getReasoner();
-        r.getRootOntology().objectPropertiesInSignature(Imports.INCLUDED)
+        // the signature is collected first, so that the ontology is not read while the reasoner is waited for
+        List<OWLObjectProperty> properties = r.getRootOntology().objectPropertiesInSignature(Imports.INCLUDED)
                 .filter(p -> !p.equals(df.getOWLTopObjectProperty()))
-                .forEach(p -> {
-                    NodeSet<OWLNamedIndividual> values = r.getObjectPropertyValues(root.asOWLNamedIndividual(), p);
-                    values.entities().map(ind -> df.getOWLObjectPropertyAssertionAxiom(p, root, ind))
-                            .filter(ax -> !added.contains(ax))
-                            .map(ax -> new OWLObjectPropertyAssertionAxiomFrameSectionRow(getOWLEditorKit(), this, null, root, ax))
-                            .forEach(this::addRow);
-                });
+                .collect(Collectors.toList());
+        for (OWLObjectProperty p : properties) {
+            NodeSet<OWLNamedIndividual> values = r.getObjectPropertyValues(root.asOWLNamedIndividual(), p);
+            values.entities().map(ind -> df.getOWLObjectPropertyAssertionAxiom(p, root, ind))
+                    .filter(ax -> !asserted.contains(ax))
+                    .map(ax -> new OWLObjectPropertyAssertionAxiomFrameSectionRow(getOWLEditorKit(), this, null, root, ax))
+                    .forEach(this::addRow);
+        }
     }
 
     @Override
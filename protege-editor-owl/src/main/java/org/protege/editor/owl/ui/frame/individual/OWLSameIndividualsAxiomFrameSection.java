@@ -38,14 +38,17 @@ public class OWLSameIndividualsAxiomFrameSection
     }
 
     @Override
-    protected void infer() {
+    protected Set<OWLIndividual> getAssertedObjects() {
+        return getCurrentlyDisplayedSameIndividuals();
+    }
+
+    @Override
+    protected void infer(OWLNamedIndividual root, Set<?> asserted) {
         if (!isConsistent()) {
             return;
         }
-        OWLNamedIndividual root = getRootObject();
-        Set<OWLIndividual> existingSameIndividuals = getCurrentlyDisplayedSameIndividuals();
         Set<OWLNamedIndividual> res = getCurrentReasoner().getSameIndividuals(root).entities()
-                .filter(i -> !i.equals(root) && !existingSameIndividuals.contains(i))
+                .filter(i -> !i.equals(root) && !asserted.contains(i))
                 .collect(Collectors.toSet());
         if (res.isEmpty()) {
             return;
@@ -47,18 +47,22 @@ public class OWLEquivalentObjectPropertiesAxiomFrameSection
     }
 
     @Override
-    protected void infer() {
+    protected Set<OWLEquivalentObjectPropertiesAxiom> getAssertedObjects() {
+        return added;
+    }
+
+    @Override
+    protected void infer(OWLObjectProperty root, Set<?> asserted) {
         if (!isConsistent()) {
             return;
         }
-        OWLObjectProperty root = getRootObject();
         Node<OWLObjectPropertyExpression> node = getReasoner().getEquivalentObjectProperties(root);
         if (node.getEntitiesMinus(root).isEmpty()) {
             return;
         }
         OWLEquivalentObjectPropertiesAxiom ax = getOWLDataFactory()
                 .getOWLEquivalentObjectPropertiesAxiom(node.entities().collect(Collectors.toSet()));
-        if (added.contains(ax)) {
+        if (asserted.contains(ax)) {
             return;
         }
         addInferredRowIfNontrivial(new OWLEquivalentObjectPropertiesAxiomFrameSectionRow(getOWLEditorKit(), this, null, root, ax));
@@ -45,13 +45,17 @@ public class OWLInverseObjectPropertiesAxiomFrameSection
     }
 
     @Override
-    protected void infer() {
+    protected Set<OWLObjectPropertyExpression> getAssertedObjects() {
+        return added;
+    }
+
+    @Override
+    protected void infer(OWLObjectProperty root, Set<?> asserted) {
         if (!isConsistent()) {
             return;
         }
-        OWLObjectProperty root = getRootObject();
         getReasoner().getInverseObjectProperties(root).entities()
-                .filter(p -> !added.contains(p))
+                .filter(p -> !asserted.contains(p))
                 .map(p -> getOWLDataFactory().getOWLInverseObjectPropertiesAxiom(root, p))
                 .map(ax -> new OWLInverseObjectPropertiesAxiomFrameSectionRow(getOWLEditorKit(), this, null, root, ax))
                 .forEach(this::addInferredRowIfNontrivial);
@@ -10,6 +10,7 @@ import org.semanticweb.owlapi.reasoner.Node;
 import org.semanticweb.owlapi.reasoner.NodeSet;
 import org.semanticweb.owlapi.reasoner.OWLReasoner;
 
+import java.util.Set;
 import java.util.stream.Stream;
 
 
@@ -43,9 +44,8 @@ public class OWLObjectPropertyDomainFrameSection
     }
 
     @Override
-    protected NodeSet<OWLClass> getInferredDomains() {
+    protected NodeSet<OWLClass> getInferredDomains(OWLObjectProperty p) {
         OWLReasoner reasoner = getOWLModelManager().getReasoner();
-        OWLObjectProperty p = getRootObject();
         OWLDataFactory factory = getOWLModelManager().getOWLOntologyManager().getOWLDataFactory();
         if (p.equals(factory.getOWLTopObjectProperty())) {
             return new OWLClassNodeSet(reasoner.getTopClassNode());
@@ -55,7 +55,7 @@ public class OWLObjectPropertyDomainFrameSection
         if (domainNode != null && domainNode.getSize() != 0) {
             return new OWLClassNodeSet(domainNode);
         }
-        return reasoner.getObjectPropertyDomains(getRootObject(), true);
+        return reasoner.getObjectPropertyDomains(p, true);
     }
 
     @Override
@@ -64,11 +64,11 @@ public class OWLObjectPropertyDomainFrameSection
     }
 
     @Override
-    protected void infer() {
+    protected void infer(OWLObjectProperty root, Set<?> asserted) {
         if (!isConsistent()) {
             return;
         }
-        super.infer();
+        super.infer(root, asserted);
     }
 
     @Override
@@ -45,19 +45,22 @@ public class OWLObjectPropertyRangeFrameSection
     }
 
     @Override
-    protected void infer() {
+    protected Set<OWLClassExpression> getAssertedObjects() {
+        return added;
+    }
+
+    @Override
+    protected void infer(OWLObjectProperty root, Set<?> asserted) {
         if (!isConsistent()) {
             return;
         }
-        OWLObjectProperty root = getRootObject();
         getReasoner().getObjectPropertyRanges(root, true)
                 .entities()
+                .filter(range -> !asserted.contains(range))
+                .distinct()
                 .forEach(range -> {
-                    if (!added.contains(range)) {
-                        OWLObjectPropertyRangeAxiom ax = getOWLDataFactory().getOWLObjectPropertyRangeAxiom(root, range);
-                        addInferredRowIfNontrivial(new OWLObjectPropertyRangeFrameSectionRow(getOWLEditorKit(), this, null, root, ax));
-                    }
-                    added.add(range);
+                    OWLObjectPropertyRangeAxiom ax = getOWLDataFactory().getOWLObjectPropertyRangeAxiom(root, range);
+                    addInferredRowIfNontrivial(new OWLObjectPropertyRangeFrameSectionRow(getOWLEditorKit(), this, null, root, ax));
                 });
     }
 
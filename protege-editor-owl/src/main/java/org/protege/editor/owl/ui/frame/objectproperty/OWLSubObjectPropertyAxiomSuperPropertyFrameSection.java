@@ -45,13 +45,17 @@ public class OWLSubObjectPropertyAxiomSuperPropertyFrameSection
     }
 
     @Override
-    protected void infer() {
+    protected Set<OWLObjectPropertyExpression> getAssertedObjects() {
+        return added;
+    }
+
+    @Override
+    protected void infer(OWLObjectProperty root, Set<?> asserted) {
         if (!isConsistent()) {
             return;
         }
-        OWLObjectProperty root = getRootObject();
         getReasoner().getSuperObjectProperties(root, true).entities()
-                .filter(p -> !added.contains(p))
+                .filter(p -> !asserted.contains(p))
                 .map(p -> new OWLSubObjectPropertyAxiomSuperPropertyFrameSectionRow(getOWLEditorKit(), this, null, root,
                         getOWLDataFactory().getOWLSubObjectPropertyOfAxiom(root, p)))
                 .forEach(this::addInferredRowIfNontrivial);
@@ -78,7 +78,7 @@ public abstract class AbstractPropertyDomainFrameSection<P extends OWLProperty,
 
     protected abstract Stream<A> axioms(OWLOntology ontology);
 
-    protected abstract NodeSet<OWLClass> getInferredDomains();
+    protected abstract NodeSet<OWLClass> getInferredDomains(P root);
 
     @Override
     protected void clear() {
@@ -94,14 +94,19 @@ public abstract class AbstractPropertyDomainFrameSection<P extends OWLProperty,
     }
 
     @Override
-    protected void infer() {
-        for (Node<OWLClass> domains : getInferredDomains()) {
+    protected Set<OWLClassExpression> getAssertedObjects() {
+        return added;
+    }
+
+    @Override
+    protected void infer(P root, Set<?> asserted) {
+        Set<OWLClassExpression> inferred = new HashSet<>();
+        for (Node<OWLClass> domains : getInferredDomains(root)) {
             for (OWLClassExpression domain : domains) {
-                if (added.contains(domain)) {
+                if (asserted.contains(domain) || !inferred.add(domain)) {
                     continue;
                 }
                 addInferredRowIfNontrivial(createFrameSectionRow(createAxiom(domain), null));
-                added.add(domain);
             }
         }
     }
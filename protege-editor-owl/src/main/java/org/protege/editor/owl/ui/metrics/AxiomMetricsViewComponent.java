@@ -30,7 +30,7 @@ public class AxiomMetricsViewComponent extends AbstractActiveOntologyViewCompone
 
     @Override
     protected void disposeOntologyView() {
-        // do nothing
+        metricsPanel.dispose();
     }
 
     @Override
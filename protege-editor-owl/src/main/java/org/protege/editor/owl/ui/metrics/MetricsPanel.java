@@ -4,11 +4,10 @@ import org.github.owlcs.ontapi.metrics.TripleCount;
 import org.protege.editor.owl.OWLEditorKit;
 import org.protege.editor.owl.ui.OWLAxiomTypeFramePanel;
 import org.semanticweb.owlapi.metrics.*;
-import org.semanticweb.owlapi.model.AxiomType;
-import org.semanticweb.owlapi.model.OWLAxiom;
-import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import javax.annotation.Nonnull;
 import javax.swing.*;
 import javax.swing.table.DefaultTableCellRenderer;
 import java.awt.*;
@@ -17,6 +16,8 @@ import java.awt.datatransfer.StringSelection;
 import java.awt.event.*;
 import java.util.List;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /*
  * Copyright (C) 2007, University of Manchester
@@ -25,18 +26,47 @@ import java.util.*;
  * The University Of Manchester<br>
  * Bio-Health Informatics Group<br>
  * Date: 29-Oct-2007<br><br>
+ * <p>
+ * The axiom and entity counts of all the tables are computed together by {@link OntologyMetrics},
+ * in a background thread, and then updated from the ontology changes.
+ * </p>
  */
 public class MetricsPanel extends JPanel {
 
-    private final Map<String, OWLMetricManager> metricManagerMap = new LinkedHashMap<>();
+    private static final Logger LOGGER = LoggerFactory.getLogger(MetricsPanel.class);
 
-    private final Map<OWLMetricManager, MetricsTableModel> tableModelMap = new HashMap<>();
+    private static final ExecutorService METRICS_CALCULATOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Metrics calculator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, List<MetricsTableModel.Row>> metricsMap = new LinkedHashMap<>();
+
+    private final Map<String, MetricsTableModel> tableModelMap = new LinkedHashMap<>();
+
+    /**
+     * The metrics which are not counted by {@link OntologyMetrics}.
+     */
+    private final List<OWLMetric<?>> delegates = new ArrayList<>();
 
     private OWLEditorKit owlEditorKit;
 
     private final JPopupMenu popupMenu = new JPopupMenu();
 
-    private AxiomCountMetric lastMetric;
+    private MetricsTableModel.Row lastMetric;
+
+    private final OWLOntologyChangeListener ontologyChangeListener = this::processChanges;
+
+    private OWLOntology ontology;
+
+    private OntologyMetrics metrics;
+
+    /**
+     * The number of the computations started, to skip and to ignore the results of the outdated ones.
+     * It is read by the computation tasks, so that a task which has been queued behind a newer one does nothing.
+     */
+    private volatile int computations;
 
     public MetricsPanel(OWLEditorKit editorKit) {
         this.owlEditorKit = editorKit;
@@ -44,6 +74,7 @@ public class MetricsPanel extends JPanel {
         setOpaque(true);
         initialiseOWLView();
         createPopupMenu();
+        editorKit.getModelManager().addOntologyChangeListener(ontologyChangeListener);
     }
 
     private void createPopupMenu() {
@@ -53,9 +84,9 @@ public class MetricsPanel extends JPanel {
     }
 
     private void showAxiomTypeDialog() {
-        Set<? extends OWLAxiom> axioms = lastMetric.getAxioms();
+        Set<OWLAxiom> axs = new HashSet<>();
+        lastMetric.getAxioms(ontology).forEach(axs::add);
         final OWLAxiomTypeFramePanel panel = new OWLAxiomTypeFramePanel(owlEditorKit);
-        Set<OWLAxiom> axs = new HashSet<>(axioms);
         panel.setRoot(axs);
         panel.setPreferredSize(new Dimension(800, 300));
         JOptionPane op = new JOptionPane(panel, JOptionPane.PLAIN_MESSAGE, JOptionPane.OK_CANCEL_OPTION);
@@ -82,12 +113,6 @@ public class MetricsPanel extends JPanel {
         createAnnotationAxiomMetrics();
         createUI();
         updateView(owlEditorKit.getModelManager().getActiveOntology());
-        for(OWLMetricManager man : metricManagerMap.values()) {
-            man.getMetrics().forEach(m -> {
-                m.setImportsClosureUsed(true);
-                m.setOntology(owlEditorKit.getModelManager().getActiveOntology());
-            });
-        }
     }
 
 
@@ -95,9 +120,9 @@ public class MetricsPanel extends JPanel {
         setLayout(new BorderLayout());
         Box box = new Box(BoxLayout.Y_AXIS);
         box.setBackground(Color.WHITE);
-        for (String metricsSet : metricManagerMap.keySet()) {
-            MetricsTableModel tableModel = new MetricsTableModel(metricManagerMap.get(metricsSet));
-            tableModelMap.put(metricManagerMap.get(metricsSet), tableModel);
+        for (String metricsSet : metricsMap.keySet()) {
+            MetricsTableModel tableModel = new MetricsTableModel(metricsMap.get(metricsSet));
+            tableModelMap.put(metricsSet, tableModel);
             final JTable table = new JTable(tableModel);
             table.setGridColor(new Color(240, 240, 240));
             FontMetrics fontMetrics = table.getFontMetrics(table.getFont());
@@ -129,15 +154,10 @@ public class MetricsPanel extends JPanel {
                         return;
                     }
                     MetricsTableModel model = (MetricsTableModel) table.getModel();
-                    for(OWLMetricManager man : tableModelMap.keySet()) {
-                        if(tableModelMap.get(man).equals(model)) {
-                            OWLMetric<?> metric = man.getMetrics().get(row);
-                            if(metric instanceof AxiomCountMetric) {
-                                lastMetric = (AxiomCountMetric) metric;
-                                popupMenu.show(table, e.getX(), e.getY());
-                            }
-                            break;
-                        }
+                    MetricsTableModel.Row metric = model.getRow(row);
+                    if(metric.isAxiomCount()) {
+                        lastMetric = metric;
+                        popupMenu.show(table, e.getX(), e.getY());
                     }
 
                 }
@@ -238,160 +258,190 @@ public class MetricsPanel extends JPanel {
 
 
     private void createBasicMetrics() {
-        List<OWLMetric<?>> metrics = new ArrayList<>();
-        metrics.add(new TripleCount(getOntology()));
-        metrics.add(new AxiomCount(getOntology()));
-        metrics.add(new LogicalAxiomCount(getOntology()));
-        metrics.add(new AxiomTypeMetric(getOntology(), AxiomType.DECLARATION));
-        metrics.add(new ReferencedClassCount(getOntology()));
-        metrics.add(new ReferencedObjectPropertyCount(getOntology()));
-        metrics.add(new ReferencedDataPropertyCount(getOntology()));
-        metrics.add(new ReferencedIndividualCount(getOntology()));
-        metrics.add(new ReferencedAnnotationPropertyCount(getOntology()));
-        metrics.add(new DLExpressivity(getOntology()));
-    	/*
-    	 * Degenericized to be compatible with changing OWLAPI interfaces
-    	 */
-        OWLMetricManager metricManager = new OWLMetricManager(metrics);
-        metricManagerMap.put("Metrics", metricManager);
+        List<MetricsTableModel.Row> metrics = new ArrayList<>();
+        metrics.add(delegate(new TripleCount(getOntology())));
+        metrics.add(new MetricsTableModel.Row("Axiom", OntologyMetrics::getAxiomCount,
+                o -> o.importsClosure().flatMap(OWLOntology::axioms)));
+        metrics.add(new MetricsTableModel.Row("Logical axiom count", OntologyMetrics::getLogicalAxiomCount,
+                o -> o.importsClosure().flatMap(OWLOntology::logicalAxioms)));
+        metrics.add(axiomTypeMetric(AxiomType.DECLARATION, "Declaration axioms"));
+        metrics.add(entityTypeMetric(EntityType.CLASS, "Class count"));
+        metrics.add(entityTypeMetric(EntityType.OBJECT_PROPERTY, "Object property count"));
+        metrics.add(entityTypeMetric(EntityType.DATA_PROPERTY, "Data property count"));
+        metrics.add(entityTypeMetric(EntityType.NAMED_INDIVIDUAL, "Individual count"));
+        metrics.add(entityTypeMetric(EntityType.ANNOTATION_PROPERTY, "Annotation Property count"));
+        metrics.add(delegate(new DLExpressivity(getOntology())));
+        metricsMap.put("Metrics", metrics);
     }
 
 
     private void createClassAxiomMetrics() {
-        List<OWLMetric<?>> metrics = new ArrayList<>();
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(), AxiomType.SUBCLASS_OF));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(), AxiomType.EQUIVALENT_CLASSES));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(), AxiomType.DISJOINT_CLASSES));
-        metrics.add(new GCICount(getOntology()));
-        metrics.add(new HiddenGCICount(getOntology()));
-    	/*
-    	 * Degenericized to be compatible with changing OWLAPI interfaces
-    	 */
-        OWLMetricManager metricManager = new OWLMetricManager(metrics);
-        metricManagerMap.put("Class axioms", metricManager);
+        List<MetricsTableModel.Row> metrics = new ArrayList<>();
+        metrics.add(axiomTypeMetric(AxiomType.SUBCLASS_OF));
+        metrics.add(axiomTypeMetric(AxiomType.EQUIVALENT_CLASSES));
+        metrics.add(axiomTypeMetric(AxiomType.DISJOINT_CLASSES));
+        metrics.add(delegate(new GCICount(getOntology())));
+        metrics.add(delegate(new HiddenGCICount(getOntology())));
+        metricsMap.put("Class axioms", metrics);
     }
 
 
     private void createObjectPropertyAxiomMetrics() {
-        List<OWLMetric<?>> metrics = new ArrayList<>();
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(), AxiomType.SUB_OBJECT_PROPERTY));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.EQUIVALENT_OBJECT_PROPERTIES));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.INVERSE_OBJECT_PROPERTIES));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.DISJOINT_OBJECT_PROPERTIES));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.FUNCTIONAL_OBJECT_PROPERTY));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.INVERSE_FUNCTIONAL_OBJECT_PROPERTY));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.TRANSITIVE_OBJECT_PROPERTY));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.SYMMETRIC_OBJECT_PROPERTY));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.ASYMMETRIC_OBJECT_PROPERTY));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.REFLEXIVE_OBJECT_PROPERTY));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.IRREFLEXIVE_OBJECT_PROPERTY));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.OBJECT_PROPERTY_DOMAIN));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.OBJECT_PROPERTY_RANGE));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.SUB_PROPERTY_CHAIN_OF));
-    	/*
-    	 * Degenericized to be compatible with changing OWLAPI interfaces
-    	 */
-        OWLMetricManager metricManager = new OWLMetricManager(metrics);
-        metricManagerMap.put("Object property axioms", metricManager);
+        List<MetricsTableModel.Row> metrics = new ArrayList<>();
+        metrics.add(axiomTypeMetric(AxiomType.SUB_OBJECT_PROPERTY));
+        metrics.add(axiomTypeMetric(AxiomType.EQUIVALENT_OBJECT_PROPERTIES));
+        metrics.add(axiomTypeMetric(AxiomType.INVERSE_OBJECT_PROPERTIES));
+        metrics.add(axiomTypeMetric(AxiomType.DISJOINT_OBJECT_PROPERTIES));
+        metrics.add(axiomTypeMetric(AxiomType.FUNCTIONAL_OBJECT_PROPERTY));
+        metrics.add(axiomTypeMetric(AxiomType.INVERSE_FUNCTIONAL_OBJECT_PROPERTY));
+        metrics.add(axiomTypeMetric(AxiomType.TRANSITIVE_OBJECT_PROPERTY));
+        metrics.add(axiomTypeMetric(AxiomType.SYMMETRIC_OBJECT_PROPERTY));
+        metrics.add(axiomTypeMetric(AxiomType.ASYMMETRIC_OBJECT_PROPERTY));
+        metrics.add(axiomTypeMetric(AxiomType.REFLEXIVE_OBJECT_PROPERTY));
+        metrics.add(axiomTypeMetric(AxiomType.IRREFLEXIVE_OBJECT_PROPERTY));
+        metrics.add(axiomTypeMetric(AxiomType.OBJECT_PROPERTY_DOMAIN));
+        metrics.add(axiomTypeMetric(AxiomType.OBJECT_PROPERTY_RANGE));
+        metrics.add(axiomTypeMetric(AxiomType.SUB_PROPERTY_CHAIN_OF));
+        metricsMap.put("Object property axioms", metrics);
     }
 
     private void createDataPropertyAxiomMetrics() {
-        List<OWLMetric<?>> metrics = new ArrayList<>();
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(), AxiomType.SUB_DATA_PROPERTY));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.EQUIVALENT_DATA_PROPERTIES));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.DISJOINT_DATA_PROPERTIES));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.FUNCTIONAL_DATA_PROPERTY));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.DATA_PROPERTY_DOMAIN));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.DATA_PROPERTY_RANGE));        
-    	/*
-    	 * Degenericized to be compatible with changing OWLAPI interfaces
-    	 */
-        OWLMetricManager metricManager = new OWLMetricManager(metrics);
-        metricManagerMap.put("Data property axioms", metricManager);
+        List<MetricsTableModel.Row> metrics = new ArrayList<>();
+        metrics.add(axiomTypeMetric(AxiomType.SUB_DATA_PROPERTY));
+        metrics.add(axiomTypeMetric(AxiomType.EQUIVALENT_DATA_PROPERTIES));
+        metrics.add(axiomTypeMetric(AxiomType.DISJOINT_DATA_PROPERTIES));
+        metrics.add(axiomTypeMetric(AxiomType.FUNCTIONAL_DATA_PROPERTY));
+        metrics.add(axiomTypeMetric(AxiomType.DATA_PROPERTY_DOMAIN));
+        metrics.add(axiomTypeMetric(AxiomType.DATA_PROPERTY_RANGE));
+        metricsMap.put("Data property axioms", metrics);
     }
 
 
     private void createIndividualAxiomMetrics() {
-        List<OWLMetric<?>> metrics = new ArrayList<>();
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(), AxiomType.CLASS_ASSERTION));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.OBJECT_PROPERTY_ASSERTION));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.DATA_PROPERTY_ASSERTION));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.NEGATIVE_OBJECT_PROPERTY_ASSERTION));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(),
-                                        AxiomType.NEGATIVE_DATA_PROPERTY_ASSERTION));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(), AxiomType.SAME_INDIVIDUAL));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(), AxiomType.DIFFERENT_INDIVIDUALS));
-    	/*
-    	 * Degenericized to be compatible with changing OWLAPI interfaces
-    	 */
-        OWLMetricManager metricManager = new OWLMetricManager(metrics);
-        metricManagerMap.put("Individual axioms", metricManager);
+        List<MetricsTableModel.Row> metrics = new ArrayList<>();
+        metrics.add(axiomTypeMetric(AxiomType.CLASS_ASSERTION));
+        metrics.add(axiomTypeMetric(AxiomType.OBJECT_PROPERTY_ASSERTION));
+        metrics.add(axiomTypeMetric(AxiomType.DATA_PROPERTY_ASSERTION));
+        metrics.add(axiomTypeMetric(AxiomType.NEGATIVE_OBJECT_PROPERTY_ASSERTION));
+        metrics.add(axiomTypeMetric(AxiomType.NEGATIVE_DATA_PROPERTY_ASSERTION));
+        metrics.add(axiomTypeMetric(AxiomType.SAME_INDIVIDUAL));
+        metrics.add(axiomTypeMetric(AxiomType.DIFFERENT_INDIVIDUALS));
+        metricsMap.put("Individual axioms", metrics);
     }
 
 
     private void createAnnotationAxiomMetrics() {
-        List<OWLMetric<?>> metrics = new ArrayList<>();
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(), AxiomType.ANNOTATION_ASSERTION));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(), AxiomType.ANNOTATION_PROPERTY_DOMAIN));
-        metrics.add(new AxiomTypeMetricWrapper(getOntology(), AxiomType.ANNOTATION_PROPERTY_RANGE));
-    	/*
-    	 * Degenericized to be compatible with changing OWLAPI interfaces
-    	 */
-        OWLMetricManager metricManager = new OWLMetricManager(metrics);
-        metricManagerMap.put("Annotation axioms", metricManager);
+        List<MetricsTableModel.Row> metrics = new ArrayList<>();
+        metrics.add(axiomTypeMetric(AxiomType.ANNOTATION_ASSERTION));
+        metrics.add(axiomTypeMetric(AxiomType.ANNOTATION_PROPERTY_DOMAIN));
+        metrics.add(axiomTypeMetric(AxiomType.ANNOTATION_PROPERTY_RANGE));
+        metricsMap.put("Annotation axioms", metrics);
     }
-    
 
-    public void updateView(OWLOntology activeOntology) {
-        for (OWLMetricManager man : metricManagerMap.values()) {
-            man.setOntology(activeOntology);
-        }
-        repaint();
+
+    private static MetricsTableModel.Row axiomTypeMetric(AxiomType<?> type) {
+        return axiomTypeMetric(type, type.getName());
     }
 
-    private void exportCSV() {
-        StringBuilder sb = new StringBuilder();
-        for(OWLMetricManager man : metricManagerMap.values()) {
-            sb.append(man.toString());
+
+    private static MetricsTableModel.Row axiomTypeMetric(AxiomType<?> type, String name) {
+        return new MetricsTableModel.Row(name, m -> m.getAxiomCount(type),
+                o -> o.importsClosure().flatMap(ont -> ont.axioms(type)));
+    }
+
+
+    private static MetricsTableModel.Row entityTypeMetric(EntityType<?> type, String name) {
+        return new MetricsTableModel.Row(name, m -> m.getEntityCount(type), null);
+    }
+
+
+    /**
+     * Wraps a metric which is not counted by {@link OntologyMetrics}, it is computed by itself when its value is shown.
+     * @param metric {@link OWLMetric}
+     * @return {@link MetricsTableModel.Row}
+     */
+    private MetricsTableModel.Row delegate(OWLMetric<?> metric) {
+        metric.setImportsClosureUsed(true);
+        delegates.add(metric);
+        if (metric instanceof AxiomCountMetric) {
+            return new MetricsTableModel.Row(metric.getName(), m -> metric.getValue(),
+                    o -> ((AxiomCountMetric) metric).getAxioms().stream());
         }
-        Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
-        clipboard.setContents(new StringSelection(sb.toString()), null);
+        return new MetricsTableModel.Row(metric.getName(), m -> metric.getValue(), null);
     }
+    
 
-    private static class AxiomTypeMetricWrapper extends AxiomTypeMetric {
+    public void updateView(OWLOntology activeOntology) {
+        if (activeOntology == ontology) {
+            tableModelMap.values().forEach(MetricsTableModel::metricsChanged);
+            return;
+        }
+        ontology = activeOntology;
+        for (OWLMetric<?> metric : delegates) {
+            metric.setOntology(activeOntology);
+        }
+        computeMetrics();
+    }
 
-        private AxiomType<?> type;
+    private void computeMetrics() {
+        metrics = null;
+        tableModelMap.values().forEach(m -> m.setMetrics(null));
+        int computation = ++computations;
+        OWLOntology ontology = this.ontology;
+        METRICS_CALCULATOR.submit(() -> {
+            if (computation != computations) {
+                // a newer computation is queued, e.g. the ontology has been changed again
+                return;
+            }
+            OntologyMetrics res = null;
+            try {
+                res = OntologyMetrics.compute(ontology);
+            } catch (RuntimeException e) {
+                LOGGER.error("Cannot compute the metrics of {}: '{}'", ontology, e.getMessage(), e);
+            }
+            OntologyMetrics computed = res;
+            SwingUtilities.invokeLater(() -> {
+                if (computed == null || computation != computations) {
+                    return;
+                }
+                metrics = computed;
+                tableModelMap.values().forEach(m -> m.setMetrics(computed));
+            });
+        });
+    }
 
-        public AxiomTypeMetricWrapper(OWLOntology o, AxiomType<?> axiomType) {
-            super(o, axiomType);
-            this.type = axiomType;
+    private void processChanges(List<? extends OWLOntologyChange> changes) {
+        if (ontology == null) {
+            return;
+        }
+        if (metrics == null) {
+            // the changes may be missed by the computation which is in progress
+            Set<OWLOntology> importsClosure = Collections.newSetFromMap(new IdentityHashMap<>());
+            ontology.importsClosure().forEach(importsClosure::add);
+            if (changes.stream().anyMatch(c -> importsClosure.contains(c.getOntology()))) {
+                computeMetrics();
+            }
+            return;
         }
+        if (!metrics.update(changes)) {
+            computeMetrics();
+            return;
+        }
+        tableModelMap.values().forEach(MetricsTableModel::metricsChanged);
+    }
 
-        @Nonnull
-        @Override
-        public String getName() {
-            return type.getName();
+    public void dispose() {
+        owlEditorKit.getModelManager().removeOntologyChangeListener(ontologyChangeListener);
+        delegates.forEach(OWLMetric::dispose);
+        computations++;
+    }
+
+    private void exportCSV() {
+        StringBuilder sb = new StringBuilder();
+        for(MetricsTableModel model : tableModelMap.values()) {
+            sb.append(model.toString());
         }
+        Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
+        clipboard.setContents(new StringSelection(sb.toString()), null);
     }
 }
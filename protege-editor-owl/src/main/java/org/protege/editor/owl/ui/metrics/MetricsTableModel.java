@@ -1,9 +1,14 @@
 package org.protege.editor.owl.ui.metrics;
 
-import org.semanticweb.owlapi.metrics.OWLMetric;
-import org.semanticweb.owlapi.metrics.OWLMetricManager;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
 
+import javax.annotation.Nullable;
 import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
 /*
  * Copyright (C) 2007, University of Manchester
  *
@@ -16,19 +21,51 @@ import javax.swing.table.AbstractTableModel;
  * The University Of Manchester<br>
  * Bio-Health Informatics Group<br>
  * Date: 29-Jul-2007<br><br>
+ * <p>
+ * The values of the rows are read from the shared {@link OntologyMetrics},
+ * so that all the tables of the metrics panel are filled from a single computation.
+ * </p>
  */
 public class MetricsTableModel extends AbstractTableModel {
 
-    private OWLMetricManager metricManager;
+    private final List<Row> rows;
 
+    @Nullable
+    private OntologyMetrics metrics;
 
-    public MetricsTableModel(OWLMetricManager metricManager) {
-        this.metricManager = metricManager;
+
+    public MetricsTableModel(List<Row> rows) {
+        this.rows = new ArrayList<>(rows);
+    }
+
+
+    /**
+     * Sets the metrics to show.
+     * @param metrics {@link OntologyMetrics} or {@code null} if the metrics are not computed yet
+     */
+    public void setMetrics(@Nullable OntologyMetrics metrics) {
+        this.metrics = metrics;
+        fireTableDataChanged();
+    }
+
+
+    /**
+     * Refreshes the values, when the metrics have been updated.
+     */
+    public void metricsChanged() {
+        if (!rows.isEmpty()) {
+            fireTableRowsUpdated(0, rows.size() - 1);
+        }
+    }
+
+
+    public Row getRow(int rowIndex) {
+        return rows.get(rowIndex);
     }
 
 
     public int getRowCount() {
-        return metricManager.getMetrics().size();
+        return rows.size();
     }
 
 
@@ -38,12 +75,12 @@ public class MetricsTableModel extends AbstractTableModel {
 
 
     public Object getValueAt(int rowIndex, int columnIndex) {
-        OWLMetric<?> metric = metricManager.getMetrics().get(rowIndex);
+        Row row = rows.get(rowIndex);
         if (columnIndex == 0) {
-            return metric.getName();
+            return row.getName();
         }
         else {
-            return metric.getValue();
+            return metrics == null ? "" : row.getValue(metrics);
         }
     }
 
@@ -58,10 +95,60 @@ public class MetricsTableModel extends AbstractTableModel {
     }
 
 
-    public void includeImports(boolean b) {
-        for (OWLMetric metric : metricManager.getMetrics()) {
-            metric.setImportsClosureUsed(b);
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < rows.size(); i++) {
+            sb.append(getValueAt(i, 0)).append(": ").append(getValueAt(i, 1)).append("\n");
+        }
+        return sb.toString();
+    }
+
+
+    /**
+     * A metric, which is shown as a row of the table.
+     */
+    public static class Row {
+
+        private final String name;
+
+        private final Function<OntologyMetrics, Object> value;
+
+        @Nullable
+        private final Function<OWLOntology, Stream<? extends OWLAxiom>> axioms;
+
+        /**
+         * @param name   the name of the metric
+         * @param value  {@link Function} to get the value of the metric from the {@link OntologyMetrics}
+         * @param axioms {@link Function} to list the axioms of the ontology which are counted by the metric,
+         *               or {@code null} if the metric does not count axioms
+         */
+        public Row(String name,
+                   Function<OntologyMetrics, Object> value,
+                   @Nullable Function<OWLOntology, Stream<? extends OWLAxiom>> axioms) {
+            this.name = name;
+            this.value = value;
+            this.axioms = axioms;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Object getValue(OntologyMetrics metrics) {
+            return value.apply(metrics);
+        }
+
+        public boolean isAxiomCount() {
+            return axioms != null;
+        }
+
+        /**
+         * @param ontology {@link OWLOntology}
+         * @return {@code Stream} of the counted axioms, empty if the metric does not count axioms
+         */
+        public Stream<? extends OWLAxiom> getAxioms(OWLOntology ontology) {
+            return axioms == null ? Stream.empty() : axioms.apply(ontology);
         }
-        fireTableDataChanged();
     }
 }
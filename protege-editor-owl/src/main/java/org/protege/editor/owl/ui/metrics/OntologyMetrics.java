@@ -0,0 +1,160 @@
+package org.protege.editor.owl.ui.metrics;
+
+import org.semanticweb.owlapi.model.*;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The counts of the axioms (by axiom type) and of the entities (by entity type) in the imports closure of an ontology,
+ * as they are shown in the Ontology Metrics view.
+ * An axiom or an entity which is in several ontologies of the imports closure is counted once.
+ * <p>
+ * All the counts are computed by a single parallel pass over the axioms and a single parallel pass over the signature,
+ * instead of a pass for each metric.
+ * Then the counts are updated from the ontology changes (see {@link #update(List)}):
+ * only the entities in the signatures of the changed axioms are checked,
+ * whether they have entered or left the signature of the imports closure.
+ * </p>
+ * The instance is not thread-safe, it is expected to be updated in the event dispatch thread.
+ */
+public class OntologyMetrics {
+
+    private final OWLOntology ontology;
+
+    /*
+     * Ontologies are compared by identity, since their hash codes change with their ids.
+     */
+    private final Set<OWLOntology> importsClosure;
+
+    private final Map<AxiomType<?>, Integer> axiomCounts;
+
+    private final Map<EntityType<?>, Integer> entityCounts;
+
+    private OntologyMetrics(OWLOntology ontology,
+                            Set<OWLOntology> importsClosure,
+                            Map<AxiomType<?>, Integer> axiomCounts,
+                            Map<EntityType<?>, Integer> entityCounts) {
+        this.ontology = ontology;
+        this.importsClosure = importsClosure;
+        this.axiomCounts = axiomCounts;
+        this.entityCounts = entityCounts;
+    }
+
+    /**
+     * Computes the metrics of the imports closure of the specified ontology.
+     * @param ontology {@link OWLOntology}
+     * @return {@link OntologyMetrics}
+     */
+    public static OntologyMetrics compute(OWLOntology ontology) {
+        Set<OWLOntology> importsClosure = Collections.newSetFromMap(new IdentityHashMap<>());
+        ontology.importsClosure().forEach(importsClosure::add);
+        Map<AxiomType<?>, Integer> axiomCounts = new HashMap<>(union(importsClosure, OWLOntology::axioms)
+                .collect(Collectors.groupingByConcurrent(OWLAxiom::getAxiomType, Collectors.summingInt(a -> 1))));
+        return new OntologyMetrics(ontology, importsClosure, axiomCounts, countEntities(importsClosure));
+    }
+
+    private static Map<EntityType<?>, Integer> countEntities(Set<OWLOntology> ontologies) {
+        return new HashMap<>(union(ontologies, OWLOntology::signature)
+                .collect(Collectors.groupingByConcurrent(OWLEntity::getEntityType, Collectors.summingInt(e -> 1))));
+    }
+
+    /**
+     * Lists the distinct objects of the specified ontologies as a parallel stream.
+     * @param ontologies the Set of {@link OWLOntology}s
+     * @param objects    {@link Function} to list the objects of an ontology
+     * @param <X>        the type of the objects
+     * @return {@code Stream}
+     */
+    private static <X> Stream<X> union(Set<OWLOntology> ontologies, Function<OWLOntology, Stream<X>> objects) {
+        if (ontologies.size() == 1) {
+            return objects.apply(ontologies.iterator().next()).parallel();
+        }
+        return ontologies.stream().flatMap(objects).parallel().distinct();
+    }
+
+    public OWLOntology getOntology() {
+        return ontology;
+    }
+
+    public int getAxiomCount() {
+        return axiomCounts.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public int getLogicalAxiomCount() {
+        return axiomCounts.entrySet().stream()
+                .filter(e -> e.getKey().isLogical())
+                .mapToInt(Map.Entry::getValue)
+                .sum();
+    }
+
+    public int getAxiomCount(AxiomType<?> type) {
+        return axiomCounts.getOrDefault(type, 0);
+    }
+
+    public int getEntityCount(EntityType<?> type) {
+        return entityCounts.getOrDefault(type, 0);
+    }
+
+    /**
+     * Updates the counts by the specified changes, which must have been applied to the ontologies already.
+     * @param changes the List of {@link OWLOntologyChange}s
+     * @return {@code false} if the imports closure may have changed, so the metrics must be computed again
+     */
+    public boolean update(List<? extends OWLOntologyChange> changes) {
+        // the number of the additions minus the number of the removals of each axiom, by ontology
+        Map<OWLOntology, Map<OWLAxiom, Integer>> ontologyDeltas = new IdentityHashMap<>();
+        for (OWLOntologyChange change : changes) {
+            if (!importsClosure.contains(change.getOntology())) {
+                continue;
+            }
+            if (change.isImportChange()) {
+                return false;
+            }
+            if (change.isAddAxiom() || change.isRemoveAxiom()) {
+                ontologyDeltas.computeIfAbsent(change.getOntology(), o -> new HashMap<>())
+                        .merge(change.getAxiom(), change.isAddAxiom() ? 1 : -1, Integer::sum);
+            }
+        }
+        Map<OWLAxiom, Integer> deltas = new HashMap<>();
+        ontologyDeltas.values().forEach(m -> m.forEach((axiom, delta) -> deltas.merge(axiom, delta, Integer::sum)));
+        Set<OWLEntity> entities = new HashSet<>();
+        deltas.forEach((axiom, delta) -> {
+            if (importsClosure.size() > 1) {
+                // the axiom is counted once, however many ontologies contain it
+                long after = importsClosure.stream().filter(o -> o.containsAxiom(axiom)).count();
+                delta = Long.signum(after) - Long.signum(after - delta);
+            }
+            if (delta != 0) {
+                axiomCounts.merge(axiom.getAxiomType(), delta, Integer::sum);
+                axiom.signature().forEach(entities::add);
+            }
+        });
+        for (OWLEntity entity : entities) {
+            boolean after = importsClosure.stream().anyMatch(o -> o.containsEntityInSignature(entity));
+            boolean before = importsClosure.stream()
+                    .anyMatch(o -> wasInSignature(o, entity, ontologyDeltas.getOrDefault(o, Collections.emptyMap())));
+            if (after != before) {
+                entityCounts.merge(entity.getEntityType(), after ? 1 : -1, Integer::sum);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Answers {@code true} if the entity was in the signature of the ontology before the changes,
+     * i.e. it is mentioned by an axiom which has been removed, or by an axiom which has not been added,
+     * or by the annotations of the ontology.
+     * @param ontology {@link OWLOntology}, already changed
+     * @param entity   {@link OWLEntity}
+     * @param deltas   the Map of the changed axioms of the ontology to the number of additions minus removals
+     * @return boolean
+     */
+    private static boolean wasInSignature(OWLOntology ontology, OWLEntity entity, Map<OWLAxiom, Integer> deltas) {
+        return deltas.entrySet().stream().anyMatch(e -> e.getValue() < 0 && e.getKey().containsEntityInSignature(entity))
+                || ontology.referencingAxioms(entity).anyMatch(a -> deltas.getOrDefault(a, 0) <= 0)
+                || ontology.annotations().anyMatch(a -> a.containsEntityInSignature(entity));
+    }
+}
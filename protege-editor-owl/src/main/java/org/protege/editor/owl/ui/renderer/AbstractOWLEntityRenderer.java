@@ -8,6 +8,7 @@ import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 
 /**
@@ -67,6 +68,19 @@ public abstract class AbstractOWLEntityRenderer implements OWLModelManagerEntity
         }
     }
     
+    /**
+     * Notifies the listeners about the rendering changes of many entities by a single event.
+     * @param entities Set of {@link OWLEntity}s
+     */
+    protected void fireRenderingChanged(Set<OWLEntity> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        for (OWLEntityRendererListener listener : new ArrayList<>(listeners)) {
+            listener.renderingChanged(entities, this);
+        }
+    }
+    
     public void ontologiesChanged() {
 
     }
@@ -0,0 +1,213 @@
+package org.protege.editor.owl.ui.renderer;
+
+import org.semanticweb.owlapi.model.*;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * An index of the labels of the IRIs, for each ontology of an ontology manager.
+ * The label of an IRI is the value of one of its annotation assertions, chosen in the same way as
+ * {@link org.semanticweb.owlapi.util.AnnotationValueShortFormProvider} does:
+ * the first of the annotation properties which has a value in one of the preferred languages,
+ * and for this property the value in the most preferred language.
+ * If there are several equally preferred values, the least one is chosen, so that the choice does not depend
+ * on the order of the axioms.
+ * <p>
+ * Only the best label of each IRI is kept, so the label is found by a single lookup in each ontology,
+ * instead of checking all the annotation assertions of the IRI on every rendering.
+ * The index of an ontology is built by a single (parallel) pass over its annotation assertions
+ * when the ontology is first queried, and then it is kept up to date by {@link #update(List, Collection)}.
+ * The indexes of the ontologies which are removed from the manager are dropped.
+ * </p>
+ */
+public class AnnotationLabelIndex {
+
+    private final OWLOntologyManager manager;
+
+    private final Map<OWLAnnotationProperty, Integer> propertyIndices = new HashMap<>();
+
+    private final Map<OWLAnnotationProperty, List<String>> languages;
+
+    private final int languageCount;
+
+    /*
+     * Ontologies are compared by identity, since their hash codes change with their ids.
+     */
+    private final Map<OWLOntology, Map<IRI, Label>> indexes = new IdentityHashMap<>();
+
+    /**
+     * @param manager    {@link OWLOntologyManager}
+     * @param properties the List of {@link OWLAnnotationProperty}s, the most preferred first
+     * @param languages  the Map of the annotation properties to the lists of their languages, the most preferred first,
+     *                   the empty language means a literal without a language or an IRI
+     */
+    public AnnotationLabelIndex(OWLOntologyManager manager,
+                                List<OWLAnnotationProperty> properties,
+                                Map<OWLAnnotationProperty, List<String>> languages) {
+        this.manager = manager;
+        for (OWLAnnotationProperty property : properties) {
+            propertyIndices.putIfAbsent(property, propertyIndices.size());
+        }
+        this.languages = languages;
+        this.languageCount = 1 + languages.values().stream().mapToInt(List::size).max().orElse(0);
+    }
+
+    /**
+     * Gets the label of the specified IRI in the specified ontologies.
+     * @param iri        {@link IRI}
+     * @param ontologies the Collection of {@link OWLOntology}s to search in
+     * @return the {@link OWLAnnotationValue} of the best annotation assertion of the IRI,
+     * or {@code null} if the IRI has no annotation which is suitable for a label
+     */
+    @Nullable
+    public synchronized OWLAnnotationValue getLabel(IRI iri, Collection<OWLOntology> ontologies) {
+        Label res = getBestLabel(iri, ontologies);
+        return res == null ? null : res.value;
+    }
+
+    /**
+     * Updates the indexes by the specified changes.
+     * The changes must have been applied to the ontologies already.
+     * @param changes    the List of {@link OWLOntologyChange}s
+     * @param ontologies the Collection of {@link OWLOntology}s, in which the labels are searched
+     * @return the Set of {@link IRI}s, whose labels in the specified ontologies have changed
+     */
+    public synchronized Set<IRI> update(List<? extends OWLOntologyChange> changes, Collection<OWLOntology> ontologies) {
+        Map<OWLOntology, Set<IRI>> changed = new IdentityHashMap<>();
+        for (OWLOntologyChange change : changes) {
+            if (!change.isAxiomChange() || !(change.getAxiom() instanceof OWLAnnotationAssertionAxiom)) {
+                continue;
+            }
+            OWLAnnotationAssertionAxiom axiom = (OWLAnnotationAssertionAxiom) change.getAxiom();
+            if (axiom.getSubject() instanceof IRI && propertyIndices.containsKey(axiom.getProperty())
+                    && indexes.containsKey(change.getOntology())) {
+                changed.computeIfAbsent(change.getOntology(), o -> new LinkedHashSet<>()).add((IRI) axiom.getSubject());
+            }
+        }
+        Set<IRI> iris = new LinkedHashSet<>();
+        changed.values().forEach(iris::addAll);
+        Map<IRI, Label> before = new HashMap<>();
+        iris.forEach(iri -> before.put(iri, getBestLabel(iri, ontologies)));
+        changed.forEach((ontology, subjects) -> {
+            Map<IRI, Label> index = indexes.get(ontology);
+            for (IRI subject : subjects) {
+                Label label = ontology.annotationAssertionAxioms(subject)
+                        .map(this::createLabel)
+                        .filter(Objects::nonNull)
+                        .reduce(Label::best)
+                        .orElse(null);
+                if (label == null) {
+                    index.remove(subject);
+                } else {
+                    index.put(subject, label);
+                }
+            }
+        });
+        iris.removeIf(iri -> Objects.equals(before.get(iri), getBestLabel(iri, ontologies)));
+        return iris;
+    }
+
+    public synchronized void clear() {
+        indexes.clear();
+    }
+
+    @Nullable
+    private Label getBestLabel(IRI iri, Collection<OWLOntology> ontologies) {
+        Label res = null;
+        for (OWLOntology ontology : ontologies) {
+            Label label = getIndex(ontology).get(iri);
+            if (label != null) {
+                res = res == null ? label : Label.best(res, label);
+            }
+        }
+        return res;
+    }
+
+    private Map<IRI, Label> getIndex(OWLOntology ontology) {
+        Map<IRI, Label> res = indexes.get(ontology);
+        if (res == null) {
+            indexes.keySet().removeIf(ont -> !manager.contains(ont));
+            res = new HashMap<>(ontology.axioms(AxiomType.ANNOTATION_ASSERTION)
+                    .parallel()
+                    .map(this::createLabel)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toConcurrentMap(label -> label.subject, label -> label, Label::best)));
+            if (manager.contains(ontology)) {
+                indexes.put(ontology, res);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Ranks the specified axiom in the way {@code AnnotationValueShortFormProvider} does.
+     * @param axiom {@link OWLAnnotationAssertionAxiom}
+     * @return {@link Label} or {@code null} if the axiom is not suitable for a label
+     */
+    @Nullable
+    private Label createLabel(OWLAnnotationAssertionAxiom axiom) {
+        if (!(axiom.getSubject() instanceof IRI)) {
+            return null;
+        }
+        Integer property = propertyIndices.get(axiom.getProperty());
+        if (property == null) {
+            return null;
+        }
+        List<String> langs = languages.getOrDefault(axiom.getProperty(), Collections.emptyList());
+        OWLAnnotationValue value = axiom.getValue();
+        int language;
+        if (value instanceof OWLLiteral) {
+            // if there are no languages any literal matches
+            language = langs.isEmpty() ? 0 : langs.indexOf(((OWLLiteral) value).getLang());
+        } else if (value instanceof IRI) {
+            language = langs.indexOf("");
+        } else {
+            return null;
+        }
+        if (language < 0) {
+            return null;
+        }
+        return new Label((IRI) axiom.getSubject(), property * languageCount + language, value);
+    }
+
+    private static class Label {
+        private final IRI subject;
+        /**
+         * The index of the property and the language, the lower the better.
+         */
+        private final int rank;
+        private final OWLAnnotationValue value;
+
+        private Label(IRI subject, int rank, OWLAnnotationValue value) {
+            this.subject = subject;
+            this.rank = rank;
+            this.value = value;
+        }
+
+        private static Label best(Label left, Label right) {
+            if (left.rank != right.rank) {
+                return left.rank < right.rank ? left : right;
+            }
+            return left.value.compareTo(right.value) <= 0 ? left : right;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Label)) {
+                return false;
+            }
+            Label other = (Label) o;
+            return rank == other.rank && subject.equals(other.subject) && value.equals(other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(subject, rank, value);
+        }
+    }
+}
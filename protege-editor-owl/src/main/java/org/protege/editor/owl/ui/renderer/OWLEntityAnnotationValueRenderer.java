@@ -5,12 +5,11 @@ import com.google.common.collect.ListMultimap;
 import org.protege.editor.owl.OWLEditorKit;
 import org.semanticweb.owlapi.model.*;
 import org.semanticweb.owlapi.util.AnnotationValueShortFormProvider;
+import org.semanticweb.owlapi.util.IRIShortFormProvider;
+import org.semanticweb.owlapi.util.ShortFormProvider;
 import org.semanticweb.owlapi.util.SimpleIRIShortFormProvider;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 
 /**
@@ -27,6 +26,12 @@ public class OWLEntityAnnotationValueRenderer extends AbstractOWLEntityRenderer
 
     private AnnotationValueShortFormProvider provider;
 
+    private AnnotationLabelIndex labelIndex;
+
+    private final ShortFormProvider alternateShortFormProvider = new OWLEntityRendererImpl();
+
+    private final IRIShortFormProvider iriShortFormProvider = new SimpleIRIShortFormProvider();
+
 
     public void initialise() {
         final OWLDataFactory df = getOWLModelManager().getOWLDataFactory();
@@ -41,12 +46,15 @@ public class OWLEntityAnnotationValueRenderer extends AbstractOWLEntityRenderer
             properties.add(ap);
             propLangMap.putAll(ap, iriLangMap.get(iri));
         }
+        Map<OWLAnnotationProperty, List<String>> languages = toMap(propLangMap);
         provider = new AnnotationValueShortFormProvider(
                 () -> getOWLModelManager().getActiveOntologies().stream(),
-                new OWLEntityRendererImpl(),
-                new SimpleIRIShortFormProvider(),
+                alternateShortFormProvider,
+                iriShortFormProvider,
                 properties,
-                toMap(propLangMap));
+                languages);
+        // the same choice of labels as the provider makes, but precomputed
+        labelIndex = new AnnotationLabelIndex(getOWLModelManager().getOWLOntologyManager(), properties, languages);
     }
 
 
@@ -59,39 +67,52 @@ public class OWLEntityAnnotationValueRenderer extends AbstractOWLEntityRenderer
     }
 
     public String render(IRI iri) {
+        return escape(getLabel(iri));
+    }
+
+    /**
+     * Gets the not escaped short form of the specified IRI:
+     * the value of its preferred annotation in the active ontologies or, if there is no such, the fragment of the IRI.
+     * @param iri {@link IRI}
+     * @return String
+     */
+    protected String getLabel(IRI iri) {
+        OWLAnnotationValue label = labelIndex.getLabel(iri, getOWLModelManager().getActiveOntologies());
+        if (label instanceof OWLLiteral) {
+            return ((OWLLiteral) label).getLiteral();
+        }
+        if (label instanceof IRI) {
+            return iriShortFormProvider.getShortForm((IRI) label);
+        }
         // doesn't matter what type of entity we choose - the same value is returned.
-        OWLEntity entity = getOWLModelManager().getOWLDataFactory().getOWLClass(iri);
-        String shortForm = provider.getShortForm(entity);
-        return escape(shortForm);
+        return alternateShortFormProvider.getShortForm(getOWLModelManager().getOWLDataFactory().getOWLClass(iri));
     }
 
 
     protected void processChanges(List<? extends OWLOntologyChange> changes) {
-        final List<OWLAnnotationProperty> properties = provider.getAnnotationProperties();
-        for (OWLOntologyChange change : changes) {
-            if (change.isAxiomChange() && change.getAxiom().getAxiomType().equals(AxiomType.ANNOTATION_ASSERTION)) {
-                OWLAnnotationAssertionAxiom ax = (OWLAnnotationAssertionAxiom) change.getAxiom();
-                // @@TODO we need some way to determine whether the rendering really has changed due to these axioms
-                // otherwise we're telling a whole load of things to update that don't need to
-                if (properties.contains(ax.getProperty())){
-                    OWLAnnotationSubject subject = ax.getSubject();
-                    if (subject instanceof IRI) {
-                        IRI iri = (IRI) subject;
-                        OWLDataFactory factory = getOWLModelManager().getOWLDataFactory();
-                        fireRenderingChanged(factory.getOWLClass(iri));
-                        fireRenderingChanged(factory.getOWLObjectProperty(iri));
-                        fireRenderingChanged(factory.getOWLDataProperty(iri));
-                        fireRenderingChanged(factory.getOWLAnnotationProperty(iri));
-                        fireRenderingChanged(factory.getOWLNamedIndividual(iri));
-                    }
-                }
-            }
+        // the renderings are changed once per IRI for the whole list of changes,
+        // and only for the IRIs whose labels have really changed
+        Set<IRI> iris = labelIndex.update(changes, getOWLModelManager().getActiveOntologies());
+        if (iris.isEmpty()) {
+            return;
         }
+        OWLDataFactory factory = getOWLModelManager().getOWLDataFactory();
+        Set<OWLEntity> entities = new LinkedHashSet<>();
+        for (IRI iri : iris) {
+            entities.add(factory.getOWLClass(iri));
+            entities.add(factory.getOWLObjectProperty(iri));
+            entities.add(factory.getOWLDataProperty(iri));
+            entities.add(factory.getOWLAnnotationProperty(iri));
+            entities.add(factory.getOWLNamedIndividual(iri));
+        }
+        fireRenderingChanged(entities);
     }
 
 
     protected void disposeRenderer() {
-        // do nothing
+        if (labelIndex != null) {
+            labelIndex.clear();
+        }
     }
 
 
@@ -2,6 +2,8 @@ package org.protege.editor.owl.ui.renderer;
 
 import org.semanticweb.owlapi.model.OWLEntity;
 
+import java.util.Set;
+
 
 /**
  * Author: Matthew Horridge<br>
@@ -15,4 +17,14 @@ import org.semanticweb.owlapi.model.OWLEntity;
 public interface OWLEntityRendererListener {
 
     void renderingChanged(OWLEntity entity, OWLModelManagerEntityRenderer renderer);
+
+    /**
+     * Handles the rendering changes of many entities at once, e.g. of all the entities affected by a list of changes.
+     * By default, the changes are handled one by one.
+     * @param entities Set of {@link OWLEntity}s whose renderings have changed
+     * @param renderer {@link OWLModelManagerEntityRenderer}
+     */
+    default void renderingChanged(Set<OWLEntity> entities, OWLModelManagerEntityRenderer renderer) {
+        entities.forEach(entity -> renderingChanged(entity, renderer));
+    }
 }
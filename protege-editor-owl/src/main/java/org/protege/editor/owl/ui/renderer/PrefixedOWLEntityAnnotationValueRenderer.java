@@ -31,7 +31,7 @@ public class PrefixedOWLEntityAnnotationValueRenderer extends OWLEntityAnnotatio
     }
     
     public String render(OWLEntity entity) {
-    	String shortForm = getProvider().getShortForm(entity);
+    	String shortForm = getLabel(entity.getIRI());
     	final String uriStr = entity.getIRI().toString();
 
     	for (Map.Entry<String, String> prefixName2PrefixEntry : prefixManager.getPrefixName2PrefixMap().entrySet()) {
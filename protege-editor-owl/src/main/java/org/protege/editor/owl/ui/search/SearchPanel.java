@@ -6,6 +6,8 @@ import org.protege.editor.owl.OWLEditorKit;
 import org.protege.editor.owl.model.find.OWLEntityFinderPreferences;
 import org.protege.editor.owl.model.search.SearchManager;
 import org.protege.editor.owl.model.search.SearchRequest;
+import org.protege.editor.owl.model.search.SearchResult;
+import org.protege.editor.owl.model.search.SearchResultHandler;
 import org.protege.editor.owl.model.search.SearchResultSet;
 import org.protege.editor.owl.ui.transfer.TransferableOWLObject;
 import org.protege.editor.owl.ui.view.ViewClipboard;
@@ -134,12 +136,7 @@ public class SearchPanel extends JPanel {
         try {
             SearchManager searchManager = editorKit.getSearchManager();
             SearchRequest searchRequest = createSearchRequest();
-            searchManager.performSearch(searchRequest, searchResults -> {
-                int categorySizeLimit = getCategoryLimit();
-                SearchResultSet searchResultSet = new SearchResultSet(searchResults);
-                SwingUtilities.invokeLater(() -> searchResultsPanel.setSearchResults(searchResultSet, categorySizeLimit));
-
-            });
+            searchManager.performSearch(searchRequest, new PagedSearchResultHandler(getCategoryLimit()));
         } catch (PatternSyntaxException e) {
             logger.info("Invalid regular expression in search pattern: {}", e.getPattern());
         }
@@ -157,6 +154,41 @@ public class SearchPanel extends JPanel {
     private void updateSearchResultsPresentation() {
         int categorySizeLimit = getCategoryLimit();
         searchResultsPanel.setCategorySizeLimit(categorySizeLimit);
+        // the current results may contain only the first page of each category
+        doSearch();
+    }
+
+    /**
+     * A {@link SearchResultHandler} which retains only the displayed page of each category
+     * and shows the intermediate results while the search is in progress.
+     */
+    private class PagedSearchResultHandler implements SearchResultHandler {
+
+        private final int categorySizeLimit;
+
+        private PagedSearchResultHandler(int categorySizeLimit) {
+            this.categorySizeLimit = categorySizeLimit;
+        }
+
+        @Override
+        public int getCategorySizeLimit() {
+            return categorySizeLimit;
+        }
+
+        @Override
+        public void searchProgressed(SearchResultSet searchResults) {
+            searchResultsPanel.setSearchResults(searchResults, categorySizeLimit);
+        }
+
+        @Override
+        public void searchFinished(SearchResultSet searchResults) {
+            SwingUtilities.invokeLater(() -> searchResultsPanel.setSearchResults(searchResults, categorySizeLimit));
+        }
+
+        @Override
+        public void searchFinished(List<SearchResult> searchResults) {
+            searchFinished(new SearchResultSet(searchResults));
+        }
     }
 
 
@@ -27,7 +27,6 @@ import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
-import java.util.Collection;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -122,7 +121,7 @@ public class SearchResultsPanel extends JPanel {
 
     public void setSearchResults(SearchResultSet searchResultSet, int categorySizeLimit) {
         this.searchResultSet = searchResultSet;
-        setData(searchResultSet.getSearchResults());
+        setData(searchResultSet);
     }
 
     public void clearSearchResults() {
@@ -152,7 +151,7 @@ public class SearchResultsPanel extends JPanel {
 
     public void refill() {
         if (searchResultSet != null) {
-            setData(searchResultSet.getSearchResults());
+            setData(searchResultSet);
         }
     }
 
@@ -224,8 +223,8 @@ public class SearchResultsPanel extends JPanel {
     }
 
 
-    private void setData(Collection<SearchResult> results) {
-        model.setResultList(results);
+    private void setData(SearchResultSet results) {
+        model.setResultSet(results);
         Font font = OWLRendererPreferences.getInstance().getFont();
         resultsTable.setFont(font);
         resultsTable.setAutoResizeMode(JTable.AUTO_RESIZE_LAST_COLUMN);
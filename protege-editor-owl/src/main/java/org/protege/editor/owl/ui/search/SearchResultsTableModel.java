@@ -61,8 +61,17 @@ public class SearchResultsTableModel extends AbstractTableModel {
 
 
     public void setResultList(Collection<SearchResult> resultList) {
+        setResultSet(new SearchResultSet(resultList));
+    }
+
+    /**
+     * Fills the model from the result set.
+     * The per category counts of the set are used for the "more results" rows,
+     * so the set may contain only the first page of each category.
+     * @param resultSet {@link SearchResultSet}
+     */
+    public void setResultSet(SearchResultSet resultSet) {
         rows.clear();
-        SearchResultSet resultSet = new SearchResultSet(resultList);
         for (String category : resultSet.getCategories()) {
             java.util.List<SearchResult> categoryResult = resultSet.getCategoryResults(category);
             Collections.sort(categoryResult, new SearchResultComparator(editorKit));
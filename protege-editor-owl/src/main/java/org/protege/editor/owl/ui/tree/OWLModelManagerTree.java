@@ -86,7 +86,7 @@ public class OWLModelManagerTree<N extends OWLObject> extends OWLObjectTree<N> i
         }
         for (ObjectTreeNode<N> treeNode : getNodes(node)) {
             TreePath path = new TreePath(treeNode.getPath());
-            expandPath(path);
+            expandPathNow(path);
         }
         for (N child : children) {
             autoExpand(child, currentDepth + 1);
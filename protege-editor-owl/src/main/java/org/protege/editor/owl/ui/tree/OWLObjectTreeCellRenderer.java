@@ -34,7 +34,7 @@ public class OWLObjectTreeCellRenderer extends OWLCellRenderer {
         if (value instanceof ObjectTreeNode) {
             ObjectTreeNode node = (ObjectTreeNode) value;
             setEquivalentObjects(node.getEquivalentObjects());
-            value = node.getObjectNode();
+            value = node instanceof ObjectTreeNode.Placeholder ? node.getUserObject() : node.getObjectNode();
         }
         return super.getTreeCellRendererComponent(tree, value, selected, expanded, leaf, row, hasFocus);
     }
@@ -13,10 +13,14 @@ import org.protege.editor.owl.ui.transfer.ObjectTreeDragGestureListener;
 import org.protege.editor.owl.ui.view.Copyable;
 import org.protege.editor.owl.ui.view.HasCopySubHierarchyToClipboard;
 import org.protege.editor.owl.ui.view.HasExpandAll;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.swing.Timer;
 import javax.swing.*;
 import javax.swing.event.ChangeListener;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeWillExpandListener;
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreePath;
@@ -33,9 +37,21 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.List;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Created by @ssz on 23.11.2019.
+ * <p>
+ * When the user expands a node, its children are fetched from the provider in the background,
+ * meanwhile the node shows a "Loading..." placeholder;
+ * they are sorted in the event dispatch thread, since the comparators usually render the objects.
+ * Other accesses to the children (e.g. selecting an object, expanding all the nodes) load them synchronously.
+ * At most {@link #CHILDREN_PAGE_SIZE} children are added to a node at once,
+ * the next ones are added when the user scrolls to (or selects) the placeholder after the added ones.
+ * The roots are paged in the same way; a subclass may {@link #createRootNode() create a root node}
+ * which fetches the roots from an iterator page by page and counts them in the background.
  *
  * @param <N> - anything
  */
@@ -44,6 +60,25 @@ public abstract class ObjectTree<N> extends JTree
         implements ObjectDropTarget<N>, Copyable<N>,
         OWLObjectDragSource, HasExpandAll, HasCopySubHierarchyToClipboard, RefreshableComponent {
 
+    /**
+     * The maximum number of children which are added to a node at once.
+     */
+    public static final int CHILDREN_PAGE_SIZE = 500;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ObjectTree.class);
+
+    private static final ExecutorService CHILDREN_LOADER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Tree children loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final ExecutorService ROOTS_COUNTER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Tree roots counter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     protected final OWLEditorKit eKit;
     protected final OWLHierarchyProvider<N> provider;
     private final Map<N, Set<ObjectTreeNode<N>>> nodeMap;
@@ -74,11 +109,32 @@ public abstract class ObjectTree<N> extends JTree
         }
     });
     private Stroke s = new BasicStroke(2.0f);
+    /**
+     * Positive while the children of the expanded nodes must be loaded synchronously.
+     */
+    private int synchronousLoading;
+    private boolean pendingChildrenScheduled;
+    private final ChangeListener viewportListener = e -> {
+        if (pendingChildrenScheduled) {
+            return;
+        }
+        pendingChildrenScheduled = true;
+        SwingUtilities.invokeLater(() -> {
+            pendingChildrenScheduled = false;
+            addVisiblePendingChildren();
+        });
+    };
 
     public ObjectTree(OWLEditorKit kit, OWLHierarchyProvider<N> provider) {
-        this(kit, provider, provider.getRoots(), null);
+        this(kit, provider, null, null);
     }
 
+    /**
+     * @param kit        {@link OWLEditorKit}
+     * @param provider   {@link OWLHierarchyProvider}
+     * @param roots      the roots of the tree, or {@code null} to {@link #createRootNode() take them from the provider}
+     * @param comparator {@link Comparator} to sort the nodes, can be {@code null}
+     */
     public ObjectTree(OWLEditorKit kit,
                       OWLHierarchyProvider<N> provider,
                       Collection<N> roots,
@@ -101,7 +157,7 @@ public abstract class ObjectTree<N> extends JTree
             }
         };
         provider.addListener(listener);
-        setModel(new DefaultTreeModel(new RootNode(roots)));
+        setModel(new DefaultTreeModel(roots == null ? createRootNode() : new RootNode(roots)));
         setShowsRootHandles(true);
         setRootVisible(false);
         setRowHeight(18);
@@ -136,7 +192,46 @@ public abstract class ObjectTree<N> extends JTree
             }
         });
 
-        getSelectionModel().addTreeSelectionListener(event -> scrollPathToVisible(event.getNewLeadSelectionPath()));
+        getSelectionModel().addTreeSelectionListener(event -> {
+            TreePath path = event.getNewLeadSelectionPath();
+            scrollPathToVisible(path);
+            if (path != null && isMorePlaceholder(path.getLastPathComponent())) {
+                @SuppressWarnings("unchecked")
+                ObjectTreeNode<N> parent = (ObjectTreeNode<N>) ((ObjectTreeNode<N>) path.getLastPathComponent()).getParent();
+                SwingUtilities.invokeLater(() -> addChildrenPage(parent));
+            }
+        });
+        addTreeWillExpandListener(new TreeWillExpandListener() {
+            @Override
+            public void treeWillExpand(TreeExpansionEvent event) {
+                Object node = event.getPath().getLastPathComponent();
+                if (synchronousLoading == 0 && node instanceof ObjectTreeNode) {
+                    @SuppressWarnings("unchecked")
+                    ObjectTreeNode<N> treeNode = (ObjectTreeNode<N>) node;
+                    loadChildrenInBackground(treeNode);
+                }
+            }
+
+            @Override
+            public void treeWillCollapse(TreeExpansionEvent event) {
+            }
+        });
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (getParent() instanceof JViewport) {
+            ((JViewport) getParent()).addChangeListener(viewportListener);
+        }
+    }
+
+    @Override
+    public void removeNotify() {
+        if (getParent() instanceof JViewport) {
+            ((JViewport) getParent()).removeChangeListener(viewportListener);
+        }
+        super.removeNotify();
     }
 
     protected OWLTreePreferences getTreePreferences() {
@@ -223,14 +318,25 @@ public abstract class ObjectTree<N> extends JTree
             }
             return;
         }
+        // The nodes whose children are being loaded just load them again
+        treeNodes = new HashSet<>(treeNodes);
+        for (Iterator<ObjectTreeNode<N>> it = treeNodes.iterator(); it.hasNext(); ) {
+            ObjectTreeNode<N> treeNode = it.next();
+            if (treeNode.isLoading()) {
+                startLoading(treeNode);
+                it.remove();
+            }
+        }
         // Remove children that aren't there any more
         Collection<N> children = provider.getChildren(node);
 
         Set<ObjectTreeNode<N>> nodesToRemove = new HashSet<>();
         for (ObjectTreeNode<N> treeNode : treeNodes) {
+            treeNode.getPendingChildren().removeIf(x -> !children.contains(x));
             for (int i = 0; i < treeNode.getChildCount(); i++) {
                 ObjectTreeNode<N> childTreeNode = treeNode.getChildAt(i);
-                if (children.contains(childTreeNode.getObjectNode())) {
+                if (childTreeNode instanceof ObjectTreeNode.Placeholder
+                        || children.contains(childTreeNode.getObjectNode())) {
                     continue;
                 }
                 nodesToRemove.add(childTreeNode);
@@ -257,6 +363,7 @@ public abstract class ObjectTree<N> extends JTree
             for (int i = 0; i < treeNode.getChildCount(); i++) {
                 existingChildren.add(treeNode.getChildAt(i).getObjectNode());
             }
+            existingChildren.addAll(treeNode.getPendingChildren());
         }
 
         for (ObjectTreeNode<N> treeNode : treeNodes) {
@@ -274,7 +381,7 @@ public abstract class ObjectTree<N> extends JTree
             for (int i = 0; i < treeNode.getChildCount(); i++) {
                 @SuppressWarnings("unchecked")
                 ObjectTreeNode<N> n = (ObjectTreeNode<N>) treeNode.getChildAt(i);
-                if (n.getObjectNode().equals(node)) {
+                if (node.equals(n.getObjectNode())) {
                     return;
                 }
             }
@@ -285,7 +392,7 @@ public abstract class ObjectTree<N> extends JTree
         for (int i = 0; i < rootNode.getChildCount(); i++) {
             @SuppressWarnings("unchecked")
             ObjectTreeNode<N> n = (ObjectTreeNode<N>) rootNode.getChildAt(i);
-            if (!n.getObjectNode().equals(node)) {
+            if (!node.equals(n.getObjectNode())) {
                 continue;
             }
             ((DefaultTreeModel) getModel()).removeNodeFromParent(n);
@@ -312,7 +419,7 @@ public abstract class ObjectTree<N> extends JTree
         // Reload the tree
         nodeMap.clear();
         // TODO: getRoots needs to be changed - the user might have specified specific roots
-        ((DefaultTreeModel) getModel()).setRoot(new RootNode(provider.getRoots()));
+        ((DefaultTreeModel) getModel()).setRoot(createRootNode());
         setSelectedObject(current);
     }
 
@@ -327,14 +434,33 @@ public abstract class ObjectTree<N> extends JTree
         Stack<TreePath> stack = new Stack<>();
         stack.push(pathToExpand);
 
-        while (!stack.isEmpty()) {
-            TreePath path = stack.pop();
-            for (int i = 0; i < getModel().getChildCount(path.getLastPathComponent()); i++) {
-                Object curChild = getModel().getChild(path.getLastPathComponent(), i);
-                TreePath childPath = path.pathByAddingChild(curChild);
-                expandPath(childPath);
-                stack.push(childPath);
+        synchronousLoading++;
+        try {
+            while (!stack.isEmpty()) {
+                TreePath path = stack.pop();
+                for (int i = 0; i < getModel().getChildCount(path.getLastPathComponent()); i++) {
+                    Object curChild = getModel().getChild(path.getLastPathComponent(), i);
+                    TreePath childPath = path.pathByAddingChild(curChild);
+                    expandPath(childPath);
+                    stack.push(childPath);
+                }
             }
+        } finally {
+            synchronousLoading--;
+        }
+    }
+
+    /**
+     * Expands the path, the children of the expanded node are loaded synchronously.
+     *
+     * @param path {@link TreePath}
+     */
+    protected void expandPathNow(TreePath path) {
+        synchronousLoading++;
+        try {
+            expandPath(path);
+        } finally {
+            synchronousLoading--;
         }
     }
 
@@ -377,22 +503,187 @@ public abstract class ObjectTree<N> extends JTree
         reload();
     }
 
-    protected List<ObjectTreeNode<N>> getChildNodes(ObjectTreeNode<N> parent) {
-        List<ObjectTreeNode<N>> result = new ArrayList<>();
-        Set<N> parents = getParentObjectsForNode(parent);
-        Collection<N> children = provider.getChildren(parent.getObjectNode());
-        Comparator<? super N> comp = getChildNodeComparator();
+    /**
+     * Gets the children of the specified object, sorted by the comparator,
+     * except for those which are already its ancestors in the tree.
+     * Can be called from any thread if the comparator is {@code null},
+     * the comparators render the objects, which is allowed in the event dispatch thread only.
+     */
+    private List<N> getChildObjects(N parent, Set<N> ancestors, Comparator<? super N> comp) {
+        List<N> res = new ArrayList<>(provider.getChildren(parent));
+        res.removeIf(ancestors::contains);
         if (comp != null) {
-            List<N> sorted = new ArrayList<>(children);
-            sorted.sort(comp);
-            children = sorted;
+            res.sort(comp);
         }
-        for (N child : children) {
-            if (!parents.contains(child)) {
-                result.add(createTreeNode(child));
+        return res;
+    }
+
+    /**
+     * Loads the children of the node synchronously.
+     */
+    void loadChildren(ObjectTreeNode<N> parent) {
+        parent.setPendingChildren(getChildObjects(parent.getObjectNode(),
+                getParentObjectsForNode(parent),
+                getChildNodeComparator()));
+        addPendingChildren(parent);
+    }
+
+    /**
+     * Loads the children of the node in the background, unless they have been already loaded.
+     * The node shows a placeholder until they are loaded.
+     * If the provider does not {@link OWLHierarchyProvider#supportsConcurrentReads() support concurrent reads}
+     * nothing is done here, and the children are loaded synchronously when the node is expanded.
+     */
+    private void loadChildrenInBackground(ObjectTreeNode<N> parent) {
+        if (!provider.supportsConcurrentReads() || parent.isLoaded() || parent.getObjectNode() == null) {
+            return;
+        }
+        parent.setLoaded();
+        parent.add(new ObjectTreeNode.Placeholder<>("Loading...", false, this));
+        startLoading(parent);
+    }
+
+    private void startLoading(ObjectTreeNode<N> parent) {
+        int generation = parent.setLoading(true);
+        N object = parent.getObjectNode();
+        Set<N> ancestors = getParentObjectsForNode(parent);
+        CHILDREN_LOADER.submit(() -> {
+            List<N> children;
+            try {
+                children = getChildObjects(object, ancestors, null);
+            } catch (RuntimeException e) {
+                // retry in the event dispatch thread
+                LOGGER.debug("Cannot load the children of {} in the background: {}", object, e.getMessage(), e);
+                children = null;
+            }
+            List<N> res = children;
+            SwingUtilities.invokeLater(() -> finishLoading(parent, generation, res));
+        });
+    }
+
+    private void finishLoading(ObjectTreeNode<N> parent, int generation, List<N> children) {
+        if (!parent.isLoading() || parent.getLoadingGeneration() != generation
+                || parent.getRoot() != getModel().getRoot()) {
+            return;
+        }
+        parent.setLoading(false);
+        Comparator<? super N> comp = getChildNodeComparator();
+        if (children == null) {
+            children = getChildObjects(parent.getObjectNode(), getParentObjectsForNode(parent), comp);
+        } else if (comp != null) {
+            children.sort(comp);
+        }
+        parent.removeAllChildren();
+        parent.setPendingChildren(children);
+        addPendingChildren(parent);
+        ((DefaultTreeModel) getModel()).nodeStructureChanged(parent);
+    }
+
+    /**
+     * Loads the children of the node synchronously, if they are being loaded in the background.
+     */
+    private void finishLoadingNow(ObjectTreeNode<N> parent) {
+        if (!parent.isLoading()) {
+            return;
+        }
+        finishLoading(parent, parent.getLoadingGeneration(), null);
+    }
+
+    /**
+     * Adds the next page of the pending children to the node without notifying the model,
+     * followed by a placeholder if there are more pending children.
+     */
+    private void addPendingChildren(ObjectTreeNode<N> parent) {
+        int added = 0;
+        while (added < CHILDREN_PAGE_SIZE && parent.hasPendingChildren()) {
+            N child = parent.nextPendingChild();
+            if (isChild(parent, child)) {
+                // e.g. a root which has been inserted by an update
+                continue;
+            }
+            parent.add(createTreeNode(child));
+            added++;
+        }
+        if (parent.hasPendingChildren()) {
+            parent.add(new ObjectTreeNode.Placeholder<>(getPendingChildrenLabel(parent), true, this));
+        }
+    }
+
+    private static String getPendingChildrenLabel(ObjectTreeNode<?> parent) {
+        int count = parent.getPendingChildCount();
+        return count < 0 ? "More..." : String.format("%,d more...", count);
+    }
+
+    private boolean isChild(ObjectTreeNode<N> parent, N child) {
+        Set<ObjectTreeNode<N>> nodes = nodeMap.get(child);
+        if (nodes == null) {
+            return false;
+        }
+        for (ObjectTreeNode<N> node : nodes) {
+            if (node.getParent() == parent) {
+                return true;
             }
         }
-        return result;
+        return false;
+    }
+
+    /**
+     * Answers {@code true} if the child may be among the pending children of the parent.
+     */
+    private boolean isPendingChild(ObjectTreeNode<N> parent, N child) {
+        return parent.getPendingChildren().contains(child) || parent.hasUnfetchedChildren() && !isChild(parent, child);
+    }
+
+    /**
+     * Replaces the placeholder of the pending children of the node with the next page of them.
+     *
+     * @return {@code false} if there were no pending children
+     */
+    private boolean addChildrenPage(ObjectTreeNode<N> parent) {
+        if (parent == null || !parent.hasPendingChildren() || parent.getRoot() != getModel().getRoot()) {
+            return false;
+        }
+        DefaultTreeModel model = (DefaultTreeModel) getModel();
+        int last = parent.getChildCount() - 1;
+        if (last >= 0 && isMorePlaceholder(parent.getChildAt(last))) {
+            Object placeholder = parent.getChildAt(last);
+            parent.remove(last);
+            model.nodesWereRemoved(parent, new int[]{last}, new Object[]{placeholder});
+        }
+        int first = parent.getChildCount();
+        addPendingChildren(parent);
+        int[] indices = new int[parent.getChildCount() - first];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = first + i;
+        }
+        model.nodesWereInserted(parent, indices);
+        return true;
+    }
+
+    /**
+     * Adds the next pages of the children whose placeholders are visible.
+     */
+    private void addVisiblePendingChildren() {
+        Rectangle rect = getVisibleRect();
+        int first = getClosestRowForLocation(rect.x, rect.y);
+        int last = getClosestRowForLocation(rect.x, rect.y + rect.height);
+        if (first < 0) {
+            return;
+        }
+        List<ObjectTreeNode<N>> parents = new ArrayList<>();
+        for (int row = first; row <= last; row++) {
+            TreePath path = getPathForRow(row);
+            if (path != null && isMorePlaceholder(path.getLastPathComponent())) {
+                @SuppressWarnings("unchecked")
+                ObjectTreeNode<N> parent = (ObjectTreeNode<N>) ((ObjectTreeNode<N>) path.getLastPathComponent()).getParent();
+                parents.add(parent);
+            }
+        }
+        parents.forEach(this::addChildrenPage);
+    }
+
+    private static boolean isMorePlaceholder(Object node) {
+        return node instanceof ObjectTreeNode.Placeholder && ((ObjectTreeNode.Placeholder<?>) node).isMore();
     }
 
     @SuppressWarnings("unchecked")
@@ -491,15 +782,34 @@ public abstract class ObjectTree<N> extends JTree
             }
         }
         Set<ObjectTreeNode<N>> nodes = getNodes(objectPath.get(index));
+        if (nodes.isEmpty()) {
+            @SuppressWarnings("unchecked")
+            ObjectTreeNode<N> rootNode = (ObjectTreeNode<N>) getModel().getRoot();
+            N root = objectPath.get(0);
+            // loads the roots if necessary
+            rootNode.getChildCount();
+            while (getNodes(root).isEmpty() && isPendingChild(rootNode, root) && addChildrenPage(rootNode)) {
+                // the root is in one of the next pages
+            }
+            nodes = getNodes(root);
+            index = 0;
+        }
         if (nodes.isEmpty()) {
             return;
         }
         ObjectTreeNode<N> curParNode = nodes.iterator().next();
         for (int i = index + 1; i < objectPath.size(); i++) {
-            expandPath(new TreePath(curParNode.getPath()));
+            finishLoadingNow(curParNode);
+            expandPathNow(new TreePath(curParNode.getPath()));
+            N child = objectPath.get(i);
+            // loads the children if necessary
+            curParNode.getChildCount();
+            while (isPendingChild(curParNode, child) && addChildrenPage(curParNode)) {
+                // the child is in one of the next pages
+            }
             for (int j = 0; j < curParNode.getChildCount(); j++) {
                 ObjectTreeNode<N> curChild = curParNode.getChildAt(j);
-                if (!curChild.getObjectNode().equals(objectPath.get(i))) {
+                if (!child.equals(curChild.getObjectNode())) {
                     continue;
                 }
                 curParNode = curChild;
@@ -534,7 +844,10 @@ public abstract class ObjectTree<N> extends JTree
             return res;
         }
         for (TreePath path : selPaths) {
-            res.add((((ObjectTreeNode<N>) path.getLastPathComponent()).getObjectNode()));
+            N object = ((ObjectTreeNode<N>) path.getLastPathComponent()).getObjectNode();
+            if (object != null) {
+                res.add(object);
+            }
         }
         return res;
     }
@@ -571,6 +884,10 @@ public abstract class ObjectTree<N> extends JTree
 
         @SuppressWarnings("unchecked")
         N dropTargetObj = ((ObjectTreeNode<N>) dropPath.getLastPathComponent()).getObjectNode();
+        if (dropTargetObj == null) {
+            // a placeholder
+            return false;
+        }
 
         final Set<N> droppedObjects = new HashSet<>();
 
@@ -698,7 +1015,7 @@ public abstract class ObjectTree<N> extends JTree
     @Override
     public void expandAll() {
         for (int i = 0; i < getRowCount(); i++) {
-            expandPath(getPathForRow(i));
+            expandPathNow(getPathForRow(i));
         }
     }
 
@@ -766,15 +1083,68 @@ public abstract class ObjectTree<N> extends JTree
         return new ArrayList<>(getSelectedObjects());
     }
 
+    /**
+     * Creates the root node of the tree, which is called from the constructor and on {@link #reload()}.
+     * By default, the root node holds all the roots of the provider,
+     * sorted by the {@link #getRootNodeComparator() root comparator}.
+     *
+     * @return {@link RootNode}
+     */
+    protected RootNode createRootNode() {
+        return new RootNode(provider.getRoots());
+    }
+
+    private void countRoots(RootNode rootNode, Callable<Integer> counter) {
+        ROOTS_COUNTER.submit(() -> {
+            int count;
+            try {
+                count = counter.call();
+            } catch (Exception e) {
+                LOGGER.debug("Cannot count the roots: {}", e.getMessage(), e);
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (rootNode != getModel().getRoot()) {
+                    return;
+                }
+                rootNode.setExpectedChildCount(count);
+                int last = rootNode.getChildCount() - 1;
+                if (last >= 0 && isMorePlaceholder(rootNode.getChildAt(last))) {
+                    ObjectTreeNode<?> placeholder = (ObjectTreeNode<?>) rootNode.getChildAt(last);
+                    placeholder.setUserObject(getPendingChildrenLabel(rootNode));
+                    ((DefaultTreeModel) getModel()).nodeChanged(placeholder);
+                }
+            });
+        });
+    }
+
     /**
      * The root {@link ObjectTreeNode}.
      */
     public class RootNode extends ObjectTreeNode<N> {
-        private Collection<N> roots;
+        private final Collection<N> roots;
+        private final Iterator<? extends N> unfetchedRoots;
+        private final Callable<Integer> counter;
 
         RootNode(Collection<N> roots) {
             super(null, ObjectTree.this);
             this.roots = roots;
+            this.unfetchedRoots = null;
+            this.counter = null;
+        }
+
+        /**
+         * Creates a root node, which fetches the roots from the iterator only when they are to be added,
+         * the roots are not sorted.
+         *
+         * @param roots   {@code Iterator} of the roots
+         * @param counter {@link Callable} to count the roots in the background, can be {@code null}
+         */
+        public RootNode(Iterator<? extends N> roots, Callable<Integer> counter) {
+            super(null, ObjectTree.this);
+            this.roots = null;
+            this.unfetchedRoots = roots;
+            this.counter = counter;
         }
 
         @Override
@@ -783,17 +1153,22 @@ public abstract class ObjectTree<N> extends JTree
                 return;
             }
             setLoaded();
-            Collection<N> res = this.roots;
-            Comparator<? super N> comp = getRootNodeComparator();
-            if (comp != null) {
-                List<N> sorted = new ArrayList<>(res);
-                sorted.sort(comp);
-                res = sorted;
-            }
-            for (N root : res) {
-                add(createTreeNode(root));
+            if (unfetchedRoots != null) {
+                setPendingChildren(unfetchedRoots);
+                if (counter != null) {
+                    countRoots(this, counter);
+                }
+            } else {
+                Collection<N> res = this.roots;
+                Comparator<? super N> comp = getRootNodeComparator();
+                if (comp != null) {
+                    List<N> sorted = new ArrayList<>(res);
+                    sorted.sort(comp);
+                    res = sorted;
+                }
+                setPendingChildren(res);
             }
+            addPendingChildren(this);
         }
     }
 }
-
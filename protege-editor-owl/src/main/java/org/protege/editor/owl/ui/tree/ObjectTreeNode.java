@@ -2,13 +2,14 @@ package org.protege.editor.owl.ui.tree;
 
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.TreeNode;
-import java.util.Collections;
-import java.util.Enumeration;
-import java.util.Set;
+import java.util.*;
 
 
 /**
  * Describes an element of {@link ObjectTree tree}.
+ * The children are loaded lazily, either synchronously on the first access
+ * or in the background when the node is expanded by the user, see {@link ObjectTree}.
+ * Only a page of the children is added at once, the rest is kept as the pending children.
  *
  * @param <N> - anything
  */
@@ -16,6 +17,13 @@ public class ObjectTreeNode<N> extends DefaultMutableTreeNode {
 
     private final ObjectTree<N> tree;
     private volatile boolean isLoaded;
+    // the fields below are accessed on the event dispatch thread only
+    private boolean isLoading;
+    private int loadingGeneration;
+    private Deque<N> pendingChildren = new ArrayDeque<>(0);
+    private Iterator<? extends N> unfetchedChildren = Collections.emptyIterator();
+    private int fetchedChildren;
+    private int expectedChildren = -1;
 
     public ObjectTreeNode(Object userObject, ObjectTree<N> tree) {
         super(userObject);
@@ -56,7 +64,92 @@ public class ObjectTreeNode<N> extends DefaultMutableTreeNode {
             return;
         }
         isLoaded = true;
-        tree.getChildNodes(this).forEach(this::add);
+        tree.loadChildren(this);
+    }
+
+    /**
+     * Answers {@code true} if the children are being loaded in the background,
+     * in this case the only child is a placeholder.
+     */
+    protected boolean isLoading() {
+        return isLoading;
+    }
+
+    /**
+     * Starts or stops the background loading of the children.
+     *
+     * @return the generation of the loading, the result of the previous loading is to be dropped
+     */
+    int setLoading(boolean loading) {
+        isLoading = loading;
+        return ++loadingGeneration;
+    }
+
+    int getLoadingGeneration() {
+        return loadingGeneration;
+    }
+
+    /**
+     * Gets the children which are not added to this node yet, in the order of the tree.
+     * If the children are fetched from an iterator, these are only the fetched ones.
+     */
+    Deque<N> getPendingChildren() {
+        return pendingChildren;
+    }
+
+    void setPendingChildren(Collection<N> children) {
+        pendingChildren = new ArrayDeque<>(children);
+        unfetchedChildren = Collections.emptyIterator();
+    }
+
+    /**
+     * Sets the children which are not added to this node yet,
+     * they are fetched from the iterator only when they are to be added.
+     */
+    void setPendingChildren(Iterator<? extends N> children) {
+        pendingChildren = new ArrayDeque<>(0);
+        unfetchedChildren = children;
+        fetchedChildren = 0;
+    }
+
+    boolean hasPendingChildren() {
+        return !pendingChildren.isEmpty() || unfetchedChildren.hasNext();
+    }
+
+    /**
+     * Answers {@code true} if some of the pending children may be not fetched yet,
+     * so they are not in the {@link #getPendingChildren() pending children}.
+     */
+    boolean hasUnfetchedChildren() {
+        return unfetchedChildren.hasNext();
+    }
+
+    N nextPendingChild() {
+        if (!pendingChildren.isEmpty()) {
+            return pendingChildren.poll();
+        }
+        fetchedChildren++;
+        return unfetchedChildren.next();
+    }
+
+    /**
+     * Sets the number of the children, which are fetched from the iterator, if it is known.
+     */
+    void setExpectedChildCount(int count) {
+        expectedChildren = count;
+    }
+
+    /**
+     * Gets the number of the pending children, or {@code -1} if it is unknown.
+     */
+    int getPendingChildCount() {
+        if (!unfetchedChildren.hasNext()) {
+            return pendingChildren.size();
+        }
+        if (expectedChildren < 0) {
+            return -1;
+        }
+        return pendingChildren.size() + Math.max(expectedChildren - fetchedChildren, 1);
     }
 
     @SuppressWarnings("unchecked")
@@ -90,7 +183,12 @@ public class ObjectTreeNode<N> extends DefaultMutableTreeNode {
 
     @Override
     public boolean isLeaf() {
-        return getChildCount() == 0;
+        N o = getObjectNode();
+        if (isLoaded || o == null) {
+            return getChildCount() == 0;
+        }
+        // do not load the children of every visible node just to draw the expand handles
+        return !tree.getProvider().hasChildren(o);
     }
 
     @SuppressWarnings("unchecked")
@@ -99,4 +197,47 @@ public class ObjectTreeNode<N> extends DefaultMutableTreeNode {
         loadChildrenIfNecessary();
         return super.children();
     }
+
+    /**
+     * A node which stands for the children of its parent which are being loaded or are not added yet.
+     * It has no object.
+     */
+    public static class Placeholder<N> extends ObjectTreeNode<N> {
+
+        private final boolean more;
+
+        Placeholder(String label, boolean more, ObjectTree<N> tree) {
+            super(label, tree);
+            this.more = more;
+            setLoaded();
+        }
+
+        /**
+         * @return {@code true} if the node stands for the pending children,
+         * {@code false} if it stands for the children being loaded
+         */
+        public boolean isMore() {
+            return more;
+        }
+
+        @Override
+        public N getObjectNode() {
+            return null;
+        }
+
+        @Override
+        public boolean isRoot() {
+            return false;
+        }
+
+        @Override
+        public boolean getAllowsChildren() {
+            return false;
+        }
+
+        @Override
+        public boolean isLeaf() {
+            return true;
+        }
+    }
 }
@@ -2,11 +2,13 @@ package org.protege.editor.owl.ui.usage;
 
 import org.protege.editor.owl.OWLEditorKit;
 import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.util.AnnotationValueIndex;
 import org.semanticweb.owlapi.model.*;
 
 import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.DefaultTreeModel;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 
 
 /**
@@ -20,6 +22,7 @@ public class UsageByEntityTreeModel extends DefaultTreeModel implements UsageTre
     private static final long serialVersionUID = -2530774548488512609L;
 
     private final OWLModelManager owlModelManager;
+    private final Comparator<OWLObject> comparator;
     private final AxiomSorter axiomSorter;
     private final Map<OWLEntity, DefaultMutableTreeNode> nodeMap;
     private final Map<OWLEntity, Set<OWLAxiom>> axiomsByEntityMap;
@@ -31,13 +34,16 @@ public class UsageByEntityTreeModel extends DefaultTreeModel implements UsageTre
     private int usageCount;
     private OWLEntity entity;
     private DefaultMutableTreeNode rootNode;
+    private Iterator<OWLEntity> pendingEntities = Collections.emptyIterator();
+    private boolean otherNodeAdded;
 
     public UsageByEntityTreeModel(OWLEditorKit owlEditorKit) {
         super(new DefaultMutableTreeNode("No usage"));
         owlModelManager = owlEditorKit.getModelManager();
         axiomSorter = new AxiomSorter();
+        comparator = owlModelManager.getOWLObjectComparator();
         nodeMap = new HashMap<>();
-        axiomsByEntityMap = new TreeMap<>(owlModelManager.getOWLObjectComparator());
+        axiomsByEntityMap = new HashMap<>();
     }
 
     private String getRootContent(OWLModelManager mngr, OWLEntity entity) {
@@ -49,12 +55,35 @@ public class UsageByEntityTreeModel extends DefaultTreeModel implements UsageTre
         if (owlEntity == null) {
             return;
         }
+        computeUsage(owlEntity);
+        createRoot();
+        addUsageNodes(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Computes the usage of the specified entity without touching the tree,
+     * so that it can be done in a background thread before the model is shown.
+     * Nothing is rendered here (the renderers are not thread-safe), the entities are sorted by {@link #createRoot()}.
+     * The nodes are then added by {@link #createRoot()} and {@link #addUsageNodes(int)}.
+     *
+     * @param owlEntity the entity, not {@code null}
+     * @throws CancellationException if the current thread is interrupted
+     */
+    void computeUsage(OWLEntity owlEntity) {
         this.entity = owlEntity;
         axiomsByEntityMap.clear();
+        additionalAxioms.clear();
+        nodeMap.clear();
         usageCount = 0;
+        otherNodeAdded = false;
 
+        AnnotationValueIndex annotationValueIndex = owlModelManager.get(AnnotationValueIndex.ID);
         for (OWLOntology ont : owlModelManager.getActiveOntologies()) {
             ont.referencingAxioms(owlEntity.getIRI()).forEach(this::addUsage);
+            if (annotationValueIndex != null) {
+                annotationValueIndex.getAnnotationAssertionAxioms(ont, owlEntity.getIRI()).forEach(this::addUsage);
+                continue;
+            }
             // This is terribly inefficient but there are no indexes in the OWL API to do this.
             ont.axioms(AxiomType.ANNOTATION_ASSERTION).forEach(ax -> {
                 Optional<IRI> valueIRI = ax.getValue().asIRI();
@@ -63,25 +92,61 @@ public class UsageByEntityTreeModel extends DefaultTreeModel implements UsageTre
                 }
             });
         }
+        pendingEntities = Collections.emptyIterator();
+    }
 
+    /**
+     * Replaces the root of the tree with the summary of the computed usage and sorts the used entities,
+     * the usage nodes are not added yet.
+     * This is to be called in the event dispatch thread.
+     */
+    void createRoot() {
+        List<OWLEntity> entities = new ArrayList<>(axiomsByEntityMap.keySet());
+        entities.sort(comparator);
+        pendingEntities = entities.iterator();
         rootNode = new DefaultMutableTreeNode(getRootContent(owlModelManager, entity));
         setRoot(rootNode);
+    }
 
-        for (OWLEntity ent : axiomsByEntityMap.keySet()) {
+    /**
+     * Adds the next nodes of the computed usage under the root.
+     *
+     * @param maxNodes the maximum number of the entity nodes to add
+     * @return {@code true} if there are more nodes to add
+     */
+    boolean addUsageNodes(int maxNodes) {
+        int first = rootNode.getChildCount();
+        for (int i = 0; i < maxNodes && pendingEntities.hasNext(); i++) {
+            OWLEntity ent = pendingEntities.next();
+            DefaultMutableTreeNode node = getNode(ent);
             for (OWLAxiom ax : axiomsByEntityMap.get(ent)) {
-                getNode(ent).add(new UsageTreeNode(null, ax));
+                node.add(new UsageTreeNode(null, ax));
             }
         }
-        if (!additionalAxioms.isEmpty()) {
+        boolean more = pendingEntities.hasNext();
+        if (!more && !additionalAxioms.isEmpty() && !otherNodeAdded) {
             DefaultMutableTreeNode otherNode = new DefaultMutableTreeNode("Other");
             rootNode.add(otherNode);
             for (OWLAxiom ax : additionalAxioms) {
                 otherNode.add(new DefaultMutableTreeNode(ax));
             }
+            otherNodeAdded = true;
+        }
+        int count = rootNode.getChildCount() - first;
+        if (count != 0) {
+            int[] indices = new int[count];
+            for (int i = 0; i < count; i++) {
+                indices[i] = first + i;
+            }
+            nodesWereInserted(rootNode, indices);
         }
+        return more;
     }
 
     private void addUsage(OWLAxiom ax) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
+        }
         axiomSorter.setAxiom(ax);
         ax.accept(axiomSorter);
     }
@@ -8,15 +8,22 @@ import org.protege.editor.owl.ui.view.Copyable;
 import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
 import javax.swing.event.ChangeListener;
 import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreePath;
 import java.awt.*;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static java.util.stream.Collectors.toList;
 
@@ -29,11 +36,32 @@ import static java.util.stream.Collectors.toList;
  */
 public class UsageTree extends OWLLinkedObjectTree implements Copyable<OWLObject> {
 
+    private static final Logger logger = LoggerFactory.getLogger(UsageTree.class);
+
+    /**
+     * The number of entity nodes added to the tree at once.
+     */
+    private static final int BATCH_SIZE = 100;
+
+    /**
+     * The rows after this one are not expanded automatically.
+     */
+    private static final int MAX_EXPANDED_ROW = 101;
+
+    private static final ExecutorService usageService = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Usage");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private OWLEditorKit owlEditorKit;
 
     private OWLEntity entity;
 
+    private Future<?> usageTask;
+
+    private int usageGeneration;
+
     private final ChangeListenerMediator changeListenerMediator = new ChangeListenerMediator();
 
     public UsageTree(OWLEditorKit owlEditorKit) {
@@ -105,20 +133,59 @@ public class UsageTree extends OWLLinkedObjectTree implements Copyable<OWLObject
         changeListenerMediator.removeChangeListener(changeListener);
     }
 
+    /**
+     * Shows the usage of the specified entity.
+     * The usage is computed in a background thread and the nodes are added in batches on the event dispatch thread.
+     * Both stop when another entity is set.
+     */
     public void setOWLEntity(OWLEntity entity) {
         this.entity = entity;
+        int generation = ++usageGeneration;
+        if (usageTask != null) {
+            usageTask.cancel(true);
+            usageTask = null;
+        }
 
         final UsagePreferences p = UsagePreferences.getInstance();
-        final UsageTreeModel model = new UsageByEntityTreeModel(owlEditorKit);
+        final UsageByEntityTreeModel model = new UsageByEntityTreeModel(owlEditorKit);
         model.addFilters(p.getActiveFilters());
-        model.setOWLEntity(entity);
-        setModel(model);
+        if (entity == null) {
+            setModel(model);
+            return;
+        }
+        setModel(new DefaultTreeModel(new DefaultMutableTreeNode("Searching for usage...")));
+        usageTask = usageService.submit(() -> {
+            try {
+                model.computeUsage(entity);
+            } catch (CancellationException e) {
+                return;
+            } catch (RuntimeException e) {
+                logger.error("An error occurred whilst computing the usage of {}: {}", entity, e.getMessage(), e);
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (generation != usageGeneration) {
+                    return;
+                }
+                model.createRoot();
+                setModel(model);
+                addUsageNodes(model, generation);
+            });
+        });
+    }
 
-        for (int i = 0; i < getRowCount(); i++) {
+    private void addUsageNodes(UsageByEntityTreeModel model, int generation) {
+        if (generation != usageGeneration) {
+            return;
+        }
+        boolean more = model.addUsageNodes(BATCH_SIZE);
+        for (int i = 0; i < getRowCount() && i <= MAX_EXPANDED_ROW; i++) {
             expandRow(i);
-            if (i > 100) {
-                break;
-            }
+        }
+        if (more) {
+            SwingUtilities.invokeLater(() -> addUsageNodes(model, generation));
+        } else {
+            usageTask = null;
         }
     }
 
@@ -10,6 +10,8 @@ import com.github.owlcs.ontapi.jena.utils.Models;
 import com.github.owlcs.ontapi.jena.vocabulary.OWL;
 import com.github.owlcs.ontapi.jena.vocabulary.RDF;
 import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.GraphEvents;
+import org.apache.jena.graph.GraphListener;
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.Triple;
 import org.apache.jena.mem.GraphMem;
@@ -18,6 +20,7 @@ import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.shared.PrefixMapping;
+import org.apache.jena.sparql.util.graph.GraphListenerBase;
 import org.apache.jena.util.iterator.ExtendedIterator;
 import org.apache.jena.vocabulary.RDFS;
 import org.protege.editor.owl.model.hierarchy.HierarchyProviderListener;
@@ -28,9 +31,13 @@ import org.semanticweb.owlapi.model.OWLOntology;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.swing.SwingUtilities;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -38,6 +45,22 @@ import java.util.stream.Stream;
  * An {@link OWLHierarchyProvider} for {@link Graph}.
  * Describes RDF hierarchy.
  * <p>
+ * The provider listens to the graph and notifies its listeners about the root and child triples
+ * which are affected by each added or deleted triple, so the hierarchy is not rebuilt on edits.
+ * A burst of more than {@link #MAX_INCREMENTAL_CHANGES} changes (e.g. a big refactoring or a SPARQL update)
+ * is reported as a single change of the whole hierarchy, once the burst is over.
+ * The roots are taken from an {@link RDFRootIndex}, which is built by a single pass over the graph
+ * when the roots are first requested, and then it is maintained from the same graph events.
+ * The pass reads the graph by chunks, each under the read lock of the ontology, so that an edit waits for a chunk
+ * rather than for the whole pass; if the graph is changed meanwhile, the pass is restarted
+ * (and, after {@link #MAX_CHUNKED_BUILDS} attempts, the graph is read under the lock for the whole pass).
+ * Until the index is built, the changed roots are looked up in the graph itself.
+ * For a {@link #isBig(Graph) big} graph the roots can be {@link #listRoots() streamed} instead,
+ * so that the tree shows the first roots without waiting for the whole graph to be scanned,
+ * while the index is built in the background to {@link #countRoots() count} them.
+ * The {@link #getStatistics() statistics} of the graph are computed on demand by the same kind of pass,
+ * and they are kept until the graph changes.
+ * <p>
  * Created by @ssz on 23.11.2019.
  */
 @SuppressWarnings("WeakerAccess")
@@ -70,11 +93,61 @@ public class RDFHierarchyProvider implements OWLHierarchyProvider<Triple> {
             .sorted(RESOURCE_URI_COMPARATOR)
             .collect(Collectors.toCollection(LinkedHashSet::new));
 
+    /**
+     * The maximum number of graph changes within one event dispatch, which are reported one by one.
+     */
+    static final int MAX_INCREMENTAL_CHANGES = 1000;
+
+    /**
+     * The number of the triples, which are read from the graph under the read lock at once, while an index is built.
+     */
+    static final int CHUNK_SIZE = 10_000;
+
+    /**
+     * The number of the attempts to build an index by chunks, before the whole graph is read under the lock.
+     */
+    static final int MAX_CHUNKED_BUILDS = 3;
+
     private final List<HierarchyProviderListener<Triple>> listeners = new CopyOnWriteArrayList<>();
 
+    private final GraphListener graphListener = new GraphListenerBase() {
+        @Override
+        protected void addEvent(Triple t) {
+            graphChanged(t, true);
+        }
+
+        @Override
+        protected void deleteEvent(Triple t) {
+            graphChanged(t, false);
+        }
+
+        @Override
+        public void notifyEvent(Graph source, Object value) {
+            super.notifyEvent(source, value);
+            if (value == GraphEvents.removeAll) {
+                synchronized (RDFHierarchyProvider.this) {
+                    modificationCount++;
+                    rootIndex = null;
+                    statistics = null;
+                }
+                fireHierarchyChanged();
+            }
+        }
+    };
+
     private Ontology ontology;
     private Graph graph;
 
+    private volatile RDFRootIndex rootIndex;
+    private volatile RDFStatistics statistics;
+    /**
+     * The number of the graph changes, to detect the changes made while an index is being built.
+     */
+    private int modificationCount;
+
+    private int changeCount;
+    private boolean reloadScheduled;
+
     /**
      * Decides is the given graph is big.
      * For big graphs sorting is disabled. Non-memory graphs are considered as big by default.
@@ -129,10 +202,14 @@ public class RDFHierarchyProvider implements OWLHierarchyProvider<Triple> {
      * @return a {@code Set} of {@link Triple}s
      */
     public static Set<Triple> collectRoots(Graph graph) {
-        return isBig(graph) ? collectOrderedRoots(graph) : collectSortedRoots(graph);
+        return collectRoots(graph, RDFRootIndex.build(graph));
+    }
+
+    private static Set<Triple> collectRoots(Graph graph, RDFRootIndex index) {
+        return isBig(graph) ? collectOrderedRoots(graph, index) : collectSortedRoots(graph, index);
     }
 
-    private static Set<Triple> collectSortedRoots(Graph graph) {
+    private static Set<Triple> collectSortedRoots(Graph graph, RDFRootIndex index) {
         // header always first, then blanks, then any other roots sorted alphabetically
         Set<Triple> header = graph.find(Node.ANY, RDF.type.asNode(), OWL.Ontology.asNode()).toSet();
         Comparator<Triple> comp = Comparator.comparing((Function<Triple, Boolean>) header::contains)
@@ -141,33 +218,39 @@ public class RDFHierarchyProvider implements OWLHierarchyProvider<Triple> {
                 .thenComparing(Triple::hashCode) // otherwise TreeSet#contains does not work
                 .reversed();
         Set<Triple> res = new TreeSet<>(comp);
-        collectRoots(graph, res);
+        collectRoots(index, res);
         return res;
     }
 
-    private static Set<Triple> collectOrderedRoots(Graph graph) {
+    private static Set<Triple> collectOrderedRoots(Graph graph, RDFRootIndex index) {
         // header always first
         Set<Triple> res = new LinkedHashSet<>();
         graph.find(Node.ANY, RDF.type.asNode(), OWL.Ontology.asNode())
                 .mapWith(RootTriple::new).forEachRemaining(res::add);
-        collectRoots(graph, res);
+        collectRoots(index, res);
         return res;
     }
 
-    private static void collectRoots(Graph graph, Collection<Triple> res) {
-        graph.find().forEachRemaining(triple -> {
-            if (res.contains(triple)) {
-                return;
+    private static void collectRoots(RDFRootIndex index, Collection<Triple> res) {
+        index.getRootTriples().forEach(triple -> {
+            if (!res.contains(triple)) {
+                res.add(new RootTriple(triple));
             }
-            Node s = triple.getSubject();
-            if (!s.isURI() && graph.contains(Node.ANY, Node.ANY, s)) {
-                return;
-            }
-            RootTriple r = new RootTriple(findRootTriple(graph, s).orElse(triple));
-            res.add(r);
         });
     }
 
+    /**
+     * Lists the root {@link Triple}s lazily, the ontology header is expected first.
+     * The roots are found by a scan of the graph, which goes on only as far as the iterator is consumed.
+     * If the graph is changed while the iterator is in use, the scan is restarted,
+     * the roots which have been already returned are skipped.
+     * @param graph {@link Graph}, not {@code null}
+     * @return {@code Iterator} of {@link Triple}s in the order the subjects are found
+     */
+    public static Iterator<Triple> listRoots(Graph graph) {
+        return new RootIterator(graph);
+    }
+
     public static Optional<Triple> findRootTriple(Graph graph, Node top) {
         TreeSet<Triple> res = new TreeSet<>(TRIPLE_PREDICATE_COMPARATOR);
         graph.find(top, Node.ANY, Node.ANY)
@@ -180,10 +263,24 @@ public class RDFHierarchyProvider implements OWLHierarchyProvider<Triple> {
 
     @Override
     public void setOntology(OWLOntology o) {
-        this.ontology = OWLAdapter.get().asONT(o);
+        Ontology ont = OWLAdapter.get().asONT(o);
         // this.graph = ((Ontology) o).asGraphModel().getGraph(); // <-- concurrent union graph
         // todo: currently, only the base graph (i.e. GraphMeme) is used. for simplification. temporary ?
-        this.graph = OWLModelUtils.getGraphModel(ontology).getBaseGraph();
+        Graph g = OWLModelUtils.getGraphModel(ont).getBaseGraph();
+        if (ont == this.ontology && g == this.graph) {
+            // the hierarchy is kept up to date by the graph listener
+            return;
+        }
+        if (this.graph != null) {
+            this.graph.getEventManager().unregister(graphListener);
+        }
+        this.ontology = ont;
+        this.graph = g;
+        synchronized (this) {
+            this.rootIndex = null;
+            this.statistics = null;
+        }
+        g.getEventManager().register(graphListener);
         fireHierarchyChanged();
     }
 
@@ -204,15 +301,141 @@ public class RDFHierarchyProvider implements OWLHierarchyProvider<Triple> {
         return graph;
     }
 
+    /**
+     * Answers {@code true} if the current graph is big, in this case the roots are not sorted.
+     * @return boolean
+     * @see #isBig(Graph)
+     */
+    public boolean isBig() {
+        return graph != null && isBig(graph);
+    }
+
     @Override
     public final Set<Triple> getRoots() {
         if (graph == null) return Collections.emptySet();
         LOGGER.debug("Start collecting roots for {}", Graphs.getName(graph));
-        Set<Triple> res = collectRoots(graph);
-        LOGGER.debug("There are {} root triples in {}", graph.size(), Graphs.getName(graph));
+        Set<Triple> res = collectRoots(graph, getRootIndex());
+        LOGGER.debug("There are {} root triples in {}", res.size(), Graphs.getName(graph));
+        return res;
+    }
+
+    @Override
+    public Stream<Triple> roots() {
+        if (!isBig()) return getRoots().stream();
+        return Iter.asStream(listRoots(), -1, characteristics(graph));
+    }
+
+    /**
+     * Lists the roots of the current graph lazily, without the root index.
+     * The roots are in the same order as {@link #getRoots()} gives for a big graph.
+     * @return {@code Iterator} of {@link Triple}s
+     * @see #listRoots(Graph)
+     */
+    public Iterator<Triple> listRoots() {
+        return graph == null ? Collections.emptyIterator() : listRoots(graph);
+    }
+
+    /**
+     * Counts the roots of the current graph, the root index is built if necessary.
+     * Can be called from a background thread, the graph is read by chunks under the read lock of the ontology.
+     * @return int
+     */
+    public int countRoots() {
+        Ontology o = ontology;
+        Graph g = graph;
+        if (g == null) return 0;
+        RDFRootIndex index = getRootIndex();
+        // a header triple, which is not the root triple of its subject, is an extra root
+        int res = index.countRoots();
+        List<Triple> header = OWLModelUtils.read(o, () -> g.find(Node.ANY, RDF.type.asNode(), OWL.Ontology.asNode()).toList());
+        for (Triple t : header) {
+            if (!t.equals(index.getRootTriple(t.getSubject()))) {
+                res++;
+            }
+        }
         return res;
     }
 
+    /**
+     * Gets the statistics of the current graph, they are computed on the first call after the graph is changed.
+     * Can be called from a background thread, the graph is read by chunks under the read lock of the ontology.
+     * @return {@link RDFStatistics}, or {@code null} if there is no graph
+     */
+    public RDFStatistics getStatistics() {
+        if (graph == null) return null;
+        RDFStatistics res = statistics;
+        if (res != null) {
+            return res;
+        }
+        return build("statistics", RDFStatistics::compute, () -> statistics, x -> statistics = x);
+    }
+
+    /**
+     * Gets the root index of the current graph, the index is built on the first call.
+     * @return {@link RDFRootIndex}
+     */
+    private RDFRootIndex getRootIndex() {
+        RDFRootIndex res = rootIndex;
+        if (res != null) {
+            return res;
+        }
+        return build("root index", RDFRootIndex::build, () -> rootIndex, x -> rootIndex = x);
+    }
+
+    /**
+     * Builds and keeps something derived from the whole current graph.
+     * The graph is read by chunks of {@link #CHUNK_SIZE} triples, each chunk under the read lock of the ontology,
+     * so that the changes made through the manager (or through this view) wait only for the current chunk.
+     * If the graph is changed between the chunks, the build is restarted, since the result would miss the changes;
+     * after {@link #MAX_CHUNKED_BUILDS} restarts the whole graph is read under the lock,
+     * so that frequent changes cannot postpone the result forever.
+     * @param name    the name of the result, for logging
+     * @param builder {@link BiFunction} to build the result from the graph and all its triples
+     * @param get     {@link Supplier} to get the kept result
+     * @param set     {@link Consumer} to keep the result
+     * @param <X>     the type of the result
+     * @return the result
+     */
+    private <X> X build(String name,
+                        BiFunction<Graph, Iterator<Triple>, X> builder,
+                        Supplier<X> get,
+                        Consumer<X> set) {
+        Ontology o = ontology;
+        Graph g = graph;
+        for (int attempt = 1; ; attempt++) {
+            int count;
+            synchronized (this) {
+                count = modificationCount;
+            }
+            LOGGER.debug("Build the {} for {}, attempt {}", name, Graphs.getName(g), attempt);
+            X res;
+            try {
+                if (attempt <= MAX_CHUNKED_BUILDS) {
+                    res = builder.apply(g, new ChunkIterator(o, g, count));
+                } else {
+                    res = OWLModelUtils.read(o, () -> builder.apply(g, g.find()));
+                }
+            } catch (ConcurrentModificationException e) {
+                LOGGER.debug("The graph {} has been changed while building the {}", Graphs.getName(g), name);
+                continue;
+            }
+            synchronized (this) {
+                if (g != graph) {
+                    // the ontology has been switched, the result is not kept
+                    return res;
+                }
+                X current = get.get();
+                if (current != null) {
+                    return current;
+                }
+                if (count == modificationCount) {
+                    set.accept(res);
+                    return res;
+                }
+            }
+        }
+    }
+
     @Override
     public final Set<Triple> getChildren(Triple triple) {
         return findChildren(triple)
@@ -266,13 +489,18 @@ public class RDFHierarchyProvider implements OWLHierarchyProvider<Triple> {
         if (OWLTripleUtils.isRoot(triple)) {
             return Optional.empty();
         }
-        return findRootTriple(graph, s).filter(x -> !triple.equals(x)).map(Iter::of);
+        return Optional.ofNullable(getRootIndex().getRootTriple(s)).filter(x -> !triple.equals(x)).map(Iter::of);
     }
 
     protected ExtendedIterator<Triple> listParents(Node s) {
         return graph.find(Node.ANY, Node.ANY, s);
     }
 
+    @Override
+    public boolean hasRoot(Triple triple) {
+        return graph != null && triple.equals(getRootIndex().getRootTriple(triple.getSubject()));
+    }
+
     @Override
     public boolean containsReference(Triple triple) {
         return graph.contains(triple);
@@ -353,6 +581,138 @@ public class RDFHierarchyProvider implements OWLHierarchyProvider<Triple> {
     @Override
     public void dispose() {
         listeners.clear();
+        if (graph != null) {
+            graph.getEventManager().unregister(graphListener);
+        }
+    }
+
+    /**
+     * Updates the root index and notifies the listeners about the nodes,
+     * which are affected by the specified added or deleted triple.
+     * The graph is already changed.
+     * These are the parents of the triple, the root of its subject,
+     * and the root of its blank object, which may appear or disappear.
+     * If the index is not built yet (e.g. the roots of a big graph are being counted, while the tree already
+     * shows the first of them), the roots before and after the change are looked up in the graph.
+     * @param triple {@link Triple}
+     * @param added  {@code true} if the triple is added, {@code false} if it is deleted
+     */
+    protected void graphChanged(Triple triple, boolean added) {
+        RDFRootIndex index;
+        synchronized (this) {
+            modificationCount++;
+            statistics = null;
+            index = rootIndex;
+        }
+        if (listeners.isEmpty() || !countChange()) {
+            if (index != null) {
+                update(index, triple, added);
+            }
+            return;
+        }
+        Node s = triple.getSubject();
+        Node o = triple.getObject();
+        boolean blankObject = o.isBlank() && !o.equals(s);
+        Triple subjectRoot;
+        Triple objectRoot;
+        Triple newSubjectRoot;
+        Triple newObjectRoot;
+        if (index != null) {
+            subjectRoot = index.getRootTriple(s);
+            objectRoot = blankObject ? index.getRootTriple(o) : null;
+            update(index, triple, added);
+            newSubjectRoot = index.getRootTriple(s);
+            newObjectRoot = blankObject ? index.getRootTriple(o) : null;
+        } else {
+            subjectRoot = findRootTriple(s, triple, !added);
+            objectRoot = blankObject ? findRootTriple(o, triple, !added) : null;
+            newSubjectRoot = findRootTriple(s, triple, added);
+            newObjectRoot = blankObject ? findRootTriple(o, triple, added) : null;
+        }
+        // roots go first, so that a root is not replaced by an equal plain triple
+        Set<Triple> nodes = new LinkedHashSet<>();
+        collectChangedRoots(subjectRoot, newSubjectRoot, true, nodes);
+        if (blankObject) {
+            collectChangedRoots(objectRoot, newObjectRoot, false, nodes);
+        }
+        if (s.isBlank()) {
+            graph.find(Node.ANY, Node.ANY, s).forEachRemaining(nodes::add);
+        }
+        nodes.forEach(this::fireNodeChanged);
+    }
+
+    /**
+     * Finds the root triple of the specified subject in the graph, as if the specified triple were
+     * or were not in the graph, without the root index.
+     * @param subject {@link Node}
+     * @param triple  {@link Triple}, which has been added or deleted
+     * @param present {@code true} to find the root as if the triple were in the graph
+     * @return {@link Triple} or {@code null} if the subject is not a root
+     */
+    private Triple findRootTriple(Node subject, Triple triple, boolean present) {
+        if (subject.isBlank() && (present && subject.equals(triple.getObject())
+                || Iter.findFirst(graph.find(Node.ANY, Node.ANY, subject).filterDrop(triple::equals)).isPresent())) {
+            return null;
+        }
+        List<Triple> triples = graph.find(subject, Node.ANY, Node.ANY).filterDrop(triple::equals).toList();
+        if (present && subject.equals(triple.getSubject())) {
+            triples.add(triple);
+        }
+        return RDFRootIndex.selectRootTriple(triples);
+    }
+
+    private static void update(RDFRootIndex index, Triple triple, boolean added) {
+        if (added) {
+            index.add(triple);
+        } else {
+            index.delete(triple);
+        }
+    }
+
+    /**
+     * Counts the change within the current event dispatch.
+     * @return {@code false} if the changes are too many to be reported one by one,
+     * in this case the whole hierarchy will be reported as changed
+     */
+    private boolean countChange() {
+        if (reloadScheduled) {
+            return false;
+        }
+        if (changeCount++ == 0) {
+            SwingUtilities.invokeLater(() -> changeCount = 0);
+        }
+        if (changeCount <= MAX_INCREMENTAL_CHANGES) {
+            return true;
+        }
+        reloadScheduled = true;
+        SwingUtilities.invokeLater(() -> {
+            reloadScheduled = false;
+            fireHierarchyChanged();
+        });
+        return false;
+    }
+
+    /**
+     * Collects the root triples of a subject before and after the change.
+     * If the root is the same, it is collected only to update its children.
+     */
+    private static void collectChangedRoots(Triple before, Triple after, boolean updateChildren, Collection<Triple> res) {
+        if (before != null && !before.equals(after)) {
+            res.add(new RootTriple(before));
+        }
+        if (after != null && (!after.equals(before) || updateChildren)) {
+            res.add(new RootTriple(after));
+        }
+    }
+
+    private void fireNodeChanged(Triple node) {
+        listeners().forEach(x -> {
+            try {
+                x.nodeChanged(node);
+            } catch (Throwable e) {
+                LOGGER.error("Hierarchy change exception: '{}'", e.getMessage(), e);
+            }
+        });
     }
 
     public Stream<HierarchyProviderListener<Triple>> listeners() {
@@ -373,4 +733,126 @@ public class RDFHierarchyProvider implements OWLHierarchyProvider<Triple> {
         });
     }
 
+    /**
+     * An {@code Iterator} over all the triples of a graph, which reads them by chunks of {@link #CHUNK_SIZE},
+     * each chunk under the read lock of the ontology.
+     * If the graph is changed between the chunks, {@link ConcurrentModificationException} is thrown.
+     */
+    private class ChunkIterator implements Iterator<Triple> {
+        private final Ontology ontology;
+        private final Graph graph;
+        private final int modificationCount;
+        private final Deque<Triple> chunk = new ArrayDeque<>();
+        private ExtendedIterator<Triple> triples;
+        private boolean exhausted;
+
+        /**
+         * @param ontology          {@link Ontology}, whose lock is used
+         * @param graph             {@link Graph} to read
+         * @param modificationCount the number of the graph changes, when the build is started
+         */
+        private ChunkIterator(Ontology ontology, Graph graph, int modificationCount) {
+            this.ontology = ontology;
+            this.graph = graph;
+            this.modificationCount = modificationCount;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (chunk.isEmpty() && !exhausted) {
+                OWLModelUtils.read(ontology, this::readChunk);
+            }
+            return !chunk.isEmpty();
+        }
+
+        @Override
+        public Triple next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return chunk.poll();
+        }
+
+        private Void readChunk() {
+            synchronized (RDFHierarchyProvider.this) {
+                if (modificationCount != RDFHierarchyProvider.this.modificationCount) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+            if (triples == null) {
+                triples = graph.find();
+            }
+            for (int i = 0; i < CHUNK_SIZE && triples.hasNext(); i++) {
+                chunk.add(triples.next());
+            }
+            exhausted = !triples.hasNext();
+            return null;
+        }
+    }
+
+    /**
+     * An {@code Iterator} over the roots of a graph, which finds them by a lazy scan of the graph.
+     * The header triples go first, then the best root triples of the other root subjects.
+     */
+    private static class RootIterator implements Iterator<Triple> {
+        private final Graph graph;
+        private final Set<Triple> header;
+        private final Iterator<Triple> headerTriples;
+        private final Set<Node> seen = new HashSet<>();
+        private ExtendedIterator<Triple> triples;
+        private Triple next;
+
+        private RootIterator(Graph graph) {
+            this.graph = graph;
+            this.header = new LinkedHashSet<>(graph.find(Node.ANY, RDF.type.asNode(), OWL.Ontology.asNode()).toList());
+            this.headerTriples = header.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (headerTriples.hasNext()) {
+                    next = new RootTriple(headerTriples.next());
+                    break;
+                }
+                Triple t = nextTriple();
+                if (t == null) {
+                    return false;
+                }
+                Node s = t.getSubject();
+                if (!seen.add(s) || s.isBlank() && graph.contains(Node.ANY, Node.ANY, s)) {
+                    continue;
+                }
+                Triple root = RDFRootIndex.selectRootTriple(graph.find(s, Node.ANY, Node.ANY).toList());
+                if (root != null && !header.contains(root)) {
+                    next = new RootTriple(root);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public Triple next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Triple res = next;
+            next = null;
+            return res;
+        }
+
+        private Triple nextTriple() {
+            if (triples == null) {
+                triples = graph.find();
+            }
+            while (true) {
+                try {
+                    return triples.hasNext() ? triples.next() : null;
+                } catch (ConcurrentModificationException e) {
+                    // the graph has been changed between the pages, the seen subjects will be skipped
+                    triples = graph.find();
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,144 @@
+package org.protege.editor.owl.ui.view.rdf;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+
+import java.util.*;
+
+/**
+ * An index of the root triples of a {@link Graph}.
+ * A root subject is an URI or a blank node, which is not referenced by any triple,
+ * and it is represented in the hierarchy by its best root triple:
+ * the first triple with an URI object in the {@link RDFHierarchyProvider#TRIPLE_PREDICATE_COMPARATOR predicate order},
+ * or the first triple if there is no such triple.
+ * <p>
+ * The index is built by a single pass over the graph,
+ * and then it is kept up to date by {@link #add(Triple)} and {@link #delete(Triple)},
+ * which must be called after the graph is changed.
+ * Only the deletion of the root triple of a subject requires to look at the other triples of this subject.
+ * The index can be read and updated from different threads.
+ * </p>
+ *
+ * @see RDFHierarchyProvider
+ */
+class RDFRootIndex {
+
+    static final Comparator<Triple> ROOT_TRIPLE_COMPARATOR = Comparator.comparing((Triple t) -> !t.getObject().isURI())
+            .thenComparing(RDFHierarchyProvider.TRIPLE_PREDICATE_COMPARATOR);
+
+    private final Graph graph;
+
+    /**
+     * The best root triples of all the subjects, in the order the subjects are found.
+     */
+    private final Map<Node, Triple> rootTriples = new LinkedHashMap<>();
+
+    private final Set<Node> referencedBlankNodes = new HashSet<>();
+
+    private RDFRootIndex(Graph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Builds the index of the specified graph.
+     * @param graph {@link Graph}, not {@code null}
+     * @return {@link RDFRootIndex}
+     */
+    static RDFRootIndex build(Graph graph) {
+        return build(graph, graph.find());
+    }
+
+    /**
+     * Builds the index of the specified graph from the specified triples.
+     * @param graph   {@link Graph}, not {@code null}
+     * @param triples {@code Iterator} over all the {@link Triple}s of the graph
+     * @return {@link RDFRootIndex}
+     */
+    static RDFRootIndex build(Graph graph, Iterator<Triple> triples) {
+        RDFRootIndex res = new RDFRootIndex(graph);
+        triples.forEachRemaining(res::index);
+        return res;
+    }
+
+    /**
+     * Selects the best root triple.
+     * @param triples {@code Collection} of {@link Triple}s of the same subject
+     * @return {@link Triple} or {@code null} if the collection is empty
+     */
+    static Triple selectRootTriple(Collection<Triple> triples) {
+        return triples.stream().min(ROOT_TRIPLE_COMPARATOR).orElse(null);
+    }
+
+    /**
+     * Gets the root triple of the specified subject.
+     * @param subject {@link Node}
+     * @return {@link Triple},
+     * or {@code null} if the subject is a blank node referenced by some triple or if it has no triples
+     */
+    synchronized Triple getRootTriple(Node subject) {
+        if (referencedBlankNodes.contains(subject)) {
+            return null;
+        }
+        return rootTriples.get(subject);
+    }
+
+    /**
+     * Lists the root triples of all the root subjects.
+     * @return a {@code List} of {@link Triple}s in the order the subjects are found
+     */
+    synchronized List<Triple> getRootTriples() {
+        List<Triple> res = new ArrayList<>();
+        rootTriples.forEach((subject, triple) -> {
+            if (!referencedBlankNodes.contains(subject)) {
+                res.add(triple);
+            }
+        });
+        return res;
+    }
+
+    /**
+     * Counts the root subjects.
+     * @return int
+     */
+    synchronized int countRoots() {
+        int res = 0;
+        for (Node subject : rootTriples.keySet()) {
+            if (!referencedBlankNodes.contains(subject)) {
+                res++;
+            }
+        }
+        return res;
+    }
+
+    synchronized void add(Triple triple) {
+        index(triple);
+    }
+
+    synchronized void delete(Triple triple) {
+        if (graph.contains(triple)) {
+            return;
+        }
+        Node s = triple.getSubject();
+        if (triple.equals(rootTriples.get(s))) {
+            Triple root = selectRootTriple(graph.find(s, Node.ANY, Node.ANY).toList());
+            if (root == null) {
+                rootTriples.remove(s);
+            } else {
+                rootTriples.put(s, root);
+            }
+        }
+        Node o = triple.getObject();
+        if (o.isBlank() && !graph.contains(Node.ANY, Node.ANY, o)) {
+            referencedBlankNodes.remove(o);
+        }
+    }
+
+    private void index(Triple triple) {
+        rootTriples.merge(triple.getSubject(), triple, (a, b) -> ROOT_TRIPLE_COMPARATOR.compare(b, a) < 0 ? b : a);
+        Node o = triple.getObject();
+        if (o.isBlank()) {
+            referencedBlankNodes.add(o);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package org.protege.editor.owl.ui.view.rdf;
+
+import com.github.owlcs.ontapi.jena.utils.Iter;
+import com.github.owlcs.ontapi.jena.vocabulary.RDF;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * The statistics of a {@link Graph}, to find problems in big (e.g. imported) graphs:
+ * the number of triples per predicate and per {@code rdf:type},
+ * the sizes of the blank node trees and the subjects with the most triples.
+ * <p>
+ * The statistics are computed by a single pass over the graph, which is split into partitions
+ * processed in parallel, each partition is counted into its own maps, then the maps are merged.
+ * A blank node tree is a top blank node (i.e. a blank node which is not the object of a blank subject)
+ * with all the blank nodes it refers to, its size is the number of the triples of these blank nodes.
+ * The instance is immutable.
+ * </p>
+ *
+ * @see RDFHierarchyProvider#getStatistics()
+ */
+public class RDFStatistics {
+
+    /**
+     * The number of the largest blank node trees and subjects to keep.
+     */
+    public static final int TOP_LIMIT = 20;
+
+    private final long tripleCount;
+    private final Map<Node, Long> predicateCounts;
+    private final Map<Node, Long> typeCounts;
+    private final SortedMap<Integer, Long> blankTreeSizes;
+    private final List<Map.Entry<Node, Integer>> largestBlankTrees;
+    private final List<Map.Entry<Node, Integer>> largestSubjects;
+
+    private RDFStatistics(Counter counter) {
+        this.tripleCount = counter.triples;
+        this.predicateCounts = sortByCount(counter.predicates);
+        this.typeCounts = sortByCount(counter.types);
+        Map<Node, Integer> trees = counter.blankTrees();
+        this.blankTreeSizes = Collections.unmodifiableSortedMap(trees.values().stream()
+                .collect(Collectors.groupingBy(Function.identity(), TreeMap::new, Collectors.counting())));
+        this.largestBlankTrees = top(trees);
+        this.largestSubjects = top(counter.subjects);
+    }
+
+    /**
+     * Computes the statistics of the specified graph.
+     * The graph must not be changed while the statistics are being computed (e.g. the caller holds the read lock
+     * of the ontology), otherwise a {@link ConcurrentModificationException} may be thrown.
+     * @param graph {@link Graph}, not {@code null}
+     * @return {@link RDFStatistics}
+     */
+    public static RDFStatistics compute(Graph graph) {
+        return compute(graph, graph.find());
+    }
+
+    /**
+     * Computes the statistics of the specified graph from the specified triples,
+     * which may be read from the graph by chunks (see {@link RDFHierarchyProvider#getStatistics()}).
+     * @param graph   {@link Graph}, not {@code null}
+     * @param triples {@code Iterator} over all the {@link Triple}s of the graph,
+     *                it may throw {@link ConcurrentModificationException} if the graph is changed
+     * @return {@link RDFStatistics}
+     */
+    public static RDFStatistics compute(Graph graph, Iterator<Triple> triples) {
+        Counter res = Iter.asStream(triples, -1, RDFHierarchyProvider.characteristics(graph))
+                .parallel()
+                .collect(Counter::new, Counter::add, Counter::merge);
+        return new RDFStatistics(res);
+    }
+
+    public long getTripleCount() {
+        return tripleCount;
+    }
+
+    /**
+     * Gets the number of triples of each predicate.
+     * @return an unmodifiable {@code Map}, the most used predicates first
+     */
+    public Map<Node, Long> getPredicateCounts() {
+        return predicateCounts;
+    }
+
+    /**
+     * Gets the number of {@code rdf:type} triples of each type.
+     * @return an unmodifiable {@code Map}, the most used types first
+     */
+    public Map<Node, Long> getTypeCounts() {
+        return typeCounts;
+    }
+
+    /**
+     * Gets the histogram of the sizes of the blank node trees.
+     * @return an unmodifiable {@code SortedMap} of the tree size (the number of triples) to the number of the trees
+     */
+    public SortedMap<Integer, Long> getBlankTreeSizes() {
+        return blankTreeSizes;
+    }
+
+    /**
+     * Gets the top blank nodes of the largest blank node trees, at most {@link #TOP_LIMIT}.
+     * @return an unmodifiable {@code List} of the top blank nodes with the tree sizes, the largest first
+     */
+    public List<Map.Entry<Node, Integer>> getLargestBlankTrees() {
+        return largestBlankTrees;
+    }
+
+    /**
+     * Gets the subjects with the most triples, at most {@link #TOP_LIMIT}.
+     * @return an unmodifiable {@code List} of the subjects with the numbers of their triples, the largest first
+     */
+    public List<Map.Entry<Node, Integer>> getLargestSubjects() {
+        return largestSubjects;
+    }
+
+    /**
+     * Prints the statistics as a plain text report.
+     * @param print {@link Function} to print a node
+     * @return String
+     */
+    public String print(Function<Node, String> print) {
+        StringBuilder res = new StringBuilder();
+        res.append(String.format("Triples: %,d%n", tripleCount));
+        res.append(String.format("%nPredicates (%,d):%n", predicateCounts.size()));
+        predicateCounts.forEach((p, c) -> res.append(String.format("%,12d  %s%n", c, print.apply(p))));
+        res.append(String.format("%nTypes (%,d):%n", typeCounts.size()));
+        typeCounts.forEach((t, c) -> res.append(String.format("%,12d  %s%n", c, print.apply(t))));
+        res.append(String.format("%nBlank node trees (%,d), size: number of trees%n",
+                blankTreeSizes.values().stream().mapToLong(Long::longValue).sum()));
+        blankTreeSizes.forEach((s, c) -> res.append(String.format("%,12d: %,d%n", s, c)));
+        res.append(String.format("%nLargest blank node trees:%n"));
+        largestBlankTrees.forEach(e -> res.append(String.format("%,12d  %s%n", e.getValue(), print.apply(e.getKey()))));
+        res.append(String.format("%nLargest subjects:%n"));
+        largestSubjects.forEach(e -> res.append(String.format("%,12d  %s%n", e.getValue(), print.apply(e.getKey()))));
+        return res.toString();
+    }
+
+    private static Map<Node, Long> sortByCount(Map<Node, Long> counts) {
+        Map<Node, Long> res = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<Node, Long>comparingByValue().reversed())
+                .forEach(e -> res.put(e.getKey(), e.getValue()));
+        return Collections.unmodifiableMap(res);
+    }
+
+    private static List<Map.Entry<Node, Integer>> top(Map<Node, Integer> counts) {
+        // a min-heap of the largest entries seen so far
+        PriorityQueue<Map.Entry<Node, Integer>> heap = new PriorityQueue<>(TOP_LIMIT + 1, Map.Entry.comparingByValue());
+        for (Map.Entry<Node, Integer> e : counts.entrySet()) {
+            if (heap.size() < TOP_LIMIT || heap.peek().getValue() < e.getValue()) {
+                heap.add(new AbstractMap.SimpleImmutableEntry<>(e));
+                if (heap.size() > TOP_LIMIT) {
+                    heap.poll();
+                }
+            }
+        }
+        List<Map.Entry<Node, Integer>> res = new ArrayList<>(heap);
+        res.sort(Map.Entry.<Node, Integer>comparingByValue().reversed());
+        return Collections.unmodifiableList(res);
+    }
+
+    /**
+     * The counts of one partition of the graph.
+     */
+    private static class Counter {
+        private long triples;
+        private final Map<Node, Long> predicates = new HashMap<>();
+        private final Map<Node, Long> types = new HashMap<>();
+        private final Map<Node, Integer> subjects = new HashMap<>();
+        /**
+         * The blank objects of the blank subjects.
+         */
+        private final Map<Node, List<Node>> blankChildren = new HashMap<>();
+        /**
+         * The blank nodes which are the objects of the non-blank subjects.
+         */
+        private final Set<Node> topBlanks = new HashSet<>();
+        private final Set<Node> referencedBlanks = new HashSet<>();
+
+        private void add(Triple triple) {
+            triples++;
+            Node s = triple.getSubject();
+            Node p = triple.getPredicate();
+            Node o = triple.getObject();
+            predicates.merge(p, 1L, Long::sum);
+            if (RDF.type.asNode().equals(p)) {
+                types.merge(o, 1L, Long::sum);
+            }
+            subjects.merge(s, 1, Integer::sum);
+            if (!o.isBlank()) {
+                return;
+            }
+            referencedBlanks.add(o);
+            if (s.isBlank()) {
+                blankChildren.computeIfAbsent(s, k -> new ArrayList<>(2)).add(o);
+            } else {
+                topBlanks.add(o);
+            }
+        }
+
+        private void merge(Counter other) {
+            triples += other.triples;
+            other.predicates.forEach((k, v) -> predicates.merge(k, v, Long::sum));
+            other.types.forEach((k, v) -> types.merge(k, v, Long::sum));
+            other.subjects.forEach((k, v) -> subjects.merge(k, v, Integer::sum));
+            other.blankChildren.forEach((k, v) -> blankChildren.computeIfAbsent(k, x -> new ArrayList<>(v.size())).addAll(v));
+            topBlanks.addAll(other.topBlanks);
+            referencedBlanks.addAll(other.referencedBlanks);
+        }
+
+        /**
+         * Computes the sizes of the blank node trees, when all the partitions are merged.
+         * @return {@code Map} of the top blank nodes to the numbers of the triples in their trees
+         */
+        private Map<Node, Integer> blankTrees() {
+            Set<Node> tops = new HashSet<>(topBlanks);
+            subjects.keySet().stream().filter(s -> s.isBlank() && !referencedBlanks.contains(s)).forEach(tops::add);
+            return tops.parallelStream().collect(Collectors.toMap(Function.identity(), this::treeSize));
+        }
+
+        private int treeSize(Node top) {
+            // iteratively, since rdf:lists are long chains of blank nodes
+            int res = 0;
+            Set<Node> seen = new HashSet<>();
+            Deque<Node> queue = new ArrayDeque<>();
+            queue.add(top);
+            while (!queue.isEmpty()) {
+                Node n = queue.poll();
+                if (!seen.add(n)) {
+                    continue;
+                }
+                res += subjects.getOrDefault(n, 0);
+                queue.addAll(blankChildren.getOrDefault(n, Collections.emptyList()));
+            }
+            return res;
+        }
+    }
+}
@@ -20,9 +20,11 @@ import javax.swing.tree.TreePath;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -67,6 +69,19 @@ public class RDFTripleTree extends ObjectTree<Triple> {
         return new CellRenderer(kit);
     }
 
+    /**
+     * For a big graph, the roots are fetched page by page as the tree is scrolled,
+     * and they are counted in the background.
+     */
+    @Override
+    protected RootNode createRootNode() {
+        RDFHierarchyProvider provider = getProvider();
+        if (!provider.isBig()) {
+            return super.createRootNode();
+        }
+        return new RootNode(provider.listRoots(), provider::countRoots);
+    }
+
     @Override
     public RDFHierarchyProvider getProvider() {
         return (RDFHierarchyProvider) provider;
@@ -90,7 +105,17 @@ public class RDFTripleTree extends ObjectTree<Triple> {
         if (!prefs.isAutoExpandEnabled()) {
             return;
         }
-        getProvider().roots().forEach(x -> autoExpand(x, 0));
+        // only the roots which are already in the tree, so that the rest of the roots are not fetched
+        @SuppressWarnings("unchecked")
+        ObjectTreeNode<Triple> rootNode = (ObjectTreeNode<Triple>) getModel().getRoot();
+        List<Triple> roots = new ArrayList<>();
+        for (int i = 0; i < rootNode.getChildCount(); i++) {
+            Triple root = rootNode.getChildAt(i).getObjectNode();
+            if (root != null) {
+                roots.add(root);
+            }
+        }
+        roots.forEach(x -> autoExpand(x, 0));
     }
 
     private void autoExpand(Triple node, int currentDepth) {
@@ -105,7 +130,7 @@ public class RDFTripleTree extends ObjectTree<Triple> {
         if (children.size() <= childCountLimit) {
             for (ObjectTreeNode<Triple> treeNode : getNodes(node)) {
                 TreePath path = new TreePath(treeNode.getPath());
-                expandPath(path);
+                expandPathNow(path);
             }
             for (Triple child : children) {
                 autoExpand(child, currentDepth + 1);
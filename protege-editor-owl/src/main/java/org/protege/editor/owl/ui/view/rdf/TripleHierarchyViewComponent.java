@@ -27,6 +27,7 @@ import org.protege.editor.owl.ui.tree.TreeDragAndDropHandler;
 import org.protege.editor.owl.ui.view.*;
 import org.protege.editor.owl.ui.view.rdf.utils.OWLModelUtils;
 import org.protege.editor.owl.ui.view.rdf.utils.OWLTripleUtils;
+import org.protege.editor.owl.ui.view.rdf.utils.PrintUtils;
 import org.semanticweb.owlapi.model.OWLObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,6 +45,8 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.util.List;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -63,9 +66,17 @@ public class TripleHierarchyViewComponent extends AbstractHierarchyViewComponent
     private static final Icon ADD_ROOT_ICON = new AddEntityIcon(TRIPLE_ICON, ICON_COLOR);
     private static final Icon ADD_CHILD_ICON = new AddChildIcon(TRIPLE_ICON, ICON_COLOR);
     private static final Icon DELETE_ICON = new DeleteEntityIcon(TRIPLE_ICON, ICON_COLOR);
+    private static final Icon STATISTICS_ICON = OWLIcons.getIcon("Metadata.gif");
+
+    private static final ExecutorService STATISTICS_CALCULATOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "RDF statistics calculator");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private static final String ADD_GROUP = "A";
     private static final String DELETE_GROUP = "B";
+    private static final String STATISTICS_GROUP = "C";
     private static final String FIRST_SLOT = "A";
     private static final String SECOND_SLOT = "B";
 
@@ -193,7 +204,19 @@ public class TripleHierarchyViewComponent extends AbstractHierarchyViewComponent
 
         addAction(addRoot, ADD_GROUP, FIRST_SLOT);
         addAction(addChild, ADD_GROUP, SECOND_SLOT);
+        DisposableAction statistics = new DisposableAction("Show RDF statistics", STATISTICS_ICON) {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showStatistics();
+            }
+
+            @Override
+            public void dispose() {
+            }
+        };
+
         addAction(delete, DELETE_GROUP, FIRST_SLOT);
+        addAction(statistics, STATISTICS_GROUP, FIRST_SLOT);
 
         // TODO: right now D'N'D is not allowed
         tree.setDragAndDropHandler(new TreeDragAndDropHandler<Triple>() {
@@ -293,16 +316,52 @@ public class TripleHierarchyViewComponent extends AbstractHierarchyViewComponent
             return null;
         }
         Triple t = panel.getTriple();
-        g.add(t);
+        OWLModelUtils.write(getHierarchyProvider().getOntology(), () -> g.add(t));
         onChange();
         return t;
     }
 
     protected void onChange() {
-        // todo: no need to reload this component
+        // the graph is edited directly, without any OWLOntologyChange to update the model caches and views,
+        // so they are reset by the reload event;
+        // the tree itself is updated by the hierarchy provider, which listens to the graph
+        getOWLModelManager().setDirty(getHierarchyProvider().getOntology());
         getOWLModelManager().fireEvent(EventType.ONTOLOGY_RELOADED);
     }
 
+    /**
+     * Computes the statistics of the graph in the background (unless they are already computed)
+     * and shows them in a dialog.
+     */
+    protected void showStatistics() {
+        RDFHierarchyProvider provider = getHierarchyProvider();
+        PrefixMapping pm = provider.getPrefixes();
+        Function<Object, String> bm = getOWLModelManager().getBlankNodeMapper();
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        STATISTICS_CALCULATOR.submit(() -> {
+            RDFStatistics res = null;
+            try {
+                res = provider.getStatistics();
+            } catch (RuntimeException e) {
+                LOGGER.error("Cannot compute the RDF statistics: '{}'", e.getMessage(), e);
+            }
+            RDFStatistics statistics = res;
+            SwingUtilities.invokeLater(() -> {
+                setCursor(Cursor.getDefaultCursor());
+                if (statistics == null) {
+                    return;
+                }
+                JTextArea text = new JTextArea(statistics.print(n -> PrintUtils.printObject(n, pm, bm, false)));
+                text.setEditable(false);
+                text.setFont(new Font(Font.MONOSPACED, Font.PLAIN, text.getFont().getSize()));
+                text.setCaretPosition(0);
+                JScrollPane pane = new JScrollPane(text);
+                pane.setPreferredSize(new Dimension(700, 500));
+                new UIHelper(getOWLEditorKit()).showDialog("RDF Statistics", pane, JOptionPane.DEFAULT_OPTION);
+            });
+        });
+    }
+
     protected TripleModel createAddTripleModel(OntModel ont, Node subject) {
         return new TripleModel() {
             private final PrefixMapping pm = PrefixMapping.Factory.create()
@@ -374,10 +433,10 @@ public class TripleHierarchyViewComponent extends AbstractHierarchyViewComponent
             @Override
             protected void delete(Collection<Triple> nodes) {
                 Graph g = model.getGraph();
-                nodes.forEach(x -> {
+                OWLModelUtils.write(provider.getOntology(), () -> nodes.forEach(x -> {
                     LOGGER.debug("Delete triple '{}'", x);
                     g.delete(x);
-                });
+                }));
                 onChange();
             }
         };
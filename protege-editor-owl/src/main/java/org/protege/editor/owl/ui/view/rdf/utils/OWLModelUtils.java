@@ -2,11 +2,17 @@ package org.protege.editor.owl.ui.view.rdf.utils;
 
 import com.github.owlcs.ontapi.OWLAdapter;
 import com.github.owlcs.ontapi.Ontology;
+import com.github.owlcs.ontapi.OntologyManager;
+import com.github.owlcs.ontapi.OntologyManagerImpl;
 import com.github.owlcs.ontapi.internal.AxiomTranslator;
 import com.github.owlcs.ontapi.internal.InternalConfig;
 import com.github.owlcs.ontapi.internal.ONTObjectFactory;
 import com.github.owlcs.ontapi.jena.model.OntModel;
 
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.function.Supplier;
+
 /**
  * Created by @ssz on 16.01.2021.
  */
@@ -23,4 +29,61 @@ public class OWLModelUtils {
     public static ONTObjectFactory getObjectFactory(OntModel model) {
         return AxiomTranslator.getObjectFactory(model);
     }
+
+    /**
+     * Gets the lock of the manager of the ontology.
+     * A concurrent manager holds the write lock while the changes are applied,
+     * so a reader, which holds the read lock, sees the graph unchanged.
+     *
+     * @param ont {@link Ontology}
+     * @return {@link ReadWriteLock}, or {@code null} if the manager has no lock
+     */
+    public static ReadWriteLock getLock(Ontology ont) {
+        OntologyManager m = ont.getOWLOntologyManager();
+        return m instanceof OntologyManagerImpl ? ((OntologyManagerImpl) m).getLock() : null;
+    }
+
+    /**
+     * Reads the ontology (e.g. scans its graph) under the read lock of its manager.
+     *
+     * @param ont    {@link Ontology}
+     * @param reader {@link Supplier} to read
+     * @param <X>    the type of the result
+     * @return the result
+     */
+    public static <X> X read(Ontology ont, Supplier<X> reader) {
+        ReadWriteLock lock = getLock(ont);
+        if (lock == null) {
+            return reader.get();
+        }
+        Lock read = lock.readLock();
+        read.lock();
+        try {
+            return reader.get();
+        } finally {
+            read.unlock();
+        }
+    }
+
+    /**
+     * Changes the graph of the ontology directly under the write lock of its manager,
+     * as the changes applied through the manager are.
+     *
+     * @param ont    {@link Ontology}
+     * @param writer {@link Runnable} to change the graph
+     */
+    public static void write(Ontology ont, Runnable writer) {
+        ReadWriteLock lock = getLock(ont);
+        if (lock == null) {
+            writer.run();
+            return;
+        }
+        Lock write = lock.writeLock();
+        write.lock();
+        try {
+            writer.run();
+        } finally {
+            write.unlock();
+        }
+    }
 }
@@ -0,0 +1,100 @@
+package org.protege.editor.owl.model.cache;
+
+import com.github.owlcs.ontapi.OntManagers;
+import org.junit.Before;
+import org.junit.Test;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.ui.renderer.OWLModelManagerEntityRenderer;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.Locale;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OWLEntityRenderingCacheImpl_TestCase {
+
+    private static final String NS = "http://www.ontologies.com/ontology/";
+
+    private final OWLDataFactory df = OntManagers.getDataFactory();
+
+    private OWLEntityRenderingCacheImpl cache;
+
+    private OWLClass pizza, pizzaBase, pizzaTopping, cheese;
+
+    @Before
+    public void setUp() {
+        OWLModelManager manager = mock(OWLModelManager.class);
+        OWLModelManagerEntityRenderer renderer = mock(OWLModelManagerEntityRenderer.class);
+        when(renderer.render(any(OWLEntity.class)))
+                .thenAnswer(invocation -> ((OWLEntity) invocation.getArguments()[0]).getIRI().getRemainder().orElse(""));
+        when(manager.getOWLEntityRenderer()).thenReturn(renderer);
+        cache = new OWLEntityRenderingCacheImpl();
+        cache.setOWLModelManager(manager);
+        pizza = df.getOWLClass(IRI.create(NS + "Pizza"));
+        pizzaBase = df.getOWLClass(IRI.create(NS + "pizzaBase"));
+        pizzaTopping = df.getOWLClass(IRI.create(NS + "PizzaTopping"));
+        cheese = df.getOWLClass(IRI.create(NS + "Cheese"));
+        cache.addRendering(pizzaTopping);
+        cache.addRendering(cheese);
+        cache.addRendering(pizzaBase);
+        cache.addRendering(pizza);
+        cache.addRendering(df.getOWLObjectProperty(IRI.create(NS + "PizzaProperty")));
+    }
+
+    @Test
+    public void shouldFindByPrefixIgnoringCaseInRenderingOrder() {
+        assertThat(cache.getOWLEntitiesByRenderingPrefix(EntityType.CLASS, "PIZZA", Integer.MAX_VALUE),
+                   contains(pizza, pizzaBase, pizzaTopping));
+    }
+
+    @Test
+    public void shouldFoldIndependentlyOfDefaultLocale() {
+        Locale locale = Locale.getDefault();
+        try {
+            Locale.setDefault(new Locale("tr", "TR"));
+            assertThat(cache.getOWLEntitiesByRenderingPrefix(EntityType.CLASS, "PIZZAT", Integer.MAX_VALUE),
+                       contains(pizzaTopping));
+            assertThat(cache.getOWLEntitiesByRenderingFragment(EntityType.CLASS, "OPPI", r -> true, 10),
+                       contains(pizzaTopping));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    public void shouldLimitPrefixMatches() {
+        assertThat(cache.getOWLEntitiesByRenderingPrefix(EntityType.CLASS, "pizza", 2), contains(pizza, pizzaBase));
+    }
+
+    @Test
+    public void shouldNotFindRemovedRendering() {
+        cache.removeRendering(pizzaBase);
+        assertThat(cache.getOWLEntitiesByRenderingPrefix(EntityType.CLASS, "pizzab", 10), is(empty()));
+        assertThat(cache.getRendering(pizzaBase), is(nullValue()));
+        assertThat(cache.getOWLClass("pizzaBase"), is(nullValue()));
+        assertThat(cache.getOWLClass("Pizza"), is(pizza));
+    }
+
+    @Test
+    public void shouldFindByFragment() {
+        assertThat(cache.getOWLEntitiesByRenderingFragment(EntityType.CLASS, "TOPP", r -> true, 10), contains(pizzaTopping));
+        assertThat(cache.getOWLEntitiesByRenderingFragment(EntityType.CLASS, "zz", r -> r.endsWith("Base"), 10),
+                   contains(pizzaBase));
+    }
+
+    @Test
+    public void shouldUpdateFragmentIndex() {
+        cache.getOWLEntitiesByRenderingFragment(EntityType.CLASS, "ese", r -> true, 10);
+        cache.removeRendering(cheese);
+        OWLClass cheeseTopping = df.getOWLClass(IRI.create(NS + "CheeseTopping"));
+        cache.addRendering(cheeseTopping);
+        assertThat(cache.getOWLEntitiesByRenderingFragment(EntityType.CLASS, "ese", r -> true, 10), contains(cheeseTopping));
+    }
+}
@@ -0,0 +1,99 @@
+package org.protege.editor.owl.model.cache;
+
+import com.github.owlcs.ontapi.OntManagers;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.ui.renderer.OWLObjectRenderer;
+import org.semanticweb.owlapi.model.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class OWLObjectRenderingCache_TestCase {
+
+    private static final String NS = "http://www.ontologies.com/ontology/";
+
+    private final OWLDataFactory df = OntManagers.getDataFactory();
+
+    private OWLObjectRenderingCache cache;
+
+    private OWLObjectRenderer<OWLObject> renderer;
+
+    private OWLAxiom pizzaAxiom, cheeseAxiom;
+
+    private OWLClass pizza;
+
+    @SuppressWarnings("unchecked")
+    @Before
+    public void setUp() {
+        renderer = mock(OWLObjectRenderer.class);
+        when(renderer.render(any(OWLObject.class))).thenAnswer(invocation -> invocation.getArguments()[0].toString());
+        cache = new OWLObjectRenderingCache(mock(OWLModelManager.class));
+        pizza = df.getOWLClass(IRI.create(NS + "Pizza"));
+        OWLClass food = df.getOWLClass(IRI.create(NS + "Food"));
+        OWLClass cheese = df.getOWLClass(IRI.create(NS + "Cheese"));
+        pizzaAxiom = df.getOWLSubClassOfAxiom(pizza, food);
+        cheeseAxiom = df.getOWLSubClassOfAxiom(cheese, food);
+    }
+
+    @After
+    public void tearDown() {
+        cache.dispose();
+    }
+
+    @Test
+    public void shouldRenderOnce() {
+        assertThat(cache.getRendering(pizzaAxiom, renderer), is(pizzaAxiom.toString()));
+        assertThat(cache.getRendering(pizzaAxiom, renderer), is(pizzaAxiom.toString()));
+        verify(renderer, times(1)).render(pizzaAxiom);
+        assertThat(cache.getStats().hitCount(), is(1L));
+        assertThat(cache.getStats().missCount(), is(1L));
+    }
+
+    @Test
+    public void shouldDropOnlyRenderingsMentioningInvalidatedEntity() {
+        cache.getRendering(pizzaAxiom, renderer);
+        cache.getRendering(cheeseAxiom, renderer);
+        cache.invalidate(pizza);
+        cache.getRendering(pizzaAxiom, renderer);
+        cache.getRendering(cheeseAxiom, renderer);
+        verify(renderer, times(2)).render(pizzaAxiom);
+        verify(renderer, times(1)).render(cheeseAxiom);
+    }
+
+    @Test
+    public void shouldDropRenderingsMentioningInvalidatedEntityByIRI() {
+        OWLAxiom seeAlso = df.getOWLAnnotationAssertionAxiom(df.getRDFSSeeAlso(),
+                IRI.create(NS + "Margherita"), pizza.getIRI());
+        cache.getRendering(seeAlso, renderer);
+        cache.invalidate(pizza);
+        cache.getRendering(seeAlso, renderer);
+        verify(renderer, times(2)).render(seeAlso);
+    }
+
+    @Test
+    public void shouldNotCacheRenderingInvalidatedWhileComputed() {
+        when(renderer.render(pizzaAxiom)).thenAnswer(invocation -> {
+            cache.invalidate(pizza);
+            return "stale";
+        });
+        assertThat(cache.getRendering(pizzaAxiom, renderer), is("stale"));
+        cache.getRendering(pizzaAxiom, renderer);
+        verify(renderer, times(2)).render(pizzaAxiom);
+    }
+
+    @Test
+    public void shouldDropAllRenderingsOnClear() {
+        cache.getRendering(pizzaAxiom, renderer);
+        cache.getRendering(cheeseAxiom, renderer);
+        cache.clear();
+        cache.getRendering(pizzaAxiom, renderer);
+        cache.getRendering(cheeseAxiom, renderer);
+        verify(renderer, times(2)).render(pizzaAxiom);
+        verify(renderer, times(2)).render(cheeseAxiom);
+    }
+}
@@ -0,0 +1,73 @@
+package org.protege.editor.owl.model.cache;
+
+import com.github.owlcs.ontapi.OntManagers;
+import org.junit.Before;
+import org.junit.Test;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class OWLObjectSortKeyCache_TestCase {
+
+    private static final String NS = "http://www.ontologies.com/ontology/";
+
+    private final OWLDataFactory df = OntManagers.getDataFactory();
+
+    private final Map<Object, String> renderings = new HashMap<>();
+
+    private OWLModelManager manager;
+
+    private OWLObjectSortKeyCache cache;
+
+    private OWLClass pizza;
+
+    @Before
+    public void setUp() {
+        manager = mock(OWLModelManager.class);
+        when(manager.getRendering(any(Object.class))).thenAnswer(invocation -> renderings.get(invocation.getArguments()[0]));
+        cache = new OWLObjectSortKeyCache(manager);
+        pizza = df.getOWLClass(IRI.create(NS + "Pizza"));
+        renderings.put(pizza, "'Pizza Margherita'");
+    }
+
+    @Test
+    public void shouldStripQuotesAndFoldCase() {
+        assertThat(cache.getSortKey(pizza), is("pizza margherita"));
+    }
+
+    @Test
+    public void shouldRenderOnce() {
+        cache.getSortKey(pizza);
+        cache.getSortKey(pizza);
+        verify(manager, times(1)).getRendering(pizza);
+    }
+
+    @Test
+    public void shouldRenderAgainAfterInvalidation() {
+        cache.getSortKey(pizza);
+        renderings.put(pizza, "Pizza");
+        cache.invalidate(pizza);
+        assertThat(cache.getSortKey(pizza), is("pizza"));
+    }
+
+    @Test
+    public void shouldOrderFoldedKeysAsCaseInsensitiveRenderings() {
+        String[] strings = {"abc", "ABD", "a_b", "A[b", "\u0130x", "ix", "\u00dfa", "SSa", "Ab", "ab"};
+        for (String s1 : strings) {
+            for (String s2 : strings) {
+                int expected = Integer.signum(s1.compareToIgnoreCase(s2));
+                int actual = Integer.signum(OWLObjectSortKeyCache.fold(s1).compareTo(OWLObjectSortKeyCache.fold(s2)));
+                assertThat(s1 + " vs " + s2, actual, is(expected));
+            }
+        }
+    }
+}
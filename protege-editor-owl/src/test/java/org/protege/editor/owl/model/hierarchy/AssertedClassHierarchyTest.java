@@ -156,4 +156,30 @@ public class AssertedClassHierarchyTest {
         assertTrue(listener.getCollectedNodes().contains(factory.getOWLThing()));
         
     }
+
+    @Test
+    public void testAncestorsAfterChange() throws OWLOntologyCreationException {
+        String namespace = "http://tigraworld.com/protege/twoParents.owl#";
+        installOntology("src/test/resources/ontologies/tree/twoParents.owl");
+        OWLOntology ontology = manager.getOntologies().iterator().next();
+
+        OWLClass a = factory.getOWLClass(IRI.create(namespace + "A"));
+        OWLClass x = factory.getOWLClass(IRI.create(namespace + "X"));
+        OWLClass y = factory.getOWLClass(IRI.create(namespace + "Y"));
+        manager.applyChange(new AddAxiom(ontology, factory.getOWLSubClassOfAxiom(y, a)));
+
+        assertTrue(!hierarchy.getAncestors(y).contains(x));
+        assertTrue(!hierarchy.getDescendants(x).contains(y));
+
+        OWLAxiom axiom = factory.getOWLSubClassOfAxiom(a, x);
+        manager.applyChange(new AddAxiom(ontology, axiom));
+        assertTrue(hierarchy.getAncestors(y).contains(x));
+        assertTrue(hierarchy.getDescendants(x).contains(y));
+        assertTrue(hierarchy.getParents(a).contains(x));
+
+        manager.applyChange(new RemoveAxiom(ontology, axiom));
+        assertTrue(!hierarchy.getAncestors(y).contains(x));
+        assertTrue(!hierarchy.getDescendants(x).contains(y));
+        assertTrue(!hierarchy.getParents(a).contains(x));
+    }
 }
@@ -8,6 +8,7 @@ import org.semanticweb.owlapi.model.*;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -202,4 +203,52 @@ public class HistoryTest {
         
     }
 
+    @Test
+    public void testEntryLimit() {
+        HistoryManager limited = createHistoryManager(2, 100);
+        OWLAxiom axiom3 = factory.getOWLSubClassOfAxiom(D, A);
+        OWLAxiom axiom4 = factory.getOWLSubClassOfAxiom(E, D);
+        OWLAxiom axiom5 = factory.getOWLSubClassOfAxiom(F, E);
+        manager.addAxiom(ontology1, axiom3);
+        manager.addAxiom(ontology1, axiom4);
+        manager.addAxiom(ontology1, axiom5);
+        limited.undo();
+        limited.undo();
+        assertFalse(limited.canUndo());
+        assertTrue(ontology1.containsAxiom(axiom3));
+        assertFalse(ontology1.containsAxiom(axiom4));
+        assertFalse(ontology1.containsAxiom(axiom5));
+
+        limited.redo();
+        limited.redo();
+        assertFalse(limited.canRedo());
+        assertTrue(ontology1.containsAxiom(axiom4));
+        assertTrue(ontology1.containsAxiom(axiom5));
+    }
+
+    @Test
+    public void testChangeLimitKeepsLastEntry() {
+        HistoryManager limited = createHistoryManager(100, 2);
+        OWLAxiom axiom3 = factory.getOWLSubClassOfAxiom(D, A);
+        manager.addAxiom(ontology1, axiom3);
+        List<OWLOntologyChange> changes = new ArrayList<>();
+        changes.add(new AddAxiom(ontology1, factory.getOWLSubClassOfAxiom(E, D)));
+        changes.add(new AddAxiom(ontology1, factory.getOWLSubClassOfAxiom(F, E)));
+        changes.add(new AddAxiom(ontology2, factory.getOWLSubClassOfAxiom(G, F)));
+        manager.applyChanges(changes);
+        assertTrue(limited.canUndo());
+        assertEquals(1, limited.getLoggedChanges().size());
+        assertEquals(changes, limited.getLoggedChanges().get(0));
+
+        limited.undo();
+        assertFalse(limited.canUndo());
+        assertTrue(ontology1.containsAxiom(axiom3));
+        assertFalse(ontology2.containsAxiom(factory.getOWLSubClassOfAxiom(G, F)));
+    }
+
+    private HistoryManager createHistoryManager(int maxEntries, int maxChanges) {
+        HistoryManager res = new HistoryManagerImpl(manager, maxEntries, maxChanges);
+        manager.addOntologyChangeListener(res::logChanges);
+        return res;
+    }
 }
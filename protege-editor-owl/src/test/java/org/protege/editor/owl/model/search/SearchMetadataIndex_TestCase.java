@@ -0,0 +1,148 @@
+package org.protege.editor.owl.model.search;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+public class SearchMetadataIndex_TestCase {
+
+    private SearchMetadata pizza, pizzaTopping, cheeseTopping, hot;
+
+    private SearchMetadataIndex index;
+
+    @Before
+    public void setUp() {
+        pizza = row("Pizza");
+        pizzaTopping = row("PizzaTopping");
+        cheeseTopping = row("CheeseTopping");
+        hot = row("Hot");
+        index = new SearchMetadataIndex(Arrays.asList(pizza, pizzaTopping, cheeseTopping, hot));
+    }
+
+    private static SearchMetadata row(String searchString) {
+        return row(mock(OWLObject.class), searchString);
+    }
+
+    private static SearchMetadata row(OWLObject subject, String searchString) {
+        return new SearchMetadata(SearchCategory.DISPLAY_NAME, "Display name", subject, searchString, searchString);
+    }
+
+    private static List<String> searchStrings(List<SearchMetadata> rows) {
+        return rows.stream().map(SearchMetadata::getSearchString).collect(Collectors.toList());
+    }
+
+    private static SearchRequest request(String... regex) {
+        ImmutableList.Builder<Pattern> builder = ImmutableList.builder();
+        for (String s : regex) {
+            builder.add(Pattern.compile(s, Pattern.DOTALL | Pattern.CASE_INSENSITIVE));
+        }
+        return new SearchRequest(builder.build());
+    }
+
+    @Test
+    public void shouldNarrowQuotedLiteral() {
+        List<SearchMetadata> res = index.getCandidates(request(Pattern.quote("topping")));
+        assertThat(searchStrings(res), contains("PizzaTopping", "CheeseTopping"));
+    }
+
+    @Test
+    public void shouldIntersectAllPatterns() {
+        List<SearchMetadata> res = index.getCandidates(request(Pattern.quote("PIZZA"), Pattern.quote("top")));
+        assertThat(searchStrings(res), contains("PizzaTopping"));
+    }
+
+    @Test
+    public void shouldReturnNothingForUnknownTrigram() {
+        assertThat(index.getCandidates(request(Pattern.quote("xyz"))), is(empty()));
+    }
+
+    @Test
+    public void shouldReturnAllRowsForShortLiteral() {
+        assertThat(index.getCandidates(request(Pattern.quote("ho"))), is(index.getRows()));
+    }
+
+    @Test
+    public void shouldReturnAllRowsForRegex() {
+        assertThat(index.getCandidates(request("Pi.*a|hot")), is(index.getRows()));
+    }
+
+    @Test
+    public void shouldExtractLiteralsFromWholeWordsPattern() {
+        Pattern p = Pattern.compile("\\b(:?" + Pattern.quote("cheese") + "\\s+" + Pattern.quote("top") + ")\\b");
+        assertThat(SearchMetadataIndex.getRequiredLiterals(p), contains("cheese", "top"));
+    }
+
+    @Test
+    public void shouldExtractLiteralWithQuotedEnd() {
+        Pattern p = Pattern.compile(Pattern.quote("a\\Eb"));
+        assertThat(SearchMetadataIndex.getRequiredLiterals(p), contains("a\\Eb"));
+    }
+
+    @Test
+    public void shouldNotExtractLiteralsFromAlternation() {
+        Pattern p = Pattern.compile("abc\\s+def|ghi");
+        assertThat(SearchMetadataIndex.getRequiredLiterals(p), is(Collections.<String>emptyList()));
+    }
+
+    @Test
+    public void shouldIntersectSortedArrays() {
+        int[] res = SearchMetadataIndex.intersect(new int[]{1, 3, 5, 7}, new int[]{0, 3, 4, 7, 9});
+        assertThat(Arrays.toString(res), is("[3, 7]"));
+    }
+
+    @Test
+    public void shouldRemoveAllRowsOfSubject() {
+        OWLObject subject = pizzaTopping.getSubject();
+        index.addAll(Collections.singletonList(row(subject, "ToppingAlias")));
+        assertThat(index.remove(subject), is(2));
+        assertThat(index.containsSubject(subject), is(false));
+        assertThat(index.size(), is(3));
+        assertThat(searchStrings(index.getCandidates(request(Pattern.quote("topping")))), contains("CheeseTopping"));
+    }
+
+    @Test
+    public void shouldFindAppendedRows() {
+        SearchMetadata spicy = row("SpicyTopping");
+        index.addAll(Collections.singletonList(spicy));
+        assertThat(searchStrings(index.getCandidates(request(Pattern.quote("topping")))),
+                   contains("PizzaTopping", "CheeseTopping", "SpicyTopping"));
+        assertThat(searchStrings(index.getRows()), contains("Pizza", "PizzaTopping", "CheeseTopping", "Hot", "SpicyTopping"));
+        assertThat(index.getRows().get(4).getSubject(), is(spicy.getSubject()));
+    }
+
+    @Test
+    public void shouldReadWrittenIndex() throws IOException {
+        index.remove(hot.getSubject());
+        Map<String, OWLObject> subjects = new HashMap<>();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.write(new DataOutputStream(bytes), subject -> {
+            String code = Integer.toString(subjects.size());
+            subjects.put(code, subject);
+            return code;
+        });
+        SearchMetadataIndex read = SearchMetadataIndex.read(ByteBuffer.wrap(bytes.toByteArray()), subjects::get);
+        assertThat(searchStrings(read.getRows()), contains("Pizza", "PizzaTopping", "CheeseTopping"));
+        assertThat(read.getRows().get(1).getSubject(), is(pizzaTopping.getSubject()));
+        assertThat(searchStrings(read.getCandidates(request(Pattern.quote("topping")))), contains("PizzaTopping", "CheeseTopping"));
+        assertThat(read.containsSubject(hot.getSubject()), is(false));
+    }
+}
@@ -0,0 +1,98 @@
+package org.protege.editor.owl.model.search;
+
+import org.github.owlcs.ontapi.OWLManager;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+
+public class SearchMetadataStore_TestCase {
+
+    private SearchMetadataStore store;
+
+    private OWLObject subject;
+
+    @Before
+    public void setUp() {
+        store = new SearchMetadataStore();
+        subject = mock(OWLObject.class);
+    }
+
+    @Test
+    public void shouldReadBackLatin1Row() {
+        int row = store.add(new SearchMetadata(SearchCategory.DISPLAY_NAME, "Display name", subject, "Pizza", "Pizza é"));
+        SearchMetadata md = store.get(row);
+        assertThat(md.getCategory(), is(SearchCategory.DISPLAY_NAME));
+        assertThat(md.getGroupDescription(), is("Display name"));
+        assertThat(md.getSubject(), is(subject));
+        assertThat(md.getSubjectRendering(), is("Pizza"));
+        assertThat(md.getSearchString(), is("Pizza é"));
+    }
+
+    @Test
+    public void shouldReadBackWideRow() {
+        store.add(new SearchMetadata(SearchCategory.ANNOTATION_VALUE, "rdfs:label", subject, "Pizza", "Pizza"));
+        int row = store.add(new SearchMetadata(SearchCategory.ANNOTATION_VALUE, "rdfs:label", subject, "Pizza", "Пицца €"));
+        assertThat(store.getSearchCharSequence(row).toString(), is("Пицца €"));
+        assertThat(store.getSearchCharSequence(row).charAt(6), is('€'));
+        assertThat(store.get(0).getSearchString(), is("Pizza"));
+    }
+
+    @Test
+    public void shouldShareSubjectRendering() {
+        store.add(new SearchMetadata(SearchCategory.DISPLAY_NAME, "Display name", subject, "Pizza", "Pizza"));
+        int row = store.add(new SearchMetadata(SearchCategory.ANNOTATION_VALUE, "rdfs:comment", subject, "Pizza", "A dish"));
+        assertThat(store.get(row).getSubjectRendering(), is("Pizza"));
+        assertThat(store.getSubject(row), is(subject));
+    }
+
+    @Test
+    public void shouldCompareViewsByRow() {
+        int row = store.add(new SearchMetadata(SearchCategory.DISPLAY_NAME, "Display name", subject, "Pizza", "Pizza"));
+        store.add(new SearchMetadata(SearchCategory.DISPLAY_NAME, "Display name", subject, "Pizza", "Pizza"));
+        assertThat(store.get(row), is(store.get(row)));
+        assertThat(store.get(row), is(not(store.get(row + 1))));
+    }
+
+    @Test
+    public void shouldKeepCustomRows() {
+        SearchMetadata custom = new SearchMetadata(SearchCategory.DISPLAY_NAME, "Display name", subject, "Pizza", "Pizza") {
+        };
+        int row = store.add(custom);
+        assertThat(store.get(row), is(sameInstance(custom)));
+    }
+
+    @Test
+    public void shouldResolveRenderedObjectsReadBack() throws IOException {
+        OWLDataFactory df = OWLManager.getOWLDataFactory();
+        OWLAnnotation comment = df.getRDFSComment(df.getOWLLiteral("A dish"));
+        store.add(new SearchMetadata(SearchCategory.DISPLAY_NAME, "Display name", subject, "Pizza", "Pizza"));
+        store.add(new SearchMetadata(SearchCategory.ANNOTATION_VALUE, "rdfs:comment", subject, "Pizza", "A dish",
+                comment, null));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        store.write(new DataOutputStream(bytes), s -> "subject");
+        SearchMetadataStore read = SearchMetadataStore.read(ByteBuffer.wrap(bytes.toByteArray()), code -> subject);
+        read.setRenderedObjectResolver((s, hash, string) ->
+                s == subject && hash == comment.hashCode() && string.equals("A dish") ? comment : null, null);
+        assertThat(read.get(0).getRenderedObject(), is(nullValue()));
+        assertThat(read.get(1).getRenderedObject(), is(comment));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldRejectUnknownRow() {
+        store.get(0);
+    }
+}
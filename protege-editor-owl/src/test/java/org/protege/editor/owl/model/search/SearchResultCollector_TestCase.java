@@ -0,0 +1,49 @@
+package org.protege.editor.owl.model.search;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.OWLObject;
+
+import java.util.Arrays;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+public class SearchResultCollector_TestCase {
+
+    private static final Pattern PATTERN = Pattern.compile("a");
+
+    private SearchResultCollector collector;
+
+    @Before
+    public void setUp() {
+        collector = new SearchResultCollector(new SearchResultComparator(null), 2);
+    }
+
+    private static SearchResult result(String group, String searchString, int matchStart) {
+        SearchMetadata md = new SearchMetadata(SearchCategory.ANNOTATION_VALUE, group, mock(OWLObject.class),
+                searchString, searchString);
+        return new SearchResult(md, ImmutableList.of(new SearchResultMatch(PATTERN, matchStart, matchStart + 1)));
+    }
+
+    @Test
+    public void shouldRetainBestResultsOfEachGroup() {
+        SearchResult a3 = result("label", "xxxa", 3);
+        SearchResult a0 = result("label", "a", 0);
+        SearchResult a1 = result("label", "xa", 1);
+        SearchResult c0 = result("comment", "a", 0);
+        collector.addAll(Arrays.asList(a3, a0));
+        collector.addAll(Arrays.asList(c0, a1));
+
+        SearchResultSet res = collector.toResultSet();
+        assertThat(res.getCategoryResults("label"), contains(a0, a1));
+        assertThat(res.getCategoryResults("comment"), contains(c0));
+        assertThat(res.getCategoryResultsCount("label"), is(3));
+        assertThat(res.getCategoryResultsCount("comment"), is(1));
+        assertThat(collector.size(), is(4));
+    }
+}
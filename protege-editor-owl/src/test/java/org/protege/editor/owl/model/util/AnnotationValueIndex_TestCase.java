@@ -0,0 +1,68 @@
+package org.protege.editor.owl.model.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.protege.editor.owl.util.OntologyFixture;
+import org.semanticweb.owlapi.model.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class AnnotationValueIndex_TestCase {
+
+    private OntologyFixture fixture;
+
+    private OWLOntology ontology;
+
+    private AnnotationValueIndex index;
+
+    private IRI value;
+
+    private OWLAnnotationAssertionAxiom axiom;
+
+    @Before
+    public void setUp() throws OWLOntologyCreationException {
+        fixture = new OntologyFixture();
+        ontology = fixture.getOntology();
+        index = new AnnotationValueIndex(fixture.getManager());
+        value = fixture.getIRI("Pizza");
+        OWLDataFactory dataFactory = fixture.getDataFactory();
+        axiom = dataFactory.getOWLAnnotationAssertionAxiom(dataFactory.getRDFSSeeAlso(), fixture.getIRI("Dish"), value);
+    }
+
+    @After
+    public void tearDown() {
+        index.dispose();
+    }
+
+    @Test
+    public void shouldFindExistingAxiom() {
+        fixture.add(axiom);
+        assertThat(index.getAnnotationAssertionAxioms(ontology, value), contains(axiom));
+    }
+
+    @Test
+    public void shouldFindAddedAxiom() {
+        assertThat(index.getAnnotationAssertionAxioms(ontology, value), is(empty()));
+        fixture.add(axiom);
+        assertThat(index.getAnnotationAssertionAxioms(ontology, value), contains(axiom));
+    }
+
+    @Test
+    public void shouldNotFindRemovedAxiom() {
+        fixture.add(axiom);
+        assertThat(index.getAnnotationAssertionAxioms(ontology, value), contains(axiom));
+        fixture.remove(axiom);
+        assertThat(index.getAnnotationAssertionAxioms(ontology, value), is(empty()));
+    }
+
+    @Test
+    public void shouldNotFindAxiomByLiteralValue() {
+        fixture.add(fixture.getAnnotationAssertionAxiom(fixture.getDataFactory().getRDFSLabel(),
+                value, value.toString(), ""));
+        assertThat(index.getAnnotationAssertionAxioms(ontology, value), is(empty()));
+    }
+}
@@ -0,0 +1,36 @@
+package org.protege.editor.owl.model.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class ParallelPartitions_TestCase {
+
+    @Test
+    public void shouldKeepOrderOfPartitions() {
+        List<Integer> items = IntStream.range(0, 100_000).boxed().collect(Collectors.toList());
+        List<Integer> res = new ArrayList<>();
+        ParallelPartitions.map(items, 100, ArrayList::new).forEach(res::addAll);
+        assertThat(res, is(items));
+    }
+
+    @Test
+    public void shouldProcessSmallListAsSinglePartition() {
+        List<Integer> items = IntStream.range(0, 10).boxed().collect(Collectors.toList());
+        List<Integer> sizes = ParallelPartitions.map(items, 100, List::size);
+        assertThat(sizes, is(Collections.singletonList(10)));
+    }
+
+    @Test
+    public void shouldProcessEmptyList() {
+        List<Integer> sizes = ParallelPartitions.map(Collections.<Integer>emptyList(), 100, List::size);
+        assertThat(sizes, is(Collections.singletonList(0)));
+    }
+}
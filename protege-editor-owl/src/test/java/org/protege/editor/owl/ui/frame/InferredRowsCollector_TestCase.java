@@ -0,0 +1,147 @@
+package org.protege.editor.owl.ui.frame;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CancellationException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class InferredRowsCollector_TestCase {
+
+    private Queue<Runnable> background;
+
+    private Queue<Runnable> eventDispatch;
+
+    private InferredRowsCollector<String> collector;
+
+    private List<List<String>> merged;
+
+    private List<Exception> errors;
+
+    @Before
+    public void setUp() {
+        background = new ArrayDeque<>();
+        eventDispatch = new ArrayDeque<>();
+        collector = new InferredRowsCollector<>(background::add, eventDispatch::add);
+        merged = new ArrayList<>();
+        errors = new ArrayList<>();
+    }
+
+    private void start(Runnable inference) {
+        collector.start(inference, merged::add, errors::add);
+    }
+
+    private static void runAll(Queue<Runnable> tasks) {
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+    }
+
+    @Test
+    public void shouldMergeRowsWhenInferenceCompletes() {
+        start(() -> {
+            assertThat(collector.collect("A"), is(true));
+            assertThat(collector.collect("B"), is(true));
+        });
+        runAll(background);
+        assertThat(merged, is(empty()));
+        runAll(eventDispatch);
+        assertThat(merged, contains(Arrays.asList("A", "B")));
+        assertThat(errors, is(empty()));
+    }
+
+    @Test
+    public void shouldNotCollectOutsideInference() {
+        assertThat(collector.collect("A"), is(false));
+        collector.checkCancelled();
+    }
+
+    @Test
+    public void shouldSkipCancelledInference() {
+        List<String> runs = new ArrayList<>();
+        start(() -> {
+            runs.add("run");
+            collector.collect("A");
+        });
+        collector.cancel();
+        runAll(background);
+        runAll(eventDispatch);
+        assertThat(runs, is(empty()));
+        assertThat(merged, is(empty()));
+    }
+
+    @Test
+    public void shouldStopInferenceCancelledWhileRunning() {
+        List<String> rows = new ArrayList<>();
+        start(() -> {
+            collector.collect("A");
+            rows.add("A");
+            collector.cancel();
+            try {
+                collector.collect("B");
+                rows.add("B");
+            } catch (CancellationException e) {
+                rows.add("cancelled");
+                throw e;
+            }
+        });
+        runAll(background);
+        runAll(eventDispatch);
+        assertThat(rows, contains("A", "cancelled"));
+        assertThat(merged, is(empty()));
+        assertThat(errors, is(empty()));
+    }
+
+    @Test
+    public void shouldDiscardRowsOfPreviousInference() {
+        start(() -> collector.collect("A"));
+        runAll(background);
+        start(() -> collector.collect("B"));
+        runAll(background);
+        runAll(eventDispatch);
+        assertThat(merged, contains(Arrays.asList("B")));
+    }
+
+    @Test
+    public void shouldNotMergeRowsAfterCancel() {
+        start(() -> collector.collect("A"));
+        runAll(background);
+        collector.cancel();
+        runAll(eventDispatch);
+        assertThat(merged, is(empty()));
+    }
+
+    @Test
+    public void shouldReportErrorAndMergeCollectedRows() {
+        IllegalStateException error = new IllegalStateException();
+        start(() -> {
+            collector.collect("A");
+            throw error;
+        });
+        runAll(background);
+        runAll(eventDispatch);
+        assertThat(errors, contains((Exception) error));
+        assertThat(merged, contains(Arrays.asList("A")));
+    }
+
+    @Test
+    public void shouldNotReportErrorOfCancelledInference() {
+        start(() -> {
+            collector.cancel();
+            throw new IllegalStateException();
+        });
+        runAll(background);
+        runAll(eventDispatch);
+        assertThat(errors, is(empty()));
+        assertThat(merged, is(empty()));
+    }
+}
@@ -0,0 +1,76 @@
+package org.protege.editor.owl.ui.frame;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.protege.editor.owl.util.OntologyFixture;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+public class OWLFrameSectionChangeDispatcher_TestCase {
+
+    private OWLDataFactory dataFactory;
+
+    private OWLOntology ontology;
+
+    private OWLClass pizza;
+
+    private OWLClass food;
+
+    private OWLClass pasta;
+
+    @Before
+    public void setUp() throws OWLOntologyCreationException {
+        OntologyFixture fixture = new OntologyFixture();
+        dataFactory = fixture.getDataFactory();
+        ontology = fixture.getOntology();
+        pizza = fixture.getOWLClass("Pizza");
+        food = fixture.getOWLClass("Food");
+        pasta = fixture.getOWLClass("Pasta");
+    }
+
+    @Test
+    public void shouldIndexChangesByMentionedObjects() {
+        OWLOntologyChange subClassOf = new AddAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(pizza, food));
+        OWLOntologyChange disjoint = new AddAxiom(ontology, dataFactory.getOWLDisjointClassesAxiom(pasta, food));
+        OWLOntologyChange label = new RemoveAxiom(ontology, dataFactory.getOWLAnnotationAssertionAxiom(
+                dataFactory.getRDFSLabel(), pasta.getIRI(), dataFactory.getOWLLiteral("Pasta")));
+        OWLFrameSectionChangeDispatcher.Changes changes =
+                new OWLFrameSectionChangeDispatcher.Changes(Arrays.asList(subClassOf, disjoint, label));
+        assertThat(changes.getChanges(pizza), contains(subClassOf));
+        assertThat(changes.getChanges(food), contains(subClassOf, disjoint));
+        assertThat(changes.getChanges(pasta), contains(disjoint));
+        assertThat(changes.getChanges(pasta.getIRI()), contains(label));
+        assertThat(changes.getChanges(dataFactory.getOWLThing()), is(empty()));
+    }
+
+    @Test
+    public void shouldIndexChangesByAxiomTypes() {
+        OWLOntologyChange subClassOf = new AddAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(pizza, food));
+        OWLOntologyChange declaration = new AddAxiom(ontology, dataFactory.getOWLDeclarationAxiom(pasta));
+        OWLOntologyChange equivalent = new AddAxiom(ontology, dataFactory.getOWLEquivalentClassesAxiom(pasta, food));
+        OWLFrameSectionChangeDispatcher.Changes changes =
+                new OWLFrameSectionChangeDispatcher.Changes(Arrays.asList(subClassOf, declaration, equivalent));
+        assertThat(changes.getChanges(AxiomType.DECLARATION), contains(declaration));
+        assertThat(changes.getChanges(AxiomType.SUBCLASS_OF, AxiomType.EQUIVALENT_CLASSES), contains(subClassOf, equivalent));
+        assertThat(changes.getChanges(AxiomType.DISJOINT_CLASSES), is(empty()));
+    }
+
+    @Test
+    public void shouldPassNonAxiomChangesToAllObjects() {
+        OWLOntologyChange subClassOf = new AddAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(pizza, food));
+        OWLOntologyChange addImport = new AddImport(ontology,
+                dataFactory.getOWLImportsDeclaration(IRI.create("http://example.org/other")));
+        List<OWLOntologyChange> list = Arrays.asList(subClassOf, addImport);
+        OWLFrameSectionChangeDispatcher.Changes changes = new OWLFrameSectionChangeDispatcher.Changes(list);
+        assertThat(changes.getChanges(pizza), contains(subClassOf, addImport));
+        assertThat(changes.getChanges(pasta), contains(addImport));
+        assertThat(changes.getChanges().size(), is(list.size()));
+    }
+}
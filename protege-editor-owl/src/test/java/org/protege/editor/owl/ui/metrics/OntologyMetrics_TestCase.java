@@ -0,0 +1,111 @@
+package org.protege.editor.owl.ui.metrics;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.protege.editor.owl.util.OntologyFixture;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class OntologyMetrics_TestCase {
+
+    private OntologyFixture fixture;
+
+    private OWLOntologyManager manager;
+
+    private OWLDataFactory dataFactory;
+
+    private OWLOntology ontology;
+
+    private OWLClass pizza;
+
+    private OWLClass food;
+
+    private OWLAnnotationAssertionAxiom label;
+
+    @Before
+    public void setUp() throws OWLOntologyCreationException {
+        fixture = new OntologyFixture();
+        manager = fixture.getManager();
+        dataFactory = fixture.getDataFactory();
+        ontology = fixture.getOntology();
+        pizza = fixture.getOWLClass("Pizza");
+        food = fixture.getOWLClass("Food");
+        label = fixture.getAnnotationAssertionAxiom(dataFactory.getRDFSLabel(), pizza.getIRI(), "Pizza", "");
+        fixture.add(dataFactory.getOWLDeclarationAxiom(pizza),
+                dataFactory.getOWLDeclarationAxiom(food),
+                dataFactory.getOWLSubClassOfAxiom(pizza, food),
+                label);
+    }
+
+    @Test
+    public void shouldCountAxiomsAndEntities() {
+        OntologyMetrics metrics = OntologyMetrics.compute(ontology);
+        assertThat(metrics.getAxiomCount(), is(4));
+        assertThat(metrics.getLogicalAxiomCount(), is(1));
+        assertThat(metrics.getAxiomCount(AxiomType.SUBCLASS_OF), is(1));
+        assertThat(metrics.getAxiomCount(AxiomType.DECLARATION), is(2));
+        assertThat(metrics.getAxiomCount(AxiomType.DISJOINT_CLASSES), is(0));
+        assertThat(metrics.getEntityCount(EntityType.CLASS), is(2));
+    }
+
+    @Test
+    public void shouldUpdateAxiomCounts() {
+        OntologyMetrics metrics = OntologyMetrics.compute(ontology);
+        OWLClass pasta = fixture.getOWLClass("Pasta");
+        List<OWLOntologyChange> changes = Arrays.asList(
+                new AddAxiom(ontology, dataFactory.getOWLDeclarationAxiom(pasta)),
+                new AddAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(pasta, food)),
+                new RemoveAxiom(ontology, label));
+        manager.applyChanges(changes);
+        assertThat(metrics.update(changes), is(true));
+        assertThat(metrics.getAxiomCount(), is(5));
+        assertThat(metrics.getLogicalAxiomCount(), is(2));
+        assertThat(metrics.getAxiomCount(AxiomType.SUBCLASS_OF), is(2));
+        assertThat(metrics.getAxiomCount(AxiomType.DECLARATION), is(3));
+        assertThat(metrics.getAxiomCount(AxiomType.ANNOTATION_ASSERTION), is(0));
+        assertThat(metrics.getEntityCount(EntityType.CLASS), is(3));
+        assertThat(metrics.getEntityCount(EntityType.ANNOTATION_PROPERTY), is(0));
+    }
+
+    @Test
+    public void shouldUpdateEntityCountsOnlyForEntitiesLeavingSignature() {
+        OntologyMetrics metrics = OntologyMetrics.compute(ontology);
+        assertThat(metrics.getEntityCount(EntityType.CLASS), is(2));
+        List<OWLOntologyChange> changes = Arrays.asList(
+                new RemoveAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(pizza, food)),
+                new RemoveAxiom(ontology, dataFactory.getOWLDeclarationAxiom(food)));
+        manager.applyChanges(changes);
+        assertThat(metrics.update(changes), is(true));
+        // Pizza is still declared
+        assertThat(metrics.getEntityCount(EntityType.CLASS), is(1));
+        assertThat(metrics.getEntityCount(EntityType.CLASS), is(OntologyMetrics.compute(ontology).getEntityCount(EntityType.CLASS)));
+    }
+
+    @Test
+    public void shouldCountAxiomOfImportsClosureOnce() throws OWLOntologyCreationException {
+        OWLOntology importing = manager.createOntology(IRI.create("http://example.org/importing"));
+        manager.applyChange(new AddImport(importing,
+                dataFactory.getOWLImportsDeclaration(IRI.create(OntologyFixture.ONTOLOGY_IRI))));
+        OntologyMetrics metrics = OntologyMetrics.compute(importing);
+        assertThat(metrics.getAxiomCount(AxiomType.SUBCLASS_OF), is(1));
+        List<OWLOntologyChange> changes = Collections.singletonList(
+                new AddAxiom(importing, dataFactory.getOWLSubClassOfAxiom(pizza, food)));
+        manager.applyChanges(changes);
+        assertThat(metrics.update(changes), is(true));
+        assertThat(metrics.getAxiomCount(AxiomType.SUBCLASS_OF), is(1));
+    }
+
+    @Test
+    public void shouldRequireComputationOnImportChange() {
+        OntologyMetrics metrics = OntologyMetrics.compute(ontology);
+        List<OWLOntologyChange> changes = Collections.singletonList(new AddImport(ontology,
+                dataFactory.getOWLImportsDeclaration(IRI.create("http://example.org/other"))));
+        assertThat(metrics.update(changes), is(false));
+    }
+}
@@ -0,0 +1,86 @@
+package org.protege.editor.owl.ui.renderer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.protege.editor.owl.util.OntologyFixture;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class AnnotationLabelIndex_TestCase {
+
+    private OntologyFixture fixture;
+
+    private OWLDataFactory dataFactory;
+
+    private OWLOntology ontology;
+
+    private AnnotationLabelIndex index;
+
+    private OWLAnnotationProperty prefLabel;
+
+    private IRI pizza;
+
+    @Before
+    public void setUp() throws OWLOntologyCreationException {
+        fixture = new OntologyFixture();
+        dataFactory = fixture.getDataFactory();
+        ontology = fixture.getOntology();
+        prefLabel = dataFactory.getOWLAnnotationProperty(IRI.create("http://www.w3.org/2004/02/skos/core#prefLabel"));
+        Map<OWLAnnotationProperty, List<String>> languages = new HashMap<>();
+        languages.put(dataFactory.getRDFSLabel(), Arrays.asList("en", ""));
+        languages.put(prefLabel, Arrays.asList("en", ""));
+        index = new AnnotationLabelIndex(fixture.getManager(),
+                Arrays.asList(dataFactory.getRDFSLabel(), prefLabel), languages);
+        pizza = fixture.getIRI("Pizza");
+    }
+
+    private OWLAnnotationAssertionAxiom label(OWLAnnotationProperty property, String value, String lang) {
+        return fixture.getAnnotationAssertionAxiom(property, pizza, value, lang);
+    }
+
+    private Set<IRI> change(OWLOntologyChange change) {
+        fixture.getManager().applyChange(change);
+        return index.update(Collections.singletonList(change), Collections.singleton(ontology));
+    }
+
+    @Test
+    public void shouldPreferLanguage() {
+        fixture.add(label(dataFactory.getRDFSLabel(), "Pizza", ""));
+        fixture.add(label(dataFactory.getRDFSLabel(), "Pizza (en)", "en"));
+        fixture.add(label(dataFactory.getRDFSLabel(), "Pizza (it)", "it"));
+        assertThat(index.getLabel(pizza, Collections.singleton(ontology)), is(dataFactory.getOWLLiteral("Pizza (en)", "en")));
+    }
+
+    @Test
+    public void shouldPreferProperty() {
+        OWLAnnotationAssertionAxiom plain = label(dataFactory.getRDFSLabel(), "Pizza", "");
+        fixture.add(label(prefLabel, "Pizza (pref)", "en"));
+        fixture.add(plain);
+        assertThat(index.getLabel(pizza, Collections.singleton(ontology)), is(plain.getValue()));
+    }
+
+    @Test
+    public void shouldNotFindLabelInOtherLanguage() {
+        fixture.add(label(dataFactory.getRDFSLabel(), "Pizza (it)", "it"));
+        assertThat(index.getLabel(pizza, Collections.singleton(ontology)), is(nullValue()));
+    }
+
+    @Test
+    public void shouldReportChangedLabelsOnly() {
+        assertThat(index.getLabel(pizza, Collections.singleton(ontology)), is(nullValue()));
+        OWLAnnotationAssertionAxiom en = label(dataFactory.getRDFSLabel(), "Pizza (en)", "en");
+        assertThat(change(new AddAxiom(ontology, en)), contains(pizza));
+        assertThat(index.getLabel(pizza, Collections.singleton(ontology)), is(en.getValue()));
+        OWLAnnotationAssertionAxiom plain = label(dataFactory.getRDFSLabel(), "Pizza", "");
+        assertThat(change(new AddAxiom(ontology, plain)), is(empty()));
+        assertThat(change(new RemoveAxiom(ontology, en)), contains(pizza));
+        assertThat(index.getLabel(pizza, Collections.singleton(ontology)), is(plain.getValue()));
+    }
+}
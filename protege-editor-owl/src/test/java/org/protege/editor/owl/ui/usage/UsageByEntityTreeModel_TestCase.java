@@ -0,0 +1,94 @@
+package org.protege.editor.owl.ui.usage;
+
+import com.github.owlcs.ontapi.OntManagers;
+import org.junit.Before;
+import org.junit.Test;
+import org.protege.editor.owl.OWLEditorKit;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.semanticweb.owlapi.model.*;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.CancellationException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+public class UsageByEntityTreeModel_TestCase {
+
+    private static final String NS = "http://www.ontologies.com/ontology/";
+
+    private final OWLDataFactory df = OntManagers.getDataFactory();
+
+    private OWLModelManager manager;
+
+    private Comparator<OWLObject> comparator;
+
+    private UsageByEntityTreeModel model;
+
+    private OWLClass food;
+
+    private OWLClass pasta;
+
+    private OWLClass pizza;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws OWLOntologyCreationException {
+        OWLOntology ontology = OntManagers.createManager().createOntology();
+        food = df.getOWLClass(IRI.create(NS + "Food"));
+        pasta = df.getOWLClass(IRI.create(NS + "Pasta"));
+        pizza = df.getOWLClass(IRI.create(NS + "Pizza"));
+        ontology.add(df.getOWLSubClassOfAxiom(pasta, food), df.getOWLSubClassOfAxiom(pizza, food));
+
+        // sorts in the reverse order of the IRIs, so that the order of the nodes cannot be accidental
+        comparator = mock(Comparator.class);
+        when(comparator.compare(any(), any())).thenAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            return ((OWLObject) args[1]).compareTo((OWLObject) args[0]);
+        });
+        manager = mock(OWLModelManager.class);
+        when(manager.getActiveOntologies()).thenReturn(Collections.singleton(ontology));
+        when(manager.getOWLObjectComparator()).thenReturn(comparator);
+        when(manager.getRendering(any(Object.class))).thenReturn("Food");
+        OWLEditorKit editorKit = mock(OWLEditorKit.class);
+        when(editorKit.getModelManager()).thenReturn(manager);
+        model = new UsageByEntityTreeModel(editorKit);
+        // the declaration of the entity itself is not a usage
+        model.addFilter(UsageFilter.filterSelf);
+    }
+
+    @Test
+    public void shouldNotRenderWhileComputingUsage() {
+        model.computeUsage(food);
+        verify(manager, never()).getRendering(any(Object.class));
+        verifyZeroInteractions(comparator);
+    }
+
+    @Test
+    public void shouldAddSortedUsageNodesInBatches() {
+        model.computeUsage(food);
+        model.createRoot();
+        DefaultMutableTreeNode root = (DefaultMutableTreeNode) model.getRoot();
+        assertThat(root.getUserObject(), is("Found 2 uses of Food"));
+        assertThat(model.addUsageNodes(1), is(true));
+        assertThat(root.getChildCount(), is(1));
+        assertThat(model.addUsageNodes(1), is(false));
+        assertThat(root.getChildCount(), is(2));
+        assertThat(((DefaultMutableTreeNode) root.getChildAt(0)).getUserObject(), is(pizza));
+        assertThat(((DefaultMutableTreeNode) root.getChildAt(1)).getUserObject(), is(pasta));
+    }
+
+    @Test(expected = CancellationException.class)
+    public void shouldStopWhenInterrupted() {
+        Thread.currentThread().interrupt();
+        try {
+            model.computeUsage(food);
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.protege.editor.owl.ui.view.rdf;
+
+import com.github.owlcs.ontapi.jena.vocabulary.OWL;
+import com.github.owlcs.ontapi.jena.vocabulary.RDF;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.protege.editor.owl.model.hierarchy.HierarchyProviderListener;
+import org.protege.editor.owl.util.OntologyFixture;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+public class RDFHierarchyProvider_TestCase {
+
+    private final Node pizza = NodeFactory.createURI(OntologyFixture.NS + "Pizza");
+
+    private final Node food = NodeFactory.createURI(OntologyFixture.NS + "Food");
+
+    private final List<Triple> changed = new ArrayList<>();
+
+    private RDFHierarchyProvider provider;
+
+    private Graph graph;
+
+    @Before
+    public void setUp() throws OWLOntologyCreationException {
+        provider = new RDFHierarchyProvider();
+        provider.setOntology(new OntologyFixture().getOntology());
+        graph = provider.getGraph();
+        graph.add(Triple.create(pizza, RDF.type.asNode(), OWL.Class.asNode()));
+        provider.getRoots();
+        provider.addListener(new HierarchyProviderListener<Triple>() {
+            @Override
+            public void nodeChanged(Triple node) {
+                changed.add(node);
+            }
+
+            @Override
+            public void hierarchyChanged() {
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        provider.dispose();
+    }
+
+    @Test
+    public void shouldUpdateRootOfSubjectOfAddedTriple() {
+        Triple root = Triple.create(pizza, RDF.type.asNode(), OWL.Class.asNode());
+        graph.add(Triple.create(pizza, RDFS.subClassOf.asNode(), food));
+        assertThat(changed, contains(root));
+        assertThat(provider.hasRoot(root), is(true));
+    }
+
+    @Test
+    public void shouldReplaceRootOfReferencedBlankNode() {
+        Node blank = NodeFactory.createBlankNode();
+        Triple blankRoot = Triple.create(blank, RDF.type.asNode(), OWL.Restriction.asNode());
+        graph.add(blankRoot);
+        assertThat(provider.hasRoot(blankRoot), is(true));
+        changed.clear();
+        Triple reference = Triple.create(pizza, RDFS.subClassOf.asNode(), blank);
+        graph.add(reference);
+        assertThat(provider.hasRoot(blankRoot), is(false));
+        assertThat(changed, containsInAnyOrder(Triple.create(pizza, RDF.type.asNode(), OWL.Class.asNode()), blankRoot));
+        changed.clear();
+        graph.delete(reference);
+        assertThat(provider.hasRoot(blankRoot), is(true));
+        assertThat(changed, containsInAnyOrder(Triple.create(pizza, RDF.type.asNode(), OWL.Class.asNode()), blankRoot));
+    }
+
+    @Test
+    public void shouldKeepRootsUpToDate() {
+        Node blank = NodeFactory.createBlankNode();
+        Triple reference = Triple.create(pizza, RDFS.subClassOf.asNode(), blank);
+        graph.add(Triple.create(blank, RDF.type.asNode(), OWL.Restriction.asNode()));
+        graph.add(Triple.create(food, RDFS.label.asNode(), NodeFactory.createLiteral("food")));
+        graph.add(reference);
+        assertThat(provider.getRoots(), is(RDFHierarchyProvider.collectRoots(graph)));
+        graph.delete(reference);
+        graph.delete(Triple.create(pizza, RDF.type.asNode(), OWL.Class.asNode()));
+        assertThat(provider.getRoots(), is(RDFHierarchyProvider.collectRoots(graph)));
+    }
+
+    @Test
+    public void shouldListAndCountRootsLazily() {
+        Node blank = NodeFactory.createBlankNode();
+        graph.add(Triple.create(blank, RDF.type.asNode(), OWL.Restriction.asNode()));
+        graph.add(Triple.create(pizza, RDFS.subClassOf.asNode(), blank));
+        graph.add(Triple.create(food, RDFS.label.asNode(), NodeFactory.createLiteral("food")));
+        List<Triple> roots = new ArrayList<>();
+        RDFHierarchyProvider.listRoots(graph).forEachRemaining(roots::add);
+        assertThat(roots, containsInAnyOrder(provider.getRoots().toArray()));
+        assertThat(provider.countRoots(), is(roots.size()));
+    }
+
+    @Test
+    public void shouldNotifyChangedRootsBeforeRootsAreIndexed() {
+        RDFHierarchyProvider notIndexed = new RDFHierarchyProvider();
+        notIndexed.setOntology(provider.getOntology());
+        List<Triple> notified = new ArrayList<>();
+        notIndexed.addListener(new HierarchyProviderListener<Triple>() {
+            @Override
+            public void nodeChanged(Triple node) {
+                notified.add(node);
+            }
+
+            @Override
+            public void hierarchyChanged() {
+            }
+        });
+        Node blank = NodeFactory.createBlankNode();
+        Triple blankRoot = Triple.create(blank, RDF.type.asNode(), OWL.Restriction.asNode());
+        graph.add(blankRoot);
+        assertThat(notified, contains(blankRoot));
+        notified.clear();
+        graph.add(Triple.create(pizza, RDFS.subClassOf.asNode(), blank));
+        assertThat(notified, containsInAnyOrder(Triple.create(pizza, RDF.type.asNode(), OWL.Class.asNode()), blankRoot));
+        notIndexed.dispose();
+    }
+
+    @Test
+    public void shouldComputeStatisticsAgainAfterChange() {
+        assertThat(provider.getStatistics().getTripleCount(), is((long) graph.size()));
+        graph.add(Triple.create(food, RDFS.label.asNode(), NodeFactory.createLiteral("food")));
+        assertThat(provider.getStatistics().getTripleCount(), is((long) graph.size()));
+    }
+
+    @Test
+    public void shouldNotifyParentsOfTriplesOfBlankNode() {
+        Node blank = NodeFactory.createBlankNode();
+        Triple reference = Triple.create(pizza, RDFS.subClassOf.asNode(), blank);
+        graph.add(reference);
+        changed.clear();
+        graph.add(Triple.create(blank, OWL.onProperty.asNode(), NodeFactory.createURI(OntologyFixture.NS + "hasTopping")));
+        assertThat(changed, contains(reference));
+    }
+}
@@ -0,0 +1,75 @@
+package org.protege.editor.owl.ui.view.rdf;
+
+import com.github.owlcs.ontapi.jena.vocabulary.OWL;
+import com.github.owlcs.ontapi.jena.vocabulary.RDF;
+import org.apache.jena.graph.Factory;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+
+public class RDFStatistics_TestCase {
+
+    private static final String NS = "http://example.org/ont#";
+
+    private final Node pizza = NodeFactory.createURI(NS + "Pizza");
+
+    private final Node food = NodeFactory.createURI(NS + "Food");
+
+    private final Node restriction = NodeFactory.createBlankNode();
+
+    private final Node list = NodeFactory.createBlankNode();
+
+    private Graph graph;
+
+    @Before
+    public void setUp() {
+        graph = Factory.createGraphMem();
+        graph.add(Triple.create(pizza, RDF.type.asNode(), OWL.Class.asNode()));
+        graph.add(Triple.create(food, RDF.type.asNode(), OWL.Class.asNode()));
+        graph.add(Triple.create(pizza, RDFS.label.asNode(), NodeFactory.createLiteral("pizza")));
+        graph.add(Triple.create(pizza, RDFS.subClassOf.asNode(), food));
+        graph.add(Triple.create(pizza, RDFS.subClassOf.asNode(), restriction));
+        graph.add(Triple.create(restriction, RDF.type.asNode(), OWL.Restriction.asNode()));
+        graph.add(Triple.create(restriction, OWL.onProperty.asNode(), NodeFactory.createURI(NS + "hasTopping")));
+        graph.add(Triple.create(restriction, OWL.someValuesFrom.asNode(), list));
+        graph.add(Triple.create(list, RDF.first.asNode(), food));
+        graph.add(Triple.create(list, RDF.rest.asNode(), RDF.nil.asNode()));
+    }
+
+    @Test
+    public void shouldCountPredicatesAndTypes() {
+        RDFStatistics statistics = RDFStatistics.compute(graph);
+        assertThat(statistics.getTripleCount(), is(10L));
+        assertThat(statistics.getPredicateCounts(), hasEntry(RDF.type.asNode(), 3L));
+        assertThat(statistics.getPredicateCounts(), hasEntry(RDFS.subClassOf.asNode(), 2L));
+        assertThat(statistics.getPredicateCounts().keySet().iterator().next(), is(RDF.type.asNode()));
+        assertThat(statistics.getTypeCounts(), hasEntry(OWL.Class.asNode(), 2L));
+        assertThat(statistics.getTypeCounts(), hasEntry(OWL.Restriction.asNode(), 1L));
+    }
+
+    @Test
+    public void shouldMeasureBlankNodeTrees() {
+        RDFStatistics statistics = RDFStatistics.compute(graph);
+        assertThat(statistics.getBlankTreeSizes(), hasEntry(5, 1L));
+        assertThat(statistics.getBlankTreeSizes().size(), is(1));
+        assertThat(statistics.getLargestBlankTrees().size(), is(1));
+        assertThat(statistics.getLargestBlankTrees().get(0).getKey(), is(restriction));
+        assertThat(statistics.getLargestBlankTrees().get(0).getValue(), is(5));
+    }
+
+    @Test
+    public void shouldFindLargestSubjects() {
+        RDFStatistics statistics = RDFStatistics.compute(graph);
+        assertThat(statistics.getLargestSubjects().get(0).getKey(), is(pizza));
+        assertThat(statistics.getLargestSubjects().get(0).getValue(), is(4));
+        assertThat(statistics.getLargestSubjects().size(), is(4));
+    }
+}
@@ -0,0 +1,78 @@
+package org.protege.editor.owl.util;
+
+import org.github.owlcs.ontapi.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+/**
+ * An empty ontology of a fresh manager, which the test cases fill with the axioms they need,
+ * and the entities of its namespace.
+ */
+public class OntologyFixture {
+
+    public static final String ONTOLOGY_IRI = "http://example.org/ont";
+
+    public static final String NS = ONTOLOGY_IRI + "#";
+
+    private final OWLOntologyManager manager;
+
+    private final OWLDataFactory dataFactory;
+
+    private final OWLOntology ontology;
+
+    public OntologyFixture() throws OWLOntologyCreationException {
+        manager = OWLManager.createOWLOntologyManager();
+        dataFactory = manager.getOWLDataFactory();
+        ontology = manager.createOntology(IRI.create(ONTOLOGY_IRI));
+    }
+
+    public OWLOntologyManager getManager() {
+        return manager;
+    }
+
+    public OWLDataFactory getDataFactory() {
+        return dataFactory;
+    }
+
+    public OWLOntology getOntology() {
+        return ontology;
+    }
+
+    /**
+     * @param name the local name
+     * @return the {@link IRI} of the name in the namespace of the ontology
+     */
+    public IRI getIRI(String name) {
+        return IRI.create(NS + name);
+    }
+
+    public OWLClass getOWLClass(String name) {
+        return dataFactory.getOWLClass(getIRI(name));
+    }
+
+    /**
+     * Creates an annotation assertion with a literal value.
+     * @param property the annotation property
+     * @param subject  the subject of the annotation
+     * @param value    the lexical form of the literal
+     * @param lang     the language tag of the literal, can be empty
+     * @return {@link OWLAnnotationAssertionAxiom}
+     */
+    public OWLAnnotationAssertionAxiom getAnnotationAssertionAxiom(OWLAnnotationProperty property,
+                                                                   IRI subject,
+                                                                   String value,
+                                                                   String lang) {
+        return dataFactory.getOWLAnnotationAssertionAxiom(property, subject, dataFactory.getOWLLiteral(value, lang));
+    }
+
+    public void add(OWLAxiom... axioms) {
+        for (OWLAxiom axiom : axioms) {
+            manager.addAxiom(ontology, axiom);
+        }
+    }
+
+    public void remove(OWLAxiom... axioms) {
+        for (OWLAxiom axiom : axioms) {
+            manager.removeAxiom(ontology, axiom);
+        }
+    }
+}